@@ -0,0 +1,112 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.jsweet.JSweetConfig;
+import org.jsweet.transpiler.JSweetContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
+import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
+import com.sun.tools.javac.tree.TreeScanner;
+
+/**
+ * {@link JSweetContext#hasAnnotationType(Symbol, String...)} on all the
+ * declared classes, methods and variables of the synthetic corpora, with the
+ * global filters of the benchmark's <code>jsweetconfig.json</code>.
+ *
+ * @author Renaud Pawlak
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AnnotationFilterBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class DeclaredSymbols {
+
+		public JSweetContext context;
+		public java.util.List<Symbol> symbols = new ArrayList<>();
+
+		@Setup(Level.Trial)
+		public void setUp(CorpusState state) throws IOException {
+			symbols.clear();
+			for (JCCompilationUnit compilationUnit : state.attribute()) {
+				new TreeScanner() {
+					@Override
+					public void visitClassDef(JCClassDecl classdecl) {
+						symbols.add(classdecl.sym);
+						super.visitClassDef(classdecl);
+					}
+
+					@Override
+					public void visitMethodDef(JCMethodDecl methodDecl) {
+						symbols.add(methodDecl.sym);
+						super.visitMethodDef(methodDecl);
+					}
+
+					@Override
+					public void visitVarDef(JCVariableDecl varDecl) {
+						symbols.add(varDecl.sym);
+						super.visitVarDef(varDecl);
+					}
+				}.scan(compilationUnit);
+			}
+			context = state.transpiler.getContext();
+		}
+	}
+
+	@Benchmark
+	public int hasAnnotationType(DeclaredSymbols declaredSymbols) {
+		int count = 0;
+		for (Symbol symbol : declaredSymbols.symbols) {
+			if (declaredSymbols.context.hasAnnotationType(symbol, JSweetConfig.ANNOTATION_ERASED)) {
+				count++;
+			}
+			if (declaredSymbols.context.hasAnnotationType(symbol, JSweetConfig.ANNOTATION_AMBIENT,
+					JSweetConfig.ANNOTATION_ROOT)) {
+				count++;
+			}
+			if (declaredSymbols.context.hasAnnotationType(symbol, JSweetConfig.ANNOTATION_NAME)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+}
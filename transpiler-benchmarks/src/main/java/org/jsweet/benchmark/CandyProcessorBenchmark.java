@@ -0,0 +1,114 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.jsweet.transpiler.candy.CandyProcessor;
+import org.jsweet.transpiler.util.ConsoleTranspilationHandler;
+import org.jsweet.transpiler.util.ErrorCountTranspilationHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Extraction of the candies found in the benchmark's classpath (at least the
+ * JSweet core candy): a cold extraction in an empty working directory, and
+ * the up-to-date check of an already extracted working directory.
+ *
+ * @author Renaud Pawlak
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CandyProcessorBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class WorkingDir {
+
+		public File workingDir;
+		public ErrorCountTranspilationHandler handler;
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			workingDir = Files.createTempDirectory("jsweet-candies-benchmark").toFile();
+			handler = new ErrorCountTranspilationHandler(new ConsoleTranspilationHandler());
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			FileUtils.deleteQuietly(workingDir);
+		}
+	}
+
+	/**
+	 * A working directory that is emptied after each invocation.
+	 */
+	@State(Scope.Benchmark)
+	public static class EmptyWorkingDir extends WorkingDir {
+
+		@TearDown(Level.Invocation)
+		public void clean() throws IOException {
+			FileUtils.cleanDirectory(workingDir);
+		}
+	}
+
+	/**
+	 * A working directory where the candies are already extracted.
+	 */
+	@State(Scope.Benchmark)
+	public static class ExtractedWorkingDir extends WorkingDir {
+
+		@Setup(Level.Trial)
+		public void extract() throws IOException {
+			new CandyProcessor(workingDir, null, null).processCandies(handler);
+		}
+	}
+
+	@Benchmark
+	public CandyProcessor extract(EmptyWorkingDir dir) throws IOException {
+		CandyProcessor processor = new CandyProcessor(dir.workingDir, null, null);
+		processor.processCandies(dir.handler);
+		return processor;
+	}
+
+	@Benchmark
+	public CandyProcessor upToDate(ExtractedWorkingDir dir) throws IOException {
+		// a new processor reads the candy store of the working directory
+		CandyProcessor processor = new CandyProcessor(dir.workingDir, null, null);
+		processor.processCandies(dir.handler);
+		return processor;
+	}
+
+}
@@ -0,0 +1,125 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.jsweet.JSweetConfig;
+import org.jsweet.transpiler.JSweetContext;
+import org.jsweet.transpiler.JSweetFactory;
+import org.jsweet.transpiler.JSweetTranspiler;
+import org.jsweet.transpiler.SourceFile;
+import org.jsweet.transpiler.util.ConsoleTranspilationHandler;
+import org.jsweet.transpiler.util.ErrorCountTranspilationHandler;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.util.List;
+
+/**
+ * A synthetic corpus generated in a temporary directory, along with a
+ * transpiler configured with a realistic <code>jsweetconfig.json</code>
+ * (global annotation filters).
+ *
+ * @author Renaud Pawlak
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+
+	/**
+	 * The global filters of the configuration file: most of them do not match
+	 * anything, but they all have to be checked for each element.
+	 */
+	private static final String CONFIGURATION = "{\n" //
+			+ "  \"@Erased\": {\n" //
+			+ "    \"include\": [ \"**.toString()\", \"**.debug*(..)\" ],\n" //
+			+ "    \"exclude\": [ \"bench.small_classes.C0.**\" ]\n" //
+			+ "  },\n" //
+			+ "  \"@Name('getCodeValue')\": {\n" //
+			+ "    \"include\": \"bench.big_enum_switch.E.getCode()\"\n" //
+			+ "  },\n" //
+			+ "  \"@Ambient\": {\n" //
+			+ "    \"include\": [ \"bench.ambient.**\", \"**.*Native*\" ]\n" //
+			+ "  },\n" //
+			+ "  \"@Root\": {\n" //
+			+ "    \"include\": \"bench.root\"\n" //
+			+ "  }\n" //
+			+ "}\n";
+
+	/**
+	 * The kind of corpus.
+	 */
+	@Param({ "SMALL_CLASSES", "DEEP_INHERITANCE", "HEAVY_OVERLOADING", "BIG_ENUM_SWITCH" })
+	public SyntheticCorpus corpus;
+
+	/**
+	 * The size of the corpus (see {@link SyntheticCorpus#generate(File, int)}).
+	 */
+	@Param({ "200" })
+	public int size;
+
+	public File baseDir;
+	public java.util.List<File> javaFiles;
+	public JSweetFactory factory;
+	public JSweetTranspiler transpiler;
+	public ErrorCountTranspilationHandler handler;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		baseDir = Files.createTempDirectory("jsweet-benchmark").toFile();
+		javaFiles = corpus.generate(new File(baseDir, "src"), size);
+		FileUtils.write(new File(baseDir, JSweetConfig.CONFIGURATION_FILE_NAME), CONFIGURATION, false);
+		factory = new JSweetFactory();
+		transpiler = new JSweetTranspiler(baseDir, null, factory, new File(baseDir, ".jsweet"),
+				new File(baseDir, "ts"), new File(baseDir, "js"), null, System.getProperty("java.class.path"));
+		transpiler.setGenerateJsFiles(false);
+		handler = new ErrorCountTranspilationHandler(new ConsoleTranspilationHandler());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		FileUtils.deleteQuietly(baseDir);
+	}
+
+	/**
+	 * Parses and attributes the corpus with a fresh context, and runs the
+	 * scanners that precede the overload scanner.
+	 *
+	 * @return the attributed compilation units
+	 */
+	public List<JCCompilationUnit> attribute() throws IOException {
+		List<JCCompilationUnit> compilationUnits = transpiler.setupCompiler(javaFiles, handler);
+		if (compilationUnits == null || handler.getErrorCount() > 0) {
+			throw new IllegalStateException("corpus " + corpus + " does not compile");
+		}
+		JSweetContext context = transpiler.getContext();
+		context.sourceFiles = SourceFile.toSourceFiles(javaFiles);
+		factory.createBeforeTranslationScanner(handler, context).process(compilationUnits);
+		return compilationUnits;
+	}
+
+}
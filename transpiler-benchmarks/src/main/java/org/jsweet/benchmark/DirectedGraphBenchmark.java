@@ -0,0 +1,92 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jsweet.transpiler.util.DirectedGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Topological sort and strongly connected components of a random acyclic
+ * {@link DirectedGraph} (as built for sorting the classes and modules of big
+ * programs).
+ *
+ * @author Renaud Pawlak
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DirectedGraphBenchmark {
+
+	@Param({ "10000" })
+	public int nodes;
+
+	/**
+	 * The average number of outgoing edges per node.
+	 */
+	@Param({ "4" })
+	public int edges;
+
+	private DirectedGraph<Integer> graph;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(42);
+		graph = new DirectedGraph<>();
+		for (int i = 0; i < nodes; i++) {
+			graph.add(i);
+		}
+		// edges only go to greater nodes so that the graph has no cycles
+		for (int i = 0; i < nodes - 1; i++) {
+			for (int j = 0; j < edges; j++) {
+				graph.addEdge(i, i + 1 + random.nextInt(Math.min(100, nodes - i - 1)));
+			}
+		}
+	}
+
+	@Benchmark
+	public List<Integer> topologicalSort() {
+		return graph.topologicalSort(node -> {
+			throw new IllegalStateException("unexpected cycle at " + node);
+		});
+	}
+
+	@Benchmark
+	public List<List<Integer>> stronglyConnectedComponents() {
+		return graph.getStronglyConnectedComponents();
+	}
+
+}
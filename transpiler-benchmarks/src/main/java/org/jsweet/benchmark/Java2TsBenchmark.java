@@ -0,0 +1,79 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.jsweet.transpiler.SourceFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end Java to TypeScript transpilation of the synthetic corpora
+ * (javac, scanners, printing and writing of the TypeScript files, without
+ * invoking tsc). Note that the transpiler checks once that Node.js and tsc
+ * are installed.
+ *
+ * @author Renaud Pawlak
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class Java2TsBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class TranspilerOptions {
+
+		@Param({ "false" })
+		public boolean reuseJavacState;
+
+		@Param({ "false" })
+		public boolean parallelPrinting;
+
+		@Setup(Level.Trial)
+		public void setUp(CorpusState state) {
+			state.transpiler.setReuseJavacState(reuseJavacState);
+			state.transpiler.setParallelPrinting(parallelPrinting);
+		}
+	}
+
+	@Benchmark
+	public SourceFile[] java2ts(CorpusState state, TranspilerOptions options) throws IOException {
+		SourceFile[] files = SourceFile.toSourceFiles(state.javaFiles);
+		state.transpiler.transpile(state.handler, files);
+		if (state.handler.getErrorCount() > 0) {
+			throw new IllegalStateException("transpilation failed for " + state.corpus);
+		}
+		return files;
+	}
+
+}
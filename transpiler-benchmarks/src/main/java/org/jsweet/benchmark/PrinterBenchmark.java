@@ -0,0 +1,92 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.jsweet.transpiler.JSweetContext;
+import org.jsweet.transpiler.OverloadScanner;
+import org.jsweet.transpiler.extension.PrinterAdapter;
+import org.jsweet.transpiler.util.AbstractTreePrinter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.util.List;
+
+/**
+ * Printing (with {@link org.jsweet.transpiler.Java2TypeScriptTranslator}) of
+ * the pre-attributed compilation units of the synthetic corpora, with or
+ * without source maps.
+ *
+ * @author Renaud Pawlak
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PrinterBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class AttributedCorpus {
+
+		@Param({ "true", "false" })
+		public boolean sourceMaps;
+
+		public List<JCCompilationUnit> compilationUnits;
+		public JSweetContext context;
+		public PrinterAdapter adapter;
+
+		@Setup(Level.Trial)
+		public void setUp(CorpusState state) throws IOException {
+			compilationUnits = state.attribute();
+			context = state.transpiler.getContext();
+			new OverloadScanner(state.handler, context).process(compilationUnits);
+			adapter = state.factory.createAdapter(context);
+		}
+	}
+
+	@Benchmark
+	public void print(CorpusState state, AttributedCorpus corpus, Blackhole blackhole) {
+		for (JCCompilationUnit compilationUnit : corpus.compilationUnits) {
+			AbstractTreePrinter printer = state.factory.createTranslator(corpus.adapter, state.handler,
+					corpus.context, compilationUnit, corpus.sourceMaps);
+			printer.print(compilationUnit);
+			blackhole.consume(printer.getOutputBuffer());
+			blackhole.consume(printer.sourceMap);
+			corpus.context.clearHeaders();
+			corpus.context.clearFooterStatements();
+			corpus.context.clearGlobalsMapping();
+		}
+	}
+
+}
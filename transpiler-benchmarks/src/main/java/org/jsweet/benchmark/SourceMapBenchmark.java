@@ -0,0 +1,99 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jsweet.transpiler.util.Position;
+import org.jsweet.transpiler.util.SourceMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Building of a {@link SourceMap}, lookups of input positions, and shifts of
+ * the output positions (as done when adding headers to the generated files).
+ *
+ * @author Renaud Pawlak
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SourceMapBenchmark {
+
+	/**
+	 * The number of entries of the source map (roughly 10 entries per line).
+	 */
+	@Param({ "1000", "100000" })
+	public int entries;
+
+	private SourceMap sourceMap;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		sourceMap = build(entries);
+	}
+
+	private static SourceMap build(int entries) {
+		SourceMap sourceMap = new SourceMap();
+		for (int i = 0; i < entries; i++) {
+			int line = i / 10;
+			int column = (i % 10) * 4;
+			sourceMap.addEntry(i * 4, line, column, i * 5, line, column + i % 10);
+		}
+		return sourceMap;
+	}
+
+	@Benchmark
+	public SourceMap build() {
+		return build(entries);
+	}
+
+	@Benchmark
+	public void lookup(Blackhole blackhole) {
+		int lines = entries / 10;
+		for (int line = 0; line < lines; line++) {
+			for (int column = 0; column < 40; column += 7) {
+				Position position = sourceMap.findInputPosition(line, column);
+				blackhole.consume(position);
+			}
+		}
+	}
+
+	@Benchmark
+	public SourceMap shift() {
+		sourceMap.shiftOutputPositions(1);
+		sourceMap.shiftOutputPositions(-1);
+		return sourceMap;
+	}
+
+}
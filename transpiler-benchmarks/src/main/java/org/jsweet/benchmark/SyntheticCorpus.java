@@ -0,0 +1,239 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Generates synthetic Java source corpora that stress the different cost
+ * centres of the transpiler.
+ *
+ * @author Renaud Pawlak
+ */
+public enum SyntheticCorpus {
+
+	/**
+	 * Many small independent classes (fields, constructor, accessors and a
+	 * few calls to other classes).
+	 */
+	SMALL_CLASSES {
+		@Override
+		protected void generate(File packageDir, String packageName, int size) throws IOException {
+			for (int i = 0; i < size; i++) {
+				StringBuilder s = header(packageName);
+				s.append("public class C" + i + " {\n");
+				s.append("  private int value;\n");
+				s.append("  private String name;\n");
+				s.append("  public C" + i + "(int value, String name) {\n");
+				s.append("    this.value = value;\n");
+				s.append("    this.name = name;\n");
+				s.append("  }\n");
+				s.append("  public int getValue() { return value; }\n");
+				s.append("  public String getName() { return name; }\n");
+				s.append("  public int compute(int x) {\n");
+				s.append("    int result = 0;\n");
+				s.append("    for (int j = 0; j < x; j++) {\n");
+				s.append("      result += j % 2 == 0 ? value : -value;\n");
+				s.append("    }\n");
+				if (i > 0) {
+					s.append("    result += new C" + (i - 1) + "(value, name).compute(x - 1);\n");
+				}
+				s.append("    return result;\n");
+				s.append("  }\n");
+				s.append("  @Override\n");
+				s.append("  public String toString() { return name + \"=\" + value; }\n");
+				s.append("}\n");
+				write(packageDir, "C" + i, s);
+			}
+		}
+	},
+
+	/**
+	 * Deep class hierarchies, with overridden methods and interfaces at each
+	 * level.
+	 */
+	DEEP_INHERITANCE {
+		@Override
+		protected void generate(File packageDir, String packageName, int size) throws IOException {
+			int depth = 50;
+			for (int i = 0; i < size; i++) {
+				int level = i % depth;
+				StringBuilder s = header(packageName);
+				if (level == 0) {
+					s.append("public abstract class D" + i + " implements I" + i + " {\n");
+				} else {
+					s.append("public class D" + i + " extends D" + (i - 1) + " implements I" + i + " {\n");
+				}
+				s.append("  protected int f" + i + " = " + i + ";\n");
+				s.append("  public D" + i + "(int x) {\n");
+				s.append(level == 0 ? "" : "    super(x + 1);\n");
+				s.append("    f" + i + " += x;\n");
+				s.append("  }\n");
+				s.append("  public int level() { return " + level + "; }\n");
+				s.append("  public int m" + i + "(int x) { return x + f" + i + " + level(); }\n");
+				s.append("}\n");
+				write(packageDir, "D" + i, s);
+				s = header(packageName);
+				s.append("public interface I" + i + " {\n");
+				s.append("  int m" + i + "(int x);\n");
+				s.append("  default int d" + i + "(int x) { return m" + i + "(x) * 2; }\n");
+				s.append("}\n");
+				write(packageDir, "I" + i, s);
+			}
+		}
+	},
+
+	/**
+	 * Classes with many overloaded methods and constructors, overridden in
+	 * subclasses.
+	 */
+	HEAVY_OVERLOADING {
+		@Override
+		protected void generate(File packageDir, String packageName, int size) throws IOException {
+			String[] types = { "int", "String", "double", "boolean", "Object", "long", "int[]", "String[]" };
+			for (int i = 0; i < size; i++) {
+				StringBuilder s = header(packageName);
+				boolean subclass = i % 2 == 1;
+				s.append("public class O" + i + (subclass ? " extends O" + (i - 1) : "") + " {\n");
+				for (int c = 0; c < 4; c++) {
+					s.append("  public O" + i + "(");
+					for (int p = 0; p < c; p++) {
+						s.append((p > 0 ? ", " : "") + types[p] + " p" + p);
+					}
+					s.append(") {" + (subclass ? " super();" : "") + " }\n");
+				}
+				s.append("  public int m() { return 0; }\n");
+				for (int m = 0; m < 20; m++) {
+					// the first parameter type is unique for a given parameter count
+					int parameterCount = 1 + m / types.length;
+					s.append("  public " + types[m % 5] + " m(" + types[m % types.length] + " p0");
+					for (int p = 1; p < parameterCount; p++) {
+						s.append(", " + types[(parameterCount + p) % types.length] + " p" + p);
+					}
+					s.append(") { return " + defaultValue(types[m % 5]) + "; }\n");
+				}
+				s.append("  public Object call() {\n");
+				s.append("    return m() + \"\" + m(1) + m(\"a\") + m(1.0) + m(true, false);\n");
+				s.append("  }\n");
+				s.append("}\n");
+				write(packageDir, "O" + i, s);
+			}
+		}
+
+		private String defaultValue(String type) {
+			switch (type) {
+			case "int":
+			case "long":
+			case "double":
+				return "0";
+			case "boolean":
+				return "false";
+			default:
+				return "null";
+			}
+		}
+	},
+
+	/**
+	 * Big enums (with fields and constructors), and big switches on enums,
+	 * integers and strings.
+	 */
+	BIG_ENUM_SWITCH {
+		@Override
+		protected void generate(File packageDir, String packageName, int size) throws IOException {
+			int constantCount = Math.max(10, size);
+			StringBuilder s = header(packageName);
+			s.append("public enum E {\n");
+			for (int i = 0; i < constantCount; i++) {
+				s.append("  K" + i + "(" + i + ", \"k" + i + "\")" + (i < constantCount - 1 ? ",\n" : ";\n"));
+			}
+			s.append("  private final int code;\n");
+			s.append("  private final String label;\n");
+			s.append("  E(int code, String label) { this.code = code; this.label = label; }\n");
+			s.append("  public int getCode() { return code; }\n");
+			s.append("  public String getLabel() { return label; }\n");
+			s.append("}\n");
+			write(packageDir, "E", s);
+
+			s = header(packageName);
+			s.append("public class Switches {\n");
+			s.append("  public static int onEnum(E e) {\n");
+			s.append("    switch (e) {\n");
+			for (int i = 0; i < constantCount; i++) {
+				s.append("    case K" + i + ": return " + (i * 3) + ";\n");
+			}
+			s.append("    default: return -1;\n");
+			s.append("    }\n");
+			s.append("  }\n");
+			s.append("  public static String onInt(int i) {\n");
+			s.append("    switch (i) {\n");
+			for (int i = 0; i < constantCount; i++) {
+				s.append("    case " + i + ": return \"v" + i + "\";\n");
+			}
+			s.append("    default: return null;\n");
+			s.append("    }\n");
+			s.append("  }\n");
+			s.append("  public static int onString(String s) {\n");
+			s.append("    switch (s) {\n");
+			for (int i = 0; i < constantCount; i++) {
+				s.append("    case \"k" + i + "\": return E.K" + i + ".getCode();\n");
+			}
+			s.append("    default: return -1;\n");
+			s.append("    }\n");
+			s.append("  }\n");
+			s.append("}\n");
+			write(packageDir, "Switches", s);
+		}
+	};
+
+	/**
+	 * Generates the Java files of this corpus in the given directory.
+	 *
+	 * @param sourceDir
+	 *            the root source directory
+	 * @param size
+	 *            the size of the corpus (roughly the number of classes, or
+	 *            the number of enum constants and switch cases)
+	 * @return the generated Java files
+	 */
+	public List<File> generate(File sourceDir, int size) throws IOException {
+		String packageName = "bench." + name().toLowerCase();
+		File packageDir = new File(sourceDir, packageName.replace('.', File.separatorChar));
+		FileUtils.deleteQuietly(packageDir);
+		packageDir.mkdirs();
+		generate(packageDir, packageName, size);
+		return new ArrayList<>(FileUtils.listFiles(packageDir, new String[] { "java" }, true));
+	}
+
+	protected abstract void generate(File packageDir, String packageName, int size) throws IOException;
+
+	private static StringBuilder header(String packageName) {
+		return new StringBuilder("package " + packageName + ";\n\n");
+	}
+
+	private static void write(File packageDir, String className, StringBuilder source) throws IOException {
+		FileUtils.write(new File(packageDir, className + ".java"), source, false);
+	}
+
+}
@@ -21,9 +21,14 @@ package org.jsweet;
 import static org.jsweet.transpiler.TranspilationHandler.OUTPUT_LOGGER;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -38,6 +43,7 @@ import org.jsweet.transpiler.JSweetTranspiler;
 import org.jsweet.transpiler.ModuleKind;
 import org.jsweet.transpiler.ModuleResolution;
 import org.jsweet.transpiler.SourceFile;
+import org.jsweet.transpiler.TranspilationHandler;
 import org.jsweet.transpiler.util.ConsoleTranspilationHandler;
 import org.jsweet.transpiler.util.ErrorCountTranspilationHandler;
 import org.jsweet.transpiler.util.ProcessUtil;
@@ -62,6 +68,23 @@ import com.martiansoftware.jsap.stringparsers.FileStringParser;
         Start a process that watches the input directories for changes and
         re-run transpilation on-the-fly.
 
+  [--daemon]
+        Start a long-lived JSweet daemon that keeps the transpilers (and their
+        candies, Node.js checks and warm JVM) between builds, and serves the
+        transpilation requests sent with the 'connect' option. The input option
+        is not required in daemon mode. The verbosity, 'extraSystemPath' and
+        'jdkHome' options given to the daemon apply to all the requests.
+
+  [--connect]
+        Send this transpilation to a running JSweet daemon (see the 'daemon'
+        option) instead of transpiling in this process. Falls back to a local
+        transpilation if no daemon is listening. The client must be run by the
+        daemon's user, who can read the token the daemon writes to
+        ~/.jsweet/daemon-<daemonPort>.token.
+
+  [--daemonPort <daemonPort>]
+        The local port used by the JSweet daemon. (default: 9797)
+
   [-v|--verbose]
         Turn on general information logging (INFO LEVEL)
         
@@ -77,7 +100,7 @@ import com.martiansoftware.jsap.stringparsers.FileStringParser;
         set, the transpiler will try to use the JAVA_HOME environment variable.
         Note that the expected JDK version is greater or equals to version 8.
 
-  (-i|--input) input1:input2:...:inputN 
+  [(-i|--input) input1:input2:...:inputN ]
         An input directory (or column-separated input directories) containing
         Java files to be transpiled. Java files will be recursively looked up in
         sub-directories. Inclusion and exclusion patterns can be defined with
@@ -188,6 +211,47 @@ import com.martiansoftware.jsap.stringparsers.FileStringParser;
 
   [--extraSystemPath <extraSystemPath>]
         Allow an extra path to be added to the system path.
+
+  [--incremental]
+        Only regenerate the files that changed since the last transpilation
+        and the files that depend on them (mostly useful in watch mode).
+
+  [--parallelPrinting]
+        Print the compilation units in parallel (one thread per available
+        processor).
+
+  [--parallelTsc]
+        Compile the generated TypeScript files with several tsc processes
+        running in parallel on independent groups of packages (requires
+        modules).
+
+  [--directJavaScript]
+        Generate the JavaScript files directly, without generating the
+        TypeScript files and without invoking tsc (no TypeScript type
+        checking). It requires the ES6 target version (the default in this
+        mode) and the es2015 or none module kind.
+
+  [--metricsFile <metricsFile>]
+        Write the metrics of each transpilation (time spent in each phase and
+        for each file) to the given file, as JSON.
+
+  [--traceFile <traceFile>]
+        Write the metrics of each transpilation to the given file in the
+        Chrome trace-event format (can be loaded in chrome://tracing).
+
+  [--jmxMetrics]
+        Expose the metrics cumulated over all the transpilations as JMX
+        counters (mostly useful in watch or daemon mode).
+
+  [--typedArrays]
+        Allocate the arrays of numbers (byte[], short[], int[], long[],
+        float[] and double[]) as JavaScript typed arrays (Int8Array,
+        Int16Array, Int32Array and Float64Array).
+
+  [--nativeMaps]
+        Lower the maps keyed by strings or numbers to native Map objects when
+        targeting ES6 (by default, they remain plain objects for JavaScript
+        interoperability).
  * </pre>
  * 
  * @author Renaud Pawlak
@@ -226,20 +290,40 @@ public class JSweetCommandLineLauncher {
 				printUsage(jsapSpec);
 			}
 
-			LogManager.getLogger("org.jsweet").setLevel(Level.WARN);
-			
-			if (jsapArgs.getBoolean("verbose")) {
-				LogManager.getLogger("org.jsweet").setLevel(Level.INFO);
+			if (!jsapArgs.getBoolean("daemon") && jsapArgs.getFileArray("input").length == 0) {
+				System.out.println("Error: Parameter 'input' is required.");
+				printUsage(jsapSpec);
+				System.exit(-1);
 			}
-			
-			if (jsapArgs.getBoolean("veryVerbose")) {
-				LogManager.getLogger("org.jsweet").setLevel(Level.ALL);
+
+			initLogLevel(jsapArgs);
+
+			if (jsapArgs.getBoolean("connect") && !jsapArgs.getBoolean("watch")) {
+				try {
+					errorCount = JSweetDaemon.connect(jsapArgs.getInt("daemonPort"),
+							JSweetDaemon.getDefaultTokenFile(jsapArgs.getInt("daemonPort")), new File("."), args);
+					System.exit(errorCount > 0 ? 1 : 0);
+				} catch (IOException e) {
+					logger.warn("cannot connect to the JSweet daemon on port " + jsapArgs.getInt("daemonPort")
+							+ ", transpiling locally");
+				}
 			}
 
 			JSweetConfig.initClassPath(jsapArgs.getString("jdkHome"));
 
-			JSweetTranspilationTask transpilationTask = new JSweetTranspilationTask(jsapArgs);
+			if (jsapArgs.getBoolean("daemon")) {
+				new JSweetDaemon(jsapArgs.getInt("daemonPort"),
+						JSweetDaemon.getDefaultTokenFile(jsapArgs.getInt("daemonPort")), jsapArgs).execute();
+				return;
+			}
+
+			JSweetTranspilationTask transpilationTask = new JSweetTranspilationTask(jsapArgs, null);
+			if (jsapArgs.getBoolean("watch")) {
+				// only regenerate the changed files and their dependents
+				transpilationTask.setIncremental(true);
+			}
 			transpilationTask.run();
+			errorCount = transpilationTask.getErrorCount();
 			if (jsapArgs.getBoolean("watch")) {
 				new JSweetFileWatcher(transpilationTask).execute();
 			}
@@ -251,7 +335,22 @@ public class JSweetCommandLineLauncher {
 		System.exit(errorCount > 0 ? 1 : 0);
 	}
 
-	private static JSAP defineArgs() throws JSAPException {
+	/**
+	 * Sets the log level of the transpiler according to the verbose options.
+	 */
+	static void initLogLevel(JSAPResult jsapArgs) {
+		LogManager.getLogger("org.jsweet").setLevel(Level.WARN);
+
+		if (jsapArgs.getBoolean("verbose")) {
+			LogManager.getLogger("org.jsweet").setLevel(Level.INFO);
+		}
+
+		if (jsapArgs.getBoolean("veryVerbose")) {
+			LogManager.getLogger("org.jsweet").setLevel(Level.ALL);
+		}
+	}
+
+	static JSAP defineArgs() throws JSAPException {
 		// Verbose output
 		JSAP jsap = new JSAP();
 		Switch switchArg;
@@ -273,6 +372,31 @@ public class JSweetCommandLineLauncher {
 				"Start a process that watches the input directories for changes and re-run transpilation on-the-fly.");
 		jsap.registerParameter(switchArg);
 
+		// Daemon
+		switchArg = new Switch("daemon");
+		switchArg.setLongFlag("daemon");
+		switchArg.setDefault("false");
+		switchArg.setHelp(
+				"Start a long-lived JSweet daemon that keeps the transpilers (and their candies, Node.js checks and warm JVM) between builds, and serves the transpilation requests sent with the 'connect' option. The input option is not required in daemon mode. The verbosity, 'extraSystemPath' and 'jdkHome' options given to the daemon apply to all the requests.");
+		jsap.registerParameter(switchArg);
+
+		// Connect to daemon
+		switchArg = new Switch("connect");
+		switchArg.setLongFlag("connect");
+		switchArg.setDefault("false");
+		switchArg.setHelp(
+				"Send this transpilation to a running JSweet daemon (see the 'daemon' option) instead of transpiling in this process. Falls back to a local transpilation if no daemon is listening. The client must be run by the daemon's user, who can read the token the daemon writes to ~/.jsweet/daemon-<daemonPort>.token.");
+		jsap.registerParameter(switchArg);
+
+		// Daemon port
+		optionArg = new FlaggedOption("daemonPort");
+		optionArg.setLongFlag("daemonPort");
+		optionArg.setStringParser(JSAP.INTEGER_PARSER);
+		optionArg.setRequired(false);
+		optionArg.setDefault("" + JSweetDaemon.DEFAULT_PORT);
+		optionArg.setHelp("The local port used by the JSweet daemon.");
+		jsap.registerParameter(optionArg);
+
 		// Verbose
 		switchArg = new Switch("verbose");
 		switchArg.setLongFlag("verbose");
@@ -313,7 +437,7 @@ public class JSweetCommandLineLauncher {
 		optionArg.setList(true);
 		optionArg.setStringParser(FileStringParser.getParser());
 		optionArg.setListSeparator(':');
-		optionArg.setRequired(true);
+		optionArg.setRequired(false);
 		optionArg.setHelp(
 				"An input directory (or column-separated input directories) containing Java files to be transpiled. Java files will be recursively looked up in sub-directories. Inclusion and exclusion patterns can be defined with the 'includes' and 'excludes' options.");
 		jsap.registerParameter(optionArg);
@@ -542,6 +666,79 @@ public class JSweetCommandLineLauncher {
 		optionArg.setRequired(false);
 		jsap.registerParameter(optionArg);
 
+		// Incremental
+		switchArg = new Switch(JSweetOptions.incremental);
+		switchArg.setLongFlag(JSweetOptions.incremental);
+		switchArg.setHelp(
+				"Only regenerate the files that changed since the last transpilation and the files that depend on them (mostly useful in watch mode).");
+		switchArg.setDefault("false");
+		jsap.registerParameter(switchArg);
+
+		// Parallel printing
+		switchArg = new Switch(JSweetOptions.parallelPrinting);
+		switchArg.setLongFlag(JSweetOptions.parallelPrinting);
+		switchArg.setHelp("Print the compilation units in parallel (one thread per available processor).");
+		switchArg.setDefault("false");
+		jsap.registerParameter(switchArg);
+
+		// Parallel tsc
+		switchArg = new Switch(JSweetOptions.parallelTsc);
+		switchArg.setLongFlag(JSweetOptions.parallelTsc);
+		switchArg.setHelp(
+				"Compile the generated TypeScript files with several tsc processes running in parallel on independent groups of packages (requires modules).");
+		switchArg.setDefault("false");
+		jsap.registerParameter(switchArg);
+
+		// Direct JavaScript generation
+		switchArg = new Switch(JSweetOptions.directJavaScript);
+		switchArg.setLongFlag(JSweetOptions.directJavaScript);
+		switchArg.setHelp(
+				"Generate the JavaScript files directly, without generating the TypeScript files and without invoking tsc (no TypeScript type checking). It requires the ES6 target version (the default in this mode) and the es2015 or none module kind.");
+		switchArg.setDefault("false");
+		jsap.registerParameter(switchArg);
+
+		// Metrics file
+		optionArg = new FlaggedOption(JSweetOptions.metricsFile);
+		optionArg.setLongFlag(JSweetOptions.metricsFile);
+		optionArg.setHelp(
+				"Write the metrics of each transpilation (time spent in each phase and for each file) to the given file, as JSON.");
+		optionArg.setStringParser(FileStringParser.getParser());
+		optionArg.setRequired(false);
+		jsap.registerParameter(optionArg);
+
+		// Trace file
+		optionArg = new FlaggedOption(JSweetOptions.traceFile);
+		optionArg.setLongFlag(JSweetOptions.traceFile);
+		optionArg.setHelp(
+				"Write the metrics of each transpilation to the given file in the Chrome trace-event format (can be loaded in chrome://tracing).");
+		optionArg.setStringParser(FileStringParser.getParser());
+		optionArg.setRequired(false);
+		jsap.registerParameter(optionArg);
+
+		// JMX metrics
+		switchArg = new Switch(JSweetOptions.jmxMetrics);
+		switchArg.setLongFlag(JSweetOptions.jmxMetrics);
+		switchArg.setHelp(
+				"Expose the metrics cumulated over all the transpilations as JMX counters (mostly useful in watch or daemon mode).");
+		switchArg.setDefault("false");
+		jsap.registerParameter(switchArg);
+
+		// Typed arrays
+		switchArg = new Switch(JSweetOptions.typedArrays);
+		switchArg.setLongFlag(JSweetOptions.typedArrays);
+		switchArg.setHelp(
+				"Allocate the arrays of numbers (byte[], short[], int[], long[], float[] and double[]) as JavaScript typed arrays (Int8Array, Int16Array, Int32Array and Float64Array).");
+		switchArg.setDefault("false");
+		jsap.registerParameter(switchArg);
+
+		// Native maps
+		switchArg = new Switch(JSweetOptions.nativeMaps);
+		switchArg.setLongFlag(JSweetOptions.nativeMaps);
+		switchArg.setHelp(
+				"Lower the maps keyed by strings or numbers to native Map objects when targeting ES6 (by default, they remain plain objects for JavaScript interoperability).");
+		switchArg.setDefault("false");
+		jsap.registerParameter(switchArg);
+
 		return jsap;
 	}
 
@@ -570,91 +767,211 @@ public class JSweetCommandLineLauncher {
 		System.out.println(jsapSpec.getHelp());
 	}
 
-	private static class JSweetTranspilationTask implements TranspilationTask {
+	/**
+	 * The transpilation task configured from the command line arguments.
+	 */
+	static class JSweetTranspilationTask implements TranspilationTask {
 
 		private JSAPResult jsapArgs;
+		private File baseDirectory;
 		private List<File> inputDirList;
 		private LinkedList<File> javaInputFiles;
-
-		public JSweetTranspilationTask(JSAPResult jsapArgs) {
+		private boolean rescanInputDirs = true;
+		private Collection<File> changedFiles;
+		private List<Pattern> includedPatterns;
+		private List<Pattern> excludedPatterns;
+		private JSweetTranspiler keptTranspiler;
+		private boolean keepTranspiler = false;
+		private boolean incremental = false;
+		private int errorCount = 0;
+
+		/**
+		 * Creates a transpilation task.
+		 * 
+		 * @param jsapArgs
+		 *            the parsed command line arguments
+		 * @param baseDirectory
+		 *            the directory against which the relative paths of the
+		 *            arguments are resolved (null for the current directory)
+		 */
+		public JSweetTranspilationTask(JSAPResult jsapArgs, File baseDirectory) {
 			this.jsapArgs = jsapArgs;
-			inputDirList = Arrays.asList(jsapArgs.getFileArray("input"));
+			this.baseDirectory = baseDirectory;
+			inputDirList = resolve(jsapArgs.getFileArray("input"));
 			logger.info("input dirs: " + inputDirList);
 
 		}
 
-		@Override
-		public List<File> getInputDirList() {
-			return inputDirList;
+		/**
+		 * Keeps the transpiler (and its candies state) between two runs of
+		 * this task, even when not in incremental mode.
+		 */
+		public void setKeepTranspiler(boolean keepTranspiler) {
+			this.keepTranspiler = keepTranspiler;
 		}
 
-		@Override
-		public void run() throws Exception {
-			String classPath = jsapArgs.getString("classpath");
-			logger.info("classpath: " + classPath);
+		/**
+		 * Runs this task in incremental mode, even if not requested by the
+		 * command line arguments.
+		 */
+		public void setIncremental(boolean incremental) {
+			this.incremental = incremental;
+		}
+
+		/**
+		 * Gets the number of errors reported by the last run.
+		 */
+		public int getErrorCount() {
+			return errorCount;
+		}
 
-			ErrorCountTranspilationHandler transpilationHandler = new ErrorCountTranspilationHandler(
-					new ConsoleTranspilationHandler());
+		private File resolve(File file) {
+			if (file == null || baseDirectory == null || file.isAbsolute()) {
+				return file;
+			}
+			return new File(baseDirectory, file.getPath());
+		}
 
-			try {
+		private List<File> resolve(File[] files) {
+			return Arrays.asList(files).stream().map(this::resolve).collect(Collectors.toList());
+		}
+
+		private File getFile(String id) {
+			return resolve(jsapArgs.getFile(id));
+		}
 
+		private String resolveClassPath(String classPath) {
+			if (classPath == null || baseDirectory == null) {
+				return classPath;
+			}
+			return Arrays.asList(classPath.split(File.pathSeparator)).stream()
+					.map(entry -> resolve(new File(entry)).getPath()).collect(Collectors.joining(File.pathSeparator));
+		}
+
+		private boolean isJavaInputFile(File inputDir, File file) {
+			if (includedPatterns == null) {
 				String[] included = jsapArgs.getStringArray("includes");
 				String[] excluded = jsapArgs.getStringArray("excludes");
 
-				List<Pattern> includedPatterns = included == null ? null
+				includedPatterns = included == null ? new ArrayList<>()
 						: Arrays.asList(included).stream().map(s -> toPattern(s)).collect(Collectors.toList());
-				List<Pattern> excludedPatterns = excluded == null ? null
+				excludedPatterns = excluded == null ? new ArrayList<>()
 						: Arrays.asList(excluded).stream().map(s -> toPattern(s)).collect(Collectors.toList());
 
 				logger.info("included: " + includedPatterns);
 				logger.info("excluded: " + excludedPatterns);
-
-				javaInputFiles = new LinkedList<File>();
-
-				for (File inputDir : inputDirList) {
-					Util.addFiles(f -> {
-						String path = inputDir.toURI().relativize(f.toURI()).getPath();
-						if (path.endsWith(".java")) {
-							if (includedPatterns == null || includedPatterns.isEmpty() || includedPatterns != null
-									&& includedPatterns.stream().anyMatch(p -> p.matcher(path).matches())) {
-								if (excludedPatterns != null && !excludedPatterns.isEmpty()
-										&& excludedPatterns.stream().anyMatch(p -> p.matcher(path).matches())) {
-									return false;
-								}
-								return true;
-							}
-						}
+			}
+			String path = inputDir.toURI().relativize(file.toURI()).getPath();
+			if (path.endsWith(".java")) {
+				if (includedPatterns.isEmpty()
+						|| includedPatterns.stream().anyMatch(p -> p.matcher(path).matches())) {
+					if (!excludedPatterns.isEmpty()
+							&& excludedPatterns.stream().anyMatch(p -> p.matcher(path).matches())) {
 						return false;
-					}, inputDir, javaInputFiles);
+					}
+					return true;
 				}
+			}
+			return false;
+		}
+
+		@Override
+		public List<File> getInputDirList() {
+			return inputDirList;
+		}
+
+		/**
+		 * Runs this task again if some of the changed files are Java input
+		 * files. When the changes only modify existing input files, the input
+		 * directories are not scanned again. In incremental mode (see
+		 * {@link #setIncremental(boolean)}), only the changed files and their
+		 * dependents are regenerated.
+		 */
+		@Override
+		public void run(Collection<File> changedFiles) throws Exception {
+			Set<File> knownFiles = javaInputFiles == null ? new HashSet<>()
+					: javaInputFiles.stream().map(File::getAbsoluteFile).collect(Collectors.toSet());
+			boolean javaFilesChanged = false;
+			boolean inputFilesAddedOrRemoved = false;
+			for (File changedFile : changedFiles) {
+				File file = changedFile.getAbsoluteFile();
+				if (knownFiles.contains(file)) {
+					javaFilesChanged = true;
+					inputFilesAddedOrRemoved |= !file.exists();
+				} else if (file.isDirectory() || (!file.exists() && !file.getName().contains("."))
+						|| inputDirList.stream()
+								.anyMatch(inputDir -> isJavaInputFile(inputDir.getAbsoluteFile(), file))) {
+					// new input file, or added/removed directory that may
+					// contain input files
+					javaFilesChanged = true;
+					inputFilesAddedOrRemoved = true;
+				}
+			}
+			if (!javaFilesChanged) {
+				logger.info("no Java input file changed");
+				return;
+			}
+			rescanInputDirs = inputFilesAddedOrRemoved;
+			this.changedFiles = changedFiles;
+			try {
+				run();
+			} finally {
+				this.changedFiles = null;
+			}
+		}
+
+		@Override
+		public void run() throws Exception {
+			run(new ConsoleTranspilationHandler());
+		}
+
+		/**
+		 * Runs this task, reporting the problems to the given handler.
+		 */
+		public void run(TranspilationHandler handler) throws Exception {
+			String classPath = resolveClassPath(jsapArgs.getString("classpath"));
+			logger.info("classpath: " + classPath);
+
+			ErrorCountTranspilationHandler transpilationHandler = new ErrorCountTranspilationHandler(handler);
+
+			try {
+
+				if (javaInputFiles == null || rescanInputDirs) {
+					javaInputFiles = new LinkedList<File>();
+
+					for (File inputDir : inputDirList) {
+						Util.addFiles(f -> isJavaInputFile(inputDir, f), inputDir, javaInputFiles);
+					}
+				}
+				rescanInputDirs = true;
 
 				File tsOutputDir = null;
-				if (jsapArgs.userSpecified("tsout") && jsapArgs.getFile("tsout") != null) {
-					tsOutputDir = jsapArgs.getFile("tsout");
+				if (jsapArgs.userSpecified("tsout") && getFile("tsout") != null) {
+					tsOutputDir = getFile("tsout");
 					tsOutputDir.mkdirs();
 				}
 				logger.info("ts output dir: " + tsOutputDir);
 
 				File jsOutputDir = null;
-				if (jsapArgs.userSpecified("jsout") && jsapArgs.getFile("jsout") != null) {
-					jsOutputDir = jsapArgs.getFile("jsout");
+				if (jsapArgs.userSpecified("jsout") && getFile("jsout") != null) {
+					jsOutputDir = getFile("jsout");
 					jsOutputDir.mkdirs();
 				}
 				logger.info("js output dir: " + jsOutputDir);
 
 				File dtsOutputDir = null;
-				if (jsapArgs.userSpecified("dtsout") && jsapArgs.getFile("dtsout") != null) {
-					dtsOutputDir = jsapArgs.getFile("dtsout");
+				if (jsapArgs.userSpecified("dtsout") && getFile("dtsout") != null) {
+					dtsOutputDir = getFile("dtsout");
 				}
 
 				File candiesJsOutputDir = null;
-				if (jsapArgs.userSpecified("candiesJsOut") && jsapArgs.getFile("candiesJsOut") != null) {
-					candiesJsOutputDir = jsapArgs.getFile("candiesJsOut");
+				if (jsapArgs.userSpecified("candiesJsOut") && getFile("candiesJsOut") != null) {
+					candiesJsOutputDir = getFile("candiesJsOut");
 				}
 
 				File sourceRootDir = null;
-				if (jsapArgs.userSpecified("sourceRoot") && jsapArgs.getFile("sourceRoot") != null) {
-					sourceRootDir = jsapArgs.getFile("sourceRoot");
+				if (jsapArgs.userSpecified("sourceRoot") && getFile("sourceRoot") != null) {
+					sourceRootDir = getFile("sourceRoot");
 				}
 
 				JSweetFactory factory = null;
@@ -681,8 +998,23 @@ public class JSweetCommandLineLauncher {
 					factory = new JSweetFactory();
 				}
 
-				JSweetTranspiler transpiler = new JSweetTranspiler(factory, jsapArgs.getFile("workingDir"), tsOutputDir,
-						jsOutputDir, candiesJsOutputDir, classPath);
+				JSweetTranspiler transpiler = keptTranspiler;
+				if (transpiler == null) {
+					transpiler = new JSweetTranspiler(baseDirectory, null, factory, getFile("workingDir"),
+							tsOutputDir, jsOutputDir, candiesJsOutputDir, classPath);
+				}
+				if (incremental || jsapArgs.getBoolean(JSweetOptions.incremental)) {
+					// keep the transpiler (and its incremental state) for the
+					// next runs
+					transpiler.setIncremental(true);
+					keptTranspiler = transpiler;
+				} else if (keepTranspiler) {
+					keptTranspiler = transpiler;
+				}
+				if (keptTranspiler != null) {
+					// the class path symbols can be reused for the next runs
+					transpiler.setReuseJavacState(true);
+				}
 
 				if (jsapArgs.userSpecified("bundle")) {
 					transpiler.setBundle(jsapArgs.getBoolean("bundle"));
@@ -722,7 +1054,7 @@ public class JSweetCommandLineLauncher {
 					transpiler.setDeclarationsOutputDir(dtsOutputDir);
 				}
 				if (jsapArgs.userSpecified("header")) {
-					transpiler.setHeaderFile(jsapArgs.getFile("header"));
+					transpiler.setHeaderFile(getFile("header"));
 				}
 				if (jsapArgs.userSpecified("targetVersion")) {
 					transpiler.setEcmaTargetVersion(
@@ -734,6 +1066,34 @@ public class JSweetCommandLineLauncher {
 				if (jsapArgs.userSpecified(JSweetOptions.extraSystemPath)) {
 					ProcessUtil.addExtraPath(jsapArgs.getString(JSweetOptions.extraSystemPath));
 				}
+				if (jsapArgs.userSpecified(JSweetOptions.parallelPrinting)) {
+					transpiler.setParallelPrinting(jsapArgs.getBoolean(JSweetOptions.parallelPrinting));
+				}
+				if (jsapArgs.userSpecified(JSweetOptions.parallelTsc)) {
+					transpiler.setParallelTsc(jsapArgs.getBoolean(JSweetOptions.parallelTsc));
+				}
+				if (jsapArgs.userSpecified(JSweetOptions.directJavaScript)) {
+					transpiler.setDirectJavaScript(jsapArgs.getBoolean(JSweetOptions.directJavaScript));
+					// the JavaScript files are generated as ES2015 code
+					if (transpiler.isDirectJavaScript() && !jsapArgs.userSpecified("targetVersion")) {
+						transpiler.setEcmaTargetVersion(EcmaScriptComplianceLevel.ES6);
+					}
+				}
+				if (jsapArgs.userSpecified(JSweetOptions.metricsFile)) {
+					transpiler.setMetricsFile(getFile(JSweetOptions.metricsFile));
+				}
+				if (jsapArgs.userSpecified(JSweetOptions.traceFile)) {
+					transpiler.setTraceFile(getFile(JSweetOptions.traceFile));
+				}
+				if (jsapArgs.userSpecified(JSweetOptions.jmxMetrics)) {
+					transpiler.setJmxMetrics(jsapArgs.getBoolean(JSweetOptions.jmxMetrics));
+				}
+				if (jsapArgs.userSpecified(JSweetOptions.typedArrays)) {
+					transpiler.setTypedArrays(jsapArgs.getBoolean(JSweetOptions.typedArrays));
+				}
+				if (jsapArgs.userSpecified(JSweetOptions.nativeMaps)) {
+					transpiler.setNativeMaps(jsapArgs.getBoolean(JSweetOptions.nativeMaps));
+				}
 
 				if (tsOutputDir != null) {
 					transpiler.setTsOutputDir(tsOutputDir);
@@ -744,14 +1104,14 @@ public class JSweetCommandLineLauncher {
 
 				// transpiler.setAdapters(Arrays.asList(jsapArgs.getStringArray("adapters")));
 
-				List<File> files = Arrays.asList(jsapArgs.getFileArray("defInput"));
+				List<File> files = resolve(jsapArgs.getFileArray("defInput"));
 				logger.info("definition input dirs: " + files);
 
 				for (File f : files) {
 					transpiler.addTsDefDir(f);
 				}
 
-				transpiler.transpile(transpilationHandler, SourceFile.toSourceFiles(javaInputFiles));
+				transpiler.transpile(transpilationHandler, changedFiles, SourceFile.toSourceFiles(javaInputFiles));
 			} catch (NoClassDefFoundError error) {
 				transpilationHandler.report(JSweetProblem.JAVA_COMPILER_NOT_FOUND, null,
 						JSweetProblem.JAVA_COMPILER_NOT_FOUND.getMessage());
@@ -0,0 +1,413 @@
+/* 
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet;
+
+import static org.jsweet.transpiler.TranspilationHandler.OUTPUT_LOGGER;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.log4j.Logger;
+import org.jsweet.JSweetCommandLineLauncher.JSweetTranspilationTask;
+import org.jsweet.transpiler.JSweetOptions;
+import org.jsweet.transpiler.JSweetProblem;
+import org.jsweet.transpiler.JSweetTranspiler;
+import org.jsweet.transpiler.Severity;
+import org.jsweet.transpiler.SourceFile;
+import org.jsweet.transpiler.SourcePosition;
+import org.jsweet.transpiler.TranspilationHandler;
+import org.jsweet.transpiler.util.ProcessUtil;
+
+import com.google.gson.Gson;
+import com.martiansoftware.jsap.JSAP;
+import com.martiansoftware.jsap.JSAPResult;
+
+/**
+ * A long-lived JSweet process that serves transpilation requests on a local
+ * port.
+ * 
+ * <p>
+ * The daemon keeps one transpilation task (and thus one transpiler) per
+ * distinct command line, so that the Node.js and TypeScript checks, the
+ * candies processing and the JVM warm-up are done once, and not for each build.
+ * Clients send the command line arguments (see {@link JSweetCommandLineLauncher})
+ * and the directory the relative paths should be resolved against, and receive
+ * the reported problems and the exit code.
+ * 
+ * <p>
+ * Since the requests run with the rights of the daemon's user, the clients
+ * must prove they are run by the same user: when started, the daemon writes a
+ * random token to a file only readable by its owner (see
+ * {@link #getDefaultTokenFile(int)}), and the requests not holding this token
+ * are rejected. The options that change the state of the whole process (the
+ * log level, the extra system path and the JDK home) are the ones given to the
+ * daemon: the requests giving different values are rejected, and the verbosity
+ * options of the requests are ignored.
+ * 
+ * <p>
+ * Each connection is handled by its own thread, and must send its request
+ * within a short delay (see {@link #setRequestTimeout(int)}), so that an idle
+ * or slow client cannot hold the daemon. Once authenticated, the requests are
+ * served one at a time.
+ * 
+ * <p>
+ * Protocol: the client sends one JSON request line (<code>{"token":...,
+ * "directory":..., "args":[...]}</code>), and the daemon answers with one JSON
+ * line per reported problem (<code>{"severity":..., "message":...}</code>),
+ * followed by a last line holding the exit code (<code>{"exitCode":...}</code>).
+ * 
+ * @author Renaud Pawlak
+ */
+public class JSweetDaemon {
+
+	private static final Logger logger = Logger.getLogger(JSweetDaemon.class);
+
+	/**
+	 * The default port of the daemon.
+	 */
+	public static final int DEFAULT_PORT = 9797;
+
+	/**
+	 * The maximum number of transpilation tasks kept alive by the daemon.
+	 */
+	public static final int MAX_TASKS = 8;
+
+	/**
+	 * The default delay, in milliseconds, given to the clients to send their
+	 * request once connected.
+	 */
+	public static final int DEFAULT_REQUEST_TIMEOUT = 10000;
+
+	private static final Gson gson = new Gson();
+
+	/**
+	 * The options that apply to the whole daemon process, and that cannot be
+	 * changed by a request.
+	 */
+	private static final String[] PROCESS_OPTIONS = { JSweetOptions.extraSystemPath, "jdkHome" };
+
+	private static class Request {
+		String token;
+		String directory;
+		String[] args;
+	}
+
+	private static class Response {
+		String severity;
+		String message;
+		Integer exitCode;
+	}
+
+	private int port;
+	private File tokenFile;
+	private JSAPResult daemonArgs;
+	private String token;
+	private volatile ServerSocket serverSocket;
+	private volatile int requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+
+	private Map<String, JSweetTranspilationTask> tasks = new LinkedHashMap<String, JSweetTranspilationTask>(16,
+			0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Entry<String, JSweetTranspilationTask> eldest) {
+			return size() > MAX_TASKS;
+		}
+	};
+
+	/**
+	 * Creates a daemon that will listen on the given local port.
+	 * 
+	 * @param port
+	 *            the local port
+	 * @param tokenFile
+	 *            the file where the token expected from the clients is written
+	 * @param daemonArgs
+	 *            the command line arguments the daemon was started with (may be
+	 *            null)
+	 */
+	public JSweetDaemon(int port, File tokenFile, JSAPResult daemonArgs) {
+		this.port = port;
+		this.tokenFile = tokenFile;
+		this.daemonArgs = daemonArgs;
+	}
+
+	/**
+	 * Sets the delay, in milliseconds, given to the clients to send their
+	 * request once connected (defaults to {@link #DEFAULT_REQUEST_TIMEOUT}).
+	 * The connections that do not send a complete request line in time are
+	 * closed.
+	 */
+	public void setRequestTimeout(int requestTimeout) {
+		this.requestTimeout = requestTimeout;
+	}
+
+	/**
+	 * Gets the file where the daemon listening on the given port writes its
+	 * token, in the user's home directory.
+	 */
+	public static File getDefaultTokenFile(int port) {
+		return new File(ProcessUtil.USER_HOME_DIR, ".jsweet" + File.separator + "daemon-" + port + ".token");
+	}
+
+	/**
+	 * Starts this daemon (never returns unless the port cannot be used or the
+	 * daemon is stopped).
+	 */
+	public void execute() throws Exception {
+		JSAP jsapSpec = JSweetCommandLineLauncher.defineArgs();
+		if (daemonArgs != null && daemonArgs.userSpecified(JSweetOptions.extraSystemPath)) {
+			ProcessUtil.addExtraPath(String.valueOf(daemonArgs.getObject(JSweetOptions.extraSystemPath)));
+		}
+		ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "jsweet-daemon-connection");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try (ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+			this.serverSocket = serverSocket;
+			token = writeToken(tokenFile);
+			OUTPUT_LOGGER.info("JSweet daemon listening on port " + port);
+			while (!serverSocket.isClosed()) {
+				try {
+					Socket socket = serverSocket.accept();
+					connections.execute(() -> handle(jsapSpec, socket));
+				} catch (Exception e) {
+					if (!serverSocket.isClosed()) {
+						logger.error("daemon connection failed", e);
+					}
+				}
+			}
+		} finally {
+			connections.shutdown();
+			tokenFile.delete();
+		}
+	}
+
+	private void handle(JSAP jsapSpec, Socket socket) {
+		try (Socket s = socket) {
+			serve(jsapSpec, s);
+		} catch (SocketTimeoutException e) {
+			logger.warn("closed daemon connection: no request received in time");
+		} catch (Exception e) {
+			if (!serverSocket.isClosed()) {
+				logger.error("daemon request failed", e);
+			}
+		}
+	}
+
+	/**
+	 * Stops this daemon (the requests being served, if any, are completed).
+	 */
+	public void stop() throws IOException {
+		if (serverSocket != null) {
+			serverSocket.close();
+		}
+	}
+
+	/**
+	 * Writes a new random token to the given file, which is made readable by
+	 * its owner only.
+	 */
+	private static String writeToken(File tokenFile) throws IOException {
+		byte[] bytes = new byte[32];
+		new SecureRandom().nextBytes(bytes);
+		String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+		tokenFile.getParentFile().mkdirs();
+		Path path = tokenFile.toPath();
+		Files.deleteIfExists(path);
+		try {
+			Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+		} catch (UnsupportedOperationException e) {
+			// not a POSIX file system
+			Files.createFile(path);
+			tokenFile.setReadable(false, false);
+			tokenFile.setWritable(false, false);
+			tokenFile.setReadable(true, true);
+			tokenFile.setWritable(true, true);
+		}
+		Files.write(path, token.getBytes(StandardCharsets.UTF_8));
+		return token;
+	}
+
+	private static String readToken(File tokenFile) throws IOException {
+		if (!tokenFile.exists()) {
+			throw new IOException("JSweet daemon token file not found: " + tokenFile);
+		}
+		return new String(Files.readAllBytes(tokenFile.toPath()), StandardCharsets.UTF_8).trim();
+	}
+
+	private void serve(JSAP jsapSpec, Socket socket) throws Exception {
+		BufferedReader in = new BufferedReader(
+				new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+		PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+		socket.setSoTimeout(requestTimeout);
+		Request request = gson.fromJson(in.readLine(), Request.class);
+		if (request == null || request.token == null || !MessageDigest
+				.isEqual(request.token.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+			logger.warn("rejected unauthenticated daemon request");
+			send(out, Severity.ERROR, "invalid JSweet daemon token");
+			sendExitCode(out, -1);
+			return;
+		}
+		// the transpilation may take longer than the request timeout
+		socket.setSoTimeout(0);
+		synchronized (tasks) {
+			transpile(jsapSpec, request, out);
+		}
+	}
+
+	private void transpile(JSAP jsapSpec, Request request, PrintWriter out) throws Exception {
+		if (request.args == null) {
+			sendExitCode(out, -1);
+			return;
+		}
+		JSAPResult jsapArgs = jsapSpec.parse(request.args);
+		if (!jsapArgs.success()) {
+			for (Iterator<?> errs = jsapArgs.getErrorMessageIterator(); errs.hasNext();) {
+				send(out, Severity.ERROR, "" + errs.next());
+			}
+			sendExitCode(out, -1);
+			return;
+		}
+		for (String option : PROCESS_OPTIONS) {
+			if (jsapArgs.userSpecified(option) && (daemonArgs == null || !daemonArgs.userSpecified(option)
+					|| !Objects.equals(jsapArgs.getObject(option), daemonArgs.getObject(option)))) {
+				send(out, Severity.ERROR, "the '" + option + "' option must be given when starting the daemon");
+				sendExitCode(out, -1);
+				return;
+			}
+		}
+
+		String key = request.directory + File.pathSeparator + String.join(" ", request.args);
+		JSweetTranspilationTask task = tasks.get(key);
+		if (task == null) {
+			logger.info("new transpilation task: " + key);
+			task = new JSweetTranspilationTask(jsapArgs,
+					request.directory == null ? null : new File(request.directory));
+			task.setKeepTranspiler(true);
+			tasks.put(key, task);
+		}
+		task.run(new TranspilationHandler() {
+			@Override
+			public void report(JSweetProblem problem, SourcePosition sourcePosition, String message) {
+				if (sourcePosition != null && sourcePosition.getFile() != null) {
+					message += " at " + sourcePosition.getFile() + "(" + sourcePosition.getStartLine() + ")";
+				}
+				send(out, problem.getSeverity(), message);
+			}
+
+			@Override
+			public void onCompleted(JSweetTranspiler transpiler, boolean fullPass, SourceFile[] files) {
+			}
+		});
+		sendExitCode(out, task.getErrorCount() > 0 ? 1 : 0);
+	}
+
+	private static synchronized void send(PrintWriter out, Severity severity, String message) {
+		Response response = new Response();
+		response.severity = severity.name();
+		response.message = message;
+		out.println(gson.toJson(response));
+		out.flush();
+	}
+
+	private static void sendExitCode(PrintWriter out, int exitCode) {
+		Response response = new Response();
+		response.exitCode = exitCode;
+		out.println(gson.toJson(response));
+		out.flush();
+	}
+
+	/**
+	 * Sends a transpilation request to a running daemon and logs the reported
+	 * problems as the command line launcher would do.
+	 * 
+	 * @param port
+	 *            the daemon's port
+	 * @param tokenFile
+	 *            the file holding the daemon's token
+	 * @param directory
+	 *            the directory the relative paths of the arguments are resolved
+	 *            against
+	 * @param args
+	 *            the command line arguments
+	 * @return the exit code of the transpilation
+	 * @throws IOException
+	 *             if no daemon is listening on the given port
+	 */
+	public static int connect(int port, File tokenFile, File directory, String[] args) throws IOException {
+		String token = readToken(tokenFile);
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			PrintWriter out = new PrintWriter(
+					new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+			Request request = new Request();
+			request.token = token;
+			request.directory = directory.getAbsolutePath();
+			request.args = args;
+			out.println(gson.toJson(request));
+			out.flush();
+
+			BufferedReader in = new BufferedReader(
+					new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			String line;
+			while ((line = in.readLine()) != null) {
+				Response response = gson.fromJson(line, Response.class);
+				if (response.exitCode != null) {
+					return response.exitCode;
+				}
+				switch (Severity.valueOf(response.severity)) {
+				case ERROR:
+					OUTPUT_LOGGER.error(response.message);
+					break;
+				case WARNING:
+					OUTPUT_LOGGER.warn(response.message);
+					break;
+				case MESSAGE:
+					OUTPUT_LOGGER.info(response.message);
+					break;
+				}
+			}
+			throw new IOException("connection to the JSweet daemon closed before completion");
+		}
+	}
+
+}
@@ -18,7 +18,6 @@
  */
 package org.jsweet;
 
-import static java.nio.file.FileVisitResult.CONTINUE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
@@ -27,26 +26,35 @@ import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.FileSystems;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
-import java.nio.file.attribute.BasicFileAttributes;
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.log4j.Logger;
 
 import com.sun.nio.file.SensitivityWatchEventModifier;
 
 /**
- * A watch thread to recompile the project when changed.
+ * A watcher to recompile the project when changed.
+ * 
+ * <p>
+ * The watcher blocks until a file changes in the input directories, then waits
+ * for the changes to settle (see {@link #setDebounceDelay(long)}), so that a
+ * burst of changes (for instance when saving several files at once) leads to
+ * only one transpilation. Changes that never settle (for instance when a tool
+ * keeps writing files) are transpiled at the latest after
+ * {@link #setMaxDebounceDelay(long)}. The changed files are passed to
+ * {@link TranspilationTask#run(java.util.Collection)}. New sub-directories are
+ * watched as soon as they are created.
  * 
  * @author EPOTH - ponthiaux.e@sfeir.com -/- ponthiaux.eric@gmail.com
  * @author Louis Grignon On the fly transpilation through maven
@@ -57,13 +65,19 @@ public class JSweetFileWatcher {
 
 	private static final Logger logger = Logger.getLogger(JSweetFileWatcher.class);
 
-	private TranspilationThread transpilationThread;
-
 	private static final SensitivityWatchEventModifier SENSITIVITY_WATCH_EVENT_MODIFIER = SensitivityWatchEventModifier.HIGH;
 
-	private static ReentrantLock __Lock = new ReentrantLock();
+	/**
+	 * The default delay (in milliseconds) without any change after which the
+	 * accumulated changes are transpiled.
+	 */
+	public static final long DEFAULT_DEBOUNCE_DELAY = 300;
 
-	private static LinkedList<String> __RandomKeysTrigger = new LinkedList<>();
+	/**
+	 * The default maximum delay (in milliseconds) between the first change and
+	 * the transpilation of the accumulated changes.
+	 */
+	public static final long DEFAULT_MAX_DEBOUNCE_DELAY = 3000;
 
 	/**
 	 * Holds the JSweet transpilation task, which is going to be executed when a
@@ -71,6 +85,14 @@ public class JSweetFileWatcher {
 	 */
 	protected TranspilationTask transpilationTask;
 
+	private long debounceDelay = DEFAULT_DEBOUNCE_DELAY;
+
+	private long maxDebounceDelay = DEFAULT_MAX_DEBOUNCE_DELAY;
+
+	private WatchService watchService;
+
+	private Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+
 	/**
 	 * Creates a new watcher with a JSweet transpilation task, which is going to
 	 * be executed when a watched file changes.
@@ -83,208 +105,136 @@ public class JSweetFileWatcher {
 	}
 
 	/**
-	 * Starts this watcher.
+	 * Sets the delay (in milliseconds) without any change after which the
+	 * accumulated changes are transpiled.
 	 */
-	public void execute() {
-
-		logger.info("starting file watcher... ");
-
-		transpilationThread = new TranspilationThread();
-		transpilationThread.start();
+	public void setDebounceDelay(long debounceDelay) {
+		this.debounceDelay = debounceDelay;
+	}
 
-		initialize();
+	/**
+	 * Sets the maximum delay (in milliseconds) between the first change and the
+	 * transpilation of the accumulated changes, even if changes keep coming.
+	 */
+	public void setMaxDebounceDelay(long maxDebounceDelay) {
+		this.maxDebounceDelay = maxDebounceDelay;
 	}
 
-	private void initialize() {
+	/**
+	 * Starts this watcher (never returns unless the watch service fails or the
+	 * current thread is interrupted).
+	 */
+	public void execute() {
 
-		List<File> sourcePaths = transpilationTask.getInputDirList();
+		logger.info("starting file watcher... ");
 
 		try {
+			watchService = FileSystems.getDefault().newWatchService();
 
-			for (;;) {
-
-				WatchService watchService = FileSystems.getDefault().newWatchService();
-
-				List<Path> watchedPaths = new ArrayList<>();
-
-				logger.info("registering source paths");
-
-				for (File sourceDirectory : sourcePaths) {
-					Path path = sourceDirectory.toPath();
-					watchedPaths.add(path);
-					walkDirectoryTree(path, watchedPaths, watchService);
-				}
-
-				logger.info("done registering source paths");
+			logger.info("registering source paths");
+			for (File sourceDirectory : transpilationTask.getInputDirList()) {
+				registerDirectoryTree(sourceDirectory.toPath(), null);
+			}
+			logger.info("done registering source paths");
 
+			for (;;) {
 				logger.info("listening for file change... ");
-
+				Set<File> changedFiles = new LinkedHashSet<>();
+				// block until the first change, then wait until changes settle
+				boolean overflow = pollEvents(watchService.take(), changedFiles);
+				long deadline = System.currentTimeMillis() + maxDebounceDelay;
+				long remaining;
+				WatchKey key;
+				while ((remaining = deadline - System.currentTimeMillis()) > 0 && (key = watchService
+						.poll(Math.min(debounceDelay, remaining), TimeUnit.MILLISECONDS)) != null) {
+					overflow |= pollEvents(key, changedFiles);
+				}
+				if (watchedDirectories.isEmpty()) {
+					logger.error("no more directories to watch");
+					break;
+				}
 				try {
-					watch(watchService);
+					if (overflow) {
+						logger.info("too many changes: running full transpilation");
+						transpilationTask.run();
+					} else if (!changedFiles.isEmpty()) {
+						logger.info("transpiling after " + changedFiles.size() + " file change(s)");
+						transpilationTask.run(changedFiles);
+					}
 				} catch (Exception exception) {
-					watchService.close();
+					logger.error(exception.getMessage(), exception);
 				}
-
-				Thread.yield();
-
 			}
 
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
 		} catch (IOException ioException) {
-
 			logger.error(ioException);
-
+		} finally {
+			if (watchService != null) {
+				try {
+					watchService.close();
+				} catch (IOException ioException) {
+					logger.error(ioException);
+				}
+			}
 		}
 	}
 
-	private void walkDirectoryTree(Path startPath, List<Path> watchedPaths, WatchService watchService)
-			throws IOException {
-
-		RegisteringFileTreeScanner scanner = new RegisteringFileTreeScanner(watchedPaths, watchService);
-
-		Files.walkFileTree(startPath, scanner);
-
-	}
-
-	private void watch(WatchService watchService) throws Exception {
-
-		for (;;) {
-
-			WatchKey key;
-
-			try {
-
-				key = watchService.take();
-
-			} catch (InterruptedException x) {
-
-				return;
-
+	/**
+	 * Collects the changed files of the given key's events.
+	 * 
+	 * @return true if some events were lost
+	 */
+	private boolean pollEvents(WatchKey key, Set<File> changedFiles) {
+		boolean overflow = false;
+		Path directory = watchedDirectories.get(key);
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == OVERFLOW) {
+				overflow = true;
+				continue;
 			}
-
-			for (WatchEvent<?> event : key.pollEvents()) {
-
-				WatchEvent.Kind<?> kind = event.kind();
-
-				if (kind == OVERFLOW) {
-					continue;
-				}
-
-				@SuppressWarnings("unchecked")
-				WatchEvent<Path> ev = (WatchEvent<Path>) event;
-
-				Path filename = ev.context();
-				if (kind == ENTRY_MODIFY || kind == ENTRY_CREATE || kind == ENTRY_DELETE) {
-
-					logger.info("file change detected" + filename);
-
-					__Lock.lock();
-
-					__RandomKeysTrigger.add(UUID.randomUUID().toString());
-
-					__Lock.unlock();
-
-				}
-
+			if (directory == null) {
+				continue;
 			}
-
-			boolean valid = key.reset();
-			if (!valid) {
-				break;
+			Path path = directory.resolve((Path) event.context());
+			logger.info("file change detected: " + path);
+			changedFiles.add(path.toFile());
+			if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+				// files may have been created before the registration
+				registerDirectoryTree(path, changedFiles);
 			}
 		}
-
-		/* */
-
-		try {
-			watchService.close();
-		} catch (IOException ioException) {
-			logger.error(ioException);
+		if (!key.reset()) {
+			watchedDirectories.remove(key);
 		}
-
-		/* */
+		return overflow;
 	}
 
-	private static class RegisteringFileTreeScanner extends SimpleFileVisitor<Path> {
-
-		private List<Path> directories;
-		private WatchService watchService;
-
-		public RegisteringFileTreeScanner(List<Path> directories, WatchService watchService) {
-
-			this.directories = directories;
-			this.watchService = watchService;
-
-		}
-
-		@Override
-		public FileVisitResult visitFile(Path file, BasicFileAttributes attr) {
-
-			// --> DO NOTHING
-
-			return CONTINUE;
-		}
-
-		@Override
-		public FileVisitResult postVisitDirectory(Path directory, IOException exc) {
-
-			directories.add(directory);
-
-			try {
-
-				directory.register(
-
-						this.watchService,
-
-						new WatchEvent.Kind[] { ENTRY_MODIFY, ENTRY_CREATE, ENTRY_DELETE, OVERFLOW },
-
-						SENSITIVITY_WATCH_EVENT_MODIFIER
-
-				);
-
-				logger.info("added [" + directory.toString() + "]");
-
-			} catch (IOException ioException) {
-
-				logger.error("cannot register [" + directory.toString() + "]");
-
+	private void registerDirectoryTree(Path startPath, Set<File> existingFiles) {
+		try (Stream<Path> paths = Files.walk(startPath)) {
+			for (Path path : paths.collect(Collectors.toList())) {
+				if (Files.isDirectory(path)) {
+					register(path);
+				} else if (existingFiles != null) {
+					existingFiles.add(path.toFile());
+				}
 			}
-
-			return CONTINUE;
-		}
-
-		@Override
-		public FileVisitResult visitFileFailed(Path file, IOException exc) {
-
-			// --> DO NOTHING
-
-			return CONTINUE;
+		} catch (IOException ioException) {
+			logger.error("cannot register [" + startPath + "]", ioException);
 		}
 	}
 
-	private class TranspilationThread extends Thread {
-
-		public TranspilationThread() {
-			setPriority(Thread.MAX_PRIORITY);
-		}
-
-		public void run() {
-
-			for (;;) {
-
-				if (__Lock.tryLock()) {
-
-					if (__RandomKeysTrigger.size() != 0) {
-						__RandomKeysTrigger.removeLast();
-						try {
-							transpilationTask.run();
-						} catch (Exception exception) {
-							logger.info(exception.getMessage());
-						}
-					}
-					__Lock.unlock();
-				}
-				yield();
-			}
+	private void register(Path directory) {
+		try {
+			WatchKey key = directory.register(watchService,
+					new WatchEvent.Kind[] { ENTRY_MODIFY, ENTRY_CREATE, ENTRY_DELETE, OVERFLOW },
+					SENSITIVITY_WATCH_EVENT_MODIFIER);
+			watchedDirectories.put(key, directory);
+			logger.info("added [" + directory + "]");
+		} catch (IOException ioException) {
+			logger.error("cannot register [" + directory + "]");
 		}
 	}
+
 }
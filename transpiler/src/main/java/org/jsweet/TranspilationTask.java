@@ -19,6 +19,7 @@
 package org.jsweet;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -34,6 +35,21 @@ public interface TranspilationTask {
 	 */
 	void run() throws Exception;
 
+	/**
+	 * Runs the transpilation task after some files changed in the input
+	 * directories. By default, this method runs the whole task again, so
+	 * implementations should override it to restrict the work to the changed
+	 * files (and to the files that depend on them), for instance by running an
+	 * incremental transpiler.
+	 * 
+	 * @param changedFiles
+	 *            the files that were created, modified or deleted since the last
+	 *            run (any kind of file, including directories)
+	 */
+	default void run(Collection<File> changedFiles) throws Exception {
+		run();
+	}
+
 	/**
 	 * Gets the list of input directories this transpilation task works on.
 	 */
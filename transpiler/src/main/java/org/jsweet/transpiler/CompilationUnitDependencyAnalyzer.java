@@ -0,0 +1,151 @@
+/* 
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.PackageSymbol;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
+import com.sun.tools.javac.tree.JCTree.JCIdent;
+import com.sun.tools.javac.tree.JCTree.JCMemberReference;
+import com.sun.tools.javac.tree.JCTree.JCNewClass;
+import com.sun.tools.javac.tree.TreeScanner;
+
+/**
+ * This AST scanner calculates, for each compilation unit, the set of other
+ * compilation units it depends on. A compilation unit depends on another one
+ * as soon as it refers to one of the symbols declared in it (supertypes,
+ * invoked methods and overloads, accessed fields, annotations, static
+ * initializers, ...).
+ *
+ * <p>
+ * This information is used by the transpiler in incremental mode to only
+ * regenerate the compilation units that have changed and the ones that depend
+ * on them.
+ *
+ * @see JSweetTranspiler#setIncremental(boolean)
+ * @author Renaud Pawlak
+ */
+public class CompilationUnitDependencyAnalyzer extends TreeScanner {
+
+	private static final Logger logger = Logger.getLogger(CompilationUnitDependencyAnalyzer.class);
+
+	private JCCompilationUnit currentTopLevel;
+	private int pass = 1;
+
+	/**
+	 * Maps the outermost types to the compilation units in which they are
+	 * declared.
+	 */
+	public Map<ClassSymbol, JCCompilationUnit> typesToCompilationUnits = new HashMap<>();
+
+	/**
+	 * Maps each compilation unit to the compilation units it depends on.
+	 */
+	public Map<JCCompilationUnit, Set<JCCompilationUnit>> dependencies = new HashMap<>();
+
+	@Override
+	public void visitTopLevel(JCCompilationUnit compilationUnit) {
+		currentTopLevel = compilationUnit;
+		if (pass == 2) {
+			dependencies.put(compilationUnit, new HashSet<>());
+		}
+		super.visitTopLevel(compilationUnit);
+		currentTopLevel = null;
+	}
+
+	@Override
+	public void visitClassDef(JCClassDecl classdecl) {
+		if (pass == 1) {
+			if (classdecl.sym != null && classdecl.sym.owner instanceof PackageSymbol) {
+				typesToCompilationUnits.put(classdecl.sym, currentTopLevel);
+			}
+			return;
+		}
+		super.visitClassDef(classdecl);
+	}
+
+	@Override
+	public void visitIdent(JCIdent ident) {
+		addDependency(ident.sym);
+		super.visitIdent(ident);
+	}
+
+	@Override
+	public void visitSelect(JCFieldAccess fieldAccess) {
+		addDependency(fieldAccess.sym);
+		super.visitSelect(fieldAccess);
+	}
+
+	@Override
+	public void visitNewClass(JCNewClass newClass) {
+		addDependency(newClass.constructor);
+		super.visitNewClass(newClass);
+	}
+
+	@Override
+	public void visitReference(JCMemberReference memberReference) {
+		addDependency(memberReference.sym);
+		super.visitReference(memberReference);
+	}
+
+	private void addDependency(Symbol symbol) {
+		if (pass == 1 || symbol == null || symbol instanceof PackageSymbol) {
+			return;
+		}
+		Symbol outermostClass = symbol;
+		while (outermostClass.owner != null && !(outermostClass.owner instanceof PackageSymbol)) {
+			outermostClass = outermostClass.owner;
+		}
+		if (!(outermostClass instanceof ClassSymbol)) {
+			return;
+		}
+		JCCompilationUnit target = typesToCompilationUnits.get(outermostClass);
+		if (target != null && target != currentTopLevel) {
+			if (dependencies.get(currentTopLevel).add(target)) {
+				logger.trace("adding dependency: " + currentTopLevel.getSourceFile().getName() + " -> "
+						+ target.getSourceFile().getName());
+			}
+		}
+	}
+
+	/**
+	 * Processes all the given compilation units.
+	 */
+	public void process(Collection<JCCompilationUnit> compilationUnits) {
+		for (JCCompilationUnit cu : compilationUnits) {
+			scan(cu);
+		}
+		pass++;
+		for (JCCompilationUnit cu : compilationUnits) {
+			scan(cu);
+		}
+	}
+
+}
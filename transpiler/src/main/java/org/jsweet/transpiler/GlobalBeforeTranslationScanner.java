@@ -74,6 +74,8 @@ public class GlobalBeforeTranslationScanner extends AbstractTreeScanner {
 
 	@Override
 	public void visitClassDef(JCClassDecl classdecl) {
+		context.registerDeclaration(classdecl.sym, classdecl);
+
 		if (getCompilationUnit().docComments.hasComment(classdecl)) {
 			context.docComments.put(classdecl.sym, getCompilationUnit().docComments.getCommentText(classdecl));
 		}
@@ -156,6 +158,8 @@ public class GlobalBeforeTranslationScanner extends AbstractTreeScanner {
 
 	@Override
 	public void visitMethodDef(JCMethodDecl methodDecl) {
+		context.registerDeclaration(methodDecl.sym, methodDecl);
+
 		if (getCompilationUnit().docComments.hasComment(methodDecl)) {
 			context.docComments.put(methodDecl.sym, getCompilationUnit().docComments.getCommentText(methodDecl));
 		}
@@ -168,6 +172,12 @@ public class GlobalBeforeTranslationScanner extends AbstractTreeScanner {
 		}
 	}
 
+	@Override
+	public void visitVarDef(JCVariableDecl varDecl) {
+		context.registerDeclaration(varDecl.sym, varDecl);
+		super.visitVarDef(varDecl);
+	}
+
 	@Override
 	public void visitWildcard(JCWildcard wildcard) {
 		Symbol container = null;
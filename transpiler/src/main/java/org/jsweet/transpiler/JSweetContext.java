@@ -26,16 +26,21 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
 import java.util.AbstractMap;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -115,6 +120,134 @@ public class JSweetContext extends Context {
 		}
 	}
 
+	/**
+	 * All the annotation filters of a given annotation type, compiled into a
+	 * trie on the dotted segments of the literal prefixes of the inclusion
+	 * filters, so that only the filters that can match a signature are
+	 * evaluated.
+	 */
+	private static class AnnotationFilterMatcher {
+
+		private static class InclusionFilter {
+			final int order;
+			final Pattern pattern;
+			final AnnotationFilterDescriptor descriptor;
+
+			InclusionFilter(int order, Pattern pattern, AnnotationFilterDescriptor descriptor) {
+				this.order = order;
+				this.pattern = pattern;
+				this.descriptor = descriptor;
+			}
+		}
+
+		private static class Node {
+			Map<String, Node> children;
+			List<InclusionFilter> filters;
+		}
+
+		private final Node root = new Node();
+
+		public AnnotationFilterMatcher(Collection<AnnotationFilterDescriptor> descriptors) {
+			int order = 0;
+			for (AnnotationFilterDescriptor descriptor : descriptors) {
+				if (descriptor.inclusionPatterns == null) {
+					continue;
+				}
+				for (Pattern inclusionPattern : descriptor.inclusionPatterns) {
+					Node node = root;
+					for (String segment : getLiteralSegments(inclusionPattern)) {
+						if (node.children == null) {
+							node.children = new HashMap<>();
+						}
+						node = node.children.computeIfAbsent(segment, k -> new Node());
+					}
+					if (node.filters == null) {
+						node.filters = new ArrayList<>();
+					}
+					node.filters.add(new InclusionFilter(order++, inclusionPattern, descriptor));
+				}
+			}
+		}
+
+		/**
+		 * Gets the leading segments of the filter that are plain identifiers
+		 * followed by a dot (for instance x, y, and z for x.y.z.A.*(..)).
+		 */
+		private static List<String> getLiteralSegments(Pattern pattern) {
+			// the regexp was created by toRegexp, so dots are escaped
+			String regexp = pattern.pattern();
+			List<String> segments = new ArrayList<>();
+			int start = 0;
+			for (int i = 0; i < regexp.length(); i++) {
+				char c = regexp.charAt(i);
+				if (c == '\\' && i + 1 < regexp.length() && regexp.charAt(i + 1) == '.' && i > start) {
+					segments.add(regexp.substring(start, i));
+					start = i + 2;
+					i++;
+				} else if (!Character.isJavaIdentifierPart(c) || c == '$') {
+					break;
+				}
+			}
+			return segments;
+		}
+
+		/**
+		 * Returns the first descriptor (in declaration order) that has an
+		 * inclusion filter matching the given signature and no exclusion
+		 * filter matching it, null if none.
+		 */
+		public AnnotationFilterDescriptor match(String signature) {
+			List<InclusionFilter> candidates = null;
+			boolean sort = false;
+			Node node = root;
+			int start = 0;
+			while (node != null) {
+				if (node.filters != null) {
+					if (candidates == null) {
+						candidates = node.filters;
+					} else {
+						if (!sort) {
+							candidates = new ArrayList<>(candidates);
+							sort = true;
+						}
+						candidates.addAll(node.filters);
+					}
+				}
+				int end = signature.indexOf('.', start);
+				int parametersStart = signature.indexOf('(', start);
+				if (node.children == null || end < 0 || (parametersStart >= 0 && parametersStart < end)) {
+					break;
+				}
+				node = node.children.get(signature.substring(start, end));
+				start = end + 1;
+			}
+			if (candidates == null) {
+				return null;
+			}
+			if (sort) {
+				candidates.sort((f1, f2) -> Integer.compare(f1.order, f2.order));
+			}
+			for (InclusionFilter candidate : candidates) {
+				if (candidate.pattern.matcher(signature).matches()) {
+					boolean excluded = false;
+					Collection<Pattern> excludePatterns = candidate.descriptor.exclusionPatterns;
+					if (excludePatterns != null) {
+						for (Pattern exclude : excludePatterns) {
+							if (exclude.matcher(signature).matches()) {
+								excluded = true;
+								break;
+							}
+						}
+					}
+					if (!excluded) {
+						return candidate.descriptor;
+					}
+				}
+			}
+			return null;
+		}
+	}
+
 	private Map<String, TypeMirror> jdkSubclasses = new HashMap<>();
 
 	/**
@@ -260,6 +393,8 @@ public class JSweetContext extends Context {
 	 */
 	public final void addAnnotationManager(AnnotationManager annotationManager) {
 		annotationManagers.add(annotationManager);
+		// managers can add or remove @Name and @Root annotations
+		clearRootRelativeNameCaches();
 	}
 
 	/**
@@ -270,6 +405,8 @@ public class JSweetContext extends Context {
 	 */
 	public final void removeAnnotationManager(AnnotationManager annotationManager) {
 		annotationManagers.remove(annotationManager);
+		// managers can add or remove @Name and @Root annotations
+		clearRootRelativeNameCaches();
 	}
 
 	private static boolean testStringAt(StringBuilder sb, int i, String string) {
@@ -342,6 +479,55 @@ public class JSweetContext extends Context {
 		return !annotationFilters.isEmpty();
 	}
 
+	private static final AnnotationFilterDescriptor NO_MATCHING_FILTER = new AnnotationFilterDescriptor(null, null,
+			null);
+
+	private Map<String, AnnotationFilterMatcher> annotationFilterMatchers = new ConcurrentHashMap<>();
+
+	private Map<Symbol, Map<String, AnnotationFilterDescriptor>> annotationFilterCache = new ConcurrentHashMap<>();
+
+	private Map<Symbol, Map<String, AnnotationFilterDescriptor>> annotationValueFilterCache = new ConcurrentHashMap<>();
+
+	private void clearAnnotationFilterCaches() {
+		annotationFilterMatchers.clear();
+		annotationFilterCache.clear();
+		annotationValueFilterCache.clear();
+		// filters can add @Name and @Root annotations
+		clearRootRelativeNameCaches();
+	}
+
+	/**
+	 * Gets the first annotation filter descriptor matching the given symbol
+	 * (memoized per symbol and annotation type).
+	 * 
+	 * @param qualifyTypes
+	 *            true to prefix the signature of type symbols with their
+	 *            enclosing element's name (as expected when looking up
+	 *            annotation values)
+	 * @return the matching descriptor, null if none
+	 */
+	private AnnotationFilterDescriptor getMatchingAnnotationFilter(Symbol symbol, String annotationType,
+			boolean qualifyTypes) {
+		Collection<AnnotationFilterDescriptor> filterDescriptors = annotationFilters.get(annotationType);
+		if (filterDescriptors == null) {
+			return null;
+		}
+		Map<Symbol, Map<String, AnnotationFilterDescriptor>> cache = qualifyTypes ? annotationValueFilterCache
+				: annotationFilterCache;
+		AnnotationFilterDescriptor descriptor = cache.computeIfAbsent(symbol, s -> new ConcurrentHashMap<>())
+				.computeIfAbsent(annotationType, t -> {
+					String signature = symbol.toString();
+					if ((qualifyTypes || !(symbol instanceof TypeSymbol)) && symbol.getEnclosingElement() != null) {
+						signature = symbol.getEnclosingElement().getQualifiedName().toString() + "." + signature;
+					}
+					AnnotationFilterDescriptor matchingDescriptor = annotationFilterMatchers
+							.computeIfAbsent(annotationType, a -> new AnnotationFilterMatcher(filterDescriptors))
+							.match(signature);
+					return matchingDescriptor == null ? NO_MATCHING_FILTER : matchingDescriptor;
+				});
+		return descriptor == NO_MATCHING_FILTER ? null : descriptor;
+	}
+
 	/**
 	 * Creates a new JSweet transpilation context.
 	 * 
@@ -532,6 +718,7 @@ public class JSweetContext extends Context {
 				}
 			}
 			filterDescriptors.add(new AnnotationFilterDescriptor(inclusionPatterns, exclusionPatterns, parameter));
+			clearAnnotationFilterCaches();
 
 		} else {
 			switch (untypedEntry.getKey()) {
@@ -686,7 +873,39 @@ public class JSweetContext extends Context {
 	 */
 	public JCCompilationUnit[] compilationUnits;
 
-	private List<String> usedModules = new ArrayList<>();
+	private Map<Symbol, JCTree> declarations = new ConcurrentHashMap<>();
+
+	/**
+	 * Registers the tree that declares the given symbol (class, method or
+	 * variable). Declarations are registered by the
+	 * {@link GlobalBeforeTranslationScanner}.
+	 */
+	public void registerDeclaration(Symbol symbol, JCTree declaration) {
+		if (symbol != null) {
+			declarations.put(symbol, declaration);
+		}
+	}
+
+	/**
+	 * Gets the tree that declares the given symbol, if registered.
+	 * 
+	 * @return the declaration, null if not registered
+	 * @see #registerDeclaration(Symbol, JCTree)
+	 */
+	public JCTree getDeclaration(Symbol symbol) {
+		return symbol == null ? null : declarations.get(symbol);
+	}
+
+	/**
+	 * Tells if the declaration of the given symbol has been registered.
+	 * 
+	 * @see #registerDeclaration(Symbol, JCTree)
+	 */
+	public boolean hasDeclaration(Symbol symbol) {
+		return symbol != null && declarations.containsKey(symbol);
+	}
+
+	private final List<String> usedModules = new ArrayList<>();
 
 	/**
 	 * A flag that indicates if we are building a bundle. In bundle mode, static
@@ -723,21 +942,31 @@ public class JSweetContext extends Context {
 	 * @param moduleName
 	 *            the module being used
 	 */
-	public void registerUsedModule(String moduleName) {
+	public synchronized void registerUsedModule(String moduleName) {
 		if (!usedModules.contains(moduleName)) {
 			usedModules.add(moduleName);
 		}
+		outputState.get().usedModules.add(moduleName);
 	}
 
 	/**
-	 * The list of modules used by the transpiled program.
+	 * The list of modules used by the transpiled program, in the order of
+	 * their first use.
 	 */
 	public List<String> getUsedModules() {
 		return usedModules;
 	}
 
-	private Map<String, Set<String>> importedNamesInModules = new HashMap<>();
-	private Map<String, Map<Symbol, String>> importedElementsInModules = new HashMap<>();
+	/**
+	 * The modules used by the compilation unit being printed, in the order of
+	 * their first use.
+	 */
+	public Set<String> getCompilationUnitUsedModules() {
+		return outputState.get().usedModules;
+	}
+
+	private Map<String, Set<String>> importedNamesInModules = new ConcurrentHashMap<>();
+	private Map<String, Map<Symbol, String>> importedElementsInModules = new ConcurrentHashMap<>();
 
 	/**
 	 * Register a name that is imported by the given package of the transpiled
@@ -755,24 +984,9 @@ public class JSweetContext extends Context {
 	 *            the target name being imported
 	 */
 	public void registerImportedName(String moduleName, Symbol sourceElement, String targetName) {
-		Set<String> importedNames = importedNamesInModules.get(moduleName);
-		if (importedNames == null) {
-			importedNames = new HashSet<>();
-			importedNamesInModules.put(moduleName, importedNames);
-		}
-		if (!importedNames.contains(targetName)) {
-			importedNames.add(targetName);
-		}
+		getImportedNames(moduleName).add(targetName);
 		if (sourceElement != null) {
-			Map<Symbol, String> importedElements = importedElementsInModules.get(moduleName);
-			if (importedElements == null) {
-				importedElements = new HashMap<>();
-				importedElementsInModules.put(moduleName, importedElements);
-			}
-			if (!importedElements.containsKey(sourceElement)) {
-				importedElements.put(sourceElement, targetName);
-			}
-
+			getImportedElements(moduleName).putIfAbsent(sourceElement, targetName);
 		}
 	}
 
@@ -780,34 +994,22 @@ public class JSweetContext extends Context {
 	 * The list of names imported by the given module of the transpiled program.
 	 */
 	public Set<String> getImportedNames(String moduleName) {
-		Set<String> importedNames = importedNamesInModules.get(moduleName);
-		if (importedNames == null) {
-			importedNames = new HashSet<>();
-			importedNamesInModules.put(moduleName, importedNames);
-		}
-		return importedNames;
+		return importedNamesInModules.computeIfAbsent(moduleName, m -> ConcurrentHashMap.newKeySet());
 	}
 
 	/**
 	 * The list of package names imported by the given m of the transpiled program.
 	 */
 	public Map<Symbol, String> getImportedElements(String moduleName) {
-		Map<Symbol, String> importedElements = importedElementsInModules.get(moduleName);
-		if (importedElements == null) {
-			importedElements = new HashMap<>();
-			importedElementsInModules.put(moduleName, importedElements);
-		}
-		return importedElements;
+		return importedElementsInModules.computeIfAbsent(moduleName, m -> new ConcurrentHashMap<>());
 	}
 
 	/**
 	 * Clears the names imported by the given module.
 	 */
 	public void clearImportedNames(String moduleName) {
-		Set<String> importedNames = new HashSet<>();
-		importedNamesInModules.put(moduleName, importedNames);
-		Map<Symbol, String> importedModulesForNames = new HashMap<>();
-		importedElementsInModules.put(moduleName, importedModulesForNames);
+		importedNamesInModules.put(moduleName, ConcurrentHashMap.newKeySet());
+		importedElementsInModules.put(moduleName, new ConcurrentHashMap<>());
 	}
 
 	private Map<String, List<Symbol>> exportedElements = new HashMap<>();
@@ -838,7 +1040,7 @@ public class JSweetContext extends Context {
 	/**
 	 * Adds an exported element for a module.
 	 */
-	public void addExportedElement(String moduleName, Symbol exportedElement, JCCompilationUnit compilationUnit) {
+	public synchronized void addExportedElement(String moduleName, Symbol exportedElement, JCCompilationUnit compilationUnit) {
 		List<Symbol> exportedNamesForModule = exportedElements.get(moduleName);
 		if (exportedNamesForModule == null) {
 			exportedNamesForModule = new ArrayList<Symbol>();
@@ -885,12 +1087,6 @@ public class JSweetContext extends Context {
 	 */
 	public Set<String> globalImports = new HashSet<>();
 
-	/**
-	 * Imported top packages (used to avoid clashes with local variables when bundle
-	 * is on).
-	 */
-	public Set<String> importedTopPackages = new HashSet<>();
-
 	/**
 	 * A flag that indicates if the transpilation is in "strict" mode, which means
 	 * that the <code>jsweet-core-strict</code> jar is in the classpath.
@@ -903,13 +1099,76 @@ public class JSweetContext extends Context {
 	 */
 	public boolean deprecatedApply = false;
 
-	private List<String> footerStatements = new LinkedList<String>();
+	/**
+	 * The output state of the compilation unit being printed. Each printing
+	 * thread has its own state, so that compilation units can be printed in
+	 * parallel.
+	 */
+	private static class CompilationUnitOutputState {
+		final List<String> footerStatements = new LinkedList<String>();
+		final Map<String, String> headers = new LinkedHashMap<String, String>();
+		final Map<String, String> globalsMapping = new HashMap<>();
+		final Set<String> importedTopPackages = new HashSet<>();
+		final Set<String> usedModules = new LinkedHashSet<>();
+	}
+
+	private final ThreadLocal<CompilationUnitOutputState> outputState = ThreadLocal
+			.withInitial(CompilationUnitOutputState::new);
+
+	/**
+	 * Imported top packages of the compilation unit being printed (used to
+	 * avoid clashes with local variables when bundle is on).
+	 */
+	public Set<String> getImportedTopPackages() {
+		return outputState.get().importedTopPackages;
+	}
+
+	/**
+	 * Imported top packages of the compilation unit being printed.
+	 * 
+	 * @deprecated use {@link #getImportedTopPackages()} (this set is a view of
+	 *             the set of the current printing thread, and the field is
+	 *             final: assigning it has no effect on the printers, so it is
+	 *             not allowed anymore)
+	 */
+	@Deprecated
+	public final Set<String> importedTopPackages = new AbstractSet<String>() {
+		@Override
+		public Iterator<String> iterator() {
+			return getImportedTopPackages().iterator();
+		}
+
+		@Override
+		public int size() {
+			return getImportedTopPackages().size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return getImportedTopPackages().contains(o);
+		}
+
+		@Override
+		public boolean add(String e) {
+			return getImportedTopPackages().add(e);
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			return getImportedTopPackages().remove(o);
+		}
+
+		@Override
+		public void clear() {
+			getImportedTopPackages().clear();
+		}
+	};
 
 	/**
 	 * Clears the footer statements.
 	 */
 	public void clearFooterStatements() {
-		footerStatements.clear();
+		outputState.get().footerStatements.clear();
 	}
 
 	/**
@@ -917,7 +1176,7 @@ public class JSweetContext extends Context {
 	 */
 	public String getFooterStatements() {
 		StringBuilder sb = new StringBuilder();
-		for (String footerStatement : footerStatements) {
+		for (String footerStatement : outputState.get().footerStatements) {
 			sb.append("\n");
 			sb.append(footerStatement);
 			sb.append("\n");
@@ -929,29 +1188,28 @@ public class JSweetContext extends Context {
 	 * Adds a footer statement.
 	 */
 	public void addFooterStatement(String footerStatement) {
-		footerStatements.add(footerStatement);
+		outputState.get().footerStatements.add(footerStatement);
 	}
 
 	/**
 	 * Adds a footer statement at the first position.
 	 */
 	public void addTopFooterStatement(String footerStatement) {
-		footerStatements.add(0, footerStatement);
+		outputState.get().footerStatements.add(0, footerStatement);
 	}
 
-	private Map<String, String> headers = new LinkedHashMap<String, String>();
-
 	/**
 	 * Clear the headers.
 	 */
 	public void clearHeaders() {
-		headers.clear();
+		outputState.get().headers.clear();
 	}
 
 	/**
 	 * Gets the headers.
 	 */
 	public String getHeaders() {
+		Map<String, String> headers = outputState.get().headers;
 		StringBuilder sb = new StringBuilder();
 		if (!headers.isEmpty()) {
 			for (String header : headers.values()) {
@@ -968,7 +1226,7 @@ public class JSweetContext extends Context {
 	 * @see #getHeader(String)
 	 */
 	public void addHeader(String key, String header) {
-		headers.put(key, header);
+		outputState.get().headers.put(key, header);
 	}
 
 	/**
@@ -977,16 +1235,21 @@ public class JSweetContext extends Context {
 	 * @see #addHeader(String, String)
 	 */
 	public String getHeader(String key) {
-		return headers.get(key);
+		return outputState.get().headers.get(key);
 	}
 
-	private Map<String, String> globalsMapping = new HashMap<>();
-
 	/**
 	 * Adds a globals mapping.
 	 */
 	public void addGlobalsMapping(String from, String to) {
-		globalsMapping.put(from, to);
+		outputState.get().globalsMapping.put(from, to);
+	}
+
+	/**
+	 * Clears the globals mapping.
+	 */
+	public void clearGlobalsMapping() {
+		outputState.get().globalsMapping.clear();
 	}
 
 	/**
@@ -994,7 +1257,7 @@ public class JSweetContext extends Context {
 	 */
 	public String getGlobalsMappingString() {
 		StringBuilder b = new StringBuilder();
-		for (Map.Entry<String, String> e : globalsMapping.entrySet()) {
+		for (Map.Entry<String, String> e : outputState.get().globalsMapping.entrySet()) {
 			b.append("var " + e.getValue() + " = " + e.getKey() + ";\n");
 		}
 		return b.toString();
@@ -1037,6 +1300,7 @@ public class JSweetContext extends Context {
 	 */
 	public void addFieldNameMapping(VarSymbol field, String name) {
 		fieldNameMapping.put(field, name);
+		clearRootRelativeNameCaches();
 	}
 
 	/**
@@ -1063,6 +1327,7 @@ public class JSweetContext extends Context {
 	 */
 	public void addClassNameMapping(ClassSymbol clazz, String name) {
 		classNameMapping.put(clazz, name);
+		clearRootRelativeNameCaches();
 	}
 
 	/**
@@ -1181,35 +1446,9 @@ public class JSweetContext extends Context {
 		}
 
 		if (hasAnnotationFilters()) {
-			String signature = symbol.toString();
-			if (!(symbol instanceof TypeSymbol) && symbol.getEnclosingElement() != null) {
-				signature = symbol.getEnclosingElement().getQualifiedName().toString() + "." + signature;
-			}
 			for (String annotationType : annotationTypes) {
-				Collection<AnnotationFilterDescriptor> filterDescriptors = annotationFilters.get(annotationType);
-				if (filterDescriptors != null) {
-					for (AnnotationFilterDescriptor filterDescriptor : filterDescriptors) {
-						if (filterDescriptor.inclusionPatterns == null) {
-							logger.error("no inclusion patterns found for annotation filter: " + annotationType);
-						}
-						for (Pattern include : filterDescriptor.inclusionPatterns) {
-							if (include.matcher(signature).matches()) {
-								boolean excluded = false;
-								Collection<Pattern> excludePatterns = filterDescriptor.exclusionPatterns;
-								if (excludePatterns != null) {
-									for (Pattern exclude : excludePatterns) {
-										if (exclude.matcher(signature).matches()) {
-											excluded = true;
-											break;
-										}
-									}
-								}
-								if (!excluded) {
-									return true;
-								}
-							}
-						}
-					}
+				if (getMatchingAnnotationFilter(symbol, annotationType, false) != null) {
+					return true;
 				}
 			}
 		}
@@ -1231,6 +1470,59 @@ public class JSweetContext extends Context {
 		return name;
 	}
 
+	/**
+	 * Root-relative names computed for a given name mapping.
+	 */
+	private static class RootRelativeNameCache {
+		final boolean useModules;
+		final int nameMappingSize;
+		final Map<Symbol, String> names = new ConcurrentHashMap<>();
+
+		RootRelativeNameCache(boolean useModules, int nameMappingSize) {
+			this.useModules = useModules;
+			this.nameMappingSize = nameMappingSize;
+		}
+	}
+
+	private Map<Map<Symbol, String>, RootRelativeNameCache> rootRelativeNameCaches = new IdentityHashMap<>();
+
+	private Map<Symbol, String> rootRelativeJavaNames = new ConcurrentHashMap<>();
+
+	private Map<Symbol, Map<Symbol, String>> relativePaths = new ConcurrentHashMap<>();
+
+	/**
+	 * Gets the cache for the given name mapping (null for no mapping). Name
+	 * mappings (such as the imported elements of a module) are expected to only
+	 * grow, so that the cache is reset when the mapping's size changes.
+	 */
+	private RootRelativeNameCache getRootRelativeNameCache(Map<Symbol, String> nameMapping) {
+		int nameMappingSize = nameMapping == null ? 0 : nameMapping.size();
+		synchronized (rootRelativeNameCaches) {
+			RootRelativeNameCache cache = rootRelativeNameCaches.get(nameMapping);
+			if (cache == null || cache.useModules != useModules || cache.nameMappingSize != nameMappingSize) {
+				cache = new RootRelativeNameCache(useModules, nameMappingSize);
+				rootRelativeNameCaches.put(nameMapping, cache);
+			}
+			return cache;
+		}
+	}
+
+	private void clearRootRelativeNameCaches() {
+		synchronized (rootRelativeNameCaches) {
+			rootRelativeNameCaches.clear();
+		}
+		rootRelativeJavaNames.clear();
+	}
+
+	/**
+	 * Clears the cached root-relative names and module-relative paths, so that
+	 * they do not retain the symbols of a completed transpilation.
+	 */
+	public void clearNameCaches() {
+		clearRootRelativeNameCaches();
+		relativePaths.clear();
+	}
+
 	private void getRootRelativeName(Map<Symbol, String> nameMapping, StringBuilder sb, Symbol symbol) {
 		if (useModules && symbol instanceof PackageSymbol
 				&& !symbol.toString().startsWith(JSweetConfig.LIBS_PACKAGE + ".")) {
@@ -1347,12 +1639,18 @@ public class JSweetContext extends Context {
 	 * takes into account potential <code>jsweet.lang.Name</code> annotations).
 	 */
 	public String getRootRelativeName(Map<Symbol, String> nameMapping, Symbol symbol) {
-		StringBuilder sb = new StringBuilder();
-		getRootRelativeName(nameMapping, sb, symbol);
-		if (sb.length() > 0 && sb.charAt(0) == '.') {
-			sb.deleteCharAt(0);
+		RootRelativeNameCache cache = getRootRelativeNameCache(nameMapping);
+		String name = cache.names.get(symbol);
+		if (name == null) {
+			StringBuilder sb = new StringBuilder();
+			getRootRelativeName(nameMapping, sb, symbol);
+			if (sb.length() > 0 && sb.charAt(0) == '.') {
+				sb.deleteCharAt(0);
+			}
+			name = sb.toString();
+			cache.names.put(symbol, name);
 		}
-		return sb.toString();
+		return name;
 	}
 
 	/**
@@ -1361,9 +1659,28 @@ public class JSweetContext extends Context {
 	 * ignores <code>jsweet.lang.Name</code> annotations).
 	 */
 	public String getRootRelativeJavaName(Symbol symbol) {
-		StringBuilder sb = new StringBuilder();
-		getRootRelativeJavaName(sb, symbol);
-		return sb.toString();
+		String name = rootRelativeJavaNames.get(symbol);
+		if (name == null) {
+			StringBuilder sb = new StringBuilder();
+			getRootRelativeJavaName(sb, symbol);
+			name = sb.toString();
+			rootRelativeJavaNames.put(symbol, name);
+		}
+		return name;
+	}
+
+	/**
+	 * Gets the relative path that links the two given symbols, as computed by
+	 * {@link Util#getRelativePath(Symbol, Symbol)} (memoized).
+	 * 
+	 * @return the relative path, null if both symbols have the same path
+	 */
+	public String getRelativePath(Symbol fromSymbol, Symbol toSymbol) {
+		if (fromSymbol == toSymbol) {
+			return null;
+		}
+		return relativePaths.computeIfAbsent(fromSymbol, s -> new ConcurrentHashMap<>()).computeIfAbsent(toSymbol,
+				s -> Util.getRelativePath(fromSymbol, toSymbol));
 	}
 
 	/**
@@ -1390,40 +1707,16 @@ public class JSweetContext extends Context {
 			}
 		}
 		if (hasAnnotationFilters()) {
-			String signature = symbol.toString();
-			if (symbol.getEnclosingElement() != null) {
-				signature = symbol.getEnclosingElement().getQualifiedName().toString() + "." + signature;
-			}
-			Collection<AnnotationFilterDescriptor> filterDescriptors = annotationFilters.get(annotationType);
-			if (filterDescriptors != null) {
-				for (AnnotationFilterDescriptor filterDescriptor : filterDescriptors) {
-					for (Pattern include : filterDescriptor.inclusionPatterns) {
-						if (include.matcher(signature).matches()) {
-							boolean excluded = false;
-							Collection<Pattern> excludePatterns = filterDescriptor.exclusionPatterns;
-							if (excludePatterns != null) {
-								for (Pattern exclude : excludePatterns) {
-									if (exclude.matcher(signature).matches()) {
-										excluded = true;
-										break;
-									}
-								}
-							}
-							if (!excluded) {
-								if (filterDescriptor.parameter == null) {
-									return defaultValue;
-								} else if (filterDescriptor.parameter.startsWith("'")) {
-									return (T) filterDescriptor.parameter.substring(1,
-											filterDescriptor.parameter.length() - 1);
-								} else if (filterDescriptor.parameter.endsWith(".class")) {
-									return (T) filterDescriptor.parameter.substring(0,
-											filterDescriptor.parameter.length() - 6);
-								} else {
-									return (T) filterDescriptor.parameter;
-								}
-							}
-						}
-					}
+			AnnotationFilterDescriptor filterDescriptor = getMatchingAnnotationFilter(symbol, annotationType, true);
+			if (filterDescriptor != null) {
+				if (filterDescriptor.parameter == null) {
+					return defaultValue;
+				} else if (filterDescriptor.parameter.startsWith("'")) {
+					return (T) filterDescriptor.parameter.substring(1, filterDescriptor.parameter.length() - 1);
+				} else if (filterDescriptor.parameter.endsWith(".class")) {
+					return (T) filterDescriptor.parameter.substring(0, filterDescriptor.parameter.length() - 6);
+				} else {
+					return (T) filterDescriptor.parameter;
 				}
 			}
 		}
@@ -1719,6 +2012,34 @@ public class JSweetContext extends Context {
 						|| hasAnonymousFunction(type)));
 	}
 
+	/**
+	 * Gets the name of the JavaScript typed array that holds the elements of an
+	 * array of the given element type, when the typed arrays are enabled (see
+	 * {@link JSweetOptions#isTypedArrays()}).
+	 * 
+	 * @return the typed array constructor name, or null if the elements are held
+	 *         in a regular array
+	 */
+	public String getTypedArrayName(TypeMirror elementType) {
+		if (!options.isTypedArrays() || elementType == null) {
+			return null;
+		}
+		switch (elementType.getKind()) {
+		case BYTE:
+			return "Int8Array";
+		case SHORT:
+			return "Int16Array";
+		case INT:
+			return "Int32Array";
+		case LONG:
+		case FLOAT:
+		case DOUBLE:
+			return "Float64Array";
+		default:
+			return null;
+		}
+	}
+
 	/**
 	 * Returns true if the given type symbol corresponds to a core functional type.
 	 */
@@ -126,6 +126,10 @@ public class JSweetFactory {
 	 */
 	public Java2TypeScriptTranslator createTranslator(PrinterAdapter adapter, TranspilationHandler transpilationHandler,
 			JSweetContext context, JCCompilationUnit compilationUnit, boolean fillSourceMap) {
+		if (context.options.isDirectJavaScript()) {
+			return new Java2JavaScriptTranslator(adapter, transpilationHandler, context, compilationUnit,
+					fillSourceMap);
+		}
 		return new Java2TypeScriptTranslator(adapter, transpilationHandler, context, compilationUnit, fillSourceMap);
 	}
 
@@ -103,13 +103,50 @@ public interface JSweetOptions {
 	 * Constant string for the 'extraSystemPath' option.
 	 */
 	String extraSystemPath = "extraSystemPath";
+	/**
+	 * Constant string for the 'incremental' option.
+	 */
+	String incremental = "incremental";
+	/**
+	 * Constant string for the 'parallelPrinting' option.
+	 */
+	String parallelPrinting = "parallelPrinting";
+	/**
+	 * Constant string for the 'parallelTsc' option.
+	 */
+	String parallelTsc = "parallelTsc";
+	/**
+	 * Constant string for the 'directJavaScript' option.
+	 */
+	String directJavaScript = "directJavaScript";
+	/**
+	 * Constant string for the 'metricsFile' option.
+	 */
+	String metricsFile = "metricsFile";
+	/**
+	 * Constant string for the 'traceFile' option.
+	 */
+	String traceFile = "traceFile";
+	/**
+	 * Constant string for the 'jmxMetrics' option.
+	 */
+	String jmxMetrics = "jmxMetrics";
+	/**
+	 * Constant string for the 'typedArrays' option.
+	 */
+	String typedArrays = "typedArrays";
+	/**
+	 * Constant string for the 'nativeMaps' option.
+	 */
+	String nativeMaps = "nativeMaps";
 
 	/**
 	 * All the supported options.
 	 */
 	String[] options = { bundle, noRootDirectories, sourceMap, module, encoding, enableAssertions, declaration, tsOnly,
 			ignoreDefinitions, header, disableSinglePrecisionFloats, targetVersion, tsout, dtsout, jsout, candiesJsOut,
-			moduleResolution, extraSystemPath };
+			moduleResolution, extraSystemPath, incremental, parallelPrinting,
+			parallelTsc, directJavaScript, metricsFile, traceFile, jmxMetrics, typedArrays, nativeMaps };
 
 	/**
 	 * Returns the configuration from the configuration file.
@@ -304,4 +341,67 @@ public interface JSweetOptions {
 	 * @return true to enable tsc watch mode
 	 */
 	boolean isTscWatchMode();
-}
\ No newline at end of file
+
+	/**
+	 * If true, the transpiler only regenerates the files that changed since the
+	 * last transpilation, and the files that depend on them.
+	 */
+	boolean isIncremental();
+
+	/**
+	 * If true, the transpiler prints the compilation units in parallel.
+	 */
+	boolean isParallelPrinting();
+
+	/**
+	 * If true, the TypeScript files are compiled by several tsc processes
+	 * running in parallel, each of them compiling an independent group of
+	 * packages.
+	 */
+	boolean isParallelTsc();
+
+	/**
+	 * If true, the transpiler directly generates the JavaScript files, without
+	 * generating the TypeScript files and without invoking tsc.
+	 */
+	boolean isDirectJavaScript();
+
+	/**
+	 * Gets the file where the metrics of each transpilation are written as
+	 * JSON (see {@link TranspilationMetrics#toJson()}).
+	 * 
+	 * @return the metrics file, null if undefined
+	 */
+	File getMetricsFile();
+
+	/**
+	 * Gets the file where the metrics of each transpilation are written in the
+	 * Chrome trace-event format (see {@link TranspilationMetrics#toChromeTrace()}).
+	 * 
+	 * @return the trace file, null if undefined
+	 */
+	File getTraceFile();
+
+	/**
+	 * If true, the cumulated transpilation metrics are exposed as JMX counters
+	 * (see {@link TranspilationCounters}).
+	 */
+	boolean isJmxMetrics();
+
+	/**
+	 * If true, the arrays of numbers (<code>byte[]</code>, <code>short[]</code>,
+	 * <code>int[]</code>, <code>long[]</code>, <code>float[]</code> and
+	 * <code>double[]</code>) are allocated as JavaScript typed arrays
+	 * (<code>Int8Array</code>, <code>Int16Array</code>, <code>Int32Array</code>
+	 * and <code>Float64Array</code>).
+	 */
+	boolean isTypedArrays();
+
+	/**
+	 * If true, when targeting ES6 and removing the Java dependencies, the maps
+	 * keyed by strings or numbers are lowered to native <code>Map</code>
+	 * objects. By default, they remain plain objects, which JavaScript code can
+	 * access by key.
+	 */
+	boolean isNativeMaps();
+}
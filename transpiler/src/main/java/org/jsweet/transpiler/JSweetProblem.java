@@ -245,6 +245,11 @@ public enum JSweetProblem {
 	 * Raised when trying to create a bundle with a module kind selected.
 	 */
 	BUNDLE_WITH_MODULE(Severity.ERROR),
+	/**
+	 * Raised when an option value cannot be honored when generating the
+	 * JavaScript files directly.
+	 */
+	UNSUPPORTED_DIRECT_JAVASCRIPT_OPTION(Severity.ERROR),
 	/**
 	 * Raised when a package is named after an invalid name (typically a
 	 * TypeScript keyword).
@@ -450,6 +455,8 @@ public enum JSweetProblem {
 			return String.format("type mismatch in union type", params);
 		case BUNDLE_WITH_MODULE:
 			return String.format("bundle and module options are exclusive: choose one or the other", params);
+		case UNSUPPORTED_DIRECT_JAVASCRIPT_OPTION:
+			return String.format("%s is not supported when generating JavaScript directly: %s", params);
 		case PACKAGE_NAME_CONTAINS_KEYWORD:
 			return String.format("a package name cannot contain top-level keyword(s): '%s'", params);
 		case WILDCARD_IMPORT:
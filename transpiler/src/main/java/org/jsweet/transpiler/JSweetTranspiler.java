@@ -24,25 +24,33 @@ import static org.jsweet.transpiler.util.ProcessUtil.isVersionHighEnough;
 import static org.jsweet.transpiler.util.Util.toJavaFileObjects;
 
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.UncheckedIOException;
-import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -57,6 +65,7 @@ import org.apache.log4j.Level;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 import org.jsweet.JSweetConfig;
+import org.jsweet.transpiler.TranspilationMetrics.Phase;
 import org.jsweet.transpiler.candy.CandyProcessor;
 import org.jsweet.transpiler.eval.EvalOptions;
 import org.jsweet.transpiler.eval.JavaEval;
@@ -69,20 +78,15 @@ import org.jsweet.transpiler.util.DirectedGraph;
 import org.jsweet.transpiler.util.DirectedGraph.Node;
 import org.jsweet.transpiler.util.ErrorCountTranspilationHandler;
 import org.jsweet.transpiler.util.EvaluationResult;
-import org.jsweet.transpiler.util.Position;
+import org.jsweet.transpiler.util.JavacContextRecycler;
 import org.jsweet.transpiler.util.ProcessUtil;
 import org.jsweet.transpiler.util.SourceMap;
-import org.jsweet.transpiler.util.SourceMap.Entry;
 import org.jsweet.transpiler.util.Util;
 
 import com.google.debugging.sourcemap.FilePosition;
-import com.google.debugging.sourcemap.SourceMapConsumerFactory;
 import com.google.debugging.sourcemap.SourceMapFormat;
 import com.google.debugging.sourcemap.SourceMapGenerator;
 import com.google.debugging.sourcemap.SourceMapGeneratorFactory;
-import com.google.debugging.sourcemap.SourceMapGeneratorV3;
-import com.google.debugging.sourcemap.SourceMapping;
-import com.google.debugging.sourcemap.proto.Mapping.OriginalMapping;
 import com.google.gson.Gson;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.PackageSymbol;
@@ -230,9 +234,59 @@ public class JSweetTranspiler implements JSweetOptions {
 	private boolean disableSingleFloatPrecision = false;
 	private ArrayList<String> adapters = new ArrayList<>();
 	private File configurationFile;
+	private boolean incremental = false;
+	private boolean parallelPrinting = false;
+	private boolean parallelTsc = false;
+	private boolean directJavaScript = false;
+	private boolean typedArrays = false;
+	private boolean nativeMaps = false;
+	private boolean nodeInitialized = false;
+	private boolean reuseJavacState = false;
+	private File metricsFile = null;
+	private File traceFile = null;
+	private TranspilationCounters jmxCounters;
+	private final TranspilationMetrics metrics = new TranspilationMetrics();
+
+	private static final AtomicInteger instanceCount = new AtomicInteger();
+
+	/**
+	 * The maximum number of consecutive transpilations that reuse the same
+	 * javac state (the javac caches that are not cleaned between two
+	 * transpilations, such as the names table, may otherwise grow forever).
+	 */
+	private static final int MAX_JAVAC_STATE_REUSE_COUNT = 50;
+
+	/**
+	 * The javac state kept between two transpilations when reusing the javac
+	 * state.
+	 */
+	private boolean javacStateReusable = false;
+	private String javacStateFingerprint;
+	private int javacStateReuseCount = 0;
+
+	/**
+	 * The state kept between two transpilations in incremental mode.
+	 */
+	private Map<File, SourceFile> incrementalSourceFiles = new HashMap<>();
+	private Map<File, Set<File>> incrementalDependencies = new HashMap<>();
+	private Set<File> incrementalEntryFiles = new HashSet<>();
+	private String incrementalFingerprint;
+	private Set<File> changedJavaFiles;
 
 	private TypeScript2JavaScriptTranspiler ts2jsTranspiler = new TypeScript2JavaScriptWithTscTranspiler();
 
+	/**
+	 * The ts2js compilation fed with the TypeScript files as soon as they are
+	 * generated (null if the ts2js transpiler does not support it).
+	 */
+	private TypeScript2JavaScriptTranspiler.Pipeline ts2jsPipeline;
+
+	/**
+	 * The package of each source file generated by the current transpilation,
+	 * used to shard the tsc compilation (null if it cannot be sharded).
+	 */
+	private Map<SourceFile, PackageSymbol> sourceFilePackages;
+
 	/**
 	 * Manually sets the transpiler to use (or not use) a Java runtime.
 	 * 
@@ -371,6 +425,33 @@ public class JSweetTranspiler implements JSweetOptions {
 			if (options.containsKey(JSweetOptions.extraSystemPath)) {
 				ProcessUtil.addExtraPath(extraSystemPath);
 			}
+			if (options.containsKey(JSweetOptions.incremental)) {
+				setIncremental(getMapValue(options, JSweetOptions.incremental));
+			}
+			if (options.containsKey(JSweetOptions.parallelPrinting)) {
+				setParallelPrinting(getMapValue(options, JSweetOptions.parallelPrinting));
+			}
+			if (options.containsKey(JSweetOptions.parallelTsc)) {
+				setParallelTsc(getMapValue(options, JSweetOptions.parallelTsc));
+			}
+			if (options.containsKey(JSweetOptions.directJavaScript)) {
+				setDirectJavaScript(getMapValue(options, JSweetOptions.directJavaScript));
+			}
+			if (options.containsKey(JSweetOptions.metricsFile)) {
+				setMetricsFile(new File((String) getMapValue(options, JSweetOptions.metricsFile)));
+			}
+			if (options.containsKey(JSweetOptions.traceFile)) {
+				setTraceFile(new File((String) getMapValue(options, JSweetOptions.traceFile)));
+			}
+			if (options.containsKey(JSweetOptions.jmxMetrics)) {
+				setJmxMetrics(getMapValue(options, JSweetOptions.jmxMetrics));
+			}
+			if (options.containsKey(JSweetOptions.typedArrays)) {
+				setTypedArrays(getMapValue(options, JSweetOptions.typedArrays));
+			}
+			if (options.containsKey(JSweetOptions.nativeMaps)) {
+				setNativeMaps(getMapValue(options, JSweetOptions.nativeMaps));
+			}
 		}
 
 	}
@@ -599,7 +680,19 @@ public class JSweetTranspiler implements JSweetOptions {
 	}
 
 	private void initJavac(final TranspilationHandler transpilationHandler) {
+		JSweetContext previousContext = context;
 		context = factory.createContext(this);
+		boolean javacStateReused = false;
+		if (reuseJavacState) {
+			String fingerprint = getJavacStateFingerprint();
+			if (previousContext != null && javacStateReusable && fingerprint.equals(javacStateFingerprint)
+					&& javacStateReuseCount < MAX_JAVAC_STATE_REUSE_COUNT) {
+				javacStateReused = JavacContextRecycler.recycle(previousContext, context);
+			}
+			javacStateReuseCount = javacStateReused ? javacStateReuseCount + 1 : 0;
+			javacStateFingerprint = fingerprint;
+		}
+		javacStateReusable = false;
 		context.setUsingJavaRuntime(forceJavaRuntime ? isUsingJavaRuntime
 				: (candiesProcessor == null ? false : candiesProcessor.isUsingJavaRuntime()));
 		adapter = factory.createAdapter(context);
@@ -622,7 +715,9 @@ public class JSweetTranspiler implements JSweetOptions {
 		// logger.debug("bootclasspath: " + options.get(Option.BOOTCLASSPATH));
 		logger.debug("strict mode: " + context.strictMode);
 		options.put(Option.XLINT, "path");
-		JavacFileManager.preRegister(context);
+		if (!javacStateReused) {
+			JavacFileManager.preRegister(context);
+		}
 		fileManager = context.get(JavaFileManager.class);
 		compiler = JavaCompiler.instance(context);
 		compiler.attrParseOnly = true;
@@ -737,16 +832,29 @@ public class JSweetTranspiler implements JSweetOptions {
 		logger.info("ENTER phase: " + fileObjects);
 		transpilationHandler.setDisabled(isIgnoreJavaErrors());
 
-		List<JCCompilationUnit> compilationUnits = compiler.enterTrees(compiler.parseFiles(fileObjects));
+		List<JCCompilationUnit> compilationUnits;
+		try (Phase phase = metrics.startPhase(TranspilationMetrics.JAVAC, "parse")) {
+			compilationUnits = compiler.parseFiles(fileObjects);
+			phase.setCounter(TranspilationMetrics.FILES, compilationUnits.size());
+		}
+		try (Phase phase = metrics.startPhase(TranspilationMetrics.JAVAC, "enter")) {
+			compilationUnits = compiler.enterTrees(compilationUnits);
+		}
 		if (transpilationHandler.getErrorCount() > 0) {
 			logger.warn("errors during parse tree");
+			javacStateReusable = true;
 			return null;
 		}
 		logger.info("ATTRIBUTE phase");
-		Queue<Env<AttrContext>> todo = compiler.attribute(compiler.todo);
+		Queue<Env<AttrContext>> todo;
+		try (Phase phase = metrics.startPhase(TranspilationMetrics.JAVAC, "attribute")) {
+			todo = compiler.attribute(compiler.todo);
+		}
 
 		logger.info("FLOW phase");
-		todo = compiler.flow(todo);
+		try (Phase phase = metrics.startPhase(TranspilationMetrics.JAVAC, "flow")) {
+			todo = compiler.flow(todo);
+		}
 
 		// logger.info("DESUGAR phase");
 		// compiler.generate(compiler.desugar(todo));
@@ -759,6 +867,9 @@ public class JSweetTranspiler implements JSweetOptions {
 
 		transpilationHandler.setDisabled(false);
 		context.compilationUnits = compilationUnits.toArray(new JCCompilationUnit[compilationUnits.size()]);
+		// javac completed normally: its state can be recycled by the next
+		// transpilation (if enabled)
+		javacStateReusable = true;
 
 		if (transpilationHandler.getErrorCount() > 0) {
 			return null;
@@ -768,6 +879,20 @@ public class JSweetTranspiler implements JSweetOptions {
 		}
 		context.useModules = isUsingModules();
 		context.useRequireForModules = moduleKind != ModuleKind.es2015;
+		if (directJavaScript && context.useModules && context.useRequireForModules) {
+			// the imports and exports are printed as ES2015 statements
+			transpilationHandler.report(JSweetProblem.UNSUPPORTED_DIRECT_JAVASCRIPT_OPTION, null,
+					JSweetProblem.UNSUPPORTED_DIRECT_JAVASCRIPT_OPTION.getMessage("module kind " + moduleKind,
+							"use " + ModuleKind.es2015 + " modules or no modules"));
+			return null;
+		}
+		if (directJavaScript && !ecmaTargetVersion.higherThan(EcmaScriptComplianceLevel.ES5)) {
+			// the classes are printed as ES2015 classes
+			transpilationHandler.report(JSweetProblem.UNSUPPORTED_DIRECT_JAVASCRIPT_OPTION, null,
+					JSweetProblem.UNSUPPORTED_DIRECT_JAVASCRIPT_OPTION.getMessage("target " + ecmaTargetVersion,
+							"target " + EcmaScriptComplianceLevel.ES6));
+			return null;
+		}
 
 		if (context.useModules && bundle) {
 			transpilationHandler.report(JSweetProblem.BUNDLE_WITH_MODULE, null,
@@ -811,40 +936,137 @@ public class JSweetTranspiler implements JSweetOptions {
 	 */
 	synchronized public void transpile(TranspilationHandler transpilationHandler, SourceFile... files)
 			throws IOException {
+		transpile(transpilationHandler, null, files);
+	}
+
+	/**
+	 * Transpiles the given Java source files, knowing which files changed since
+	 * the last transpilation (typically from a file watcher). In incremental
+	 * mode ({@link #setIncremental(boolean)}), the changed files are regenerated
+	 * with the files that depend on them, even if their modification time is
+	 * unchanged (for instance when the file system's time resolution is too
+	 * coarse to tell).
+	 * 
+	 * @param transpilationHandler
+	 *            the log handler
+	 * @param changedFiles
+	 *            the files that changed since the last transpilation (null if
+	 *            unknown)
+	 * @param files
+	 *            the files to be transpiled
+	 * @throws IOException
+	 */
+	synchronized public void transpile(TranspilationHandler transpilationHandler, Collection<File> changedFiles,
+			SourceFile... files) throws IOException {
+		changedJavaFiles = changedFiles == null ? null
+				: changedFiles.stream().map(File::getAbsoluteFile).collect(Collectors.toSet());
 		transpilationStartTimestamp = System.currentTimeMillis();
+		metrics.reset();
+		Phase transpilationPhase = metrics.startPhase(TranspilationMetrics.TRANSPILATION, "transpile");
 
+		ErrorCountTranspilationHandler errorHandler = new ErrorCountTranspilationHandler(transpilationHandler);
 		try {
-			initNode(transpilationHandler);
-		} catch (Exception e) {
-			logger.error(e.getMessage(), e);
-			return;
-		}
-		candiesProcessor.processCandies(transpilationHandler);
-
-		addTsDefDir(candiesProcessor.getCandiesTsdefsDir());
+			if (!nodeInitialized && !directJavaScript) {
+				try {
+					initNode(transpilationHandler);
+					// node and tsc are checked only once per transpiler instance
+					nodeInitialized = true;
+				} catch (Exception e) {
+					logger.error(e.getMessage(), e);
+					return;
+				}
+			}
+			try (Phase phase = metrics.startPhase(TranspilationMetrics.CANDIES, "processCandies")) {
+				candiesProcessor.processCandies(transpilationHandler);
+			}
 
-		ErrorCountTranspilationHandler errorHandler = new ErrorCountTranspilationHandler(transpilationHandler);
-		Collection<SourceFile> jsweetSources = asList(files).stream() //
-				.filter(source -> source.getJavaFile() != null).collect(toList());
+			addTsDefDir(candiesProcessor.getCandiesTsdefsDir());
+
+			Collection<SourceFile> jsweetSources = asList(files).stream() //
+					.filter(source -> source.getJavaFile() != null).collect(toList());
+
+			long startJava2TsTimeNanos = System.nanoTime();
+			sourceFilePackages = null;
+			if (generateTsFiles && generateJsFiles && !directJavaScript && !(bundle && !isUsingModules())
+					&& ts2jsTranspiler.isPipelineSupported(this)) {
+				logger.info("ts2js pipeline on " + ts2jsTranspiler);
+				ts2jsPipeline = ts2jsTranspiler.startPipeline(errorHandler, //
+						tsDefDirs, //
+						this, //
+						isIgnoreTypeScriptErrors(), //
+						this::onTsFileTranspiled, //
+						this::onTsPipelineCompleted);
+				if (ts2jsPipeline != null) {
+					for (SourceFile file : files) {
+						if (file.getJavaFile() == null && file.getTsFile() != null) {
+							ts2jsPipeline.add(file, null);
+						}
+					}
+				}
+			}
+			try {
+				java2ts(errorHandler, jsweetSources.toArray(new SourceFile[0]));
+			} catch (IOException | RuntimeException e) {
+				if (ts2jsPipeline != null) {
+					ts2jsPipeline.cancel();
+					ts2jsPipeline = null;
+				}
+				throw e;
+			}
+			long endJava2TsTimeNanos = System.nanoTime();
+
+			long startTs2JsTimeNanos = System.nanoTime();
+			String ts2jsPhaseName = ts2jsTranspiler instanceof TypeScript2JavaScriptWithTsserverTranspiler ? "tsserver"
+					: "tsc";
+			if (ts2jsPipeline != null) {
+				// the TypeScript files have been compiled while being generated
+				try (Phase phase = metrics.startPhase(TranspilationMetrics.TS2JS, ts2jsPhaseName + "Pipeline")) {
+					if (errorHandler.getErrorCount() == 0) {
+						ts2jsPipeline.complete();
+					} else {
+						ts2jsPipeline.cancel();
+					}
+				}
+				ts2jsPipeline = null;
+			} else if (errorHandler.getErrorCount() == 0 && generateTsFiles && generateJsFiles && !directJavaScript) {
+				try (Phase phase = metrics.startPhase(TranspilationMetrics.TS2JS, ts2jsPhaseName)) {
+					ts2js(errorHandler, files);
+				}
+			}
+			long endTs2JsTimeNanos = System.nanoTime();
 
-		long startJava2TsTimeNanos = System.nanoTime();
-		java2ts(errorHandler, jsweetSources.toArray(new SourceFile[0]));
-		long endJava2TsTimeNanos = System.nanoTime();
+			if (!generateJsFiles || !generateTsFiles || directJavaScript) {
+				transpilationHandler.onCompleted(this, !isTscWatchMode(), files);
+			}
 
-		long startTs2JsTimeNanos = System.nanoTime();
-		if (errorHandler.getErrorCount() == 0 && generateTsFiles && generateJsFiles) {
-			ts2js(errorHandler, files);
+			logger.info("transpilation process finished in "
+					+ (System.currentTimeMillis() - transpilationStartTimestamp) + " ms \n" //
+					+ "> java2ts: " + ((endJava2TsTimeNanos - startJava2TsTimeNanos) / 1e6) + "ms\n" + "> ts2js: "
+					+ ((endTs2JsTimeNanos - startTs2JsTimeNanos) / 1e6) + "ms\n");
+		} finally {
+			transpilationPhase.setCounter(TranspilationMetrics.FILES, files.length);
+			transpilationPhase.setCounter(TranspilationMetrics.ERRORS, errorHandler.getErrorCount());
+			transpilationPhase.close();
+			metrics.onTranspilationCompleted();
+			writeMetrics();
+			if (context != null) {
+				// the context is kept until the next transpilation
+				context.clearNameCaches();
+			}
 		}
-		long endTs2JsTimeNanos = System.nanoTime();
+	}
 
-		if (!generateJsFiles || !generateTsFiles) {
-			transpilationHandler.onCompleted(this, !isTscWatchMode(), files);
+	private void writeMetrics() {
+		try {
+			if (metricsFile != null) {
+				metrics.writeJson(metricsFile);
+			}
+			if (traceFile != null) {
+				metrics.writeChromeTrace(traceFile);
+			}
+		} catch (IOException e) {
+			logger.error("cannot write transpilation metrics: " + e.getMessage(), e);
 		}
-
-		logger.info("transpilation process finished in " + (System.currentTimeMillis() - transpilationStartTimestamp)
-				+ " ms \n" //
-				+ "> java2ts: " + ((endJava2TsTimeNanos - startJava2TsTimeNanos) / 1e6) + "ms\n" + "> ts2js: "
-				+ ((endTs2JsTimeNanos - startTs2JsTimeNanos) / 1e6) + "ms\n");
 	}
 
 	private void ts2js(ErrorCountTranspilationHandler transpilationHandler, SourceFile[] sourceFiles)
@@ -857,6 +1079,20 @@ public class JSweetTranspiler implements JSweetOptions {
 			}
 		}
 
+		java.util.List<java.util.List<Collection<SourceFile>>> tscShards = calculateTscShards(tsSourceFiles);
+		if (tscShards != null) {
+			logger.info("sharded ts2js on " + ts2jsTranspiler + " sourceFiles=" + sourceFiles.length + " levels="
+					+ tscShards.size());
+			((TypeScript2JavaScriptWithTscTranspiler) ts2jsTranspiler).ts2jsSharded(transpilationHandler, //
+					tscShards, //
+					metrics, //
+					tsDefDirs, //
+					this, //
+					isIgnoreTypeScriptErrors(), //
+					this::onTsTranspilationCompleted);
+			return;
+		}
+
 		logger.info("ts2js on " + ts2jsTranspiler + " sourceFiles=" + sourceFiles.length);
 		ts2jsTranspiler.ts2js(transpilationHandler, //
 				tsSourceFiles, //
@@ -866,6 +1102,90 @@ public class JSweetTranspiler implements JSweetOptions {
 				this::onTsTranspilationCompleted);
 	}
 
+	/**
+	 * Splits the given TypeScript files into groups (shards) that can be
+	 * compiled by parallel tsc processes. Each group holds the files of one or
+	 * several strongly connected components of the package dependency graph,
+	 * and the groups are ordered by levels, so that the files of a group only
+	 * depend on the files of its own group or of the groups of the previous
+	 * levels.
+	 * 
+	 * @return the groups of files by levels, or null if the compilation
+	 *         cannot be (or is not worth being) sharded
+	 */
+	private java.util.List<java.util.List<Collection<SourceFile>>> calculateTscShards(
+			Collection<SourceFile> tsSourceFiles) {
+		if (!parallelTsc || sourceFilePackages == null || isTscWatchMode()
+				|| !(ts2jsTranspiler instanceof TypeScript2JavaScriptWithTscTranspiler)) {
+			return null;
+		}
+		Map<PackageSymbol, java.util.List<SourceFile>> packageFiles = new LinkedHashMap<>();
+		for (SourceFile sourceFile : tsSourceFiles) {
+			PackageSymbol packageSymbol = sourceFilePackages.get(sourceFile);
+			if (packageSymbol == null) {
+				// the dependencies of this file are unknown
+				return null;
+			}
+			packageFiles.computeIfAbsent(packageSymbol, p -> new ArrayList<>()).add(sourceFile);
+		}
+		DirectedGraph<PackageSymbol> graph = new DirectedGraph<>();
+		graph.addAll(packageFiles.keySet());
+		for (PackageSymbol packageSymbol : packageFiles.keySet()) {
+			java.util.List<PackageSymbol> dependencies = context.packageDependencies
+					.getDestinationElements(packageSymbol);
+			if (dependencies != null) {
+				for (PackageSymbol dependency : dependencies) {
+					if (packageFiles.containsKey(dependency)) {
+						graph.addEdge(packageSymbol, dependency);
+					}
+				}
+			}
+		}
+
+		// the components come after their dependencies
+		Map<PackageSymbol, Integer> packageLevels = new HashMap<>();
+		java.util.List<java.util.List<java.util.List<SourceFile>>> componentsByLevel = new ArrayList<>();
+		for (java.util.List<PackageSymbol> component : graph.getStronglyConnectedComponents()) {
+			int level = 0;
+			java.util.List<SourceFile> componentFiles = new ArrayList<>();
+			for (PackageSymbol packageSymbol : component) {
+				for (PackageSymbol dependency : graph.getDestinationElements(packageSymbol)) {
+					Integer dependencyLevel = packageLevels.get(dependency);
+					if (dependencyLevel != null) {
+						level = Math.max(level, dependencyLevel + 1);
+					}
+				}
+				componentFiles.addAll(packageFiles.get(packageSymbol));
+			}
+			for (PackageSymbol packageSymbol : component) {
+				packageLevels.put(packageSymbol, level);
+			}
+			while (componentsByLevel.size() <= level) {
+				componentsByLevel.add(new ArrayList<>());
+			}
+			componentsByLevel.get(level).add(componentFiles);
+		}
+
+		// balance the components of each level on one shard per processor
+		int maxShardsPerLevel = Runtime.getRuntime().availableProcessors();
+		boolean parallel = false;
+		java.util.List<java.util.List<Collection<SourceFile>>> shards = new ArrayList<>();
+		for (java.util.List<java.util.List<SourceFile>> components : componentsByLevel) {
+			components.sort(Comparator.comparingInt(component -> -component.size()));
+			java.util.List<Collection<SourceFile>> levelShards = new ArrayList<>();
+			for (java.util.List<SourceFile> component : components) {
+				if (levelShards.size() < maxShardsPerLevel) {
+					levelShards.add(new ArrayList<>(component));
+				} else {
+					levelShards.stream().min(Comparator.comparingInt(Collection::size)).get().addAll(component);
+				}
+			}
+			parallel |= levelShards.size() > 1;
+			shards.add(levelShards);
+		}
+		return parallel ? shards : null;
+	}
+
 	public void setUseTsserver(boolean useTsserver) {
 		if (useTsserver) {
 			this.ts2jsTranspiler = TypeScript2JavaScriptWithTsserverTranspiler.INSTANCE;
@@ -893,7 +1213,9 @@ public class JSweetTranspiler implements JSweetOptions {
 		}
 
 		context.sourceFiles = files;
-		factory.createBeforeTranslationScanner(transpilationHandler, context).process(compilationUnits);
+		try (Phase phase = metrics.startPhase(TranspilationMetrics.SCAN, "beforeTranslation")) {
+			factory.createBeforeTranslationScanner(transpilationHandler, context).process(compilationUnits);
+		}
 
 		if (context.useModules) {
 			generateTsFiles(transpilationHandler, files, compilationUnits);
@@ -920,100 +1242,421 @@ public class JSweetTranspiler implements JSweetOptions {
 	private void generateTsFiles(ErrorCountTranspilationHandler transpilationHandler, SourceFile[] files,
 			List<JCCompilationUnit> compilationUnits) throws IOException {
 		// regular file-to-file generation
-		new OverloadScanner(transpilationHandler, context).process(compilationUnits);
+		try (Phase phase = metrics.startPhase(TranspilationMetrics.SCAN, "overloads")) {
+			new OverloadScanner(transpilationHandler, context).process(compilationUnits);
+		}
 
 		if (isVerbose()) {
 			context.dumpOverloads(System.out);
 		}
 
+		Map<File, Set<File>> dependencies = incremental || ts2jsPipeline != null
+				? calculateDependencies(files, compilationUnits)
+				: null;
+		Set<File> staleFiles = incremental ? calculateStaleFiles(dependencies) : null;
+		Map<SourceFile, Collection<SourceFile>> pipelineDependencies = ts2jsPipeline == null ? null
+				: calculatePipelineDependencies(files, dependencies);
+
 		String[] headerLines = getHeaderLines();
+		java.util.List<Integer> compilationUnitsToPrint = new ArrayList<>();
+		sourceFilePackages = parallelTsc && context.useModules ? new HashMap<>() : null;
 		for (int i = 0; i < compilationUnits.length(); i++) {
+			JCCompilationUnit cu = compilationUnits.get(i);
+			if (sourceFilePackages != null) {
+				sourceFilePackages.put(files[i], cu.packge);
+			}
+			if (isModuleDefsFile(cu)) {
+				if (context.useModules) {
+					generateModuleDefs(cu);
+				}
+				addToTs2JsPipeline(files[i], pipelineDependencies);
+				continue;
+			}
+			if (staleFiles != null && !staleFiles.contains(files[i].getJavaFile().getAbsoluteFile())) {
+				// the package dependencies are only known for the printed files
+				sourceFilePackages = null;
+				reuseIncrementalOutput(files[i], cu);
+				addToTs2JsPipeline(files[i], pipelineDependencies);
+				continue;
+			}
+			compilationUnitsToPrint.add(i);
+		}
+
+		if (parallelPrinting && compilationUnitsToPrint.size() > 1) {
+			// the javac symbols are completed lazily, which is not thread-safe
+			try (Phase phase = metrics.startPhase(TranspilationMetrics.SCAN, "symbols")) {
+				new SymbolCompleter(context.types).process(compilationUnits);
+			}
+			ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+			// the first use of each module, as (compilation unit, rank in the
+			// compilation unit)
+			Map<String, Long> moduleOrder = new ConcurrentHashMap<>();
 			try {
-				JCCompilationUnit cu = compilationUnits.get(i);
-				if (isModuleDefsFile(cu)) {
-					if (context.useModules) {
-						generateModuleDefs(cu);
+				java.util.List<ForkJoinTask<?>> tasks = new ArrayList<>();
+				for (int i : compilationUnitsToPrint) {
+					tasks.add(pool.submit(() -> {
+						try {
+							generateTsFile(transpilationHandler, headerLines, files[i], compilationUnits.get(i));
+							long rank = 0;
+							for (String module : context.getCompilationUnitUsedModules()) {
+								moduleOrder.merge(module, ((long) i << 32) + rank++, Math::min);
+							}
+							addToTs2JsPipeline(files[i], pipelineDependencies);
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					}));
+				}
+				for (ForkJoinTask<?> task : tasks) {
+					try {
+						task.get();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new IOException("interrupted while printing compilation units", e);
+					} catch (ExecutionException e) {
+						if (e.getCause() instanceof UncheckedIOException) {
+							throw ((UncheckedIOException) e.getCause()).getCause();
+						}
+						if (e.getCause() instanceof RuntimeException) {
+							throw (RuntimeException) e.getCause();
+						}
+						throw new RuntimeException(e.getCause());
 					}
-					continue;
 				}
-				logger.info("scanning " + cu.sourcefile.getName() + "...");
-				AbstractTreePrinter printer = factory.createTranslator(adapter, transpilationHandler, context, cu,
-						generateSourceMaps);
-				printer.print(cu);
-				if (StringUtils.isWhitespace(printer.getResult())) {
-					continue;
+			} finally {
+				pool.shutdown();
+			}
+			// keep the entry files in a deterministic order
+			Map<File, Integer> sourceFileOrder = new HashMap<>();
+			for (int i = 0; i < files.length; i++) {
+				sourceFileOrder.putIfAbsent(getCanonicalFile(files[i].getJavaFile()), i);
+			}
+			Map<File, Integer> entryFileOrder = new HashMap<>();
+			for (File entryFile : context.entryFiles) {
+				entryFileOrder.put(entryFile, sourceFileOrder.getOrDefault(getCanonicalFile(entryFile), -1));
+			}
+			context.entryFiles.sort(Comparator.comparingInt(entryFileOrder::get));
+			// keep the used modules in the order of a sequential printing
+			context.getUsedModules().sort(Comparator.comparingLong(module -> moduleOrder.getOrDefault(module, -1L)));
+		} else {
+			for (int i : compilationUnitsToPrint) {
+				generateTsFile(transpilationHandler, headerLines, files[i], compilationUnits.get(i));
+				addToTs2JsPipeline(files[i], pipelineDependencies);
+			}
+		}
+		if (incremental) {
+			updateIncrementalState(transpilationHandler, files);
+		}
+	}
+
+	private void addToTs2JsPipeline(SourceFile file, Map<SourceFile, Collection<SourceFile>> pipelineDependencies) {
+		if (ts2jsPipeline != null) {
+			// null would mean that the dependencies are unknown
+			ts2jsPipeline.add(file, pipelineDependencies.getOrDefault(file, Collections.emptySet()));
+		}
+	}
+
+	/**
+	 * Calculates, for each Java file (absolute), the Java files it depends on.
+	 * This graph is used to invalidate the dependent files in incremental mode
+	 * and to schedule the compilations of the ts2js pipeline.
+	 */
+	private Map<File, Set<File>> calculateDependencies(SourceFile[] files, List<JCCompilationUnit> compilationUnits) {
+		Map<JCCompilationUnit, File> compilationUnitFiles = new HashMap<>();
+		for (int i = 0; i < compilationUnits.length(); i++) {
+			compilationUnitFiles.put(compilationUnits.get(i), files[i].getJavaFile().getAbsoluteFile());
+		}
+		CompilationUnitDependencyAnalyzer analyzer = new CompilationUnitDependencyAnalyzer();
+		analyzer.process(compilationUnits);
+		Map<File, Set<File>> dependencies = new HashMap<>();
+		for (java.util.Map.Entry<JCCompilationUnit, Set<JCCompilationUnit>> e : analyzer.dependencies.entrySet()) {
+			dependencies.put(compilationUnitFiles.get(e.getKey()),
+					e.getValue().stream().map(compilationUnitFiles::get).collect(Collectors.toSet()));
+		}
+		return dependencies;
+	}
+
+	/**
+	 * Maps the given dependency graph to the source files, so that the ts2js
+	 * pipeline compiles a TypeScript file only once the files it depends on
+	 * have been generated.
+	 */
+	private Map<SourceFile, Collection<SourceFile>> calculatePipelineDependencies(SourceFile[] files,
+			Map<File, Set<File>> dependencies) {
+		Map<File, SourceFile> sourceFiles = new HashMap<>();
+		for (SourceFile file : files) {
+			sourceFiles.put(file.getJavaFile().getAbsoluteFile(), file);
+		}
+		Map<SourceFile, Collection<SourceFile>> pipelineDependencies = new HashMap<>();
+		for (java.util.Map.Entry<File, Set<File>> e : dependencies.entrySet()) {
+			pipelineDependencies.put(sourceFiles.get(e.getKey()),
+					e.getValue().stream().map(sourceFiles::get).collect(Collectors.toSet()));
+		}
+		return pipelineDependencies;
+	}
+
+	private void generateTsFile(ErrorCountTranspilationHandler transpilationHandler, String[] headerLines,
+			SourceFile file, JCCompilationUnit cu) throws IOException {
+		context.getCompilationUnitUsedModules().clear();
+		if (directJavaScript && cu.packge.fullname.toString().startsWith("def.")) {
+			// definitions are only needed by tsc
+			return;
+		}
+		Phase printPhase = metrics.startPhase(TranspilationMetrics.PRINT, file.getJavaFile().getName(),
+				file.getJavaFile());
+		try {
+			logger.info("scanning " + cu.sourcefile.getName() + "...");
+			AbstractTreePrinter printer = factory.createTranslator(adapter, transpilationHandler, context, cu,
+					generateSourceMaps);
+			printer.print(cu);
+			setPrintCounters(printPhase, printer);
+			if (printer.getOutputBuffer().isWhitespace()) {
+				return;
+			}
+			String[] s = cu.getSourceFile().getName().split(File.separator.equals("\\") ? "\\\\" : File.separator);
+			String cuName = s[s.length - 1];
+			s = cuName.split("\\.");
+			cuName = s[0];
+			String javaSourceFileRelativeFullName = (cu.packge.getQualifiedName().toString().replace(".",
+					File.separator) + File.separator + cuName + ".java");
+			file.javaSourceDirRelativeFile = new File(javaSourceFileRelativeFullName);
+			file.javaSourceDir = new File(cu.getSourceFile().getName().substring(0,
+					cu.getSourceFile().getName().length() - javaSourceFileRelativeFullName.length()));
+			String packageName = isNoRootDirectories() ? context.getRootRelativeJavaName(cu.packge)
+					: cu.packge.getQualifiedName().toString();
+			String outputFileRelativePathNoExt = packageName.replace(".", File.separator) + File.separator + cuName;
+			String outputFileRelativePath = outputFileRelativePathNoExt + (directJavaScript ? ".js"
+					: cu.packge.fullname.toString().startsWith("def.") ? ".d.ts" : ".ts");
+			logger.info("output file: " + outputFileRelativePath);
+			File outputFile = new File(getOutputDir(), outputFileRelativePath);
+			outputFile.getParentFile().mkdirs();
+			String outputFilePath = outputFile.getPath();
+			PrintWriter out = new PrintWriter(outputFilePath);
+			String headers = context.getHeaders();
+			int headersLineCount = StringUtils.countMatches(headers, "\n");
+			try {
+				for (String line : headerLines) {
+					out.println(line);
 				}
-				String[] s = cu.getSourceFile().getName().split(File.separator.equals("\\") ? "\\\\" : File.separator);
-				String cuName = s[s.length - 1];
-				s = cuName.split("\\.");
-				cuName = s[0];
-				String javaSourceFileRelativeFullName = (cu.packge.getQualifiedName().toString().replace(".",
-						File.separator) + File.separator + cuName + ".java");
-				files[i].javaSourceDirRelativeFile = new File(javaSourceFileRelativeFullName);
-				files[i].javaSourceDir = new File(cu.getSourceFile().getName().substring(0,
-						cu.getSourceFile().getName().length() - javaSourceFileRelativeFullName.length()));
-				String packageName = isNoRootDirectories() ? context.getRootRelativeJavaName(cu.packge)
-						: cu.packge.getQualifiedName().toString();
-				String outputFileRelativePathNoExt = packageName.replace(".", File.separator) + File.separator + cuName;
-				String outputFileRelativePath = outputFileRelativePathNoExt
-						+ (cu.packge.fullname.toString().startsWith("def.") ? ".d.ts" : ".ts");
-				logger.info("output file: " + outputFileRelativePath);
-				File outputFile = new File(tsOutputDir, outputFileRelativePath);
-				outputFile.getParentFile().mkdirs();
-				String outputFilePath = outputFile.getPath();
-				PrintWriter out = new PrintWriter(outputFilePath);
-				String headers = context.getHeaders();
-				int headersLineCount = StringUtils.countMatches(headers, "\n");
-				try {
-					for (String line : headerLines) {
-						out.println(line);
+				out.print(headers);
+				printer.getOutputBuffer().writeTo(out);
+				out.println();
+				out.print(context.getGlobalsMappingString());
+				out.print(context.getFooterStatements());
+				if (directJavaScript && generateSourceMaps) {
+					out.println();
+					out.print("//# sourceMappingURL=" + outputFile.getName() + ".map");
+				}
+			} finally {
+				out.close();
+			}
+			if (directJavaScript) {
+				file.jsFile = outputFile;
+				file.jsFileLastTranspiled = outputFile.lastModified();
+			} else {
+				file.tsFile = outputFile;
+			}
+			file.javaFileLastTranspiled = file.getJavaFile().lastModified();
+			printer.sourceMap.shiftOutputPositions(headerLines.length + headersLineCount);
+			file.setSourceMap(printer.sourceMap);
+			if (generateSourceMaps && (!generateJsFiles || directJavaScript)) {
+				File mapFile = generateSourceMapFile(file, outputFile);
+				if (directJavaScript) {
+					file.jsMapFile = mapFile;
+				}
+			}
+			logger.info("created " + outputFilePath);
+		} finally {
+			context.clearHeaders();
+			context.clearFooterStatements();
+			// each file declares the globals mappings it uses, whatever the
+			// printing order
+			context.clearGlobalsMapping();
+			printPhase.close();
+		}
+	}
+
+	private static File getCanonicalFile(File file) throws IOException {
+		return file.getAbsoluteFile().getCanonicalFile();
+	}
+
+	private void setPrintCounters(Phase printPhase, AbstractTreePrinter printer) {
+		printPhase.setCounter(TranspilationMetrics.OUTPUT_SIZE, printer.getOutputBuffer().length());
+		printPhase.setCounter(TranspilationMetrics.SOURCE_MAP_ENTRIES, printer.sourceMap.size());
+		printPhase.setCounter(TranspilationMetrics.ROLLBACKS, printer.getRollbackCount());
+	}
+
+	/**
+	 * Calculates the Java files that need to be regenerated in incremental mode:
+	 * the files that changed since the last transpilation and all the files that
+	 * depend on them (transitively), including the ones depending on removed
+	 * files.
+	 */
+	private Set<File> calculateStaleFiles(Map<File, Set<File>> dependencies) {
+		Set<File> staleFiles = new HashSet<>();
+		String fingerprint = getIncrementalFingerprint();
+		if (!fingerprint.equals(incrementalFingerprint)) {
+			logger.info("incremental transpilation: configuration changed, regenerating all files");
+			staleFiles.addAll(dependencies.keySet());
+		} else {
+			Queue<File> changedFiles = new LinkedList<>();
+			for (File javaFile : dependencies.keySet()) {
+				SourceFile previous = incrementalSourceFiles.get(javaFile);
+				// no TypeScript file is generated when generating JavaScript directly
+				File generatedFile = previous == null ? null : directJavaScript ? previous.jsFile : previous.tsFile;
+				if (generatedFile == null || !generatedFile.exists()
+						|| previous.javaFileLastTranspiled != javaFile.lastModified()
+						|| (changedJavaFiles != null && changedJavaFiles.contains(javaFile))) {
+					staleFiles.add(javaFile);
+					changedFiles.add(javaFile);
+				}
+			}
+			for (File removedFile : incrementalDependencies.keySet()) {
+				if (!dependencies.containsKey(removedFile)) {
+					changedFiles.add(removedFile);
+				}
+			}
+			Map<File, Set<File>> dependents = new HashMap<>();
+			for (Map<File, Set<File>> graph : asList(incrementalDependencies, dependencies)) {
+				for (java.util.Map.Entry<File, Set<File>> e : graph.entrySet()) {
+					for (File dependency : e.getValue()) {
+						dependents.computeIfAbsent(dependency, f -> new HashSet<>()).add(e.getKey());
 					}
-					out.print(headers);
-					out.println(printer.getResult());
-					out.print(context.getGlobalsMappingString());
-					out.print(context.getFooterStatements());
-				} finally {
-					out.close();
 				}
-				files[i].tsFile = outputFile;
-				files[i].javaFileLastTranspiled = files[i].getJavaFile().lastModified();
-				printer.sourceMap.shiftOutputPositions(headerLines.length + headersLineCount);
-				files[i].setSourceMap(printer.sourceMap);
-				if (generateSourceMaps && !generateJsFiles) {
-					generateTypeScriptSourceMapFile(files[i]);
+			}
+			while (!changedFiles.isEmpty()) {
+				File changedFile = changedFiles.poll();
+				for (File dependent : dependents.getOrDefault(changedFile, new HashSet<>())) {
+					if (dependencies.containsKey(dependent) && staleFiles.add(dependent)) {
+						changedFiles.add(dependent);
+					}
 				}
-				logger.info("created " + outputFilePath);
-			} finally {
-				context.clearHeaders();
-				context.clearFooterStatements();
 			}
 		}
+		incrementalDependencies = dependencies;
+		incrementalFingerprint = fingerprint;
+		logger.info("incremental transpilation: " + staleFiles.size() + "/" + dependencies.size()
+				+ " compilation unit(s) to be regenerated");
+		return staleFiles;
 	}
 
-	private void generateTypeScriptSourceMapFile(SourceFile sourceFile) throws IOException {
-		if (sourceFile.getSourceMap() == null) {
+	/**
+	 * Restores the output of a previous transpilation for an up-to-date source
+	 * file (incremental mode).
+	 */
+	private void reuseIncrementalOutput(SourceFile sourceFile, JCCompilationUnit cu) {
+		File javaFile = sourceFile.getJavaFile().getAbsoluteFile();
+		logger.info("up-to-date: " + cu.sourcefile.getName());
+		sourceFile.copyTranspilationInfo(incrementalSourceFiles.get(javaFile));
+		if (incrementalEntryFiles.contains(javaFile)) {
+			context.entryFiles.add(new File(cu.sourcefile.getName()));
+		}
+	}
+
+	private void updateIncrementalState(ErrorCountTranspilationHandler transpilationHandler, SourceFile[] files) {
+		Set<File> javaFiles = new HashSet<>();
+		for (SourceFile file : files) {
+			javaFiles.add(file.getJavaFile().getAbsoluteFile());
+		}
+		for (java.util.Map.Entry<File, SourceFile> e : incrementalSourceFiles.entrySet()) {
+			if (!javaFiles.contains(e.getKey())) {
+				// a clean build would not produce the outputs of removed files
+				deleteOutputFiles(e.getValue());
+			}
+		}
+		if (transpilationHandler.getErrorCount() > 0) {
+			// force a full regeneration on the next invocation
+			clearIncrementalState();
 			return;
 		}
+		incrementalSourceFiles.clear();
+		for (SourceFile file : files) {
+			if (file.tsFile != null || file.jsFile != null) {
+				incrementalSourceFiles.put(file.getJavaFile().getAbsoluteFile(), file);
+			}
+		}
+		incrementalEntryFiles = context.entryFiles.stream().map(File::getAbsoluteFile).collect(Collectors.toSet());
+	}
+
+	private void deleteOutputFiles(SourceFile removedFile) {
+		logger.info("removed: " + removedFile.getJavaFile());
+		for (File outputFile : asList(removedFile.tsFile, removedFile.jsFile)) {
+			if (outputFile != null) {
+				FileUtils.deleteQuietly(outputFile);
+				FileUtils.deleteQuietly(new File(outputFile.getPath() + ".map"));
+			}
+		}
+		if (removedFile.jsMapFile != null) {
+			FileUtils.deleteQuietly(removedFile.jsMapFile);
+		}
+	}
+
+	/**
+	 * Clears the state kept in incremental mode, so that the next
+	 * transpilation regenerates all the files.
+	 * 
+	 * @see #setIncremental(boolean)
+	 */
+	public void clearIncrementalState() {
+		incrementalSourceFiles.clear();
+		incrementalDependencies.clear();
+		incrementalEntryFiles.clear();
+		incrementalFingerprint = null;
+	}
+
+	private String getJavacStateFingerprint() {
+		StringBuilder fingerprint = new StringBuilder("classPath=" + classPath + "\nencoding=" + encoding);
+		if (classPath != null) {
+			for (String entry : classPath.split(File.pathSeparator)) {
+				File file = new File(entry);
+				fingerprint.append("\n").append(entry).append("|").append(file.length()).append("|")
+						.append(file.lastModified());
+			}
+		}
+		return fingerprint.toString();
+	}
+
+	private String getIncrementalFingerprint() {
+		return toString() + "\nfactory=" + factory.getClass().getName() + "\nadapters=" + adapters
+				+ "\ngenerateSourceMaps=" + generateSourceMaps + "\nheaderFile=" + headerFile
+				+ "\ndisableSinglePrecisionFloats=" + disableSingleFloatPrecision + "\nusingJavaRuntime="
+				+ context.isUsingJavaRuntime() + "\ndirectJavaScript=" + directJavaScript + "\ntypedArrays="
+				+ typedArrays + "\nnativeMaps=" + nativeMaps + "\nconfiguration=" + configuration;
+	}
+
+	/**
+	 * Generates the source map file that maps the given generated file (a
+	 * TypeScript file, or a JavaScript file when generating JavaScript
+	 * directly) to its Java source file.
+	 * 
+	 * @return the generated map file, or null if the source file has no source
+	 *         map
+	 */
+	private File generateSourceMapFile(SourceFile sourceFile, File generatedFile) throws IOException {
+		if (sourceFile.getSourceMap() == null) {
+			return null;
+		}
+		Phase phase = metrics.startPhase(TranspilationMetrics.SOURCE_MAPS, generatedFile.getName() + ".map",
+				sourceFile.getJavaFile());
 		SourceMapGenerator generator = SourceMapGeneratorFactory.getInstance(SourceMapFormat.V3);
-		String javaSourceFilePath = sourceFile.getTsFile().getAbsoluteFile().getCanonicalFile().getParentFile().toPath()
+		String javaSourceFilePath = generatedFile.getAbsoluteFile().getCanonicalFile().getParentFile().toPath()
 				.relativize(sourceFile.getJavaFile().getAbsoluteFile().getCanonicalFile().toPath()).toString();
-		for (Entry entry : sourceFile.getSourceMap().getSortedEntries(new Comparator<SourceMap.Entry>() {
-			@Override
-			public int compare(Entry e1, Entry e2) {
-				return e1.getOutputPosition().compareTo(e2.getOutputPosition());
-			}
-		})) {
+		SourceMap sourceMap = sourceFile.getSourceMap();
+		for (int i = 0; i < sourceMap.size(); i++) {
 			generator.addMapping(javaSourceFilePath, null,
-					new FilePosition(entry.getInputPosition().getLine(), entry.getInputPosition().getColumn()),
-					new FilePosition(entry.getOutputPosition().getLine(), entry.getOutputPosition().getColumn()),
-					new FilePosition(entry.getOutputPosition().getLine(), entry.getOutputPosition().getColumn() + 1));
+					new FilePosition(sourceMap.getInputLine(i), sourceMap.getInputColumn(i)),
+					new FilePosition(sourceMap.getOutputLine(i), sourceMap.getOutputColumn(i)),
+					new FilePosition(sourceMap.getOutputLine(i), sourceMap.getOutputColumn(i) + 1));
 		}
-		File outputFile = new File(sourceFile.getTsFile().getPath() + ".map");
+		File outputFile = new File(generatedFile.getPath() + ".map");
 		try (FileWriter writer = new FileWriter(outputFile, false)) {
-			generator.appendTo(writer, sourceFile.getTsFile().getName());
+			generator.appendTo(writer, generatedFile.getName());
 		} catch (Exception ex) {
 			ex.printStackTrace();
+		} finally {
+			phase.close();
 		}
+		return outputFile;
 
 	}
 
@@ -1028,7 +1671,9 @@ public class JSweetTranspiler implements JSweetOptions {
 			return;
 		}
 		StaticInitilializerAnalyzer analizer = new StaticInitilializerAnalyzer(context);
-		analizer.process(compilationUnits);
+		try (Phase phase = metrics.startPhase(TranspilationMetrics.SCAN, "staticInitializers")) {
+			analizer.process(compilationUnits);
+		}
 		ArrayList<Node<JCCompilationUnit>> sourcesInCycle = new ArrayList<>();
 		java.util.List<JCCompilationUnit> orderedCompilationUnits = analizer.globalStaticInitializersDependencies
 				.topologicalSort(n -> {
@@ -1044,7 +1689,9 @@ public class JSweetTranspiler implements JSweetOptions {
 			return;
 		}
 
-		new OverloadScanner(transpilationHandler, context).process(orderedCompilationUnits);
+		try (Phase phase = metrics.startPhase(TranspilationMetrics.SCAN, "overloads")) {
+			new OverloadScanner(transpilationHandler, context).process(orderedCompilationUnits);
+		}
 
 		logger.debug("ordered compilation units: " + orderedCompilationUnits.stream().map(cu -> {
 			return cu.sourcefile.getName();
@@ -1059,7 +1706,7 @@ public class JSweetTranspiler implements JSweetOptions {
 		}
 		logger.debug("permutation: " + permutationString.toString());
 		createBundle(transpilationHandler, files, permutation, orderedCompilationUnits, false);
-		if (isGenerateDefinitions()) {
+		if (isGenerateDefinitions() && !directJavaScript) {
 			createBundle(transpilationHandler, files, permutation, orderedCompilationUnits, true);
 		}
 	}
@@ -1079,57 +1726,62 @@ public class JSweetTranspiler implements JSweetOptions {
 
 	private void createBundle(ErrorCountTranspilationHandler transpilationHandler, SourceFile[] files,
 			int[] permutation, java.util.List<JCCompilationUnit> orderedCompilationUnits, boolean definitionBundle)
-			throws FileNotFoundException {
+			throws IOException {
 		context.bundleMode = true;
-		StringBuilder sb = new StringBuilder();
-		int lineCount = 0;
-		for (String line : getHeaderLines()) {
-			sb.append(line).append("\n");
-			lineCount++;
-		}
-		for (int i = 0; i < orderedCompilationUnits.size(); i++) {
-			JCCompilationUnit cu = orderedCompilationUnits.get(i);
-			if (isModuleDefsFile(cu)) {
-				continue;
-			}
-			if (cu.packge.fullname.toString().startsWith("def.")) {
-				if (!definitionBundle) {
-					continue;
-				}
-			} else {
-				if (definitionBundle) {
-					continue;
-				}
-			}
-			logger.info("scanning " + cu.sourcefile.getName() + "...");
-			AbstractTreePrinter printer = factory.createTranslator(adapter, transpilationHandler, context, cu,
-					generateSourceMaps);
-			printer.print(cu);
-			printer.sourceMap.shiftOutputPositions(lineCount);
-			files[permutation[i]].setSourceMap(printer.sourceMap);
-
-			sb.append(printer.getOutput());
-			lineCount += (printer.getCurrentLine() - 1);
-
-			initSourceFileJavaPaths(files[permutation[i]], cu);
-		}
-
-		context.bundleMode = false;
-
-		File bundleDirectory = tsOutputDir;
+		File bundleDirectory = getOutputDir();
 		if (!bundleDirectory.exists()) {
 			bundleDirectory.mkdirs();
 		}
-		String bundleName = "bundle" + (definitionBundle ? ".d.ts" : ".ts");
+		String bundleName = "bundle" + (definitionBundle ? ".d.ts" : directJavaScript ? ".js" : ".ts");
 
 		File outputFile = new File(bundleDirectory, bundleName);
 
 		logger.info("creating bundle file: " + outputFile);
 		outputFile.getParentFile().mkdirs();
 		String outputFilePath = outputFile.getPath();
-		PrintWriter out = new PrintWriter(outputFilePath);
+		// the compilation units are streamed one by one to a temporary file, since
+		// the headers they add have to be printed before them
+		String[] headerLines = getHeaderLines();
+		File bodyFile = new File(bundleDirectory, bundleName + ".body");
+		java.util.List<SourceMap> sourceMaps = new ArrayList<>();
+		PrintWriter out = new PrintWriter(bodyFile);
 		try {
-			out.println(sb.toString());
+			int lineCount = headerLines.length;
+			for (int i = 0; i < orderedCompilationUnits.size(); i++) {
+				JCCompilationUnit cu = orderedCompilationUnits.get(i);
+				if (isModuleDefsFile(cu)) {
+					continue;
+				}
+				if (cu.packge.fullname.toString().startsWith("def.")) {
+					if (!definitionBundle) {
+						continue;
+					}
+				} else {
+					if (definitionBundle) {
+						continue;
+					}
+				}
+				logger.info("scanning " + cu.sourcefile.getName() + "...");
+				AbstractTreePrinter printer = factory.createTranslator(adapter, transpilationHandler, context, cu,
+						generateSourceMaps);
+				try (Phase phase = metrics.startPhase(TranspilationMetrics.PRINT,
+						files[permutation[i]].getJavaFile().getName(), files[permutation[i]].getJavaFile())) {
+					printer.print(cu);
+					setPrintCounters(phase, printer);
+				}
+				printer.sourceMap.shiftOutputPositions(lineCount);
+				files[permutation[i]].setSourceMap(printer.sourceMap);
+				sourceMaps.add(printer.sourceMap);
+
+				printer.getOutputBuffer().writeTo(out);
+				lineCount += (printer.getCurrentLine() - 1);
+
+				initSourceFileJavaPaths(files[permutation[i]], cu);
+			}
+
+			context.bundleMode = false;
+
+			out.println();
 			if (!definitionBundle) {
 				out.print(context.getGlobalsMappingString());
 			}
@@ -1161,6 +1813,26 @@ public class JSweetTranspiler implements JSweetOptions {
 		} finally {
 			out.close();
 		}
+		String headers = definitionBundle ? "" : context.getHeaders();
+		context.clearHeaders();
+		try (OutputStream bundle = new FileOutputStream(outputFile)) {
+			PrintWriter writer = new PrintWriter(bundle);
+			for (String line : headerLines) {
+				writer.print(line);
+				writer.print('\n');
+			}
+			writer.print(headers);
+			writer.flush();
+			Files.copy(bodyFile.toPath(), bundle);
+		} finally {
+			bodyFile.delete();
+		}
+		int headersLineCount = StringUtils.countMatches(headers, "\n");
+		if (headersLineCount > 0) {
+			for (SourceMap sourceMap : sourceMaps) {
+				sourceMap.shiftOutputPositions(headersLineCount);
+			}
+		}
 		for (int i = 0; i < orderedCompilationUnits.size(); i++) {
 			JCCompilationUnit cu = orderedCompilationUnits.get(i);
 			if (cu.packge.fullname.toString().startsWith("def.")) {
@@ -1172,7 +1844,11 @@ public class JSweetTranspiler implements JSweetOptions {
 					continue;
 				}
 			}
-			files[permutation[i]].tsFile = outputFile;
+			if (directJavaScript) {
+				files[permutation[i]].jsFile = outputFile;
+			} else {
+				files[permutation[i]].tsFile = outputFile;
+			}
 			files[permutation[i]].javaFileLastTranspiled = files[permutation[i]].getJavaFile().lastModified();
 		}
 		logger.info("created " + outputFilePath);
@@ -1193,10 +1869,8 @@ public class JSweetTranspiler implements JSweetOptions {
 	 * {@link #transpile(TranspilationHandler, SourceFile...)} with a new file list.
 	 */
 	synchronized public SourceFile[] getWatchedFiles() {
-		// TODO : watch mode isn't implemented with tsserver transpiler, either we
-		// remove watch mode (only used for tests if I'm right), or provide a dummy
-		// implementation for tsserver
-		return ((TypeScript2JavaScriptWithTscTranspiler) ts2jsTranspiler).getWatchedFiles().toArray(new SourceFile[0]);
+		Collection<SourceFile> watchedFiles = ts2jsTranspiler.getWatchedFiles();
+		return watchedFiles == null ? null : watchedFiles.toArray(new SourceFile[0]);
 	}
 
 	/**
@@ -1204,8 +1878,7 @@ public class JSweetTranspiler implements JSweetOptions {
 	 * {@link #setTscWatchMode(boolean)}.
 	 */
 	synchronized public SourceFile getWatchedFile(File javaFile) {
-		// TODO : see #getWatchedFiles()
-		return ((TypeScript2JavaScriptWithTscTranspiler) ts2jsTranspiler).getWatchedFile(javaFile);
+		return ts2jsTranspiler.getWatchedFile(javaFile);
 	}
 
 	/**
@@ -1232,112 +1905,20 @@ public class JSweetTranspiler implements JSweetOptions {
 	synchronized public void setTscWatchMode(boolean tscWatchMode) {
 		this.tscWatchMode = tscWatchMode;
 		if (!tscWatchMode) {
-			// TODO : see #getWatchedFiles()
-			((TypeScript2JavaScriptWithTscTranspiler) ts2jsTranspiler).stopWatch();
+			ts2jsTranspiler.stopWatch();
 		}
 	}
 
 	private void onTsTranspilationCompleted(boolean fullPass, ErrorCountTranspilationHandler handler,
 			Collection<SourceFile> files) {
 		try {
-			if (isGenerateDeclarations()) {
-				if (getDeclarationsOutputDir() != null) {
-					logger.info("moving d.ts files to " + getDeclarationsOutputDir());
-					LinkedList<File> dtsFiles = new LinkedList<File>();
-					File rootDir = jsOutputDir == null ? tsOutputDir : jsOutputDir;
-					Util.addFiles(".d.ts", rootDir, dtsFiles);
-					for (File dtsFile : dtsFiles) {
-						String relativePath = Util.getRelativePath(rootDir.getAbsolutePath(),
-								dtsFile.getAbsolutePath());
-						File targetFile = new File(getDeclarationsOutputDir(), relativePath);
-						logger.info("moving " + dtsFile + " to " + targetFile);
-						if (targetFile.exists()) {
-							FileUtils.deleteQuietly(targetFile);
-						}
-						try {
-							FileUtils.moveFile(dtsFile, targetFile);
-						} catch (Exception e) {
-							logger.error(e.getMessage(), e);
-						}
-					}
-				}
-			}
+			moveDeclarationFiles();
 			if (handler.getErrorCount() == 0) {
 				Set<File> handledFiles = new HashSet<>();
+				SourceMapComposer sourceMapComposer = new SourceMapComposer(
+						new SourceFileRegistry(tsOutputDir, files));
 				for (SourceFile sourceFile : files) {
-					if (!sourceFile.getTsFile().getAbsolutePath().startsWith(tsOutputDir.getAbsolutePath())) {
-						throw new RuntimeException("ts directory isn't configured properly, please use setTsDir: "
-								+ sourceFile.getTsFile().getAbsolutePath() + " != " + tsOutputDir.getAbsolutePath());
-					}
-					String outputFileRelativePath = sourceFile.getTsFile().getAbsolutePath()
-							.substring(tsOutputDir.getAbsolutePath().length());
-					File outputFile = new File(jsOutputDir == null ? tsOutputDir : jsOutputDir,
-							Util.removeExtension(outputFileRelativePath) + ".js");
-					sourceFile.jsFile = outputFile;
-					if (outputFile.lastModified() > sourceFile.jsFileLastTranspiled) {
-						if (handledFiles.contains(outputFile)) {
-							continue;
-						}
-						handledFiles.add(outputFile);
-						logger.info("js output file: " + outputFile);
-						File mapFile = new File(outputFile.getAbsolutePath() + ".map");
-
-						if (mapFile.exists() && generateSourceMaps) {
-
-							SourceMapGeneratorV3 generator = (SourceMapGeneratorV3) SourceMapGeneratorFactory
-									.getInstance(SourceMapFormat.V3);
-							Path javaSourcePath = sourceFile.javaSourceDir.getCanonicalFile().toPath();
-							String sourceRoot = getSourceRoot() != null ? getSourceRoot().toString()
-									: sourceFile.getJsFile().getParentFile().getCanonicalFile().toPath()
-											.relativize(javaSourcePath) + "/";
-							generator.setSourceRoot(sourceRoot);
-
-							sourceFile.jsMapFile = mapFile;
-							logger.info("redirecting map file: " + mapFile);
-							String contents = FileUtils.readFileToString(mapFile);
-							SourceMapping mapping = SourceMapConsumerFactory.parse(contents);
-
-							int line = 1;
-							int columnIndex = 0;
-							for (String lineContent : FileUtils.readLines(outputFile, (Charset) null)) {
-								columnIndex = 0;
-								while (columnIndex < lineContent.length() && (lineContent.charAt(columnIndex) == ' '
-										|| lineContent.charAt(columnIndex) == '\t')) {
-									columnIndex++;
-								}
-
-								OriginalMapping originalMapping = mapping.getMappingForLine(line, columnIndex + 1);
-								if (originalMapping != null) {
-									// TODO: this is quite slow and should be
-									// optimized
-									SourcePosition originPosition = SourceFile.findOriginPosition(new SourcePosition(
-											sourceFile.tsFile, null, new Position(originalMapping.getLineNumber(),
-													originalMapping.getColumnPosition())),
-											files);
-									if (originPosition != null) {
-										// as a first approximation, we only map
-										// line numbers (ignore columns)
-										generator.addMapping(
-												javaSourcePath
-														.relativize(
-																originPosition.getFile().getCanonicalFile().toPath())
-														.toString(),
-												null, new FilePosition(originPosition.getStartLine() - 1, 0),
-												new FilePosition(line - 1, 0),
-												new FilePosition(line - 1, lineContent.length() - 1));
-									}
-								}
-
-								line++;
-							}
-
-							try (FileWriter writer = new FileWriter(mapFile, false)) {
-								generator.appendTo(writer, outputFile.getName());
-							} catch (Exception ex) {
-								ex.printStackTrace();
-							}
-						}
-					}
+					onTsFileTranspiled(sourceFile, sourceMapComposer, handledFiles);
 				}
 			}
 		} catch (Exception e) {
@@ -1347,6 +1928,120 @@ public class JSweetTranspiler implements JSweetOptions {
 		}
 	}
 
+	private void onTsPipelineCompleted(boolean fullPass, ErrorCountTranspilationHandler handler,
+			Collection<SourceFile> files) {
+		try {
+			// the JavaScript files have already been handled one by one
+			moveDeclarationFiles();
+		} catch (Exception e) {
+			logger.error("cannot complete the ts2js pipeline", e);
+			handler.report(JSweetProblem.INTERNAL_TSC_ERROR, null, e.getMessage());
+		} finally {
+			if (handler.getErrorCount() > 0) {
+				for (SourceFile sourceFile : files) {
+					sourceFile.jsFile = null;
+					sourceFile.jsMapFile = null;
+				}
+			}
+			handler.onCompleted(this, fullPass, files.toArray(new SourceFile[0]));
+		}
+	}
+
+	private void onTsFileTranspiled(ErrorCountTranspilationHandler handler, SourceFile sourceFile,
+			boolean generated) {
+		try {
+			if (generated) {
+				onTsFileTranspiled(sourceFile,
+						new SourceMapComposer(new SourceFileRegistry(tsOutputDir, asList(sourceFile))),
+						new HashSet<>());
+			} else {
+				// up-to-date JavaScript file: its source map is already composed
+				File jsFile = getJsOutputFile(sourceFile.getTsFile());
+				sourceFile.jsFile = jsFile;
+				File mapFile = new File(jsFile.getAbsolutePath() + ".map");
+				if (mapFile.exists() && generateSourceMaps) {
+					sourceFile.jsMapFile = mapFile;
+				}
+			}
+		} catch (Exception e) {
+			logger.error("cannot handle the JavaScript file of " + sourceFile, e);
+			handler.report(JSweetProblem.INTERNAL_TSC_ERROR, null, e.getMessage());
+		}
+	}
+
+	/**
+	 * Gets the directory where the Java files are translated (the JavaScript
+	 * output directory when generating JavaScript directly).
+	 */
+	private File getOutputDir() {
+		return directJavaScript && jsOutputDir != null ? jsOutputDir : tsOutputDir;
+	}
+
+	private File getJsOutputFile(File tsFile) {
+		String outputFileRelativePath = tsFile.getAbsolutePath().substring(tsOutputDir.getAbsolutePath().length());
+		return new File(jsOutputDir == null ? tsOutputDir : jsOutputDir,
+				Util.removeExtension(outputFileRelativePath) + ".js");
+	}
+
+	private void moveDeclarationFiles() {
+		if (isGenerateDeclarations()) {
+			if (getDeclarationsOutputDir() != null) {
+				logger.info("moving d.ts files to " + getDeclarationsOutputDir());
+				LinkedList<File> dtsFiles = new LinkedList<File>();
+				File rootDir = jsOutputDir == null ? tsOutputDir : jsOutputDir;
+				Util.addFiles(".d.ts", rootDir, dtsFiles);
+				for (File dtsFile : dtsFiles) {
+					String relativePath = Util.getRelativePath(rootDir.getAbsolutePath(), dtsFile.getAbsolutePath());
+					File targetFile = new File(getDeclarationsOutputDir(), relativePath);
+					logger.info("moving " + dtsFile + " to " + targetFile);
+					if (targetFile.exists()) {
+						FileUtils.deleteQuietly(targetFile);
+					}
+					try {
+						FileUtils.moveFile(dtsFile, targetFile);
+					} catch (Exception e) {
+						logger.error(e.getMessage(), e);
+					}
+				}
+			}
+		}
+	}
+
+	private void onTsFileTranspiled(SourceFile sourceFile, SourceMapComposer sourceMapComposer, Set<File> handledFiles)
+			throws IOException {
+		if (!sourceFile.getTsFile().getAbsolutePath().startsWith(tsOutputDir.getAbsolutePath())) {
+			throw new RuntimeException("ts directory isn't configured properly, please use setTsDir: "
+					+ sourceFile.getTsFile().getAbsolutePath() + " != " + tsOutputDir.getAbsolutePath());
+		}
+		File outputFile = getJsOutputFile(sourceFile.getTsFile());
+		sourceFile.jsFile = outputFile;
+		if (outputFile.lastModified() > sourceFile.jsFileLastTranspiled) {
+			if (handledFiles.contains(outputFile)) {
+				return;
+			}
+			handledFiles.add(outputFile);
+			logger.info("js output file: " + outputFile);
+			File mapFile = new File(outputFile.getAbsolutePath() + ".map");
+
+			if (mapFile.exists() && generateSourceMaps) {
+
+				Path javaSourcePath = sourceFile.javaSourceDir.getCanonicalFile().toPath();
+				String sourceRoot = getSourceRoot() != null ? getSourceRoot().toString()
+						: sourceFile.getJsFile().getParentFile().getCanonicalFile().toPath()
+								.relativize(javaSourcePath) + "/";
+
+				sourceFile.jsMapFile = mapFile;
+				logger.info("redirecting map file: " + mapFile);
+				try (Phase phase = metrics.startPhase(TranspilationMetrics.SOURCE_MAPS, mapFile.getName(),
+						sourceFile.getJavaFile())) {
+					sourceMapComposer.compose(outputFile, mapFile, sourceFile.tsFile, javaSourcePath, sourceRoot);
+				} catch (Exception ex) {
+					ex.printStackTrace();
+				}
+			}
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -1799,4 +2494,233 @@ public class JSweetTranspiler implements JSweetOptions {
 	public String getClassPath() {
 		return classPath;
 	}
+
+	@Override
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * Sets the transpiler in incremental mode. In incremental mode, the
+	 * transpiler keeps track of the dependencies between the compilation units
+	 * and only regenerates the TypeScript files of the Java files that changed
+	 * since the last invocation of
+	 * {@link #transpile(TranspilationHandler, SourceFile...)}, and of the Java
+	 * files that depend on them. Bundles are always fully regenerated.
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+		if (!incremental) {
+			clearIncrementalState();
+		}
+	}
+
+	@Override
+	public boolean isParallelPrinting() {
+		return parallelPrinting;
+	}
+
+	/**
+	 * Sets the transpiler to print the compilation units in parallel (one
+	 * thread per available processor). Bundles are always printed
+	 * sequentially.
+	 * 
+	 * <p>
+	 * Note that the printing threads share the javac type model, as well as
+	 * the printer adapters, which must therefore not hold any per-file state
+	 * (see {@link PrinterAdapter#getPrinter()}).
+	 */
+	public void setParallelPrinting(boolean parallelPrinting) {
+		this.parallelPrinting = parallelPrinting;
+	}
+
+	@Override
+	public boolean isParallelTsc() {
+		return parallelTsc;
+	}
+
+	/**
+	 * Sets the transpiler to compile the generated TypeScript files with
+	 * several tsc processes running in parallel (at most one per available
+	 * processor). The files are grouped by strongly connected components of
+	 * the package dependency graph, and the groups that depend on other groups
+	 * are compiled once the declarations of these groups have been generated.
+	 * 
+	 * <p>
+	 * This option is only taken into account when using modules with the tsc
+	 * compiler (not in tsc watch mode), and when all the TypeScript files were
+	 * generated by the current transpilation (the transpiler falls back to a
+	 * single tsc process otherwise).
+	 */
+	public void setParallelTsc(boolean parallelTsc) {
+		this.parallelTsc = parallelTsc;
+	}
+
+	@Override
+	public boolean isDirectJavaScript() {
+		return directJavaScript;
+	}
+
+	/**
+	 * Sets the transpiler to directly generate the JavaScript files from the
+	 * Java files, without generating the TypeScript files and without invoking
+	 * tsc (which does not need to be installed). This considerably speeds up
+	 * the transpilation, but the TypeScript type checking is lost.
+	 * 
+	 * <p>
+	 * The generated code is ECMAScript 2015 code, where the field initializers
+	 * are moved to the constructors and after the class declarations (as tsc
+	 * does). The target must be {@link EcmaScriptComplianceLevel#ES6} and the
+	 * module kind must be {@link ModuleKind#es2015} or
+	 * {@link ModuleKind#none}, otherwise the transpilation reports an
+	 * {@link JSweetProblem#UNSUPPORTED_DIRECT_JAVASCRIPT_OPTION} error. No
+	 * definition files are generated.
+	 */
+	public void setDirectJavaScript(boolean directJavaScript) {
+		this.directJavaScript = directJavaScript;
+	}
+
+	/**
+	 * Tells if this transpiler reuses the javac state from one transpilation
+	 * to another.
+	 * 
+	 * @see #setReuseJavacState(boolean)
+	 */
+	public boolean isReuseJavacState() {
+		return reuseJavacState;
+	}
+
+	/**
+	 * Sets this transpiler to reuse the javac state (symbol table, file
+	 * manager, ...) from one invocation of
+	 * {@link #transpile(TranspilationHandler, SourceFile...)} to another, so
+	 * that the classes of the class path (and in particular the candies) are
+	 * not loaded again for each transpilation. This is useful for long-lived
+	 * transpilers, typically in watch or daemon mode.
+	 * 
+	 * <p>
+	 * Only the symbols loaded from the class path are kept: the source files
+	 * are always parsed and attributed again. The javac state is not reused
+	 * when the class path or the encoding changed, or when the previous
+	 * transpilation did not complete normally. Note that the changes made
+	 * within the class path directories (as opposed to jar files) are not
+	 * detected.
+	 */
+	public void setReuseJavacState(boolean reuseJavacState) {
+		this.reuseJavacState = reuseJavacState;
+		if (!reuseJavacState) {
+			javacStateFingerprint = null;
+		}
+	}
+
+	/**
+	 * Gets the metrics of the last transpilation (or of the current one if
+	 * called during a transpilation). The returned object is reset at the
+	 * beginning of each transpilation, and its listeners are kept from one
+	 * transpilation to another.
+	 * 
+	 * @see TranspilationMetrics#addListener(TranspilationMetricsListener)
+	 */
+	public TranspilationMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public File getMetricsFile() {
+		return metricsFile;
+	}
+
+	/**
+	 * Sets the file where the metrics of each transpilation are written as
+	 * JSON (null for none).
+	 * 
+	 * @see TranspilationMetrics#toJson()
+	 */
+	public void setMetricsFile(File metricsFile) {
+		this.metricsFile = metricsFile;
+	}
+
+	@Override
+	public File getTraceFile() {
+		return traceFile;
+	}
+
+	/**
+	 * Sets the file where the metrics of each transpilation are written in the
+	 * Chrome trace-event format (null for none). The trace shows the
+	 * transpilation phases on a timeline, with one track per thread.
+	 * 
+	 * @see TranspilationMetrics#toChromeTrace()
+	 */
+	public void setTraceFile(File traceFile) {
+		this.traceFile = traceFile;
+	}
+
+	@Override
+	public boolean isJmxMetrics() {
+		return jmxCounters != null;
+	}
+
+	/**
+	 * Exposes (or stops exposing) the metrics cumulated over all the
+	 * transpilations of this transpiler as JMX counters, in the
+	 * {@link TranspilationCounters#JMX_DOMAIN} domain. This is mostly useful
+	 * for long-lived transpilers, typically in watch or daemon mode.
+	 */
+	public void setJmxMetrics(boolean jmxMetrics) {
+		if (jmxMetrics && jmxCounters == null) {
+			jmxCounters = new TranspilationCounters();
+			metrics.addListener(jmxCounters);
+			jmxCounters.register("transpiler-" + instanceCount.incrementAndGet());
+		} else if (!jmxMetrics && jmxCounters != null) {
+			metrics.removeListener(jmxCounters);
+			jmxCounters.unregister();
+			jmxCounters = null;
+		}
+	}
+
+	@Override
+	public boolean isTypedArrays() {
+		return typedArrays;
+	}
+
+	/**
+	 * Sets the transpiler to allocate the arrays of numbers as JavaScript typed
+	 * arrays, which are much faster and more compact than regular arrays for
+	 * numeric code. The integer array elements are then constrained as in
+	 * Java: they are truncated to the element type on assignment (for instance
+	 * <code>byte</code> elements wrap around at 128). The <code>long</code>
+	 * and <code>float</code> elements are held in <code>Float64Array</code>,
+	 * like the other JavaScript numbers, since the float literals are not
+	 * rounded to single precision.
+	 * 
+	 * <p>
+	 * This option can be used with any target version, but the generated code
+	 * needs an engine that implements the ECMAScript 2015 typed arrays (any
+	 * recent browser or Node.js). The array initializers of the number types
+	 * are also typed arrays, but the arrays coming from variable arguments or
+	 * from JavaScript APIs remain regular arrays.
+	 */
+	public void setTypedArrays(boolean typedArrays) {
+		this.typedArrays = typedArrays;
+	}
+
+	@Override
+	public boolean isNativeMaps() {
+		return nativeMaps;
+	}
+
+	/**
+	 * Lowers the maps keyed by strings or numbers to native <code>Map</code>
+	 * objects (ES6 target), which are faster than plain objects for sizes and
+	 * removals, and keep the insertion order of any key. This option shall not
+	 * be used when the maps are shared with JavaScript code that expects plain
+	 * objects (casts of JavaScript objects, <code>$map</code> literals,
+	 * <code>JSON.stringify</code>), since native maps cannot be accessed by key
+	 * with the <code>[]</code> operator. The key sets and the value collections
+	 * of native maps are copies, not live views.
+	 */
+	public void setNativeMaps(boolean nativeMaps) {
+		this.nativeMaps = nativeMaps;
+	}
 }
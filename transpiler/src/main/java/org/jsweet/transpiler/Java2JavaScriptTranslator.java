@@ -0,0 +1,250 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Stack;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jsweet.JSweetConfig;
+import org.jsweet.transpiler.extension.PrinterAdapter;
+import org.jsweet.transpiler.util.AbstractTreePrinter;
+
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.TypeSymbol;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
+
+/**
+ * A translator that directly generates JavaScript from the Java AST, so that
+ * the TypeScript compiler does not need to be invoked.
+ *
+ * <p>
+ * This translator reuses the TypeScript translation: the TypeScript-only parts
+ * of the output (types, access modifiers, interfaces, ...) are not printed
+ * (see {@link AbstractTreePrinter#isTypeScriptOutput()}), and the namespaces
+ * are lowered to immediately-invoked functions, as tsc does. The generated
+ * code targets ECMAScript 2015 (classes and modules): as tsc does, the field
+ * initializers are lowered to the constructors, and the static fields are
+ * initialized right after the class declarations.
+ *
+ * @author Renaud Pawlak
+ */
+public class Java2JavaScriptTranslator extends Java2TypeScriptTranslator {
+
+	private static class Export {
+		final JCTree declaration;
+		final String namespace;
+		final String name;
+		final boolean variable;
+		final int position;
+
+		Export(JCTree declaration, String namespace, String name, boolean variable, int position) {
+			this.declaration = declaration;
+			this.namespace = namespace;
+			this.name = name;
+			this.variable = variable;
+			this.position = position;
+		}
+	}
+
+	private static class Namespace {
+		final String[] names;
+		final boolean merged;
+
+		Namespace(String[] names, boolean merged) {
+			this.names = names;
+			this.merged = merged;
+		}
+	}
+
+	private Stack<Namespace> namespaces = new Stack<>();
+
+	private List<Export> pendingExports = new ArrayList<>();
+
+	/**
+	 * Creates a new JavaScript translator.
+	 *
+	 * @param adapter
+	 *            an object that can tune various aspects of the code generation
+	 * @param logHandler
+	 *            the handler for logging and error reporting
+	 * @param context
+	 *            the AST scanning context
+	 * @param compilationUnit
+	 *            the compilation unit to be translated
+	 * @param fillSourceMap
+	 *            if true, the printer generates the source maps, for debugging
+	 *            purpose
+	 */
+	public Java2JavaScriptTranslator(PrinterAdapter adapter, TranspilationHandler logHandler, JSweetContext context,
+			JCCompilationUnit compilationUnit, boolean fillSourceMap) {
+		super(adapter, logHandler, context, compilationUnit, fillSourceMap);
+	}
+
+	@Override
+	public boolean isTypeScriptOutput() {
+		return false;
+	}
+
+	@Override
+	protected void printNamespaceStart(String name, boolean export, boolean declare, boolean merged) {
+		Namespace namespace = new Namespace(name.split("\\."), merged);
+		if (export && !merged) {
+			// exported in the enclosing namespace (if any)
+			printExport(namespace.names[0], false);
+		}
+		namespaces.push(namespace);
+		for (int i = 0; i < namespace.names.length; i++) {
+			if (i > 0) {
+				println().printIndent();
+			}
+			if (i > 0 || !merged) {
+				print("var ").print(namespace.names[i]).print(";").println().printIndent();
+			}
+			print("(function (").print(namespace.names[i]).print(") {").startIndent();
+		}
+	}
+
+	@Override
+	protected void printNamespaceEnd() {
+		Namespace namespace = namespaces.pop();
+		String[] names = namespace.names;
+		for (int i = names.length - 1; i >= 0; i--) {
+			endIndent().printIndent().print("})(");
+			if (i > 0) {
+				String member = names[i - 1] + "." + names[i];
+				print(names[i]).print(" = ").print(member).print(" || (").print(member).print(" = {})");
+			} else if (namespace.merged) {
+				print(names[i]);
+			} else {
+				print(names[i]).print(" || (").print(names[i]).print(" = {})");
+			}
+			print(");");
+			if (i > 0) {
+				println();
+			}
+		}
+	}
+
+	/**
+	 * Since namespaces are lowered to functions, the elements declared in a
+	 * namespace are exported by assigning them to the namespace object once
+	 * declared (see {@link #exit()}).
+	 */
+	@Override
+	protected void printExport(String name, boolean variable) {
+		if (isOutputSkipped()) {
+			return;
+		}
+		if (namespaces.isEmpty()) {
+			print("export ");
+		} else {
+			String[] names = namespaces.peek().names;
+			pendingExports.add(new Export(stack.peek(), names[names.length - 1], name, variable,
+					getCurrentPosition()));
+		}
+	}
+
+	@Override
+	protected void exit() {
+		if (!pendingExports.isEmpty() && pendingExports.get(pendingExports.size() - 1).declaration == stack.peek()) {
+			printPendingExports(stack.peek());
+		}
+		super.exit();
+	}
+
+	private void printPendingExports(JCTree declaration) {
+		List<Export> variables = new ArrayList<>();
+		for (Iterator<Export> it = pendingExports.iterator(); it.hasNext();) {
+			Export export = it.next();
+			if (export.declaration != declaration) {
+				continue;
+			}
+			it.remove();
+			if (export.variable) {
+				variables.add(export);
+			} else {
+				println().printIndent().print(export.namespace + "." + export.name + " = " + export.name + ";");
+			}
+		}
+		// exported variables are accessed through the namespace object, so
+		// they are exported with accessors to keep both views in sync (the
+		// caller terminates the statement)
+		for (Export export : variables) {
+			print(";").println().printIndent().print("Object.defineProperty(" + export.namespace + ", \""
+					+ export.name + "\", { get: () => " + export.name + ", set: (v) => " + export.name
+					+ " = v, enumerable: true, configurable: true })");
+		}
+	}
+
+	@Override
+	protected void onRollbacked(JCTree target) {
+		super.onRollbacked(target);
+		int position = getCurrentPosition();
+		pendingExports.removeIf(export -> export.position >= position);
+	}
+
+	/**
+	 * Ambient classes are only declared in TypeScript.
+	 */
+	@Override
+	public void visitClassDef(JCClassDecl classdecl) {
+		if (context.hasAnnotationType(classdecl.sym, JSweetConfig.ANNOTATION_AMBIENT)) {
+			startTypeScriptOnly();
+			super.visitClassDef(classdecl);
+			endTypeScriptOnly();
+		} else {
+			super.visitClassDef(classdecl);
+		}
+	}
+
+	/**
+	 * Unlike TypeScript, JavaScript does not resolve the members exported by
+	 * another declaration of a namespace, so the accesses to the globals of
+	 * another compilation unit are qualified with the namespace object.
+	 */
+	@Override
+	protected void printGlobalsAccessQualifier(TypeSymbol globalsClass) {
+		if (context.useModules || !(globalsClass instanceof ClassSymbol) || ((ClassSymbol) globalsClass).sourcefile
+				.getName().equals(getCompilationUnit().sourcefile.getName())) {
+			return;
+		}
+		String prefix = context.getRootRelativeName(null, globalsClass.owner);
+		if (!StringUtils.isEmpty(prefix) && !prefix.equals(JSweetConfig.GLOBALS_PACKAGE_NAME)
+				&& !prefix.endsWith("." + JSweetConfig.GLOBALS_PACKAGE_NAME)) {
+			print(prefix).print(".");
+		}
+	}
+
+	/**
+	 * Removes the method signatures (overloads, native methods, ...), which are
+	 * only valid in TypeScript.
+	 */
+	@Override
+	protected void onMethodSignaturePrinted(JCMethodDecl methodDecl, int start) {
+		removeLastChars(getCurrentPosition() - start);
+		pendingExports.removeIf(export -> export.position >= start);
+	}
+
+}
@@ -168,6 +168,12 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 	 * generated TypeScript code (for <code>instanceof</code> operator).
 	 */
 	public static final String INTERFACES_FIELD_NAME = "__interfaces";
+	/**
+	 * The name of the non-enumerable prototype field where the implemented
+	 * interface names are stored as the keys of a frozen lookup object, so that
+	 * the <code>instanceof</code> tests on interfaces are done in constant time.
+	 */
+	public static final String INTERFACES_LOOKUP_FIELD_NAME = "__interfacesLookup";
 	/**
 	 * The suffix added to static field initialization methods (for Java semantics).
 	 */
@@ -575,9 +581,11 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 	private void useModule(boolean require, PackageElement targetPackage, JCTree sourceTree, String targetName,
 			String moduleName, Symbol sourceElement) {
 		if (context.useModules) {
-			context.packageDependencies.add((PackageSymbol) targetPackage);
-			context.packageDependencies.add(compilationUnit.packge);
-			context.packageDependencies.addEdge(compilationUnit.packge, (PackageSymbol) targetPackage);
+			synchronized (context) {
+				context.packageDependencies.add((PackageSymbol) targetPackage);
+				context.packageDependencies.add(compilationUnit.packge);
+				context.packageDependencies.addEdge(compilationUnit.packge, (PackageSymbol) targetPackage);
+			}
 		}
 		context.registerUsedModule(moduleName);
 		Set<String> importedNames = context.getImportedNames(compilationUnit.getSourceFile().getName());
@@ -663,12 +671,13 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				return;
 			}
 		}
-		context.importedTopPackages.clear();
-		context.rootPackages.add(rootPackage);
-
+		context.getImportedTopPackages().clear();
 		topLevelPackage = context.getTopLevelPackage(topLevel.packge);
-		if (topLevelPackage != null) {
-			context.topLevelPackageNames.add(topLevelPackage.getQualifiedName().toString());
+		synchronized (context) {
+			context.rootPackages.add(rootPackage);
+			if (topLevelPackage != null) {
+				context.topLevelPackageNames.add(topLevelPackage.getQualifiedName().toString());
+			}
 		}
 
 		footer.delete(0, footer.length());
@@ -859,7 +868,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 						return;
 					}
 					PackageSymbol identifierPackage = (PackageSymbol) identifier.sym;
-					String pathToModulePackage = Util.getRelativePath(compilationUnit.packge, identifierPackage);
+					String pathToModulePackage = context.getRelativePath(compilationUnit.packge, identifierPackage);
 					if (pathToModulePackage == null) {
 						return;
 					}
@@ -872,7 +881,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				} else if (identifier.sym instanceof ClassSymbol) {
 					if (JSweetConfig.GLOBALS_PACKAGE_NAME
 							.equals(identifier.sym.getEnclosingElement().getSimpleName().toString())) {
-						String pathToModulePackage = Util.getRelativePath(compilationUnit.packge,
+						String pathToModulePackage = context.getRelativePath(compilationUnit.packge,
 								identifier.sym.getEnclosingElement());
 						if (pathToModulePackage == null) {
 							return;
@@ -924,10 +933,8 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 
 		if (!globalModule && !context.useModules) {
 			printIndent();
-			if (isDefinitionScope) {
-				print("declare ");
-			}
-			print("namespace ").print(rootRelativePackageName).print(" {").startIndent().println();
+			printNamespaceStart(rootRelativePackageName, false, isDefinitionScope, false);
+			println();
 		}
 
 		for (JCTree def : topLevel.defs) {
@@ -947,7 +954,9 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			println().println();
 		}
 		if (!globalModule && !context.useModules) {
-			removeLastChar().endIndent().printIndent().print("}").println();
+			removeLastChar();
+			printNamespaceEnd();
+			println();
 		}
 
 		if (footer.length() > 0) {
@@ -958,6 +967,50 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 
 	}
 
+	/**
+	 * Prints the beginning of a namespace declaration. The namespace's members
+	 * are printed indented, until {@link #printNamespaceEnd()} is called.
+	 * 
+	 * @param name
+	 *            the (possibly qualified) namespace name
+	 * @param export
+	 *            true if the namespace is exported
+	 * @param declare
+	 *            true if the namespace is ambient (ignored when exported)
+	 * @param merged
+	 *            true if the namespace is merged with the class (or enum) of
+	 *            the same name printed just before
+	 */
+	protected void printNamespaceStart(String name, boolean export, boolean declare, boolean merged) {
+		if (export) {
+			print("export ");
+		} else if (declare) {
+			print("declare ");
+		}
+		print("namespace ").print(name).print(" {").startIndent();
+	}
+
+	/**
+	 * Prints the end of the namespace declaration started with
+	 * {@link #printNamespaceStart(String, boolean, boolean, boolean)}.
+	 */
+	protected void printNamespaceEnd() {
+		endIndent().printIndent().print("}");
+	}
+
+	/**
+	 * Prints the <code>export</code> keyword for the declaration of the given
+	 * name.
+	 * 
+	 * @param name
+	 *            the name of the exported element
+	 * @param variable
+	 *            true if the exported element is a variable
+	 */
+	protected void printExport(String name, boolean variable) {
+		print("export ");
+	}
+
 	private String createImportAliasFromFieldAccess(JCFieldAccess access) {
 		String name = extractNameFromAnnotatedSymbol(access.sym);
 		if (name != null) {
@@ -1030,7 +1083,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			JCTypeApply tapply = (JCTypeApply) newClass.clazz;
 			if (tapply.getTypeArguments() != null && !tapply.getTypeArguments().isEmpty()) {
 				boolean printed = false;
-				print("<");
+				startTypeScriptOnly().print("<");
 				for (JCExpression targ : tapply.getTypeArguments()) {
 					if (targ.type.tsym instanceof TypeVariableSymbol) {
 						printed = true;
@@ -1043,6 +1096,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				} else {
 					removeLastChar();
 				}
+				endTypeScriptOnly();
 			}
 		}
 	}
@@ -1094,7 +1148,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 	private AbstractTreePrinter substituteAndPrintType(JCTree typeTree, boolean arrayComponent,
 			boolean inTypeParameters, boolean completeRawTypes, boolean disableSubstitution) {
 		if (typeTree.type.tsym instanceof TypeVariableSymbol) {
-			if (getAdapter().typeVariablesToErase.contains(typeTree.type.tsym)) {
+			if (getAdapter().getTypeVariablesToErase().contains(typeTree.type.tsym)) {
 				return print("any");
 			}
 		}
@@ -1282,14 +1336,14 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			substituteAndPrintType(typeApply.clazz, arrayComponent, inTypeParameters, false, disableSubstitution);
 			if (!typeApply.arguments.isEmpty() && !"any".equals(getLastPrintedString(3))
 					&& !"Object".equals(getLastPrintedString(6))) {
-				print("<");
+				startTypeScriptOnly().print("<");
 				for (JCExpression argument : typeApply.arguments) {
 					substituteAndPrintType(argument, arrayComponent, false, completeRawTypes, false).print(", ");
 				}
 				if (typeApply.arguments.length() > 0) {
 					removeLastChars(2);
 				}
-				print(">");
+				print(">").endTypeScriptOnly();
 			}
 			return this;
 		} else if (typeTree instanceof JCWildcard) {
@@ -1316,12 +1370,12 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					&& !typeTree.type.tsym.getTypeParameters().isEmpty()) {
 				// raw type case (Java warning)
 				print(typeTree);
-				print("<");
+				startTypeScriptOnly().print("<");
 				for (int i = 0; i < typeTree.type.tsym.getTypeParameters().length(); i++) {
 					print("any, ");
 				}
 				removeLastChars(2);
-				print(">");
+				print(">").endTypeScriptOnly();
 				return this;
 			} else {
 				return print(typeTree);
@@ -1378,7 +1432,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				if (parent.getTypeParameters() != null) {
 					parentTypeVars.addAll(parent.getTypeParameters().stream().map(t -> (TypeVariableSymbol) t.type.tsym)
 							.collect(Collectors.toList()));
-					getAdapter().typeVariablesToErase.addAll(parentTypeVars);
+					getAdapter().getTypeVariablesToErase().addAll(parentTypeVars);
 				}
 			}
 		}
@@ -1427,6 +1481,10 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				report(classdecl, JSweetProblem.GLOBALS_CLASS_CANNOT_BE_SUBCLASSED);
 				return;
 			}
+			if (context.isInterface(classdecl.sym)) {
+				// interfaces do not exist at runtime
+				startTypeScriptOnly();
+			}
 			if (!(classdecl.getKind() == Kind.ENUM && scope.size() > 1 && getScope(1).isComplexEnum)) {
 				printDocComment(classdecl);
 			} else {
@@ -1434,8 +1492,10 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			}
 			print(classdecl.mods);
 
+			boolean enumWrapperClass = classdecl.getKind() == Kind.ENUM && scope.size() > 1
+					&& getScope(1).isComplexEnum;
 			if (!isTopLevelScope() || context.useModules || isAnonymousClass() || isInnerClass() || isLocalClass()) {
-				print("export ");
+				printExport(name + (enumWrapperClass ? ENUM_WRAPPER_CLASS_SUFFIX : ""), false);
 			}
 			if (context.isInterface(classdecl.sym)) {
 				print("interface ");
@@ -1443,26 +1503,26 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			} else {
 				if (classdecl.getKind() == Kind.ENUM) {
 					if (getScope().declareClassScope && !(getIndent() != 0 && isDefinitionScope)) {
-						print("declare ");
+						printTypeScriptOnly("declare ");
 					}
-					if (scope.size() > 1 && getScope(1).isComplexEnum) {
+					if (enumWrapperClass) {
 						if (Util.hasAbstractMethod(classdecl.sym)) {
-							print("abstract ");
+							printTypeScriptOnly("abstract ");
 						}
 						print("class ");
 						getScope().enumWrapperClassScope = true;
 					} else {
-						print("enum ");
+						print(isTypeScriptOutput() ? "enum " : "var ");
 						getScope().enumScope = true;
 					}
 				} else {
 					if (getScope().declareClassScope && !(getIndent() != 0 && isDefinitionScope)) {
-						print("declare ");
+						printTypeScriptOnly("declare ");
 					}
 					defaultMethods = new HashSet<>();
 					Util.findDefaultMethodsInType(defaultMethods, context, classdecl.sym);
 					if (classdecl.getModifiers().getFlags().contains(Modifier.ABSTRACT)) {
-						print("abstract ");
+						printTypeScriptOnly("abstract ");
 					}
 					print("class ");
 				}
@@ -1471,7 +1531,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			print(name + (getScope().enumWrapperClassScope ? ENUM_WRAPPER_CLASS_SUFFIX : ""));
 
 			if (classdecl.typarams != null && classdecl.typarams.size() > 0) {
-				print("<").printArgList(null, classdecl.typarams).print(">");
+				startTypeScriptOnly().print("<").printArgList(null, classdecl.typarams).print(">").endTypeScriptOnly();
 			} else if (isAnonymousClass() && classdecl.getModifiers().getFlags().contains(Modifier.STATIC)) {
 				JCNewClass newClass = getScope(1).anonymousClassesConstructors
 						.get(getScope(1).anonymousClasses.indexOf(classdecl));
@@ -1514,7 +1574,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 								(ClassSymbol) classdecl.extending.type.tsym))) {
 					if (!getScope().interfaceScope && context.isInterface(classdecl.extending.type.tsym)) {
 						extendsInterface = true;
-						print(" implements ");
+						startTypeScriptOnly().print(" implements ");
 						implementedInterfaces.add(classdecl.extending.type);
 					} else {
 						print(" extends ");
@@ -1526,6 +1586,9 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 						substituteAndPrintType(classdecl.extending);
 						disableTypeSubstitution = false;
 					}
+					if (extendsInterface) {
+						endTypeScriptOnly();
+					}
 					if (context.classesWithWrongConstructorOverload.contains(classdecl.sym)) {
 						getScope().hasConstructorOverloadWithSuperClass = true;
 					}
@@ -1554,6 +1617,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				}
 
 				if (!implementing.isEmpty()) {
+					startTypeScriptOnly();
 					if (!extendsInterface) {
 						if (getScope().interfaceScope) {
 							print(" extends ");
@@ -1571,14 +1635,19 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 						print(", ");
 					}
 					removeLastChars(2);
+					endTypeScriptOnly();
 				}
 			}
+			if (getScope().enumScope && !isTypeScriptOutput()) {
+				print(" =");
+			}
 			print(" {").println().startIndent();
 		}
 
 		if (getScope().innerClassNotStatic && !getScope().interfaceScope && !getScope().enumScope
 				&& !getScope().enumWrapperClassScope) {
-			printIndent().print("public " + PARENT_CLASS_FIELD_NAME + ": any;").println();
+			startTypeScriptOnly().printIndent().print("public " + PARENT_CLASS_FIELD_NAME + ": any;").println()
+					.endTypeScriptOnly();
 		}
 
 		if (defaultMethods != null && !defaultMethods.isEmpty()) {
@@ -1590,10 +1659,10 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				MethodSymbol s = Util.findMethodDeclarationInType(context.types, classdecl.sym,
 						entry.getValue().getName().toString(), (MethodType) entry.getValue().type);
 				if (s == null || s == entry.getValue().sym) {
-					getAdapter().typeVariablesToErase
+					getAdapter().getTypeVariablesToErase()
 							.addAll(((ClassSymbol) s.getEnclosingElement()).getTypeParameters());
 					printIndent().print(entry.getValue()).println();
-					getAdapter().typeVariablesToErase
+					getAdapter().getTypeVariablesToErase()
 							.removeAll(((ClassSymbol) s.getEnclosingElement()).getTypeParameters());
 				}
 			}
@@ -1621,7 +1690,8 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 
 		if (!globals && !getScope().enumScope && !context.isInterface(classdecl.sym)
 				&& context.getStaticInitializerCount(classdecl.sym) > 0) {
-			printIndent().print("static __static_initialized : boolean = false;").println();
+			startTypeScriptOnly().printIndent().print("static __static_initialized : boolean = false;").println()
+					.endTypeScriptOnly();
 			int liCount = context.getStaticInitializerCount(classdecl.sym);
 			String prefix = getClassName(classdecl.sym) + ".";
 			printIndent().print("static __static_initialize() { ");
@@ -1661,7 +1731,8 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					continue;
 				}
 				if (!((JCVariableDecl) def).getModifiers().getFlags().contains(Modifier.STATIC)
-						&& ((JCVariableDecl) def).init == null) {
+						&& (((JCVariableDecl) def).init == null
+								|| (!globals && !isInitializedInDeclaration((JCVariableDecl) def)))) {
 					hasUninitializedFields = true;
 				}
 			}
@@ -1748,7 +1819,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				printIndent().print("constructor(");
 				boolean hasArgs = false;
 				if (getScope().innerClassNotStatic) {
-					print(PARENT_CLASS_FIELD_NAME + ": any");
+					print(PARENT_CLASS_FIELD_NAME).printTypeScriptOnly(": any");
 					hasArgs = true;
 				}
 				int anonymousClassIndex = scope.size() > 1 ? getScope(1).anonymousClasses.indexOf(classdecl) : -1;
@@ -1760,7 +1831,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 						} else {
 							print(", ");
 						}
-						print("__arg" + i + ": any");
+						print("__arg" + i).printTypeScriptOnly(": any");
 					}
 					for (VarSymbol v : getScope(1).finalVariables.get(anonymousClassIndex)) {
 						if (!hasArgs) {
@@ -1768,7 +1839,8 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 						} else {
 							print(", ");
 						}
-						print("private " + v.getSimpleName() + ": any");
+						printTypeScriptOnly("private ");
+						print(v.getSimpleName().toString()).printTypeScriptOnly(": any");
 					}
 				}
 
@@ -1797,6 +1869,12 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					}
 					print(");").println();
 				}
+				if (anonymousClassIndex != -1 && !isTypeScriptOutput()) {
+					// TypeScript parameter properties
+					for (VarSymbol v : getScope(1).finalVariables.get(anonymousClassIndex)) {
+						printIndent().print("this." + v.getSimpleName() + " = " + v.getSimpleName() + ";").println();
+					}
+				}
 				printInstanceInitialization(classdecl, null);
 				endIndent().printIndent().print("}").println().println();
 			}
@@ -1805,9 +1883,12 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		removeLastChar();
 
 		if (getScope().enumWrapperClassScope && !getScope(1).anonymousClasses.contains(classdecl)) {
-			printIndent().print("public name() : string { return this." + ENUM_WRAPPER_CLASS_NAME + "; }").println();
-			printIndent().print("public ordinal() : number { return this." + ENUM_WRAPPER_CLASS_ORDINAL + "; }")
-					.println();
+			printIndent().printTypeScriptOnly("public ").print("name()")
+					.printTypeScriptOnly(" : string")
+					.print(" { return this." + ENUM_WRAPPER_CLASS_NAME + "; }").println();
+			printIndent().printTypeScriptOnly("public ").print("ordinal()")
+					.printTypeScriptOnly(" : number")
+					.print(" { return this." + ENUM_WRAPPER_CLASS_ORDINAL + "; }").println();
 		}
 
 		if (getScope().enumScope) {
@@ -1816,6 +1897,11 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 
 		if (!globals) {
 			endIndent().printIndent().print("}");
+			if (context.isInterface(classdecl.sym)) {
+				endTypeScriptOnly();
+			} else if (getScope().enumScope && !isTypeScriptOutput()) {
+				print(";");
+			}
 			if (!getScope().interfaceScope && !getScope().declareClassScope && !getScope().enumScope
 					&& !(getScope().enumWrapperClassScope && classdecl.sym.isAnonymous())) {
 				if (!classdecl.sym.isAnonymous()) {
@@ -1824,6 +1910,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 							.print("[\"" + CLASS_NAME_IN_CONSTRUCTOR + "\"] = ")
 							.print("\"" + classdecl.sym.getQualifiedName().toString() + "\";");
 				}
+				printStaticFieldInitializations(classdecl, name);
 				Set<String> interfaces = new HashSet<>();
 				context.grabSupportedInterfaceNames(interfaces, classdecl.sym);
 				if (!interfaces.isEmpty()) {
@@ -1836,6 +1923,12 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					}
 					removeLastChar();
 					print("];").println();
+					if (!getScope().enumWrapperClassScope) {
+						printIndent().print("Object.defineProperty(").print(name)
+								.print(".prototype, \"" + INTERFACES_LOOKUP_FIELD_NAME + "\", { value: ");
+						printInterfacesLookup(interfaces);
+						print(" });").println();
+					}
 				}
 				if (!getScope().enumWrapperClassScope) {
 					println();
@@ -1863,16 +1956,8 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					if (!nameSpace) {
 						nameSpace = true;
 						println().println().printIndent();
-
-						if (getIndent() != 0 || context.useModules) {
-							print("export ");
-						} else {
-							if (isDefinitionScope) {
-								print("declare ");
-							}
-						}
-
-						print("namespace ").print(classdecl.getSimpleName().toString()).print(" {").startIndent();
+						printNamespaceStart(classdecl.getSimpleName().toString(),
+								getIndent() != 0 || context.useModules, isDefinitionScope, false);
 					}
 					println().println().printIndent().print(def);
 					if (def instanceof JCVariableDecl) {
@@ -1881,10 +1966,15 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				}
 			}
 			if (nameSpace) {
-				println().endIndent().printIndent().print("}").println();
+				println();
+				printNamespaceEnd();
+				println();
 			}
 		}
 
+		// interfaces are only declared in TypeScript (unless they have static
+		// members) and enum wrapper classes are suffixed
+		boolean mergedNameSpace = (!getScope().interfaceScope && !getScope().enumWrapperClassScope) || nameSpace;
 		nameSpace = false;
 		// inner, anonymous and local classes in a namespace
 		// ======================
@@ -1898,14 +1988,8 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				if (!nameSpace) {
 					nameSpace = true;
 					println().println().printIndent();
-					if (!isTopLevelScope() || context.useModules) {
-						print("export ");
-					} else {
-						if (isDefinitionScope) {
-							print("declare ");
-						}
-					}
-					print("namespace ").print(name).print(" {").startIndent();
+					printNamespaceStart(name, !isTopLevelScope() || context.useModules, isDefinitionScope,
+							mergedNameSpace);
 				}
 				getScope().isInnerClass = true;
 				println().println().printIndent().print(cdef);
@@ -1917,10 +2001,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			if (!nameSpace) {
 				nameSpace = true;
 				println().println().printIndent();
-				if (!isTopLevelScope() || context.useModules) {
-					print("export ");
-				}
-				print("namespace ").print(name).print(" {").startIndent();
+				printNamespaceStart(name, !isTopLevelScope() || context.useModules, false, mergedNameSpace);
 			}
 			getScope().isAnonymousClass = true;
 			println().println().printIndent().print(cdef);
@@ -1931,17 +2012,16 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			if (!nameSpace) {
 				nameSpace = true;
 				println().println().printIndent();
-				if (!isTopLevelScope() || context.useModules) {
-					print("export ");
-				}
-				print("namespace ").print(name).print(" {").startIndent();
+				printNamespaceStart(name, !isTopLevelScope() || context.useModules, false, mergedNameSpace);
 			}
 			getScope().isLocalClass = true;
 			println().println().printIndent().print(cdef);
 			getScope().isLocalClass = false;
 		}
 		if (nameSpace) {
-			println().endIndent().printIndent().print("}").println();
+			println();
+			printNamespaceEnd();
+			println();
 		}
 		// end of namespace =================================================
 
@@ -1991,12 +2071,14 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			if (!isBlank(mainClassName)) {
 				mainMethodQualifier = mainClassName + ".";
 			}
-			context.entryFiles.add(new File(compilationUnit.sourcefile.getName()));
+			synchronized (context) {
+				context.entryFiles.add(new File(compilationUnit.sourcefile.getName()));
+			}
 			context.addFooterStatement(mainMethodQualifier + JSweetConfig.MAIN_FUNCTION_NAME + "("
 					+ (getScope().mainMethod.getParameters().isEmpty() ? "" : "null") + ");");
 		}
 
-		getAdapter().typeVariablesToErase.removeAll(parentTypeVars);
+		getAdapter().getTypeVariablesToErase().removeAll(parentTypeVars);
 		exitScope();
 
 		getAdapter().afterType(classdecl.sym);
@@ -2004,6 +2086,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 	}
 
 	private void printAbstractMethodDeclaration(MethodSymbol method) {
+		startTypeScriptOnly();
 		printIndent().print("public abstract ").print(method.getSimpleName().toString());
 		print("(");
 		if (method.getParameters() != null && !method.getParameters().isEmpty()) {
@@ -2015,6 +2098,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		}
 		print(")");
 		print(": any;").println();
+		endTypeScriptOnly();
 	}
 
 	private String getTSMethodName(JCMethodDecl methodDecl) {
@@ -2070,8 +2154,10 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 
 		if (JSweetConfig.INDEXED_GET_FUCTION_NAME.equals(methodDecl.getName().toString())
 				&& methodDecl.getParameters().size() == 1) {
+			startTypeScriptOnly();
 			print("[").print(methodDecl.getParameters().head).print("]: ");
 			substituteAndPrintType(methodDecl.restype).print(";");
+			endTypeScriptOnly();
 			return;
 		}
 
@@ -2164,8 +2250,10 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			printMethodModifiers(methodDecl, parent, getScope().constructor, inOverload, overload);
 			print(getTSMethodName(methodDecl)).print("(");
 			printArgList(null, methodDecl.params);
-			print(") : ");
+			print(")");
+			startTypeScriptOnly().print(" : ");
 			substituteAndPrintType(methodDecl.getReturnType());
+			endTypeScriptOnly();
 			print(" {").println();
 			startIndent().printIndent();
 			if (!context.types.isSameType(context.symtab.voidType, methodDecl.sym.getReturnType())) {
@@ -2200,6 +2288,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			print("}").println().println().printIndent();
 		}
 
+		int signatureStart = getCurrentPosition();
 		print(methodDecl.mods);
 
 		if (methodDecl.mods.getFlags().contains(Modifier.NATIVE)) {
@@ -2272,17 +2361,20 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 						methodDecl.sym, getCompilationUnit());
 			}
 
+			String functionName = inOverload && !overload.isValid && !inCoreWrongOverload
+					? getOverloadMethodName(methodDecl.sym)
+					: getTSMethodName(methodDecl);
 			if (context.useModules) {
 				if (!methodDecl.mods.getFlags().contains(Modifier.PRIVATE)) {
-					print("export ");
+					printExport(functionName, false);
 				}
 			} else {
 				if (!isTopLevelScope()) {
-					print("export ");
+					printExport(functionName, false);
 				}
 			}
 			if (ambient || (getIndent() == 0 && isDefinitionScope)) {
-				print("declare ");
+				printTypeScriptOnly("declare ");
 			}
 
 			printAsyncKeyword(methodDecl);
@@ -2316,7 +2408,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		if ((methodDecl.typarams != null && !methodDecl.typarams.isEmpty())
 				|| (getContext().getWildcards(methodDecl.sym) != null)) {
 			inTypeParameters = true;
-			print("<");
+			startTypeScriptOnly().print("<");
 			if (methodDecl.typarams != null && !methodDecl.typarams.isEmpty()) {
 				printArgList(null, methodDecl.typarams);
 				if (getContext().getWildcards(methodDecl.sym) != null) {
@@ -2326,12 +2418,13 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			if (getContext().getWildcards(methodDecl.sym) != null) {
 				printArgList(null, getContext().getWildcards(methodDecl.sym), this::substituteAndPrintType);
 			}
-			print(">");
+			print(">").endTypeScriptOnly();
 			inTypeParameters = false;
 		}
 		print("(");
 		printMethodArgs(methodDecl, overload, inOverload, inCoreWrongOverload, getScope());
 		print(")");
+		startTypeScriptOnly();
 		if (inCoreWrongOverload && !methodDecl.sym.isConstructor()) {
 			print(" : any");
 		} else {
@@ -2340,8 +2433,10 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				substituteAndPrintType(methodDecl.restype);
 			}
 		}
+		endTypeScriptOnly();
 		if (inCoreWrongOverload && isInterfaceMethod(parent, methodDecl)) {
 			print(";");
+			onMethodSignaturePrinted(methodDecl, signatureStart);
 			return;
 		}
 		if (methodDecl.getBody() == null && !(inCoreWrongOverload && !getScope().declareClassScope)
@@ -2354,6 +2449,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				print("}");
 			} else {
 				print(";");
+				onMethodSignaturePrinted(methodDecl, signatureStart);
 			}
 		} else {
 			if (!getScope().declareClassScope && getScope().interfaceScope) {
@@ -2369,6 +2465,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 							parent == null ? "<no class>" : parent.name);
 				}
 				print(";");
+				onMethodSignaturePrinted(methodDecl, signatureStart);
 			} else {
 				if (inCoreWrongOverload) {
 					print(" {").println().startIndent().printIndent();
@@ -2423,7 +2520,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 								// temporary cast to any because of Java
 								// generics
 								// bug
-								print("return <any>");
+								print("return ").printTypeScriptOnly("<any>");
 								if (method.sym.isStatic()) {
 									print(getQualifiedTypeName(parent.sym, false, false).toString());
 								} else {
@@ -2470,7 +2567,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 						}
 						exit();
 						if (replacedBody != null) {
-							String orgBody = getOutput().substring(position);
+							String orgBody = getLastPrintedString(getCurrentPosition() - position);
 							removeLastChars(getCurrentPosition() - position);
 							replacedBody = BODY_MARKER.matcher(replacedBody).replaceAll(orgBody);
 							replacedBody = BASE_INDENT_MARKER.matcher(replacedBody).replaceAll(getIndentString());
@@ -2493,6 +2590,31 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		}
 	}
 
+	/**
+	 * Prints the qualifier of an access to a member of a globals class (i.e.
+	 * <code>Globals.member</code>). Prints nothing by default since the
+	 * TypeScript compiler resolves the members exported by the other
+	 * declarations of the enclosing namespace.
+	 *
+	 * @param globalsClass
+	 *            the accessed globals class
+	 */
+	protected void printGlobalsAccessQualifier(TypeSymbol globalsClass) {
+	}
+
+	/**
+	 * Called when a method has been printed as a signature, i.e. without a body
+	 * (overloads, abstract, native and interface methods). Does nothing by
+	 * default.
+	 *
+	 * @param methodDecl
+	 *            the method that was printed
+	 * @param start
+	 *            the output position where the signature starts
+	 */
+	protected void onMethodSignaturePrinted(JCMethodDecl methodDecl, int start) {
+	}
+
 	@Override
 	public void visitModifiers(JCModifiers modifiers) {
 		
@@ -2533,12 +2655,14 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		}
 		boolean paramPrinted = false;
 		if (scope.isInnerClassNotStatic() && methodDecl.sym.isConstructor() && !scope.isEnumWrapperClassScope()) {
-			print(PARENT_CLASS_FIELD_NAME + ": any, ");
+			print(PARENT_CLASS_FIELD_NAME).printTypeScriptOnly(": any").print(", ");
 			paramPrinted = true;
 		}
 		if (scope.isConstructor() && scope.isEnumWrapperClassScope()) {
-			print((isAnonymousClass() ? "" : "protected ") + ENUM_WRAPPER_CLASS_ORDINAL + " : number, ");
-			print((isAnonymousClass() ? "" : "protected ") + ENUM_WRAPPER_CLASS_NAME + " : string, ");
+			printTypeScriptOnly(isAnonymousClass() ? "" : "protected ");
+			print(ENUM_WRAPPER_CLASS_ORDINAL).printTypeScriptOnly(" : number").print(", ");
+			printTypeScriptOnly(isAnonymousClass() ? "" : "protected ");
+			print(ENUM_WRAPPER_CLASS_NAME).printTypeScriptOnly(" : string").print(", ");
 			paramPrinted = true;
 		}
 		int i = 0;
@@ -2563,11 +2687,12 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		}
 
 		if (isWrapped) {
-			print("}: {");
+			print("}");
+			startTypeScriptOnly().print(": {");
 			for (JCVariableDecl param : methodDecl.getParameters()) {
 				print(param).println(";");
 			}
-			print("}");
+			print("}").endTypeScriptOnly();
 		}
 	}
 
@@ -2576,7 +2701,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		if (methodDecl.mods.getFlags().contains(Modifier.PUBLIC)
 				|| (inOverload && overload.coreMethod.equals(methodDecl))) {
 			if (!getScope().interfaceScope) {
-				print("public ");
+				printTypeScriptOnly("public ");
 			}
 		}
 		if (methodDecl.mods.getFlags().contains(Modifier.PRIVATE)) {
@@ -2602,7 +2727,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		}
 		if (methodDecl.mods.getFlags().contains(Modifier.ABSTRACT)) {
 			if (!getScope().interfaceScope && !inOverload) {
-				print("abstract ");
+				printTypeScriptOnly("abstract ");
 			}
 		}
 	}
@@ -2614,7 +2739,9 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		} else {
 			name = getIdentifier(var.sym);
 		}
-		if (getScope().innerClassNotStatic && !Util.isConstantOrNullField(var)) {
+		if ((getScope().innerClassNotStatic && !Util.isConstantOrNullField(var))
+				|| (var.init != null && !isInitializedInDeclaration(var)
+						&& !getScope().hasConstructorOverloadWithSuperClass)) {
 			if (doesMemberNameRequireQuotes(name)) {
 				printIndent().print("this['").print(name).print("'] = ");
 			} else {
@@ -2640,13 +2767,20 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			// this workaround will not work on all browsers (see
 			// https://github.com/Microsoft/TypeScript-wiki/blob/master/Breaking-Changes.md#extending-built-ins-like-error-array-and-map-may-no-longer-work)
 			if (context.types.isAssignable(clazz.sym.type, context.symtab.throwableType)) {
-				printIndent().print("(<any>Object).setPrototypeOf(this, " + getClassName(clazz.sym) + ".prototype);")
-						.println();
+				printIndent().print("(").printTypeScriptOnly("<any>")
+						.print("Object).setPrototypeOf(this, " + getClassName(clazz.sym) + ".prototype);").println();
 			}
 			if (getScope().innerClassNotStatic && !getScope().enumWrapperClassScope) {
 				printIndent().print("this." + PARENT_CLASS_FIELD_NAME + " = " + PARENT_CLASS_FIELD_NAME + ";")
 						.println();
 			}
+			if (getScope().enumWrapperClassScope && !isAnonymousClass() && !isTypeScriptOutput()) {
+				// TypeScript parameter properties
+				printIndent().print("this." + ENUM_WRAPPER_CLASS_ORDINAL + " = " + ENUM_WRAPPER_CLASS_ORDINAL + ";")
+						.println();
+				printIndent().print("this." + ENUM_WRAPPER_CLASS_NAME + " = " + ENUM_WRAPPER_CLASS_NAME + ";")
+						.println();
+			}
 			for (JCTree member : clazz.defs) {
 				if (member instanceof JCVariableDecl) {
 					JCVariableDecl var = (JCVariableDecl) member;
@@ -2681,9 +2815,9 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					continue;
 				} else {
 					printIndent().print(VAR_DECL_KEYWORD + " ")
-							.print(avoidJSKeyword(method.getParameters().get(j).name.toString())).print(" : ")
-							.print("any").print(Util.isVarargs(method.getParameters().get(j)) ? "[]" : "").print(" = ")
-							.print("__args[" + j + "]").print(";").println();
+							.print(avoidJSKeyword(method.getParameters().get(j).name.toString()))
+							.printTypeScriptOnly(" : any" + (Util.isVarargs(method.getParameters().get(j)) ? "[]" : ""))
+							.print(" = ").print("__args[" + j + "]").print(";").println();
 				}
 			} else {
 				if (method.getParameters().get(j).name.toString().equals(args.get(j).toString())) {
@@ -2692,9 +2826,9 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					getScope().inlinedConstructorArgs = method.getParameters().stream().map(p -> p.sym.name.toString())
 							.collect(Collectors.toList());
 					printIndent().print(VAR_DECL_KEYWORD + " ")
-							.print(avoidJSKeyword(method.getParameters().get(j).name.toString())).print(" : ")
-							.print("any").print(Util.isVarargs(method.getParameters().get(j)) ? "[]" : "").print(" = ")
-							.print(args.get(j)).print(";").println();
+							.print(avoidJSKeyword(method.getParameters().get(j).name.toString()))
+							.printTypeScriptOnly(" : any" + (Util.isVarargs(method.getParameters().get(j)) ? "[]" : ""))
+							.print(" = ").print(args.get(j)).print(";").println();
 					getScope().inlinedConstructorArgs = null;
 				}
 			}
@@ -2747,7 +2881,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 						printIndent();
 					}
 					if (!method.sym.isConstructor()) {
-						print("return <any>");
+						print("return ").printTypeScriptOnly("<any>");
 					}
 					if (!stats.isEmpty() || !method.sym.isConstructor()) {
 						print("((").print(") => {").startIndent().println();
@@ -2759,7 +2893,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				if (replacedBody != null) {
 					getIndent();
 					printIndent();
-					String orgBody = getOutput().substring(position);
+					String orgBody = getLastPrintedString(getCurrentPosition() - position);
 					removeLastChars(getCurrentPosition() - position);
 					replacedBody = BODY_MARKER.matcher(replacedBody).replaceAll(orgBody);
 					replacedBody = BASE_INDENT_MARKER.matcher(replacedBody).replaceAll(getIndentString());
@@ -3038,6 +3172,20 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			// document with a @property annotation
 			printDocComment(varDecl, true);
 			print(varDecl.name.toString());
+			if (!isTypeScriptOutput()) {
+				// object literal with the same mapping as a TypeScript enum
+				int ordinal = 0;
+				for (JCTree def : ((JCClassDecl) getParent()).defs) {
+					if (def == varDecl) {
+						break;
+					}
+					if (def instanceof JCVariableDecl
+							&& ((JCVariableDecl) def).sym.getKind() == ElementKind.ENUM_CONSTANT) {
+						ordinal++;
+					}
+				}
+				print(": " + ordinal + ", " + ordinal + ": \"" + varDecl.name + "\"");
+			}
 			if (varDecl.init instanceof JCNewClass) {
 				JCNewClass newClass = (JCNewClass) varDecl.init;
 				if (newClass.def != null) {
@@ -3073,7 +3221,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				}
 			} else {
 				if (!context.useModules) {
-					if (context.importedTopPackages.contains(name)) {
+					if (context.getImportedTopPackages().contains(name)) {
 						name = "__var_" + name;
 					}
 				}
@@ -3094,6 +3242,14 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			globals = globals || (parent instanceof JCClassDecl && (((JCClassDecl) parent).sym.isInterface()
 					|| getScope().interfaceScope && varDecl.sym.isStatic()));
 
+			// instance fields are only declared in TypeScript (they are
+			// initialized in the constructor otherwise)
+			boolean fieldDeclarationOnly = !globals && parent instanceof JCClassDecl
+					&& (varDecl.sym.isStatic() ? isInitializedAfterClass(varDecl) : !isInitializedInDeclaration(varDecl));
+			if (fieldDeclarationOnly) {
+				startTypeScriptOnly();
+			}
+
 			if (parent instanceof JCClassDecl) {
 				printDocComment(varDecl);
 			}
@@ -3103,7 +3259,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			if (!globals && parent instanceof JCClassDecl) {
 				if (varDecl.mods.getFlags().contains(Modifier.PUBLIC)) {
 					if (!getScope().interfaceScope) {
-						print("public ");
+						printTypeScriptOnly("public ");
 					}
 				}
 				if (varDecl.mods.getFlags().contains(Modifier.PRIVATE)) {
@@ -3141,15 +3297,15 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					}
 					if (context.useModules) {
 						if (!varDecl.mods.getFlags().contains(Modifier.PRIVATE)) {
-							print("export ");
+							printExport(name, true);
 						}
 					} else {
 						if (!isTopLevelScope()) {
-							print("export ");
+							printExport(name, true);
 						}
 					}
 					if (ambient || (isTopLevelScope() && isDefinitionScope)) {
-						print("declare ");
+						printTypeScriptOnly("declare ");
 					}
 				}
 				if (!(inArgListTail && (parent instanceof JCForLoop))) {
@@ -3175,6 +3331,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				print(name);
 			}
 
+			startTypeScriptOnly();
 			if (!Util.isVarargs(varDecl) && (getScope().isEraseVariableTypes() || (getScope().interfaceScope
 					&& context.hasAnnotationType(varDecl.sym, JSweetConfig.ANNOTATION_OPTIONAL)))) {
 				print("?");
@@ -3204,6 +3361,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					}
 				}
 			}
+			endTypeScriptOnly();
 			if (isLazyInitialized(varDecl.sym)) {
 				JCClassDecl clazz = (JCClassDecl) parent;
 				String prefix = getClassName(clazz.sym);
@@ -3213,16 +3371,23 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					prefix += ".";
 				}
 				print("; ");
+				if (fieldDeclarationOnly) {
+					// the lazy initialization function is always printed
+					endTypeScriptOnly();
+					fieldDeclarationOnly = false;
+				}
 				if (globals) {
 					if (!isTopLevelScope()) {
-						print("export ");
+						printExport(name + STATIC_INITIALIZATION_SUFFIX, false);
 					}
 					print("function ");
 				} else {
-					print("public static ");
+					printTypeScriptOnly("public ").print("static ");
 				}
-				print(name).print(STATIC_INITIALIZATION_SUFFIX + "() : ");
+				print(name).print(STATIC_INITIALIZATION_SUFFIX + "()");
+				startTypeScriptOnly().print(" : ");
 				substituteAndPrintType(varDecl.vartype);
+				endTypeScriptOnly();
 				print(" { ");
 				int liCount = context.getStaticInitializerCount(clazz.sym);
 				if (liCount > 0) {
@@ -3275,6 +3440,65 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					print(" = ").print(Util.getTypeInitialValue(varDecl.sym.type));
 				}
 			}
+			if (fieldDeclarationOnly) {
+				endTypeScriptOnly();
+			}
+		}
+	}
+
+	/**
+	 * Tells if the given field is initialized in its declaration (otherwise,
+	 * it is initialized in the constructor, if initialized at all). When
+	 * generating JavaScript directly, the instance fields are always
+	 * initialized in the constructor, since ES2022 class fields are not
+	 * supported by the targeted ECMAScript versions.
+	 */
+	private boolean isInitializedInDeclaration(JCVariableDecl varDecl) {
+		return varDecl.init != null && !isDefinitionScope && (isTypeScriptOutput() || varDecl.sym.isStatic())
+				&& !(getScope().innerClassNotStatic && !varDecl.sym.isStatic() && !Util.isConstantOrNullField(varDecl))
+				&& !(getScope().hasConstructorOverloadWithSuperClass
+						&& getScope().fieldsWithInitializers.contains(varDecl));
+	}
+
+	/**
+	 * Tells if the given static field is only declared in TypeScript, and
+	 * initialized right after the class declaration, which is the case when
+	 * generating JavaScript directly (see
+	 * {@link #isInitializedInDeclaration(JCVariableDecl)}).
+	 */
+	private boolean isInitializedAfterClass(JCVariableDecl varDecl) {
+		return !isTypeScriptOutput() && varDecl.sym.isStatic() && !isDefinitionScope && !getScope().interfaceScope
+				&& !getScope().enumScope && !getScope().enumWrapperClassScope && !getScope().declareClassScope
+				&& !varDecl.sym.owner.isAnonymous();
+	}
+
+	/**
+	 * Prints the initializations of the static fields that are initialized
+	 * right after the class declaration (see
+	 * {@link #isInitializedAfterClass(JCVariableDecl)}).
+	 */
+	private void printStaticFieldInitializations(JCClassDecl classdecl, String className) {
+		for (JCTree def : classdecl.defs) {
+			if (!(def instanceof JCVariableDecl)) {
+				continue;
+			}
+			JCVariableDecl field = (JCVariableDecl) def;
+			if (!isInitializedAfterClass(field) || isLazyInitialized(field.sym)
+					|| context.hasAnnotationType(field.sym, JSweetConfig.ANNOTATION_ERASED,
+							JSweetConfig.ANNOTATION_STRING_TYPE, JSweetConfig.ANNOTATION_AMBIENT)) {
+				continue;
+			}
+			String name = getIdentifier(field.sym);
+			if (context.getFieldNameMapping(field.sym) != null) {
+				name = context.getFieldNameMapping(field.sym);
+			}
+			println().printIndent().print(className).print(getTSMemberAccess(name, true)).print(" = ");
+			if (field.init == null) {
+				print(Util.getTypeInitialValue(field.type));
+			} else if (!substituteAssignedExpression(field.type, field.init)) {
+				print(field.init);
+			}
+			print(";");
 		}
 	}
 
@@ -3334,27 +3558,34 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				if (context.useModules) {
 					if (!adaptedQualId.startsWith(GLOBALS_PACKAGE_NAME)) {
 						if (!context.getImportedNames(compilationUnit.getSourceFile().getName()).contains(name)) {
-							print("import ").print(name).print(" = ").print(adaptedQualId).print(";").println();
+							print(isTypeScriptOutput() ? "import " : "var ").print(name).print(" = ")
+									.print(adaptedQualId).print(";").println();
 							context.registerImportedName(compilationUnit.getSourceFile().getName(), null, name);
 						}
 					}
 				} else {
-					if (topLevelPackage == null) {
-						if (context.globalImports.contains(name)) {
-							// Tsc global package does allow multiple import
-							// with
-							// the same name in the global namespace (bug?)
-							return;
-						}
-						context.globalImports.add(name);
-					}
 					if (!context.useModules) {
 						// in bundle mode, we do not use imports to minimize
 						// dependencies
 						// (imports create unavoidable dependencies!)
-						context.importedTopPackages.add(namePath[0]);
-					} else {
-						print("import ").print(name).print(" = ").print(adaptedQualId).print(";").println();
+						// the top package is recorded for each compilation
+						// unit, whichever prints first
+						context.getImportedTopPackages().add(namePath[0]);
+					}
+					if (topLevelPackage == null) {
+						synchronized (context) {
+							if (context.globalImports.contains(name)) {
+								// Tsc global package does allow multiple import
+								// with
+								// the same name in the global namespace (bug?)
+								return;
+							}
+							context.globalImports.add(name);
+						}
+					}
+					if (context.useModules) {
+						print(isTypeScriptOutput() ? "import " : "var ").print(name).print(" = ")
+								.print(adaptedQualId).print(";").println();
 					}
 				}
 			}
@@ -3478,6 +3709,8 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 							print(fieldAccess.selected).print(".");
 						}
 					}
+				} else {
+					printGlobalsAccessQualifier(fieldAccess.selected.type.tsym);
 				}
 
 				String fieldName = null;
@@ -3741,6 +3974,8 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 									// underscores)
 									print(GLOBALS_CLASS_NAME).print(".");
 								}
+							} else {
+								printGlobalsAccessQualifier(selected.type.tsym);
 							}
 
 							Map<String, VarSymbol> vars = new HashMap<>();
@@ -3775,12 +4010,12 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			print(".apply");
 		} else {
 			if (inv.typeargs != null && !inv.typeargs.isEmpty()) {
-				print("<");
+				startTypeScriptOnly().print("<");
 				for (JCExpression argument : inv.typeargs) {
 					substituteAndPrintType(argument).print(",");
 				}
 				removeLastChar();
-				print(">");
+				print(">").endTypeScriptOnly();
 			} else {
 				// force type arguments to any because they are inferred to
 				// {} by default
@@ -3871,7 +4106,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				// we cast array to any[] to avoid concat error on
 				// different
 				// types
-				print("].concat(<any[]>");
+				print("].concat(").printTypeScriptOnly("<any[]>");
 			}
 
 			print(inv.args.last());
@@ -4005,7 +4240,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 							print("this.");
 						} else {
 							if (!context.useModules && varSym.owner instanceof MethodSymbol) {
-								if (context.importedTopPackages.contains(name)) {
+								if (context.getImportedTopPackages().contains(name)) {
 									name = "__var_" + name;
 								}
 							}
@@ -4137,13 +4372,13 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			if (isInterface
 					|| context.hasAnnotationType(newClass.clazz.type.tsym, JSweetConfig.ANNOTATION_OBJECT_TYPE)) {
 				if (isInterface) {
-					print("<any>");
+					printTypeScriptOnly("<any>");
 				}
 
 				Set<String> interfaces = new HashSet<>();
 				context.grabSupportedInterfaceNames(interfaces, clazz);
 				if (!interfaces.isEmpty()) {
-					print("Object.defineProperty(");
+					print("Object.defineProperties(");
 				}
 				print("{").println().startIndent();
 				boolean statementPrinted = false;
@@ -4242,14 +4477,16 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 
 				println().endIndent().printIndent().print("}");
 				if (!interfaces.isEmpty()) {
-					print(", '" + INTERFACES_FIELD_NAME + "', { configurable: true, value: ");
+					print(", { '" + INTERFACES_FIELD_NAME + "': { configurable: true, value: ");
 					print("[");
 					for (String i : interfaces) {
 						print("\"").print(i).print("\",");
 					}
 					removeLastChar();
 					print("]");
-					print(" })");
+					print(" }, '" + INTERFACES_LOOKUP_FIELD_NAME + "': { configurable: true, value: ");
+					printInterfacesLookup(interfaces);
+					print(" } })");
 				}
 			} else {
 
@@ -4259,7 +4496,8 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				// return target
 				// })(new DataStruct3());
 
-				print("((target:").print(newClass.clazz).print(") => {").println().startIndent();
+				print("((target").startTypeScriptOnly().print(":").print(newClass.clazz).endTypeScriptOnly()
+						.print(") => {").println().startIndent();
 				for (JCTree m : newClass.def.getMembers()) {
 					if (m instanceof JCBlock) {
 						for (JCTree s : ((JCBlock) m).stats) {
@@ -4339,7 +4577,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				// Function class that hides the global Function
 				// class
 				context.addGlobalsMapping("Function", "__Function");
-				print("<any>new (__Function.prototype.bind.apply(");
+				printTypeScriptOnly("<any>").print("new (__Function.prototype.bind.apply(");
 				if (mappedType != null) {
 					print(Java2TypeScriptTranslator.mapConstructorType(mappedType));
 				} else {
@@ -4349,7 +4587,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				for (int i = 0; i < newClass.args.length() - 1; i++) {
 					print(", ").print(newClass.args.get(i));
 				}
-				print("].concat(<any[]>").print(newClass.args.last()).print(")))");
+				print("].concat(").printTypeScriptOnly("<any[]>").print(newClass.args.last()).print(")))");
 			} else {
 				if (newClass.clazz instanceof JCTypeApply) {
 					JCTypeApply typeApply = (JCTypeApply) newClass.clazz;
@@ -4361,7 +4599,8 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 						print(typeApply.clazz);
 					}
 					if (!typeApply.arguments.isEmpty()) {
-						print("<").printTypeArgList(typeApply.arguments).print(">");
+						startTypeScriptOnly().print("<").printTypeArgList(typeApply.arguments).print(">")
+								.endTypeScriptOnly();
 					} else {
 						// erase types since the diamond (<>)
 						// operator
@@ -4383,14 +4622,14 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 	}
 
 	public void printAnyTypeArguments(int count) {
-		print("<");
+		startTypeScriptOnly().print("<");
 		for (int i = 0; i < count; i++) {
 			print("any, ");
 		}
 		if (count > 0) {
 			removeLastChars(2);
 		}
-		print(">");
+		print(">").endTypeScriptOnly();
 
 	}
 
@@ -4569,7 +4808,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				}
 			}
 			if (singlePrecisionFloats() && binary.type.getKind() == TypeKind.FLOAT) {
-				print("(<any>Math).fround(");
+				print("(").printTypeScriptOnly("<any>").print("Math).fround(");
 				closeParen = true;
 			}
 			boolean charWrapping = Util.isArithmeticOrLogicalOperator(binary.getKind())
@@ -4583,7 +4822,8 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				if (binary.lhs instanceof JCLiteral) {
 					print(binary.lhs).print(".charCodeAt(0)");
 				} else {
-					print("(c => c.charCodeAt==null?<any>c:c.charCodeAt(0))(").print(binary.lhs).print(")");
+					print("(c => c.charCodeAt==null?").printTypeScriptOnly("<any>").print("c:c.charCodeAt(0))(")
+							.print(binary.lhs).print(")");
 				}
 			} else {
 				if (forceParens) {
@@ -4635,7 +4875,8 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				if (binary.rhs instanceof JCLiteral) {
 					print(binary.rhs).print(".charCodeAt(0)");
 				} else {
-					print("(c => c.charCodeAt==null?<any>c:c.charCodeAt(0))(").print(binary.rhs).print(")");
+					print("(c => c.charCodeAt==null?").printTypeScriptOnly("<any>").print("c:c.charCodeAt(0))(")
+							.print(binary.rhs).print(")");
 				}
 			} else {
 				if (forceParens) {
@@ -4881,8 +5122,13 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			typeChecker.checkType(newArray, null, newArray.elemtype);
 		}
 		if (newArray.dims != null && !newArray.dims.isEmpty()) {
+			String typedArrayName = context.getTypedArrayName(newArray.elemtype.type);
 			if (newArray.dims.size() == 1) {
-				if (newArray.dims.head instanceof JCLiteral && ((int) ((JCLiteral) newArray.dims.head).value) <= 10) {
+				if (typedArrayName != null) {
+					printTypeScriptOnly("<any>").print("new " + typedArrayName + "(").print(newArray.dims.head)
+							.print(")");
+				} else if (newArray.dims.head instanceof JCLiteral
+						&& ((int) ((JCLiteral) newArray.dims.head).value) <= 10) {
 					boolean hasElements = false;
 					print("[");
 					for (int i = 0; i < (int) ((JCLiteral) newArray.dims.head).value; i++) {
@@ -4898,16 +5144,33 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 							+ "); return a; })(").print(newArray.dims.head).print(")");
 				}
 			} else {
-				print("<any> (function(dims) { " + VAR_DECL_KEYWORD
-						+ " allocate = function(dims) { if(dims.length==0) { return "
-						+ Util.getTypeInitialValue(newArray.elemtype.type) + "; } else { " + VAR_DECL_KEYWORD
-						+ " array = []; for(" + VAR_DECL_KEYWORD
-						+ " i = 0; i < dims[0]; i++) { array.push(allocate(dims.slice(1))); } return array; }}; return allocate(dims);})");
+				// the dimensions are walked by index, and the last dimension is
+				// directly allocated as a typed array when possible
+				printTypeScriptOnly("<any> ").print("(function(dims) { " + VAR_DECL_KEYWORD
+						+ " allocate = function(d) { ");
+				if (typedArrayName != null) {
+					print("if(d == dims.length - 1) { return new " + typedArrayName + "(dims[d]); } ");
+				}
+				print(VAR_DECL_KEYWORD + " array = []; for(" + VAR_DECL_KEYWORD
+						+ " i = 0; i < dims[d]; i++) { array.push(");
+				if (typedArrayName != null) {
+					print("allocate(d + 1)");
+				} else {
+					print("d == dims.length - 1 ? " + Util.getTypeInitialValue(newArray.elemtype.type)
+							+ " : allocate(d + 1)");
+				}
+				print("); } return array; }; return allocate(0); })");
 				print("([");
 				printArgList(null, newArray.dims);
 				print("])");
 			}
 		} else {
+			String typedArrayName = newArray.type instanceof ArrayType
+					? context.getTypedArrayName(((ArrayType) newArray.type).elemtype)
+					: null;
+			if (typedArrayName != null) {
+				printTypeScriptOnly("<any>").print("new " + typedArrayName + "(");
+			}
 			print("[");
 			if (newArray.elems != null && !newArray.elems.isEmpty()) {
 				for (JCExpression e : newArray.elems) {
@@ -4926,6 +5189,9 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				}
 			}
 			print("]");
+			if (typedArrayName != null) {
+				print(")");
+			}
 		}
 	}
 
@@ -5079,6 +5345,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		}
 		if (!context.hasAnnotationType(cast.clazz.type.tsym, ANNOTATION_ERASED, ANNOTATION_OBJECT_TYPE,
 				ANNOTATION_FUNCTIONAL_INTERFACE)) {
+			startTypeScriptOnly();
 			// Java is more permissive than TypeScript when casting type
 			// variables
 			if (cast.expr.type.getKind() == TypeKind.TYPEVAR) {
@@ -5094,6 +5361,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					print("<any>");
 				}
 			}
+			endTypeScriptOnly();
 		}
 		print(cast.expr);
 		if (Util.isIntegral(cast.type)) {
@@ -5167,9 +5435,11 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				// catcher.param.type.toString().startsWith("java.")) {
 				// print(catcher.param).print(" = ").print("__e;").println();
 				// } else {
-				print(catcher.param).print(" = <");
+				print(catcher.param).print(" = ");
+				startTypeScriptOnly().print("<");
 				substituteAndPrintType(catcher.param.getType());
-				print(">__e;").println();
+				print(">").endTypeScriptOnly();
+				print("__e;").println();
 				// }
 				printBlockStatements(catcher.body.getStatements());
 				endIndent().println().printIndent().print("}");
@@ -5302,9 +5572,10 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		} else {
 			if ("<init>".equals(memberReference.name.toString())) {
 				if (context.types.isArray(memberReference.expr.type)) {
-					print("new Array<");
+					print("new Array");
+					startTypeScriptOnly().print("<");
 					substituteAndPrintType(((JCArrayTypeTree) memberReference.expr).elemtype);
-					print(">");
+					print(">").endTypeScriptOnly();
 				} else {
 					print("new ").print(memberReference.expr);
 				}
@@ -5375,6 +5646,19 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		}
 	}
 
+	/**
+	 * Prints the frozen lookup object of the given interface names (see
+	 * {@link #INTERFACES_LOOKUP_FIELD_NAME}).
+	 */
+	private void printInterfacesLookup(Set<String> interfaces) {
+		print("Object.freeze({ ");
+		for (String itf : interfaces) {
+			print("\"").print(itf).print("\": true, ");
+		}
+		removeLastChars(2);
+		print(" })");
+	}
+
 	private void printInstanceOf(String exprStr, JCTree expr, Type type) {
 		printInstanceOf(exprStr, expr, type, false);
 	}
@@ -5408,7 +5692,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				print(" === 'function'");
 				int parameterCount = context.getFunctionalTypeParameterCount(type);
 				if (parameterCount != -1) {
-					print(" && (<any>");
+					print(" && (").printTypeScriptOnly("<any>");
 					print(exprStr, expr);
 					if (checkFirstArrayElement)
 						print("[0]");
@@ -5420,8 +5704,19 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					print("[0]");
 				if (context.isInterface(type.tsym)) {
 					print(" != null && ");
+					// constant-time lookup, with a fallback on the interface
+					// arrays for the objects created by older generated code
 					print("(");
 					print(exprStr, expr);
+					if (checkFirstArrayElement)
+						print("[0]");
+					print("[\"" + INTERFACES_LOOKUP_FIELD_NAME + "\"] !== undefined ? ");
+					print(exprStr, expr);
+					if (checkFirstArrayElement)
+						print("[0]");
+					print("[\"" + INTERFACES_LOOKUP_FIELD_NAME + "\"][\"")
+							.print(type.tsym.getQualifiedName().toString()).print("\"] === true : ");
+					print(exprStr, expr);
 					if (checkFirstArrayElement)
 						print("[0]");
 					print("[\"" + INTERFACES_FIELD_NAME + "\"]").print(" != null && ");
@@ -5444,6 +5739,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 						print("[0]");
 					print(".constructor[\"" + INTERFACES_FIELD_NAME + "\"].indexOf(\"")
 							.print(type.tsym.getQualifiedName().toString()).print("\") >= 0");
+					print(")");
 					if (CharSequence.class.getName().equals(type.tsym.getQualifiedName().toString())) {
 						print(" || typeof ");
 						print(exprStr, expr);
@@ -5451,7 +5747,6 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 							print("[0]");
 						print(" === \"string\"");
 					}
-					print(")");
 				} else {
 					if (type.tsym instanceof TypeVariableSymbol
 							|| Object.class.getName().equals(type.tsym.getQualifiedName().toString())) {
@@ -5461,16 +5756,34 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 						if (qualifiedName.startsWith("{")) {
 							qualifiedName = "Object";
 						}
-						print(" != null");
-						if (!"any".equals(qualifiedName)) {
-							print(" && ");
+						if ("any".equals(qualifiedName)) {
+							print(" != null");
+						} else if (!(type instanceof ArrayType)) {
+							// instanceof is always false for null and undefined
+							if (qualifiedName.startsWith(JSweetConfig.LIBS_PACKAGE + ".")) {
+								print(" instanceof ").print(qualifiedName);
+							} else {
+								print(" instanceof ").printTypeScriptOnly("<any>").print(qualifiedName);
+							}
+						} else {
+							print(" != null && ");
+							String typedArrayName = type instanceof ArrayType
+									? context.getTypedArrayName(((ArrayType) type).elemtype)
+									: null;
+							if (typedArrayName != null) {
+								print("(");
+								print(exprStr, expr);
+								if (checkFirstArrayElement)
+									print("[0]");
+								print(" instanceof " + typedArrayName + " || ");
+							}
 							print(exprStr, expr);
 							if (checkFirstArrayElement)
 								print("[0]");
 							if (qualifiedName.startsWith(JSweetConfig.LIBS_PACKAGE + ".")) {
 								print(" instanceof ").print(qualifiedName);
 							} else {
-								print(" instanceof <any>").print(qualifiedName);
+								print(" instanceof ").printTypeScriptOnly("<any>").print(qualifiedName);
 							}
 							if (type instanceof ArrayType) {
 								ArrayType t = (ArrayType) type;
@@ -5482,6 +5795,12 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 								print(exprStr, expr);
 								print("[0] == null ||");
 								if (t.elemtype instanceof ArrayType) {
+									String elementTypedArrayName = context
+											.getTypedArrayName(((ArrayType) t.elemtype).elemtype);
+									if (elementTypedArrayName != null) {
+										print(exprStr, expr);
+										print("[0] instanceof " + elementTypedArrayName + " || ");
+									}
 									print(exprStr, expr);
 									print("[0] instanceof Array");
 								} else {
@@ -5489,6 +5808,9 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 								}
 								print(")");
 							}
+							if (typedArrayName != null) {
+								print(")");
+							}
 						}
 					}
 				}
@@ -5584,7 +5906,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			return true;
 		} else if (singlePrecisionFloats() && assignedType.getTag() == TypeTag.FLOAT
 				&& expression.type.getTag() == TypeTag.DOUBLE) {
-			print("(<any>Math).fround(").print(expression).print(")");
+			print("(").printTypeScriptOnly("<any>").print("Math).fround(").print(expression).print(")");
 			return true;
 		} else {
 			if (expression instanceof JCLambda) {
@@ -5651,7 +5973,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					}
 					// raw generic type
 					if (!newClass.type.tsym.getTypeParameters().isEmpty() && newClass.typeargs.isEmpty()) {
-						print("<any>(").print(expression).print(")");
+						printTypeScriptOnly("<any>").print("(").print(expression).print(")");
 						return true;
 					}
 				}
@@ -5659,7 +5981,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					&& context.isFunctionalType(assignedType.tsym)) {
 				// disallow typing to force objects to be passed as function
 				// (may require runtime checks later on)
-				print("<any>(").print(expression).print(")");
+				printTypeScriptOnly("<any>").print("(").print(expression).print(")");
 				return true;
 			} else if (expression instanceof JCMethodInvocation) {
 				// disable type checking when the method returns a type variable
@@ -5667,7 +5989,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				MethodSymbol m = (MethodSymbol) Util.getSymbol(((JCMethodInvocation) expression).meth);
 				if (m != null && m.getReturnType() instanceof TypeVar
 						&& m.getReturnType().tsym.getEnclosingElement() == m) {
-					print("<any>(").print(expression).print(")");
+					printTypeScriptOnly("<any>").print("(").print(expression).print(")");
 					return true;
 				}
 			}
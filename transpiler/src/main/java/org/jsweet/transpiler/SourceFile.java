@@ -140,6 +140,8 @@ public class SourceFile {
 	 * @param sourceFiles
 	 *            the origin source files
 	 * @return the origin position
+	 * @see SourceFileRegistry#findOriginPosition(SourcePosition) for repeated
+	 *      lookups
 	 */
 	public static SourcePosition findOriginPosition(SourcePosition position, Collection<SourceFile> sourceFiles) {
 		for (SourceFile sourceFile : sourceFiles) {
@@ -294,6 +296,20 @@ public class SourceFile {
 		jsFileLastTranspiled = 0;
 	}
 
+	/**
+	 * Internally used by {@link JSweetTranspiler} to restore the transpilation
+	 * information of an up-to-date file (incremental mode).
+	 */
+	void copyTranspilationInfo(SourceFile sourceFile) {
+		tsFile = sourceFile.tsFile;
+		jsFile = sourceFile.jsFile;
+		jsMapFile = sourceFile.jsMapFile;
+		javaFileLastTranspiled = sourceFile.javaFileLastTranspiled;
+		javaSourceDir = sourceFile.javaSourceDir;
+		javaSourceDirRelativeFile = sourceFile.javaSourceDirRelativeFile;
+		sourceMap = sourceFile.sourceMap;
+	}
+
 	public SourceMap getSourceMap() {
 		return sourceMap;
 	}
@@ -0,0 +1,129 @@
+/* 
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jsweet.transpiler.util.Position;
+
+/**
+ * An index of source files by generated TypeScript file, which is used to
+ * efficiently map positions in the TypeScript files (such as the positions of
+ * the errors reported by tsc) back to the original Java source files.
+ * 
+ * <p>
+ * The registry is a snapshot: it must be created once the TypeScript files
+ * have been generated.
+ * 
+ * @see SourceFile#findOriginPosition(SourcePosition, Collection)
+ * @author Renaud Pawlak
+ */
+public class SourceFileRegistry {
+
+	private final Path baseDir;
+
+	private final Map<Path, List<SourceFile>> sourceFilesByTsPath = new HashMap<>();
+
+	private final Map<String, List<SourceFile>> sourceFilesByTsName = new HashMap<>();
+
+	/**
+	 * Creates a registry for the given source files.
+	 * 
+	 * @param baseDir
+	 *            the directory used to resolve relative TypeScript file paths
+	 *            (typically the TypeScript output directory), null to use the
+	 *            current directory
+	 * @param sourceFiles
+	 *            the source files to be indexed (the ones with no TypeScript
+	 *            file are ignored)
+	 */
+	public SourceFileRegistry(File baseDir, Collection<SourceFile> sourceFiles) {
+		this.baseDir = baseDir == null ? null : normalize(baseDir.toPath());
+		for (SourceFile sourceFile : sourceFiles) {
+			if (sourceFile.tsFile != null) {
+				sourceFilesByTsPath.computeIfAbsent(normalize(sourceFile.tsFile.toPath()), p -> new ArrayList<>())
+						.add(sourceFile);
+				sourceFilesByTsName.computeIfAbsent(sourceFile.tsFile.getName(), n -> new ArrayList<>())
+						.add(sourceFile);
+			}
+		}
+	}
+
+	private static Path normalize(Path path) {
+		return path.toAbsolutePath().normalize();
+	}
+
+	/**
+	 * Gets the source files that were generated to the given TypeScript file
+	 * (several source files share the same TypeScript file in bundle mode).
+	 * 
+	 * @param tsFile
+	 *            the TypeScript file, relative to the base directory if not
+	 *            absolute
+	 * @return the source files, an empty list if none
+	 */
+	public List<SourceFile> getSourceFiles(File tsFile) {
+		Path path = tsFile.toPath();
+		if (!path.isAbsolute() && baseDir != null) {
+			path = baseDir.resolve(path);
+		}
+		List<SourceFile> sourceFiles = sourceFilesByTsPath.get(normalize(path));
+		if (sourceFiles == null && !tsFile.isAbsolute()) {
+			// fallback: the file may be relative to another directory
+			List<SourceFile> candidates = sourceFilesByTsName.get(tsFile.getName());
+			if (candidates != null) {
+				String tsPath = tsFile.getPath();
+				sourceFiles = new ArrayList<>();
+				for (SourceFile candidate : candidates) {
+					if (candidate.tsFile.getAbsolutePath().endsWith(tsPath)) {
+						sourceFiles.add(candidate);
+					}
+				}
+			}
+		}
+		return sourceFiles == null ? new ArrayList<>() : sourceFiles;
+	}
+
+	/**
+	 * Finds the mapped position in one of the origin Java source file.
+	 * 
+	 * @param position
+	 *            the position in one of the generated TypeScript file
+	 * @return the origin position, null if not found
+	 */
+	public SourcePosition findOriginPosition(SourcePosition position) {
+		for (SourceFile sourceFile : getSourceFiles(position.getFile())) {
+			if (sourceFile.getSourceMap() != null) {
+				Position inputPosition = sourceFile.getSourceMap().findInputPosition(position.getStartLine(),
+						position.getStartColumn());
+				if (inputPosition != null) {
+					return new SourcePosition(sourceFile.getJavaFile(), null, inputPosition);
+				}
+			}
+		}
+		return null;
+	}
+
+}
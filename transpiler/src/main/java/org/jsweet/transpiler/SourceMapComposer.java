@@ -0,0 +1,358 @@
+/* 
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jsweet.transpiler.util.SourceMap;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Composes the JavaScript source maps generated by the TypeScript compiler
+ * (JavaScript to TypeScript) with the in-memory TypeScript source maps
+ * generated by JSweet (TypeScript to Java), in order to create JavaScript to
+ * Java source maps.
+ *
+ * <p>
+ * The TypeScript compiler mappings are decoded segment by segment and each
+ * segment is directly re-encoded with the corresponding Java position
+ * (including the column), so that no intermediate mapping objects are
+ * created.
+ *
+ * @see SourceMap
+ * @author Renaud Pawlak
+ */
+public class SourceMapComposer {
+
+	private static final String BASE64_DIGITS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+
+	private static final int[] BASE64_VALUES = new int[128];
+
+	static {
+		for (int i = 0; i < BASE64_VALUES.length; i++) {
+			BASE64_VALUES[i] = -1;
+		}
+		for (int i = 0; i < BASE64_DIGITS.length(); i++) {
+			BASE64_VALUES[BASE64_DIGITS.charAt(i)] = i;
+		}
+	}
+
+	private static final int VLQ_SHIFT = 5;
+	private static final int VLQ_BASE_MASK = (1 << VLQ_SHIFT) - 1;
+	private static final int VLQ_CONTINUATION_BIT = 1 << VLQ_SHIFT;
+
+	private final SourceFileRegistry sourceFileRegistry;
+
+	/**
+	 * Creates a composer.
+	 *
+	 * @param sourceFileRegistry
+	 *            the registry used to find the source files (and their
+	 *            TypeScript source maps) from the TypeScript files referenced
+	 *            by the JavaScript source maps
+	 */
+	public SourceMapComposer(SourceFileRegistry sourceFileRegistry) {
+		this.sourceFileRegistry = sourceFileRegistry;
+	}
+
+	/**
+	 * Rewrites the given JavaScript source map file (as generated by the
+	 * TypeScript compiler) so that it maps the JavaScript file to the original
+	 * Java source files.
+	 *
+	 * @param jsFile
+	 *            the JavaScript file
+	 * @param mapFile
+	 *            the JavaScript source map file to be rewritten
+	 * @param tsFile
+	 *            the TypeScript file the JavaScript file was generated from
+	 *            (used when the TypeScript source cannot be resolved from the
+	 *            source map)
+	 * @param javaSourcePath
+	 *            the Java source directory, to which the Java sources are made
+	 *            relative
+	 * @param sourceRoot
+	 *            the source root to be set in the composed source map
+	 */
+	public void compose(File jsFile, File mapFile, File tsFile, Path javaSourcePath, String sourceRoot)
+			throws IOException {
+		String tsSourceMap = new String(Files.readAllBytes(mapFile.toPath()), StandardCharsets.UTF_8);
+		try (Writer writer = Files.newBufferedWriter(mapFile.toPath(), StandardCharsets.UTF_8)) {
+			compose(new StringReader(tsSourceMap), mapFile.getParentFile(), jsFile.getName(), tsFile, javaSourcePath,
+					sourceRoot, writer);
+		}
+	}
+
+	/**
+	 * Composes a JavaScript source map read from the given reader and writes
+	 * the composed source map to the given writer.
+	 *
+	 * @param mapDir
+	 *            the directory the TypeScript sources of the source map are
+	 *            relative to
+	 * @see #compose(File, File, File, Path, String)
+	 */
+	public void compose(Reader tsSourceMapReader, File mapDir, String jsFileName, File tsFile, Path javaSourcePath,
+			String sourceRoot, Writer out) throws IOException {
+		String tsSourceRoot = null;
+		List<String> tsSources = new ArrayList<>();
+		String tsMappings = null;
+		JsonReader reader = new JsonReader(tsSourceMapReader);
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (reader.peek() == JsonToken.NULL) {
+				reader.nextNull();
+				continue;
+			}
+			switch (name) {
+			case "sourceRoot":
+				tsSourceRoot = reader.nextString();
+				break;
+			case "sources":
+				reader.beginArray();
+				while (reader.hasNext()) {
+					tsSources.add(reader.nextString());
+				}
+				reader.endArray();
+				break;
+			case "mappings":
+				tsMappings = reader.nextString();
+				break;
+			default:
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+
+		List<List<SourceFile>> sourceFilesBySource = new ArrayList<>(tsSources.size());
+		for (String tsSource : tsSources) {
+			File file = new File(tsSource);
+			if (!file.isAbsolute() && mapDir != null) {
+				file = new File(tsSourceRoot == null || tsSourceRoot.isEmpty() ? mapDir
+						: new File(mapDir, tsSourceRoot), tsSource);
+			}
+			List<SourceFile> sourceFiles = sourceFileRegistry.getSourceFiles(file);
+			if (sourceFiles.isEmpty() && tsFile != null && tsSources.size() == 1) {
+				sourceFiles = sourceFileRegistry.getSourceFiles(tsFile);
+			}
+			sourceFilesBySource.add(sourceFiles);
+		}
+
+		List<String> javaSources = new ArrayList<>();
+		Map<SourceFile, Integer> javaSourceIndexes = new HashMap<>();
+		String mappings = tsMappings == null ? ""
+				: composeMappings(tsMappings, sourceFilesBySource, javaSourcePath, javaSources, javaSourceIndexes);
+
+		JsonWriter writer = new JsonWriter(out);
+		writer.beginObject();
+		writer.name("version").value(3);
+		writer.name("file").value(jsFileName);
+		if (sourceRoot != null) {
+			writer.name("sourceRoot").value(sourceRoot);
+		}
+		writer.name("sources").beginArray();
+		for (String javaSource : javaSources) {
+			writer.value(javaSource);
+		}
+		writer.endArray();
+		writer.name("names").beginArray().endArray();
+		writer.name("mappings").value(mappings);
+		writer.endObject();
+		writer.flush();
+	}
+
+	private String composeMappings(String tsMappings, List<List<SourceFile>> sourceFilesBySource,
+			Path javaSourcePath, List<String> javaSources, Map<SourceFile, Integer> javaSourceIndexes)
+			throws IOException {
+		StringBuilder out = new StringBuilder(tsMappings.length());
+		int[] value = new int[1];
+		int length = tsMappings.length();
+
+		// decoding state (values are relative to the previous segment)
+		int generatedColumn = 0;
+		int tsSourceIndex = 0;
+		int tsLine = 0;
+		int tsColumn = 0;
+
+		// encoding state
+		int lastGeneratedColumn = 0;
+		int lastJavaSourceIndex = 0;
+		int lastJavaLine = 0;
+		int lastJavaColumn = 0;
+		boolean firstSegmentOfLine = true;
+		boolean mappedSegmentOpen = false;
+
+		int i = 0;
+		while (i < length) {
+			char c = tsMappings.charAt(i);
+			if (c == ';') {
+				out.append(';');
+				generatedColumn = 0;
+				lastGeneratedColumn = 0;
+				firstSegmentOfLine = true;
+				mappedSegmentOpen = false;
+				i++;
+				continue;
+			}
+			if (c == ',') {
+				i++;
+				continue;
+			}
+
+			i = decode(tsMappings, i, value);
+			generatedColumn += value[0];
+			boolean hasSource = false;
+			if (i < length && !isSeparator(tsMappings.charAt(i))) {
+				i = decode(tsMappings, i, value);
+				tsSourceIndex += value[0];
+				i = decode(tsMappings, i, value);
+				tsLine += value[0];
+				i = decode(tsMappings, i, value);
+				tsColumn += value[0];
+				hasSource = true;
+				if (i < length && !isSeparator(tsMappings.charAt(i))) {
+					// names are not kept
+					i = decode(tsMappings, i, value);
+				}
+			}
+
+			int javaSourceIndex = -1;
+			int javaLine = 0;
+			int javaColumn = 0;
+			if (hasSource && tsSourceIndex >= 0 && tsSourceIndex < sourceFilesBySource.size()) {
+				for (SourceFile sourceFile : sourceFilesBySource.get(tsSourceIndex)) {
+					SourceMap sourceMap = sourceFile.getSourceMap();
+					if (sourceMap == null) {
+						continue;
+					}
+					// JSweet maps have 1-based output lines, and the Java
+					// (javac) positions have 1-based lines and columns
+					int entryIndex = sourceMap.findEntryIndex(tsLine + 1, tsColumn);
+					if (entryIndex >= 0) {
+						Integer index = javaSourceIndexes.get(sourceFile);
+						if (index == null) {
+							index = javaSources.size();
+							javaSources.add(javaSourcePath
+									.relativize(sourceFile.getJavaFile().getCanonicalFile().toPath()).toString());
+							javaSourceIndexes.put(sourceFile, index);
+						}
+						javaSourceIndex = index;
+						javaLine = Math.max(0, sourceMap.getInputLine(entryIndex) - 1);
+						javaColumn = Math.max(0, sourceMap.getInputColumn(entryIndex) - 1);
+						break;
+					}
+				}
+			}
+
+			if (javaSourceIndex < 0) {
+				// close the previous mapping so that it does not extend to
+				// unmapped code
+				if (mappedSegmentOpen) {
+					if (!firstSegmentOfLine) {
+						out.append(',');
+					}
+					encode(out, generatedColumn - lastGeneratedColumn);
+					lastGeneratedColumn = generatedColumn;
+					firstSegmentOfLine = false;
+					mappedSegmentOpen = false;
+				}
+				continue;
+			}
+			if (mappedSegmentOpen && javaSourceIndex == lastJavaSourceIndex && javaLine == lastJavaLine
+					&& javaColumn == lastJavaColumn) {
+				// redundant segment
+				continue;
+			}
+			if (!firstSegmentOfLine) {
+				out.append(',');
+			}
+			encode(out, generatedColumn - lastGeneratedColumn);
+			encode(out, javaSourceIndex - lastJavaSourceIndex);
+			encode(out, javaLine - lastJavaLine);
+			encode(out, javaColumn - lastJavaColumn);
+			lastGeneratedColumn = generatedColumn;
+			lastJavaSourceIndex = javaSourceIndex;
+			lastJavaLine = javaLine;
+			lastJavaColumn = javaColumn;
+			firstSegmentOfLine = false;
+			mappedSegmentOpen = true;
+		}
+		return out.toString();
+	}
+
+	private static boolean isSeparator(char c) {
+		return c == ',' || c == ';';
+	}
+
+	/**
+	 * Decodes a Base64 VLQ value starting at the given index.
+	 *
+	 * @return the index following the decoded value
+	 */
+	private static int decode(String mappings, int index, int[] result) {
+		int vlq = 0;
+		int shift = 0;
+		int digit;
+		do {
+			if (index >= mappings.length()) {
+				throw new IllegalArgumentException("unexpected end of source map mappings");
+			}
+			char c = mappings.charAt(index++);
+			digit = c < BASE64_VALUES.length ? BASE64_VALUES[c] : -1;
+			if (digit < 0) {
+				throw new IllegalArgumentException("invalid character in source map mappings: '" + c + "'");
+			}
+			vlq += (digit & VLQ_BASE_MASK) << shift;
+			shift += VLQ_SHIFT;
+		} while ((digit & VLQ_CONTINUATION_BIT) != 0);
+		result[0] = (vlq & 1) == 1 ? -(vlq >>> 1) : vlq >>> 1;
+		return index;
+	}
+
+	/**
+	 * Encodes a value as Base64 VLQ.
+	 */
+	private static void encode(StringBuilder out, int value) {
+		int vlq = value < 0 ? ((-value) << 1) | 1 : value << 1;
+		do {
+			int digit = vlq & VLQ_BASE_MASK;
+			vlq >>>= VLQ_SHIFT;
+			if (vlq > 0) {
+				digit |= VLQ_CONTINUATION_BIT;
+			}
+			out.append(BASE64_DIGITS.charAt(digit));
+		} while (vlq > 0);
+	}
+
+}
@@ -0,0 +1,218 @@
+/* 
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.CompletionFailure;
+import com.sun.tools.javac.code.Symbol.PackageSymbol;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.code.Type.ArrayType;
+import com.sun.tools.javac.code.Type.ClassType;
+import com.sun.tools.javac.code.Type.ForAll;
+import com.sun.tools.javac.code.Type.MethodType;
+import com.sun.tools.javac.code.Type.TypeVar;
+import com.sun.tools.javac.code.Type.WildcardType;
+import com.sun.tools.javac.code.Types;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
+import com.sun.tools.javac.tree.JCTree.JCIdent;
+import com.sun.tools.javac.tree.JCTree.JCMemberReference;
+import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
+import com.sun.tools.javac.tree.JCTree.JCNewClass;
+import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
+import com.sun.tools.javac.tree.TreeScanner;
+
+/**
+ * This AST scanner completes all the symbols that the printers may reach
+ * from the given compilation units: the referred symbols, their owners, the
+ * supertypes of the referred classes and the members of these classes.
+ *
+ * <p>
+ * The javac symbols are completed lazily by the class reader, which is not
+ * thread-safe. When printing compilation units in parallel, all the symbols
+ * are therefore completed before forking, so that the printers only read the
+ * javac model. The supertypes of the completed classes are also calculated
+ * upfront, since {@link Types} caches them in the types themselves.
+ *
+ * @see JSweetTranspiler#setParallelPrinting(boolean)
+ * @author Renaud Pawlak
+ */
+public class SymbolCompleter extends TreeScanner {
+
+	private static final Logger logger = Logger.getLogger(SymbolCompleter.class);
+
+	private final Types types;
+
+	private final Set<Symbol> completedSymbols = new HashSet<>();
+
+	private final Set<ClassSymbol> completedMembers = new HashSet<>();
+
+	/**
+	 * Creates a new symbol completer.
+	 */
+	public SymbolCompleter(Types types) {
+		this.types = types;
+	}
+
+	@Override
+	public void scan(JCTree tree) {
+		if (tree != null) {
+			completeType(tree.type, true);
+		}
+		super.scan(tree);
+	}
+
+	@Override
+	public void visitClassDef(JCClassDecl classdecl) {
+		completeSymbol(classdecl.sym, true);
+		super.visitClassDef(classdecl);
+	}
+
+	@Override
+	public void visitMethodDef(JCMethodDecl methodDecl) {
+		completeSymbol(methodDecl.sym, true);
+		super.visitMethodDef(methodDecl);
+	}
+
+	@Override
+	public void visitVarDef(JCVariableDecl varDecl) {
+		completeSymbol(varDecl.sym, true);
+		super.visitVarDef(varDecl);
+	}
+
+	@Override
+	public void visitIdent(JCIdent ident) {
+		completeSymbol(ident.sym, true);
+		super.visitIdent(ident);
+	}
+
+	@Override
+	public void visitSelect(JCFieldAccess fieldAccess) {
+		completeSymbol(fieldAccess.sym, true);
+		super.visitSelect(fieldAccess);
+	}
+
+	@Override
+	public void visitNewClass(JCNewClass newClass) {
+		completeSymbol(newClass.constructor, true);
+		super.visitNewClass(newClass);
+	}
+
+	@Override
+	public void visitReference(JCMemberReference memberReference) {
+		completeSymbol(memberReference.sym, true);
+		super.visitReference(memberReference);
+	}
+
+	/**
+	 * Completes the given symbol and the symbols it refers to. The members of
+	 * the classes are only completed for the symbols referred to by the trees,
+	 * so that completion does not reach the whole class path.
+	 */
+	private void completeSymbol(Symbol symbol, boolean withMembers) {
+		if (symbol == null) {
+			return;
+		}
+		if (completedSymbols.add(symbol)) {
+			try {
+				symbol.complete();
+			} catch (CompletionFailure e) {
+				// javac already reported it: the printers will get the same
+				// erroneous symbol
+				logger.debug("cannot complete " + symbol + ": " + e.getMessage());
+				return;
+			}
+			if (symbol instanceof PackageSymbol) {
+				return;
+			}
+			completeSymbol(symbol.owner, withMembers);
+			completeType(symbol.type, false);
+			if (symbol instanceof ClassSymbol) {
+				completeType(types.supertype(symbol.type), false);
+				for (Type interfaceType : types.interfaces(symbol.type)) {
+					completeType(interfaceType, false);
+				}
+			}
+		}
+		if (withMembers && symbol instanceof ClassSymbol && completedMembers.add((ClassSymbol) symbol)) {
+			ClassSymbol classSymbol = (ClassSymbol) symbol;
+			completeType(types.supertype(classSymbol.type), true);
+			for (Type interfaceType : types.interfaces(classSymbol.type)) {
+				completeType(interfaceType, true);
+			}
+			if (classSymbol.members_field != null) {
+				for (Symbol member : classSymbol.getEnclosedElements()) {
+					completeSymbol(member, false);
+				}
+			}
+		}
+	}
+
+	private void completeType(Type type, boolean withMembers) {
+		if (type == null) {
+			return;
+		}
+		if (type instanceof ArrayType) {
+			completeType(((ArrayType) type).elemtype, withMembers);
+		} else if (type instanceof ForAll) {
+			completeType(((ForAll) type).qtype, withMembers);
+		} else if (type instanceof MethodType) {
+			MethodType methodType = (MethodType) type;
+			for (Type argumentType : methodType.argtypes) {
+				completeType(argumentType, false);
+			}
+			completeType(methodType.restype, false);
+			for (Type thrownType : methodType.thrown) {
+				completeType(thrownType, false);
+			}
+		} else if (type instanceof WildcardType) {
+			completeType(((WildcardType) type).type, withMembers);
+		} else if (type instanceof TypeVar) {
+			if (completedSymbols.add(type.tsym)) {
+				completeType(type.getUpperBound(), withMembers);
+			}
+		} else if (type instanceof ClassType) {
+			completeSymbol(type.tsym, withMembers);
+			for (Type typeArgument : type.getTypeArguments()) {
+				completeType(typeArgument, withMembers);
+			}
+			completeType(type.getEnclosingType(), false);
+		}
+	}
+
+	/**
+	 * Completes the symbols of all the given compilation units.
+	 */
+	public void process(Collection<JCCompilationUnit> compilationUnits) {
+		for (JCCompilationUnit cu : compilationUnits) {
+			scan(cu);
+		}
+		logger.debug(completedSymbols.size() + " symbol(s) completed");
+	}
+
+}
@@ -0,0 +1,171 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+import org.jsweet.transpiler.TranspilationMetrics.Phase;
+
+/**
+ * A metrics listener that cumulates the metrics of all the transpilations of
+ * a long-lived transpiler (typically in watch or daemon mode), and exposes
+ * them as JMX counters once registered with {@link #register(String)}.
+ *
+ * @author Renaud Pawlak
+ */
+public class TranspilationCounters implements TranspilationMetricsListener, TranspilationCountersMXBean {
+
+	private static final Logger logger = Logger.getLogger(TranspilationCounters.class);
+
+	/**
+	 * The JMX domain of the transpilation counters.
+	 */
+	public static final String JMX_DOMAIN = "org.jsweet";
+
+	private final AtomicLong transpilationCount = new AtomicLong();
+	private final AtomicLong errorCount = new AtomicLong();
+	private final AtomicLong lastTranspilationTime = new AtomicLong();
+	private final AtomicLong totalTranspilationTime = new AtomicLong();
+	private final LongAdder printedFileCount = new LongAdder();
+	private final LongAdder printedOutputSize = new LongAdder();
+	private final LongAdder rollbackCount = new LongAdder();
+	private final Map<String, LongAdder> phaseNanos = new ConcurrentHashMap<>();
+	private final AtomicReference<ObjectName> objectName = new AtomicReference<>();
+
+	@Override
+	public void onPhaseCompleted(TranspilationMetrics metrics, Phase phase) {
+		phaseNanos.computeIfAbsent(phase.getCategory(), c -> new LongAdder()).add(phase.getDurationNanos());
+		switch (phase.getCategory()) {
+		case TranspilationMetrics.PRINT:
+			printedFileCount.increment();
+			printedOutputSize.add(phase.getCounter(TranspilationMetrics.OUTPUT_SIZE));
+			rollbackCount.add(phase.getCounter(TranspilationMetrics.ROLLBACKS));
+			break;
+		case TranspilationMetrics.TRANSPILATION:
+			transpilationCount.incrementAndGet();
+			errorCount.addAndGet(phase.getCounter(TranspilationMetrics.ERRORS));
+			lastTranspilationTime.set(phase.getDurationNanos() / 1000000);
+			totalTranspilationTime.addAndGet(phase.getDurationNanos() / 1000000);
+			break;
+		default:
+		}
+	}
+
+	/**
+	 * Registers these counters in the platform MBean server, under the
+	 * {@link #JMX_DOMAIN} domain.
+	 *
+	 * @param name
+	 *            the name identifying the transpiler (several transpilers can
+	 *            be registered in the same JVM)
+	 */
+	public void register(String name) {
+		try {
+			ObjectName objectName = new ObjectName(
+					JMX_DOMAIN + ":type=TranspilationCounters,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			this.objectName.set(objectName);
+			logger.info("registered JMX counters: " + objectName);
+		} catch (JMException e) {
+			logger.warn("cannot register JMX counters: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Unregisters these counters from the platform MBean server (if
+	 * registered).
+	 */
+	public void unregister() {
+		ObjectName objectName = this.objectName.getAndSet(null);
+		if (objectName != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+			} catch (JMException e) {
+				logger.warn("cannot unregister JMX counters: " + e.getMessage());
+			}
+		}
+	}
+
+	@Override
+	public long getTranspilationCount() {
+		return transpilationCount.get();
+	}
+
+	@Override
+	public long getErrorCount() {
+		return errorCount.get();
+	}
+
+	@Override
+	public long getLastTranspilationTime() {
+		return lastTranspilationTime.get();
+	}
+
+	@Override
+	public long getTotalTranspilationTime() {
+		return totalTranspilationTime.get();
+	}
+
+	@Override
+	public long getPrintedFileCount() {
+		return printedFileCount.sum();
+	}
+
+	@Override
+	public long getPrintedOutputSize() {
+		return printedOutputSize.sum();
+	}
+
+	@Override
+	public long getRollbackCount() {
+		return rollbackCount.sum();
+	}
+
+	@Override
+	public Map<String, Long> getPhaseTimes() {
+		Map<String, Long> phaseTimes = new TreeMap<>();
+		for (Map.Entry<String, LongAdder> e : phaseNanos.entrySet()) {
+			phaseTimes.put(e.getKey(), e.getValue().sum() / 1000000);
+		}
+		return phaseTimes;
+	}
+
+	@Override
+	public void reset() {
+		transpilationCount.set(0);
+		errorCount.set(0);
+		lastTranspilationTime.set(0);
+		totalTranspilationTime.set(0);
+		printedFileCount.reset();
+		printedOutputSize.reset();
+		rollbackCount.reset();
+		phaseNanos.clear();
+	}
+
+}
@@ -0,0 +1,77 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler;
+
+import java.util.Map;
+
+/**
+ * The JMX interface of the cumulated transpilation counters of a long-lived
+ * transpiler (see {@link TranspilationCounters}).
+ *
+ * @author Renaud Pawlak
+ */
+public interface TranspilationCountersMXBean {
+
+	/**
+	 * The number of completed transpilations.
+	 */
+	long getTranspilationCount();
+
+	/**
+	 * The number of errors reported by all the transpilations.
+	 */
+	long getErrorCount();
+
+	/**
+	 * The duration of the last transpilation, in milliseconds.
+	 */
+	long getLastTranspilationTime();
+
+	/**
+	 * The cumulated duration of all the transpilations, in milliseconds.
+	 */
+	long getTotalTranspilationTime();
+
+	/**
+	 * The number of compilation units printed by all the transpilations.
+	 */
+	long getPrintedFileCount();
+
+	/**
+	 * The cumulated size of the printed compilation units, in characters.
+	 */
+	long getPrintedOutputSize();
+
+	/**
+	 * The cumulated number of printing rollbacks.
+	 */
+	long getRollbackCount();
+
+	/**
+	 * The cumulated duration of the phases of each category (see
+	 * {@link TranspilationMetrics}), in milliseconds.
+	 */
+	Map<String, Long> getPhaseTimes();
+
+	/**
+	 * Resets all the counters.
+	 */
+	void reset();
+
+}
@@ -0,0 +1,449 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.commons.io.FileUtils;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * The metrics of a transpilation: the time spent in each phase of the
+ * transpilation process (javac phases, scanners, printing of each compilation
+ * unit, candies processing, TypeScript compilation, source map composition),
+ * along with some phase-specific counters (such as the output size of a
+ * compilation unit).
+ *
+ * <p>
+ * The metrics of the last transpilation are available through
+ * {@link JSweetTranspiler#getMetrics()}, and can be exported as JSON (
+ * {@link #toJson()}) or as a Chrome trace-event file ({@link #toChromeTrace()}
+ * , to be loaded in <code>chrome://tracing</code> or any compatible viewer).
+ * The phases can also be observed as they complete with a
+ * {@link TranspilationMetricsListener}.
+ *
+ * <p>
+ * Phases may be recorded concurrently (for instance when printing the
+ * compilation units in parallel).
+ *
+ * @author Renaud Pawlak
+ */
+public class TranspilationMetrics {
+
+	/**
+	 * The category of the phases of the javac compiler (parse, enter,
+	 * attribute, flow).
+	 */
+	public static final String JAVAC = "javac";
+	/**
+	 * The category of the phases of the AST scanners that run before the
+	 * printing.
+	 */
+	public static final String SCAN = "scan";
+	/**
+	 * The category of the printing phases (one per compilation unit).
+	 */
+	public static final String PRINT = "print";
+	/**
+	 * The category of the candies processing phase.
+	 */
+	public static final String CANDIES = "candies";
+	/**
+	 * The category of the TypeScript to JavaScript compilation phases.
+	 */
+	public static final String TS2JS = "ts2js";
+	/**
+	 * The category of the source map composition phases (one per generated
+	 * JavaScript file).
+	 */
+	public static final String SOURCE_MAPS = "sourceMaps";
+	/**
+	 * The category of the phase that covers the whole transpilation.
+	 */
+	public static final String TRANSPILATION = "transpilation";
+
+	/**
+	 * The output size counter of the printing phases (in characters).
+	 */
+	public static final String OUTPUT_SIZE = "outputSize";
+	/**
+	 * The source map entry count counter of the printing phases.
+	 */
+	public static final String SOURCE_MAP_ENTRIES = "sourceMapEntries";
+	/**
+	 * The rollback count counter of the printing phases.
+	 */
+	public static final String ROLLBACKS = "rollbacks";
+	/**
+	 * The file count counter.
+	 */
+	public static final String FILES = "files";
+	/**
+	 * The error count counter of the transpilation phase.
+	 */
+	public static final String ERRORS = "errors";
+	/**
+	 * The dependency level counter of the tsc shard phases (see
+	 * {@link JSweetOptions#isParallelTsc()}).
+	 */
+	public static final String LEVEL = "level";
+
+	/**
+	 * A timed phase of the transpilation. A phase starts when created with
+	 * {@link TranspilationMetrics#startPhase(String, String, File)} and ends
+	 * when closed.
+	 */
+	public static class Phase implements AutoCloseable {
+
+		private final TranspilationMetrics metrics;
+		private final String category;
+		private final String name;
+		private final File file;
+		private final String threadName;
+		private final long threadId;
+		private final long startNanos;
+		private long durationNanos = -1;
+		private final Map<String, Long> counters = Collections.synchronizedMap(new LinkedHashMap<>());
+
+		private Phase(TranspilationMetrics metrics, String category, String name, File file) {
+			this.metrics = metrics;
+			this.category = category;
+			this.name = name;
+			this.file = file;
+			this.threadName = Thread.currentThread().getName();
+			this.threadId = Thread.currentThread().getId();
+			this.startNanos = System.nanoTime();
+		}
+
+		/**
+		 * The phase category (see the constants of
+		 * {@link TranspilationMetrics}).
+		 */
+		public String getCategory() {
+			return category;
+		}
+
+		/**
+		 * The phase name, unique within its category (except for the per-file
+		 * phases, which are named after their file).
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * The file this phase applies to, if any.
+		 */
+		public File getFile() {
+			return file;
+		}
+
+		/**
+		 * The name of the thread that ran this phase.
+		 */
+		public String getThreadName() {
+			return threadName;
+		}
+
+		/**
+		 * The start time of this phase, in nanoseconds since the start of the
+		 * transpilation.
+		 */
+		public long getStartNanos() {
+			return startNanos - metrics.originNanos;
+		}
+
+		/**
+		 * The duration of this phase in nanoseconds (-1 if not completed).
+		 */
+		public long getDurationNanos() {
+			return durationNanos;
+		}
+
+		/**
+		 * Gets the counters attached to this phase.
+		 */
+		public Map<String, Long> getCounters() {
+			return counters;
+		}
+
+		/**
+		 * Gets a counter attached to this phase (0 if undefined).
+		 */
+		public long getCounter(String name) {
+			Long value = counters.get(name);
+			return value == null ? 0 : value;
+		}
+
+		/**
+		 * Sets a counter attached to this phase.
+		 */
+		public Phase setCounter(String name, long value) {
+			counters.put(name, value);
+			return this;
+		}
+
+		/**
+		 * Ends this phase (has no effect if already ended).
+		 */
+		@Override
+		public void close() {
+			if (durationNanos >= 0) {
+				return;
+			}
+			durationNanos = System.nanoTime() - startNanos;
+			metrics.onPhaseCompleted(this);
+		}
+
+		@Override
+		public String toString() {
+			return category + ":" + name + " " + (durationNanos / 1e6) + "ms" + (counters.isEmpty() ? "" : counters);
+		}
+	}
+
+	private volatile long originNanos = System.nanoTime();
+	private volatile long startTimeMillis = System.currentTimeMillis();
+	private final List<Phase> phases = new ArrayList<>();
+	private final List<TranspilationMetricsListener> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Clears the recorded phases and restarts the clock (the listeners are
+	 * kept).
+	 */
+	public synchronized void reset() {
+		phases.clear();
+		originNanos = System.nanoTime();
+		startTimeMillis = System.currentTimeMillis();
+	}
+
+	/**
+	 * Starts a new phase, to be closed when the phase ends.
+	 */
+	public Phase startPhase(String category, String name) {
+		return startPhase(category, name, null);
+	}
+
+	/**
+	 * Starts a new phase applying to the given file, to be closed when the
+	 * phase ends.
+	 */
+	public Phase startPhase(String category, String name, File file) {
+		return new Phase(this, category, name, file);
+	}
+
+	private void onPhaseCompleted(Phase phase) {
+		synchronized (this) {
+			phases.add(phase);
+		}
+		for (TranspilationMetricsListener listener : listeners) {
+			listener.onPhaseCompleted(this, phase);
+		}
+	}
+
+	/**
+	 * Notifies the listeners that the transpilation is completed.
+	 */
+	public void onTranspilationCompleted() {
+		for (TranspilationMetricsListener listener : listeners) {
+			listener.onTranspilationCompleted(this);
+		}
+	}
+
+	/**
+	 * Adds a listener to be notified of the completed phases.
+	 */
+	public void addListener(TranspilationMetricsListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener.
+	 */
+	public void removeListener(TranspilationMetricsListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Gets the transpilation start time (in milliseconds since the epoch).
+	 */
+	public long getStartTimeMillis() {
+		return startTimeMillis;
+	}
+
+	/**
+	 * Gets a copy of the completed phases, in completion order.
+	 */
+	public synchronized List<Phase> getPhases() {
+		return new ArrayList<>(phases);
+	}
+
+	/**
+	 * Gets the completed phases of the given category.
+	 */
+	public synchronized List<Phase> getPhases(String category) {
+		List<Phase> result = new ArrayList<>();
+		for (Phase phase : phases) {
+			if (phase.category.equals(category)) {
+				result.add(phase);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the cumulated duration of the completed phases of the given category
+	 * and name, in nanoseconds.
+	 *
+	 * @param category
+	 *            the phase category
+	 * @param name
+	 *            the phase name, or null for all the phases of the category
+	 */
+	public synchronized long getTotalNanos(String category, String name) {
+		long total = 0;
+		for (Phase phase : phases) {
+			if (phase.category.equals(category) && (name == null || phase.name.equals(name))) {
+				total += phase.durationNanos;
+			}
+		}
+		return total;
+	}
+
+	private static double toMillis(long nanos) {
+		return Math.round(nanos / 1e3) / 1e3;
+	}
+
+	/**
+	 * Exports the metrics as a JSON object holding the list of phases (with
+	 * times in milliseconds) and a summary of the cumulated times and counters
+	 * per category and name (per-file phases are summarized by category).
+	 */
+	public String toJson() {
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("startTime", startTimeMillis);
+		List<Object> phaseList = new ArrayList<>();
+		Map<String, Map<String, Object>> summary = new LinkedHashMap<>();
+		for (Phase phase : getPhases()) {
+			Map<String, Object> phaseJson = new LinkedHashMap<>();
+			phaseJson.put("category", phase.category);
+			phaseJson.put("name", phase.name);
+			if (phase.file != null) {
+				phaseJson.put("file", phase.file.getPath());
+			}
+			phaseJson.put("thread", phase.threadName);
+			phaseJson.put("start", toMillis(phase.getStartNanos()));
+			phaseJson.put("duration", toMillis(phase.durationNanos));
+			Map<String, Long> counters;
+			synchronized (phase.counters) {
+				counters = new LinkedHashMap<>(phase.counters);
+			}
+			if (!counters.isEmpty()) {
+				phaseJson.put("counters", counters);
+			}
+			phaseList.add(phaseJson);
+
+			String key = phase.file != null ? phase.category : phase.category + "." + phase.name;
+			Map<String, Object> entry = summary.computeIfAbsent(key, k -> new LinkedHashMap<>());
+			entry.merge("count", 1L, (a, b) -> (Long) a + (Long) b);
+			entry.merge("nanos", phase.durationNanos, (a, b) -> (Long) a + (Long) b);
+			for (Map.Entry<String, Long> counter : counters.entrySet()) {
+				entry.merge(counter.getKey(), counter.getValue(), (a, b) -> (Long) a + (Long) b);
+			}
+		}
+		for (Map<String, Object> entry : summary.values()) {
+			entry.put("duration", toMillis((Long) entry.remove("nanos")));
+		}
+		json.put("phases", phaseList);
+		json.put("summary", summary);
+		return new GsonBuilder().setPrettyPrinting().create().toJson(json);
+	}
+
+	/**
+	 * Exports the metrics in the Chrome trace-event format (complete events,
+	 * one per phase, with times in microseconds and one track per thread).
+	 */
+	public String toChromeTrace() {
+		List<Object> events = new ArrayList<>();
+		Map<Long, String> threads = new LinkedHashMap<>();
+		for (Phase phase : getPhases()) {
+			threads.put(phase.threadId, phase.threadName);
+			Map<String, Object> event = new LinkedHashMap<>();
+			event.put("name", phase.name);
+			event.put("cat", phase.category);
+			event.put("ph", "X");
+			event.put("ts", phase.getStartNanos() / 1000);
+			event.put("dur", phase.durationNanos / 1000);
+			event.put("pid", 1);
+			event.put("tid", phase.threadId);
+			Map<String, Object> args = new LinkedHashMap<>();
+			if (phase.file != null) {
+				args.put("file", phase.file.getPath());
+			}
+			synchronized (phase.counters) {
+				args.putAll(phase.counters);
+			}
+			if (!args.isEmpty()) {
+				event.put("args", args);
+			}
+			events.add(event);
+		}
+		for (Map.Entry<Long, String> thread : threads.entrySet()) {
+			Map<String, Object> event = new LinkedHashMap<>();
+			event.put("name", "thread_name");
+			event.put("ph", "M");
+			event.put("pid", 1);
+			event.put("tid", thread.getKey());
+			event.put("args", Collections.singletonMap("name", thread.getValue()));
+			events.add(event);
+		}
+		Map<String, Object> trace = new LinkedHashMap<>();
+		trace.put("traceEvents", events);
+		trace.put("displayTimeUnit", "ms");
+		return new GsonBuilder().create().toJson(trace);
+	}
+
+	/**
+	 * Writes the metrics to the given file as JSON (see {@link #toJson()}).
+	 */
+	public void writeJson(File file) throws IOException {
+		FileUtils.write(file, toJson(), false);
+	}
+
+	/**
+	 * Writes the metrics to the given file in the Chrome trace-event format
+	 * (see {@link #toChromeTrace()}).
+	 */
+	public void writeChromeTrace(File file) throws IOException {
+		FileUtils.write(file, toChromeTrace(), false);
+	}
+
+	@Override
+	public String toString() {
+		return getPhases().toString();
+	}
+
+}
@@ -0,0 +1,56 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler;
+
+import org.jsweet.transpiler.TranspilationMetrics.Phase;
+
+/**
+ * Objects implementing this interface are notified of the transpilation
+ * phases as they complete (see
+ * {@link TranspilationMetrics#addListener(TranspilationMetricsListener)}).
+ *
+ * <p>
+ * Phases may complete concurrently, so that implementations must be
+ * thread-safe.
+ *
+ * @author Renaud Pawlak
+ */
+public interface TranspilationMetricsListener {
+
+	/**
+	 * Called when a transpilation phase is completed.
+	 *
+	 * @param metrics
+	 *            the metrics the phase belongs to
+	 * @param phase
+	 *            the completed phase
+	 */
+	void onPhaseCompleted(TranspilationMetrics metrics, Phase phase);
+
+	/**
+	 * Called at the end of the transpilation, once all its phases are
+	 * completed.
+	 *
+	 * @param metrics
+	 *            the metrics of the transpilation
+	 */
+	default void onTranspilationCompleted(TranspilationMetrics metrics) {
+	}
+
+}
@@ -13,9 +13,92 @@ public abstract class TypeScript2JavaScriptTranspiler {
 	public static interface OnTsTranspilationCompletedCallback {
 		void call(boolean fullPass, ErrorCountTranspilationHandler handler, Collection<SourceFile> files);
 	}
+
+	public static interface OnTsFileTranspiledCallback {
+		/**
+		 * @param generated
+		 *            false if the JavaScript file was up to date and was not
+		 *            generated again
+		 */
+		void call(ErrorCountTranspilationHandler handler, SourceFile file, boolean generated);
+	}
+
+	/**
+	 * A TypeScript to JavaScript compilation that is fed with the TypeScript
+	 * files as soon as they are generated, so that the TypeScript compilation
+	 * overlaps the Java to TypeScript generation.
+	 * 
+	 * @see TypeScript2JavaScriptTranspiler#startPipeline(ErrorCountTranspilationHandler,
+	 *      Collection, JSweetOptions, boolean, OnTsFileTranspiledCallback,
+	 *      OnTsTranspilationCompletedCallback)
+	 */
+	public static interface Pipeline {
+
+		/**
+		 * Adds a source file to the compilation (this method is thread-safe).
+		 * The file is compiled once all its dependencies have been added.
+		 * 
+		 * @param sourceFile
+		 *            the source file (with no TypeScript file when nothing was
+		 *            generated for it)
+		 * @param dependencies
+		 *            the source files the given file depends on (null if unknown,
+		 *            in which case any file is considered as depending on the
+		 *            given one)
+		 */
+		void add(SourceFile sourceFile, Collection<SourceFile> dependencies);
+
+		/**
+		 * Compiles the remaining files, reports the errors, and invokes the
+		 * completion callback. This method waits for the compilation to be
+		 * finished.
+		 */
+		void complete();
+
+		/**
+		 * Stops the compilation without reporting any error (typically because
+		 * the Java to TypeScript generation failed).
+		 */
+		void cancel();
+	}
 	
 	protected final Logger logger = Logger.getLogger(getClass());
 
+	protected Collection<SourceFile> watchedFiles;
+
+	/**
+	 * Gets the source files watched in watch mode (the ones of the first
+	 * compilation after the watch mode was enabled), null if not in watch
+	 * mode.
+	 */
+	public Collection<SourceFile> getWatchedFiles() {
+		return watchedFiles;
+	}
+
+	/**
+	 * Gets the watched source file corresponding to the given Java file.
+	 * 
+	 * @see #getWatchedFiles()
+	 */
+	public SourceFile getWatchedFile(File javaFile) {
+		if (watchedFiles != null) {
+			for (SourceFile f : watchedFiles) {
+				if (f.getJavaFile().getAbsoluteFile().equals(javaFile.getAbsoluteFile())) {
+					return f;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Stops watching the TypeScript files (the state kept for the watched
+	 * files is discarded).
+	 */
+	public void stopWatch() {
+		watchedFiles = null;
+	}
+
 	public void ts2js( //
 			ErrorCountTranspilationHandler transpilationHandler, //
 			Collection<SourceFile> tsSourceFiles, //
@@ -45,6 +128,43 @@ public abstract class TypeScript2JavaScriptTranspiler {
 		}
 	}
 
+	/**
+	 * Tells if this transpiler can compile the TypeScript files as soon as
+	 * they are generated, with the given options.
+	 * 
+	 * @see #startPipeline(ErrorCountTranspilationHandler, Collection,
+	 *      JSweetOptions, boolean, OnTsFileTranspiledCallback,
+	 *      OnTsTranspilationCompletedCallback)
+	 */
+	public boolean isPipelineSupported(JSweetOptions options) {
+		return false;
+	}
+
+	/**
+	 * Starts a compilation that will be fed with the TypeScript files as soon
+	 * as they are generated.
+	 * 
+	 * @param onTsFileTranspiled
+	 *            invoked (from a compilation thread) for each source file as
+	 *            soon as its JavaScript file has been generated
+	 * @param onTsTranspilationCompleted
+	 *            invoked once all the files are compiled, with all the source
+	 *            files that were added to the pipeline
+	 * @return the started pipeline, or null if not supported (default), in
+	 *         which case the files are compiled all at once with
+	 *         {@link #ts2js(ErrorCountTranspilationHandler, Collection, Collection, JSweetOptions, boolean, OnTsTranspilationCompletedCallback)}
+	 * @see #isPipelineSupported(JSweetOptions)
+	 */
+	public Pipeline startPipeline( //
+			ErrorCountTranspilationHandler transpilationHandler, //
+			Collection<File> tsDefDirs, //
+			JSweetOptions options, //
+			boolean ignoreErrors, //
+			OnTsFileTranspiledCallback onTsFileTranspiled, //
+			OnTsTranspilationCompletedCallback onTsTranspilationCompleted) {
+		return null;
+	}
+
 	protected abstract void doTranspile( //
 			ErrorCountTranspilationHandler transpilationHandler, //
 			Collection<File> tsFiles, //
@@ -5,14 +5,26 @@ import static java.util.Arrays.asList;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.FileUtils;
+import org.jsweet.transpiler.TranspilationMetrics.Phase;
 import org.jsweet.transpiler.util.ErrorCountTranspilationHandler;
 import org.jsweet.transpiler.util.ProcessUtil;
+import org.jsweet.transpiler.util.Util;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
 
 public class TypeScript2JavaScriptWithTscTranspiler extends TypeScript2JavaScriptTranspiler {
 
@@ -79,6 +91,7 @@ public class TypeScript2JavaScriptWithTscTranspiler extends TypeScript2JavaScrip
 
 		logger.info("launching tsc...");
 		boolean[] fullPass = { true };
+		SourceFileRegistry sourceFileRegistry = new SourceFileRegistry(options.getTsOutputDir(), tsSourceFiles);
 
 		if (options.isSkipTypeScriptChecks()) {
 			args.add("--skipDefaultLibCheck");
@@ -93,7 +106,7 @@ public class TypeScript2JavaScriptWithTscTranspiler extends TypeScript2JavaScrip
 						if (ignoreErrors) {
 							return;
 						}
-						SourcePosition position = SourceFile.findOriginPosition(output.position, tsSourceFiles);
+						SourcePosition position = sourceFileRegistry.findOriginPosition(output.position);
 						if (position == null) {
 							transpilationHandler.report(JSweetProblem.INTERNAL_TSC_ERROR, output.position,
 									output.message);
@@ -123,7 +136,198 @@ public class TypeScript2JavaScriptWithTscTranspiler extends TypeScript2JavaScrip
 				}, args.toArray(new String[0]));
 	}
 
-	private Collection<SourceFile> watchedFiles;
+	/**
+	 * The name of the directory (within the TypeScript output directory) where
+	 * the files of the shards are staged for the sharded compilation.
+	 */
+	public final static String TSC_SHARDS_DIR = ".jsweet-tsc-shards";
+
+	/**
+	 * Compiles the given groups (shards) of TypeScript files with one tsc
+	 * process per shard, the shards of a same level being compiled in
+	 * parallel.
+	 * 
+	 * <p>
+	 * Each shard gets its own tsconfig file, and is compiled from a staging
+	 * directory where its TypeScript files are copied. The declarations
+	 * generated for a shard stay in the staging directory (where the
+	 * TypeScript files are removed once compiled), so that the shards of the
+	 * next levels resolve their imports to these declarations instead of
+	 * compiling the files they depend on again.
+	 * 
+	 * @param shardLevels
+	 *            the shards to be compiled, by levels: the files of a shard
+	 *            shall only depend on the files of the same shard or of the
+	 *            shards of the previous levels
+	 * @param metrics
+	 *            the metrics where the tsc process of each shard is recorded
+	 *            as a {@link TranspilationMetrics#TS2JS} phase
+	 */
+	public synchronized void ts2jsSharded( //
+			ErrorCountTranspilationHandler transpilationHandler, //
+			List<List<Collection<SourceFile>>> shardLevels, //
+			TranspilationMetrics metrics, //
+			Collection<File> tsDefDirs, //
+			JSweetOptions options, //
+			boolean ignoreErrors, //
+			OnTsTranspilationCompletedCallback onTsTranspilationCompleted) {
+		File shardsDir = new File(options.getTsOutputDir(), TSC_SHARDS_DIR);
+		ExecutorService executor = null;
+		try {
+			FileUtils.deleteQuietly(shardsDir);
+			List<File> tsDefFiles = new ArrayList<>();
+			for (File dir : tsDefDirs) {
+				Util.addFiles(".d.ts", dir, tsDefFiles);
+			}
+			List<SourceFile> tsSourceFiles = new ArrayList<>();
+			int maxShardsPerLevel = 1;
+			for (List<Collection<SourceFile>> shards : shardLevels) {
+				for (Collection<SourceFile> shard : shards) {
+					tsSourceFiles.addAll(shard);
+				}
+				maxShardsPerLevel = Math.max(maxShardsPerLevel, shards.size());
+			}
+			SourceFileRegistry sourceFileRegistry = new SourceFileRegistry(options.getTsOutputDir(), tsSourceFiles);
+
+			shardsDir.mkdirs();
+			executor = Executors.newFixedThreadPool(maxShardsPerLevel);
+			logger.info("launching sharded tsc: " + shardLevels.size() + " level(s), " + tsSourceFiles.size()
+					+ " file(s)");
+			for (int level = 0; level < shardLevels.size(); level++) {
+				List<Collection<SourceFile>> shards = shardLevels.get(level);
+				List<File> stagedTsFiles = new ArrayList<>();
+				for (Collection<SourceFile> shard : shards) {
+					for (SourceFile sourceFile : shard) {
+						File stagedTsFile = new File(shardsDir,
+								relativizeTsFile(options.getTsOutputDir(), sourceFile.getTsFile()).toString());
+						FileUtils.copyFile(sourceFile.getTsFile(), stagedTsFile);
+						stagedTsFiles.add(stagedTsFile);
+					}
+				}
+				List<Future<?>> results = new ArrayList<>();
+				for (int i = 0; i < shards.size(); i++) {
+					Collection<SourceFile> shard = shards.get(i);
+					File tsconfigFile = writeShardTsconfig(shardsDir, "tsconfig-" + level + "-" + i + ".json",
+							shard, tsDefFiles, options);
+					int shardLevel = level;
+					results.add(executor.submit(() -> {
+						try (Phase phase = metrics.startPhase(TranspilationMetrics.TS2JS, "tscShard", tsconfigFile)) {
+							phase.setCounter(TranspilationMetrics.LEVEL, shardLevel);
+							phase.setCounter(TranspilationMetrics.FILES, shard.size());
+							runShardTsc(transpilationHandler, shardsDir, tsconfigFile, sourceFileRegistry,
+									ignoreErrors);
+						}
+					}));
+				}
+				for (Future<?> result : results) {
+					result.get();
+				}
+				for (File stagedTsFile : stagedTsFiles) {
+					FileUtils.deleteQuietly(stagedTsFile);
+				}
+			}
+
+			if (options.isGenerateDeclarations()) {
+				File jsOutputDir = options.getJsOutputDir() == null ? options.getTsOutputDir()
+						: options.getJsOutputDir();
+				List<File> dtsFiles = new ArrayList<>();
+				Util.addFiles(".d.ts", shardsDir, dtsFiles);
+				for (File dtsFile : dtsFiles) {
+					FileUtils.copyFile(dtsFile, new File(jsOutputDir, relativizeTsFile(shardsDir, dtsFile).toString()));
+				}
+			}
+			FileUtils.deleteQuietly(shardsDir);
+
+			onTsTranspilationCompleted.call(true, transpilationHandler, tsSourceFiles);
+		} catch (Exception e) {
+			logger.error("ts2js transpilation failed", e);
+
+			if (!ignoreErrors && transpilationHandler.getProblemCount() == 0) {
+				transpilationHandler.report(JSweetProblem.INTERNAL_TSC_ERROR, null, "Unknown tsc error");
+			}
+		} finally {
+			if (executor != null) {
+				executor.shutdown();
+			}
+			FileUtils.deleteQuietly(shardsDir);
+		}
+	}
+
+	private File writeShardTsconfig(File shardsDir, String name, Collection<SourceFile> shard,
+			Collection<File> tsDefFiles, JSweetOptions options) throws IOException {
+		JsonObject compilerOptions = new JsonObject();
+		compilerOptions.addProperty("target", options.getEcmaTargetVersion().name());
+		compilerOptions.addProperty("module", options.getModuleKind().toString());
+		compilerOptions.addProperty("moduleResolution", options.getModuleResolution().toString());
+		if (options.getEcmaTargetVersion().ordinal() >= EcmaScriptComplianceLevel.ES5.ordinal()) {
+			compilerOptions.addProperty("experimentalDecorators", true);
+			compilerOptions.addProperty("emitDecoratorMetadata", true);
+		}
+		if (options.isGenerateSourceMaps()) {
+			compilerOptions.addProperty("sourceMap", true);
+		}
+		// the declarations are always needed by the shards of the next levels
+		compilerOptions.addProperty("declaration", true);
+		compilerOptions.addProperty("declarationDir", ".");
+		compilerOptions.addProperty("rootDir", ".");
+		compilerOptions.addProperty("outDir", (options.getJsOutputDir() == null ? options.getTsOutputDir()
+				: options.getJsOutputDir()).getAbsolutePath());
+		if (options.isSkipTypeScriptChecks()) {
+			compilerOptions.addProperty("skipDefaultLibCheck", true);
+			compilerOptions.addProperty("skipLibCheck", true);
+		}
+
+		JsonArray files = new JsonArray();
+		for (SourceFile sourceFile : shard) {
+			files.add(new JsonPrimitive(relativizeTsFile(options.getTsOutputDir(), sourceFile.getTsFile())
+					.toString().replace(File.separatorChar, '/')));
+		}
+		for (File tsDefFile : tsDefFiles) {
+			files.add(new JsonPrimitive(tsDefFile.getAbsolutePath().replace(File.separatorChar, '/')));
+		}
+
+		JsonObject tsconfig = new JsonObject();
+		tsconfig.add("compilerOptions", compilerOptions);
+		tsconfig.add("files", files);
+		File tsconfigFile = new File(shardsDir, name);
+		FileUtils.write(tsconfigFile, new GsonBuilder().setPrettyPrinting().create().toJson(tsconfig), false);
+		return tsconfigFile;
+	}
+
+	private void runShardTsc(ErrorCountTranspilationHandler transpilationHandler, File shardsDir, File tsconfigFile,
+			SourceFileRegistry sourceFileRegistry, boolean ignoreErrors) {
+		logger.debug("launching tsc on " + tsconfigFile);
+		boolean[] reported = { false };
+		ProcessUtil.runCommand("tsc", shardsDir, false, line -> {
+			logger.info(line);
+			TscOutput output = parseTscOutput(line);
+			if (output.position != null) {
+				if (ignoreErrors) {
+					return;
+				}
+				// the staged files have the same relative paths as the
+				// generated files
+				SourcePosition position = sourceFileRegistry.findOriginPosition(output.position);
+				synchronized (transpilationHandler) {
+					if (position == null) {
+						transpilationHandler.report(JSweetProblem.INTERNAL_TSC_ERROR, output.position,
+								output.message);
+					} else {
+						transpilationHandler.report(JSweetProblem.MAPPED_TSC_ERROR, position, output.message);
+					}
+				}
+				reported[0] = true;
+			}
+		}, null, () -> {
+			if (!ignoreErrors && !reported[0]) {
+				synchronized (transpilationHandler) {
+					transpilationHandler.report(JSweetProblem.INTERNAL_TSC_ERROR, null,
+							"Unknown tsc error (" + tsconfigFile.getName() + ")");
+				}
+			}
+		}, "-p", tsconfigFile.getName());
+	}
+
 	/**
 	 * The name of the file generated in the root package to avoid the TypeScript
 	 * compiler to skip empty directories.
@@ -171,21 +375,7 @@ public class TypeScript2JavaScriptWithTscTranspiler extends TypeScript2JavaScrip
 		return error;
 	}
 
-	public Collection<SourceFile> getWatchedFiles() {
-		return watchedFiles;
-	}
-
-	public SourceFile getWatchedFile(File javaFile) {
-		if (watchedFiles != null) {
-			for (SourceFile f : watchedFiles) {
-				if (f.getJavaFile().getAbsoluteFile().equals(javaFile.getAbsoluteFile())) {
-					return f;
-				}
-			}
-		}
-		return null;
-	}
-
+	@Override
 	public void stopWatch() {
 		if (tsCompilationProcess != null) {
 			tsCompilationProcess.destroyForcibly();
@@ -3,12 +3,34 @@ package org.jsweet.transpiler;
 import static java.util.stream.Collectors.toList;
 
 import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import org.jsweet.transpiler.util.ErrorCountTranspilationHandler;
 import org.jsweet.transpiler.util.Position;
 import org.jsweet.transpiler.util.ProcessUtil;
+import org.jsweet.transpiler.util.SourceMap;
+import org.jsweet.transpiler.util.Util;
 
 import ts.TypeScriptException;
 import ts.TypeScriptNoContentAvailableException;
@@ -27,11 +49,37 @@ public class TypeScript2JavaScriptWithTsserverTranspiler extends TypeScript2Java
 
 	public static TypeScript2JavaScriptWithTsserverTranspiler INSTANCE = new TypeScript2JavaScriptWithTsserverTranspiler();
 
+	/**
+	 * The tsserver projects, which are kept open from one compilation to
+	 * another (one per TypeScript output directory).
+	 */
+	private final Map<String, TsserverProject> projects = new HashMap<>();
+
 	private TypeScript2JavaScriptWithTsserverTranspiler() {
 	}
 
+	/**
+	 * The state of an external project opened in tsserver: the files it
+	 * contains and the content of these files as last sent to tsserver, so
+	 * that only the changed files are sent, emitted, and checked again.
+	 */
+	private static class TsserverProject {
+		private final String name;
+		private final String compilerOptionsKey;
+		private boolean opened = false;
+		private final Set<String> rootFiles = new LinkedHashSet<>();
+		private final Map<String, byte[]> fileDigests = new HashMap<>();
+		private final Map<String, byte[]> sourceMapDigests = new HashMap<>();
+		private final Set<String> filesInError = new HashSet<>();
+
+		public TsserverProject(String name, String compilerOptionsKey) {
+			this.name = name;
+			this.compilerOptionsKey = compilerOptionsKey;
+		}
+	}
+
 	@Override
-	protected synchronized void doTranspile( //
+	protected void doTranspile( //
 			ErrorCountTranspilationHandler transpilationHandler, //
 			Collection<File> tsFiles, //
 			Collection<SourceFile> tsSourceFiles, //
@@ -39,13 +87,475 @@ public class TypeScript2JavaScriptWithTsserverTranspiler extends TypeScript2Java
 			boolean ignoreErrors, //
 			OnTsTranspilationCompletedCallback onTsTranspilationCompleted) throws Exception {
 
-		if (options.isTscWatchMode()) {
-			throw new RuntimeException(
-					"tsserver implementation doesn't support watch mode - but it is so fast you shouldn't need it :)");
+		logger.debug("ts2js with tsserver: " + tsFiles);
+
+		Set<File> tsDefFiles = new LinkedHashSet<>(tsFiles);
+		for (SourceFile sourceFile : tsSourceFiles) {
+			tsDefFiles.remove(sourceFile.getTsFile());
+		}
+		// all the files are emitted since the callback expects fresh
+		// JavaScript files
+		TsserverPipeline pipeline = new TsserverPipeline(transpilationHandler, tsDefFiles, options, ignoreErrors,
+				null, onTsTranspilationCompleted, true);
+		for (SourceFile sourceFile : tsSourceFiles) {
+			pipeline.add(sourceFile, null);
 		}
+		pipeline.complete();
+	}
 
-		logger.debug("ts2js with tsserver: " + tsFiles);
+	@Override
+	public boolean isPipelineSupported(JSweetOptions options) {
+		return true;
+	}
+
+	@Override
+	public Pipeline startPipeline( //
+			ErrorCountTranspilationHandler transpilationHandler, //
+			Collection<File> tsDefDirs, //
+			JSweetOptions options, //
+			boolean ignoreErrors, //
+			OnTsFileTranspiledCallback onTsFileTranspiled, //
+			OnTsTranspilationCompletedCallback onTsTranspilationCompleted) {
+		LinkedHashSet<File> tsDefFiles = new LinkedHashSet<>();
+		for (File dir : tsDefDirs) {
+			Util.addFiles(".d.ts", dir, tsDefFiles);
+		}
+		TsserverPipeline pipeline = new TsserverPipeline(transpilationHandler, tsDefFiles, options, ignoreErrors,
+				onTsFileTranspiled, onTsTranspilationCompleted, false);
+		pipeline.start();
+		return pipeline;
+	}
+
+	/**
+	 * Closes all the tsserver projects, so that the next compilations start
+	 * from scratch.
+	 */
+	@Override
+	public synchronized void stopWatch() {
+		for (TsserverProject project : projects.values()) {
+			closeProject(project);
+		}
+		projects.clear();
+		watchedFiles = null;
+	}
+
+	private void closeProject(TsserverProject project) {
+		if (project.opened) {
+			try {
+				getTypeScriptServiceClient().closeExternalProject(project.name);
+			} catch (Exception e) {
+				logger.warn("cannot close tsserver project " + project.name, e);
+			}
+		}
+	}
+
+	private TsserverProject getProject(JSweetOptions options) {
+		String projectFileName = ts.utils.FileUtils.getPath(options.getTsOutputDir());
+		String compilerOptionsKey = getCompilerOptionsKey(options);
+		TsserverProject project = projects.get(projectFileName);
+		if (project != null && !project.compilerOptionsKey.equals(compilerOptionsKey)) {
+			logger.info("compiler options changed: reopening tsserver project " + projectFileName);
+			closeProject(project);
+			project = null;
+		}
+		if (project == null) {
+			project = new TsserverProject(projectFileName, compilerOptionsKey);
+			projects.put(projectFileName, project);
+		}
+		return project;
+	}
+
+	private void discardProject(TsserverProject project) {
+		closeProject(project);
+		projects.remove(project.name);
+	}
 
+	/**
+	 * A pipelined compilation: a worker thread pushes the TypeScript files to
+	 * tsserver and emits them as soon as they are added (and their
+	 * dependencies too, since the emitted code may depend on the declarations
+	 * of the dependencies), while the next files are being generated. The
+	 * errors are reported once all the files have been added, since they
+	 * depend on the whole program.
+	 *
+	 * <p>
+	 * The tsserver project is kept open from one compilation to another: only
+	 * the files which content changed are sent to tsserver, only these files
+	 * and the files that depend on them (transitively) are emitted, and only
+	 * these files and the files that had errors are checked again. The files
+	 * added without dependencies (such as hand-written TypeScript files) may
+	 * be used by any other file, so that a change in one of them is handled
+	 * like a change in a definition file: all the files are emitted and
+	 * checked.
+	 */
+	private class TsserverPipeline implements Pipeline, Runnable {
+
+		private final SourceFile END = new SourceFile(null);
+
+		private final ErrorCountTranspilationHandler transpilationHandler;
+		private final Collection<File> tsDefFiles;
+		private final JSweetOptions options;
+		private final boolean ignoreErrors;
+		// null when the files are only handled once all compiled
+		private final OnTsFileTranspiledCallback onTsFileTranspiled;
+		private final OnTsTranspilationCompletedCallback onTsTranspilationCompleted;
+		private final boolean emitUnchangedFiles;
+
+		private final BlockingQueue<SourceFile> addedFiles = new LinkedBlockingQueue<>();
+		private final Map<SourceFile, Collection<SourceFile>> dependencies = new ConcurrentHashMap<>();
+		private Thread worker;
+		private volatile boolean cancelled = false;
+		private Throwable failure;
+
+		private final Collection<SourceFile> tsSourceFiles = new ArrayList<>();
+
+		public TsserverPipeline(ErrorCountTranspilationHandler transpilationHandler, Collection<File> tsDefFiles,
+				JSweetOptions options, boolean ignoreErrors, OnTsFileTranspiledCallback onTsFileTranspiled,
+				OnTsTranspilationCompletedCallback onTsTranspilationCompleted, boolean emitUnchangedFiles) {
+			this.transpilationHandler = transpilationHandler;
+			this.tsDefFiles = tsDefFiles;
+			this.options = options;
+			this.ignoreErrors = ignoreErrors;
+			this.onTsFileTranspiled = onTsFileTranspiled;
+			this.onTsTranspilationCompleted = onTsTranspilationCompleted;
+			this.emitUnchangedFiles = emitUnchangedFiles;
+		}
+
+		private void start() {
+			worker = new Thread(this, "jsweet-ts2js-pipeline");
+			worker.setDaemon(true);
+			worker.start();
+		}
+
+		@Override
+		public void add(SourceFile sourceFile, Collection<SourceFile> dependencies) {
+			if (dependencies != null) {
+				this.dependencies.put(sourceFile, dependencies);
+			}
+			addedFiles.add(sourceFile);
+		}
+
+		@Override
+		public void complete() {
+			if (!stop()) {
+				return;
+			}
+			if (failure != null) {
+				logger.error("ts2js transpilation failed", failure);
+				if (!ignoreErrors && transpilationHandler.getProblemCount() == 0) {
+					transpilationHandler.report(JSweetProblem.INTERNAL_TSC_ERROR, null, "Unknown tsc error");
+				}
+				return;
+			}
+			onTsTranspilationCompleted.call(false, transpilationHandler, tsSourceFiles);
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			stop();
+		}
+
+		private boolean stop() {
+			addedFiles.add(END);
+			if (worker == null) {
+				run();
+				return true;
+			}
+			try {
+				worker.join();
+				return true;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				cancelled = true;
+				return false;
+			}
+		}
+
+		@Override
+		public void run() {
+			synchronized (TypeScript2JavaScriptWithTsserverTranspiler.this) {
+				TsserverProject project = getProject(options);
+				try {
+					compile(project);
+					if (cancelled) {
+						// the sent files may not have been emitted
+						discardProject(project);
+					}
+				} catch (Throwable t) {
+					failure = t;
+					discardProject(project);
+				}
+			}
+		}
+
+		private void compile(TsserverProject project) throws Exception {
+			CompilerOptions compilerOptions = createCompilerOptions(options);
+			ITypeScriptServiceClient client = getTypeScriptServiceClient();
+			logger.info("launching pipelined tsserver compilation: \ncompilerOptions=" + compilerOptions);
+
+			boolean fullCheck = !project.opened;
+			boolean emitAll = emitUnchangedFiles;
+			Set<String> compiledFiles = new LinkedHashSet<>();
+			Set<String> changedFiles = new HashSet<>();
+			Set<String> remappedFiles = new HashSet<>();
+			List<String> filesToUpdate = new ArrayList<>();
+			for (File tsDefFile : tsDefFiles) {
+				String path = ts.utils.FileUtils.getPath(tsDefFile);
+				compiledFiles.add(path);
+				if (updateDigest(project, path, tsDefFile)) {
+					changedFiles.add(path);
+					filesToUpdate.add(path);
+					fullCheck = true;
+					emitAll = true;
+				}
+			}
+
+			Set<SourceFile> added = new HashSet<>();
+			Map<SourceFile, String> sourceFilePaths = new LinkedHashMap<>();
+			// the changed files and the files that depend on them
+			Set<SourceFile> outdatedFiles = new HashSet<>();
+			Map<SourceFile, List<SourceFile>> dependents = new HashMap<>();
+			Set<SourceFile> pending = new LinkedHashSet<>();
+			boolean ended = false;
+			while (!ended) {
+				List<SourceFile> batch = new ArrayList<>();
+				batch.add(addedFiles.take());
+				addedFiles.drainTo(batch);
+				for (SourceFile sourceFile : batch) {
+					if (sourceFile == END) {
+						ended = true;
+					} else {
+						added.add(sourceFile);
+						if (sourceFile.getTsFile() != null) {
+							String path = ts.utils.FileUtils.getPath(sourceFile.getTsFile());
+							pending.add(sourceFile);
+							tsSourceFiles.add(sourceFile);
+							sourceFilePaths.put(sourceFile, path);
+							compiledFiles.add(path);
+							boolean outdated = false;
+							if (updateDigest(project, path, sourceFile.getTsFile())) {
+								changedFiles.add(path);
+								filesToUpdate.add(path);
+								outdated = true;
+							}
+							if (options.isGenerateSourceMaps()
+									&& updateSourceMapDigest(project, path, sourceFile.getSourceMap())) {
+								// the JavaScript source map must be composed again
+								remappedFiles.add(path);
+							}
+							Collection<SourceFile> fileDependencies = dependencies.get(sourceFile);
+							if (fileDependencies == null) {
+								if (outdated) {
+									fullCheck = true;
+									emitAll = true;
+								}
+							} else {
+								for (SourceFile dependency : fileDependencies) {
+									dependents.computeIfAbsent(dependency, d -> new ArrayList<>()).add(sourceFile);
+									outdated = outdated || outdatedFiles.contains(dependency);
+								}
+							}
+							if (outdated) {
+								markOutdated(sourceFile, outdatedFiles, dependents);
+							}
+						}
+					}
+				}
+				if (cancelled) {
+					continue;
+				}
+
+				// a file is compiled once the files it depends on have been
+				// compiled, so that it is known whether it is outdated
+				List<SourceFile> ready = new ArrayList<>();
+				boolean progress = true;
+				while (progress) {
+					progress = false;
+					for (Iterator<SourceFile> it = pending.iterator(); it.hasNext();) {
+						SourceFile sourceFile = it.next();
+						if (ended || isCompilable(sourceFile, added, pending)) {
+							ready.add(sourceFile);
+							it.remove();
+							progress = true;
+						}
+					}
+				}
+				if (ready.isEmpty()) {
+					continue;
+				}
+
+				if (!project.opened || !project.rootFiles.containsAll(compiledFiles)) {
+					// add the new files (the removed ones are removed at the
+					// end of the compilation)
+					project.rootFiles.addAll(compiledFiles);
+					openProject(client, project, compilerOptions);
+				}
+				for (String fileName : filesToUpdate) {
+					client.updateFile(fileName, null);
+				}
+				filesToUpdate.clear();
+
+				// send all the emit requests before waiting for the results
+				Map<SourceFile, CompletableFuture<Boolean>> emitResults = new LinkedHashMap<>();
+				for (SourceFile sourceFile : ready) {
+					String path = sourceFilePaths.get(sourceFile);
+					if (emitAll || outdatedFiles.contains(sourceFile) || remappedFiles.contains(path)
+							|| !getJsFile(sourceFile.getTsFile()).exists()) {
+						emitResults.put(sourceFile, client.compileOnSaveEmitFile(path, true));
+					}
+				}
+				for (SourceFile sourceFile : ready) {
+					if (cancelled) {
+						break;
+					}
+					CompletableFuture<Boolean> emitResult = emitResults.get(sourceFile);
+					if (emitResult != null) {
+						waitForEmit(emitResult, sourceFilePaths.get(sourceFile));
+					}
+					if (onTsFileTranspiled != null) {
+						onTsFileTranspiled.call(transpilationHandler, sourceFile, emitResult != null);
+					}
+				}
+			}
+
+			if (!project.opened || cancelled) {
+				return;
+			}
+			if (!project.rootFiles.equals(compiledFiles)) {
+				// remove the files that are not part of the compilation anymore
+				project.rootFiles.retainAll(compiledFiles);
+				project.fileDigests.keySet().retainAll(compiledFiles);
+				project.sourceMapDigests.keySet().retainAll(compiledFiles);
+				project.filesInError.retainAll(compiledFiles);
+				if (project.rootFiles.isEmpty()) {
+					// no file is left to check the project with
+					discardProject(project);
+					return;
+				}
+				openProject(client, project, compilerOptions);
+			}
+			logger.info("tsserver project compiled: " + project.name + " (" + changedFiles.size()
+					+ " changed files)");
+
+			Collection<DiagnosticEvent> compilationErrors;
+			if (fullCheck) {
+				String referenceFileName = project.rootFiles.iterator().next();
+				ProjectInfo projectInfo = client.projectInfo(referenceFileName, project.name, true).get();
+				compilationErrors = client.geterrForProject(referenceFileName, 0, projectInfo).get();
+				project.filesInError.clear();
+			} else {
+				Set<String> filesToCheck = new HashSet<>(changedFiles);
+				for (SourceFile sourceFile : outdatedFiles) {
+					filesToCheck.add(sourceFilePaths.get(sourceFile));
+				}
+				filesToCheck.addAll(project.filesInError);
+				logger.debug("checking tsserver files: " + filesToCheck);
+				compilationErrors = filesToCheck.isEmpty() ? Collections.emptyList()
+						: client.geterr(filesToCheck.toArray(new String[0]), 0).get();
+				project.filesInError.removeAll(filesToCheck);
+			}
+			for (DiagnosticEvent event : compilationErrors) {
+				if (!event.getBody().getDiagnostics().isEmpty()) {
+					project.filesInError.add(ts.utils.FileUtils.getPath(new File(event.getBody().getFile())));
+				}
+			}
+			reportDiagnostics(transpilationHandler, compilationErrors, tsSourceFiles, options, ignoreErrors);
+
+			if (options.isTscWatchMode() && watchedFiles == null) {
+				watchedFiles = tsSourceFiles;
+			}
+		}
+
+		private boolean isCompilable(SourceFile sourceFile, Set<SourceFile> added, Set<SourceFile> pending) {
+			for (SourceFile dependency : dependencies.getOrDefault(sourceFile, Collections.emptySet())) {
+				if (!added.contains(dependency) || pending.contains(dependency)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Marks the given file and the files that depend on it (transitively)
+		 * as outdated. The files added later and depending on an outdated file
+		 * are marked when they are added.
+		 */
+		private void markOutdated(SourceFile sourceFile, Set<SourceFile> outdatedFiles,
+				Map<SourceFile, List<SourceFile>> dependents) {
+			Deque<SourceFile> toMark = new ArrayDeque<>();
+			toMark.add(sourceFile);
+			while (!toMark.isEmpty()) {
+				SourceFile file = toMark.poll();
+				if (outdatedFiles.add(file)) {
+					toMark.addAll(dependents.getOrDefault(file, Collections.emptyList()));
+				}
+			}
+		}
+
+		private File getJsFile(File tsFile) {
+			String relativePath = tsFile.getAbsolutePath()
+					.substring(options.getTsOutputDir().getAbsolutePath().length());
+			return new File(options.getJsOutputDir() == null ? options.getTsOutputDir() : options.getJsOutputDir(),
+					Util.removeExtension(relativePath) + ".js");
+		}
+	}
+
+	/**
+	 * Updates the digest of the content of the given file, as sent to the
+	 * given project.
+	 *
+	 * @return true if the content changed since the last time it was sent
+	 */
+	private boolean updateDigest(TsserverProject project, String path, File file) throws Exception {
+		byte[] digest = MessageDigest.getInstance("MD5").digest(Files.readAllBytes(file.toPath()));
+		byte[] previousDigest = project.fileDigests.put(path, digest);
+		return previousDigest == null || !Arrays.equals(previousDigest, digest);
+	}
+
+	/**
+	 * Updates the digest of the given Java to TypeScript source map, so that
+	 * the JavaScript source map is composed again when the Java file changed
+	 * without changing the TypeScript file (for instance when lines moved).
+	 *
+	 * @return true if the source map changed since the last compilation
+	 */
+	private boolean updateSourceMapDigest(TsserverProject project, String path, SourceMap sourceMap)
+			throws Exception {
+		MessageDigest messageDigest = MessageDigest.getInstance("MD5");
+		if (sourceMap != null) {
+			ByteBuffer entry = ByteBuffer.allocate(16);
+			for (int i = 0; i < sourceMap.size(); i++) {
+				entry.clear();
+				entry.putInt(sourceMap.getInputLine(i)).putInt(sourceMap.getInputColumn(i))
+						.putInt(sourceMap.getOutputLine(i)).putInt(sourceMap.getOutputColumn(i));
+				messageDigest.update(entry.array());
+			}
+		}
+		byte[] digest = messageDigest.digest();
+		byte[] previousDigest = project.sourceMapDigests.put(path, digest);
+		return previousDigest != null && !Arrays.equals(previousDigest, digest);
+	}
+
+	private void openProject(ITypeScriptServiceClient client, TsserverProject project,
+			CompilerOptions compilerOptions) throws TypeScriptException {
+		logger.info("open external project: " + project.name + " (" + project.rootFiles.size() + " files)");
+		client.openExternalProject(project.name,
+				project.rootFiles.stream().map(path -> new ExternalFile(path, ScriptKindName.TS, false, null))
+						.collect(toList()), //
+				compilerOptions);
+		project.opened = true;
+	}
+
+	private String getCompilerOptionsKey(JSweetOptions options) {
+		return options.getEcmaTargetVersion() + "|" + (options.isUsingModules() ? options.getModuleKind() : "") + "|"
+				+ options.getModuleResolution() + "|" + options.isGenerateSourceMaps() + "|"
+				+ options.isGenerateDeclarations() + "|" + options.isSkipTypeScriptChecks() + "|"
+				+ options.getTsOutputDir().getAbsolutePath() + "|"
+				+ (options.getJsOutputDir() == null ? "" : options.getJsOutputDir().getAbsolutePath());
+	}
+
+	private CompilerOptions createCompilerOptions(JSweetOptions options) {
 		CompilerOptions compilerOptions = new CompilerOptions();
 		compilerOptions.setTarget(options.getEcmaTargetVersion().name());
 		if (options.isUsingModules()) {
@@ -66,58 +576,33 @@ public class TypeScript2JavaScriptWithTsserverTranspiler extends TypeScript2Java
 		if (options.getJsOutputDir() != null) {
 			compilerOptions.setOutDir(options.getJsOutputDir().getAbsolutePath());
 		}
+		return compilerOptions;
+	}
 
-		Collection<String> sourceFilePaths = tsFiles.stream().map(ts.utils.FileUtils::getPath).collect(toList());
-		if (sourceFilePaths.isEmpty()) {
-			throw new RuntimeException("no files to transpile");
-		}
-
-		logger.info("launching tsserver compilation : \ncompilerOptions=" + compilerOptions + " \nsourcesFilePaths="
-				+ sourceFilePaths);
-		ITypeScriptServiceClient client = getTypeScriptServiceClient();
-		logger.debug("tsserver client built");
-
-		String projectFileName = ts.utils.FileUtils.getPath(options.getTsOutputDir());
-		String referenceFileName = sourceFilePaths.iterator().next();
-
-		logger.info("open external project: " + projectFileName);
-		client.openExternalProject(projectFileName,
-				sourceFilePaths.stream().map(path -> new ExternalFile(path, ScriptKindName.TS, false, null))
-						.collect(toList()), //
-				compilerOptions);
-
-		logger.debug("tsserver project opened: " + projectFileName);
-
-		for (String fileName : sourceFilePaths) {
-			client.updateFile(fileName, null);
-		}
-
-		for (String fileName : sourceFilePaths) {
-			try {
-				Boolean result = client.compileOnSaveEmitFile(fileName, true).get();
-				logger.trace("ts compilation [" + fileName + "] result=" + result);
-			} catch (ExecutionException e) {
-				Throwable actualException = e.getCause();
-				if (actualException instanceof TypeScriptNoContentAvailableException) {
-					logger.warn("ts compilation: no content for " + fileName);
-				}
+	private void waitForEmit(CompletableFuture<Boolean> emitResult, String fileName) throws Exception {
+		try {
+			Boolean result = emitResult.get();
+			logger.trace("ts compilation [" + fileName + "] result=" + result);
+		} catch (ExecutionException e) {
+			Throwable actualException = e.getCause();
+			if (actualException instanceof TypeScriptNoContentAvailableException) {
+				logger.warn("ts compilation: no content for " + fileName);
 			}
 		}
+	}
 
-		logger.info("tsserver project compiled: " + projectFileName);
-
-		ProjectInfo projectInfo = client.projectInfo(referenceFileName, projectFileName, true).get();
-		Collection<DiagnosticEvent> compilationErrors = client.geterrForProject(referenceFileName, 0, projectInfo)
-				.get();
-
+	private void reportDiagnostics(ErrorCountTranspilationHandler transpilationHandler,
+			Collection<DiagnosticEvent> compilationErrors, Collection<SourceFile> tsSourceFiles,
+			JSweetOptions options, boolean ignoreErrors) {
 		if (!ignoreErrors) {
+			SourceFileRegistry sourceFileRegistry = new SourceFileRegistry(options.getTsOutputDir(), tsSourceFiles);
 			for (DiagnosticEvent errorEvent : compilationErrors) {
 				File fileInError = new File(errorEvent.getBody().getFile());
 				for (IDiagnostic error : errorEvent.getBody().getDiagnostics()) {
 
 					SourcePosition originalPosition = new SourcePosition(fileInError, null,
 							new Position(error.getStartLocation().getLine(), error.getStartLocation().getOffset()));
-					SourcePosition position = SourceFile.findOriginPosition(originalPosition, tsSourceFiles);
+					SourcePosition position = sourceFileRegistry.findOriginPosition(originalPosition);
 					if (position == null) {
 						transpilationHandler.report(JSweetProblem.INTERNAL_TSC_ERROR, originalPosition,
 								error.getFullText());
@@ -129,11 +614,6 @@ public class TypeScript2JavaScriptWithTsserverTranspiler extends TypeScript2Java
 		} else {
 			printTsserverDiagnostics(compilationErrors);
 		}
-
-		client.closeExternalProject(projectFileName);
-
-		onTsTranspilationCompleted.call(false, transpilationHandler, tsSourceFiles);
-
 	}
 
 	private void printTsserverDiagnostics(Collection<DiagnosticEvent> events) {
@@ -0,0 +1,132 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler.candy;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The fingerprint of a jar file of the classpath, as recorded in the candy
+ * store, so that the candies that did not change are neither read nor
+ * extracted again.
+ *
+ * @see CandyStore
+ *
+ * @author Renaud Pawlak
+ */
+class CandyFingerprint {
+
+	/**
+	 * The absolute path of the jar file.
+	 */
+	public final String path;
+	/**
+	 * The size of the jar file.
+	 */
+	public long size;
+	/**
+	 * The last modification date of the jar file.
+	 */
+	public long lastModified;
+	/**
+	 * The SHA-1 of the jar file content, only computed when a candy jar was
+	 * modified without changing size (see {@link #isUpToDate(File)}), or null.
+	 */
+	public String hash;
+	/**
+	 * The SHA-1 of the jar file content computed by the last call to
+	 * {@link #isUpToDate(File)}, when the content changed (not stored).
+	 */
+	transient String changedHash;
+	/**
+	 * The descriptor of the candy, or null if the jar file is not a candy.
+	 */
+	public CandyDescriptor descriptor;
+	/**
+	 * The TypeScript definition files provided by this candy, relatively to
+	 * the candies tsdefs directory (a file provided by several candies is
+	 * extracted from the last one in the classpath).
+	 */
+	public List<String> extractedTsDefs = new ArrayList<>();
+
+	public CandyFingerprint(File jarFile, CandyDescriptor descriptor) {
+		this.path = jarFile.getAbsolutePath();
+		this.size = jarFile.length();
+		this.lastModified = jarFile.lastModified();
+		this.descriptor = descriptor;
+	}
+
+	/**
+	 * Tells if the given jar file is the one of this fingerprint and did not
+	 * change since. The jar file is only read when its size is the same but
+	 * its last modification date differs (for instance when a jar was rebuilt
+	 * or downloaded again): the content hashes are then compared and the
+	 * fingerprint is updated if the content is the same. Otherwise, the new
+	 * hash is kept in {@link #changedHash}, so that the fingerprint replacing
+	 * this one can detect the next rebuild of the same content.
+	 */
+	public boolean isUpToDate(File jarFile) throws IOException {
+		changedHash = null;
+		if (!jarFile.getAbsolutePath().equals(path) || jarFile.length() != size) {
+			return false;
+		}
+		if (jarFile.lastModified() == lastModified) {
+			return true;
+		}
+		if (descriptor == null) {
+			return false;
+		}
+		String newHash = hash(jarFile);
+		if (newHash.equals(hash)) {
+			lastModified = jarFile.lastModified();
+			return true;
+		}
+		changedHash = newHash;
+		return false;
+	}
+
+	private static String hash(File file) throws IOException {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			byte[] buffer = new byte[64 * 1024];
+			try (InputStream in = new FileInputStream(file)) {
+				int count;
+				while ((count = in.read(buffer)) != -1) {
+					digest.update(buffer, 0, count);
+				}
+			}
+			return String.format("%040x", new BigInteger(1, digest.digest()));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "(" + path + ",size=" + size + ",t=" + lastModified + ")";
+	}
+
+}
@@ -20,14 +20,30 @@ package org.jsweet.transpiler.candy;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -87,7 +103,7 @@ public class CandyProcessor {
 	private File candiesTsdefsDir;
 	private File candiesJavascriptOutDir;
 	private File workingDir;
-	private List<File> extractedJsFiles = new LinkedList<>();
+	private List<File> extractedJsFiles = Collections.synchronizedList(new LinkedList<>());
 
 	/**
 	 * Create a candies processor.
@@ -145,25 +161,105 @@ public class CandyProcessor {
 
 	/**
 	 * Does the processing for the candies jars found in the classpath.
+	 * 
+	 * <p>
+	 * Each jar file is fingerprinted in the candy store, so that only the
+	 * candies that were added, changed or removed since the last processing
+	 * are extracted (or deleted). Changed candies are extracted in parallel.
+	 * 
+	 * <p>
+	 * When several candies provide the same TypeScript definition file, the
+	 * file is extracted from the last one in the classpath order, whatever the
+	 * candies that changed.
 	 */
 	public void processCandies(TranspilationHandler transpilationHandler) throws IOException {
-		CandyStore candiesStore = getCandiesStore();
+		// when the same processor is used several times (watch mode, daemon),
+		// avoid re-reading the candy jars if none of them changed (and if
+		// the extracted files were not deleted in the meantime)
+		String newClassPathStamp = getClassPathStamp();
+		if (candyStore != null && newClassPathStamp.equals(classPathStamp) && candyStoreFile.exists()
+				&& candyStore.getFingerprints().values().stream().allMatch(this::isExtracted)) {
+			logger.info("candies are up to date (unchanged classpath)");
+			return;
+		}
 
-		LinkedHashMap<File, CandyDescriptor> newCandiesDescriptors = getCandiesDescriptorsFromClassPath(
-				transpilationHandler);
-		CandyStore newStore = new CandyStore(new ArrayList<>(newCandiesDescriptors.values()));
-		if (newStore.equals(candiesStore)) {
+		CandyStore previousStore = getCandiesStore();
+		CandyStore newStore = new CandyStore();
+		List<CandyFingerprint> changedCandies = new ArrayList<>();
+		for (String classPathEntry : classPath.split("[" + System.getProperty("path.separator") + "]")) {
+			if (classPathEntry.endsWith(".jar")) {
+				File jarFile = new File(classPathEntry);
+				if (!jarFile.exists()) {
+					// critical warning, candy not found
+					logger.warn("candy jar file not found: " + jarFile, new Exception());
+					continue;
+				}
+				CandyFingerprint previous = previousStore.getFingerprints().get(jarFile.getAbsolutePath());
+				CandyFingerprint fingerprint = previous;
+				boolean upToDate = previous != null && previous.isUpToDate(jarFile);
+				if (!upToDate || !isExtracted(fingerprint)
+						|| (fingerprint.descriptor != null && !candiesJavascriptOutDir.getAbsolutePath()
+								.equals(fingerprint.descriptor.jsOutputDirPath))) {
+					fingerprint = readFingerprint(jarFile);
+					if (previous != null) {
+						// the content hash is only known when the jar was
+						// modified without changing size
+						fingerprint.hash = upToDate ? previous.hash : previous.changedHash;
+					}
+					if (fingerprint.descriptor != null) {
+						changedCandies.add(fingerprint);
+					}
+				}
+				if (fingerprint.descriptor != null) {
+					checkCandyVersion(fingerprint.descriptor, transpilationHandler);
+				}
+				newStore.addFingerprint(fingerprint);
+			}
+		}
+		logger.info(newStore.getCandies().size() + " candies found in classpath");
+
+		List<CandyFingerprint> obsoleteCandies = new ArrayList<>();
+		for (CandyFingerprint fingerprint : previousStore.getFingerprints().values()) {
+			if (fingerprint.descriptor != null && newStore.getFingerprints().get(fingerprint.path) != fingerprint) {
+				obsoleteCandies.add(fingerprint);
+			}
+		}
+
+		// the tsdefs that an unchanged candy now owns (after a change or a
+		// reordering of the classpath) must be extracted again from it
+		Map<String, CandyFingerprint> tsDefOwners = getTsDefOwners(newStore);
+		Map<String, CandyFingerprint> previousTsDefOwners = getTsDefOwners(previousStore);
+		Map<CandyFingerprint, Set<String>> restoredTsDefs = new LinkedHashMap<>();
+		for (Map.Entry<String, CandyFingerprint> owner : tsDefOwners.entrySet()) {
+			if (owner.getValue() != previousTsDefOwners.get(owner.getKey())
+					&& !changedCandies.contains(owner.getValue())) {
+				restoredTsDefs.computeIfAbsent(owner.getValue(), candy -> new HashSet<>()).add(owner.getKey());
+			}
+		}
+
+		this.candyStore = newStore;
+		if (changedCandies.isEmpty() && obsoleteCandies.isEmpty() && restoredTsDefs.isEmpty()) {
 			logger.info("candies are up to date");
+			writeCandyStore();
+			classPathStamp = newClassPathStamp;
 			return;
 		}
 
-		this.candyStore = newStore;
-		logger.info("candies changed, processing candies: " + this.candyStore);
+		logger.info("candies changed, processing candies: " + changedCandies + ", removing candies: "
+				+ obsoleteCandies);
 
 		try {
-			extractCandies(newCandiesDescriptors);
+			if (previousStore.getFingerprints().isEmpty()) {
+				// unknown extracted files (new or former store format)
+				FileUtils.deleteQuietly(candiesSourceDir);
+				FileUtils.deleteQuietly(candiesTsdefsDir);
+			} else {
+				removeCandies(obsoleteCandies, newStore);
+			}
+			extractCandies(changedCandies, restoredTsDefs, tsDefOwners);
 
 			writeCandyStore();
+			classPathStamp = newClassPathStamp;
 
 		} catch (Throwable t) {
 			logger.error("cannot generate candies bundle", t);
@@ -188,37 +284,54 @@ public class CandyProcessor {
 		}
 	}
 
-	private LinkedHashMap<File, CandyDescriptor> getCandiesDescriptorsFromClassPath(
-			TranspilationHandler transpilationHandler) throws IOException {
-		LinkedHashMap<File, CandyDescriptor> jarFilesCollector = new LinkedHashMap<>();
+	/**
+	 * Gets a stamp of the jar files of the classpath (path, size and last
+	 * modification date), which changes whenever a candy may have changed.
+	 */
+	private String getClassPathStamp() {
+		StringBuilder stamp = new StringBuilder();
 		for (String classPathEntry : classPath.split("[" + System.getProperty("path.separator") + "]")) {
 			if (classPathEntry.endsWith(".jar")) {
 				File jarFile = new File(classPathEntry);
-				if (!jarFile.exists()) {
-					// critical warning, candy not found
-					logger.warn("candy jar file not found: " + jarFile, new Exception());
-					continue;
-				}
+				stamp.append(classPathEntry).append('|').append(jarFile.length()).append('|')
+						.append(jarFile.lastModified()).append(File.pathSeparatorChar);
+			}
+		}
+		return stamp.toString();
+	}
 
-				try (JarFile jarFileHandle = new JarFile(jarFile)) {
-					JarEntry candySpecificEntry = jarFileHandle
-							.getJarEntry("META-INF/maven/" + JSweetConfig.MAVEN_CANDIES_GROUP);
-					JarEntry candySpecificEntry2 = jarFileHandle.getJarEntry("META-INF/candy-metadata.json");
-					boolean isCandy = candySpecificEntry != null || candySpecificEntry2 != null;
-					if (isCandy) {
-						CandyDescriptor descriptor = CandyDescriptor.fromCandyJar(jarFileHandle,
-								candiesJavascriptOutDir.getAbsolutePath());
-
-						checkCandyVersion(descriptor, transpilationHandler);
-						jarFilesCollector.put(jarFile, descriptor);
-					}
-				}
+	/**
+	 * Tells if the directories the given candy was extracted to still exist
+	 * (they may have been deleted by a clean build).
+	 */
+	private boolean isExtracted(CandyFingerprint candy) {
+		if (candy.descriptor == null) {
+			return true;
+		}
+		if (!candy.extractedTsDefs.isEmpty() && !candiesTsdefsDir.isDirectory()) {
+			return false;
+		}
+		return candy.descriptor.jsFilesPaths.isEmpty()
+				|| new File(candiesJavascriptOutDir, FilenameUtils.getBaseName(candy.path)).isDirectory();
+	}
 
+	private CandyFingerprint readFingerprint(File jarFile) throws IOException {
+		try (JarFile jarFileHandle = new JarFile(jarFile)) {
+			JarEntry candySpecificEntry = jarFileHandle.getJarEntry("META-INF/maven/" + JSweetConfig.MAVEN_CANDIES_GROUP);
+			JarEntry candySpecificEntry2 = jarFileHandle.getJarEntry("META-INF/candy-metadata.json");
+			boolean isCandy = candySpecificEntry != null || candySpecificEntry2 != null;
+			CandyDescriptor descriptor = null;
+			if (isCandy) {
+				descriptor = CandyDescriptor.fromCandyJar(jarFileHandle, candiesJavascriptOutDir.getAbsolutePath());
+			}
+			CandyFingerprint fingerprint = new CandyFingerprint(jarFile, descriptor);
+			// the core candy's tsdefs are not extracted
+			if (descriptor != null && !"jsweet-core".equals(descriptor.name)) {
+				jarFileHandle.stream().map(JarEntry::getName).filter(this::isTsDefEntry)
+						.forEach(fingerprint.extractedTsDefs::add);
 			}
+			return fingerprint;
 		}
-		logger.info(jarFilesCollector.keySet().size() + " candies found in classpath");
-
-		return jarFilesCollector;
 	}
 
 	private String normalizeVersion(String version) {
@@ -248,38 +361,133 @@ public class CandyProcessor {
 		}
 	}
 
-	private void extractCandies(Map<File, CandyDescriptor> candies) throws IOException {
-		File extractedSourcesDir = candiesSourceDir;
-		File extractedTsDefsDir = candiesTsdefsDir;
-		FileUtils.deleteQuietly(extractedSourcesDir);
-		FileUtils.deleteQuietly(extractedTsDefsDir);
-		extractedSourcesDir.mkdirs();
-		extractedTsDefsDir.mkdirs();
-		for (Map.Entry<File, CandyDescriptor> candy : candies.entrySet()) {
-
-			CandyDescriptor candyDescriptor = candy.getValue();
-			File jarFile = candy.getKey();
-
-			String candyName = candyDescriptor.name;
-			boolean isCore = "jsweet-core".equals(candyName);
-			try (JarFile jarFileHandle = new JarFile(jarFile)) {
-				String candyJarName = FilenameUtils.getBaseName(jarFile.getName());
-				File candyExtractedSourcesDir = new File(extractedSourcesDir, candyJarName);
-				File candyExtractedJsDir = new File(candiesJavascriptOutDir, candyJarName);
-
-				extractCandy( //
-						candyDescriptor, //
-						jarFileHandle, //
-						candyExtractedSourcesDir, //
-						extractedTsDefsDir, //
-						candyExtractedJsDir, //
-						isCore ? tsDefName -> false : null);
+	private void removeCandies(List<CandyFingerprint> candies, CandyStore newStore) {
+		// keep the files that are also extracted by the remaining candies
+		Set<String> keptTsDefs = new HashSet<>();
+		for (CandyFingerprint fingerprint : newStore.getFingerprints().values()) {
+			keptTsDefs.addAll(fingerprint.extractedTsDefs);
+		}
+		for (CandyFingerprint candy : candies) {
+			logger.info("remove candy: " + candy.path);
+			for (String tsDef : candy.extractedTsDefs) {
+				if (!keptTsDefs.contains(tsDef)) {
+					FileUtils.deleteQuietly(new File(candiesTsdefsDir, tsDef));
+				}
+			}
+			String candyJarName = FilenameUtils.getBaseName(candy.path);
+			FileUtils.deleteQuietly(new File(candiesSourceDir, candyJarName));
+			FileUtils.deleteQuietly(new File(candiesJavascriptOutDir, candyJarName));
+		}
+	}
+
+	/**
+	 * Maps each tsdef to the candy it is extracted from: the last one in the
+	 * classpath order.
+	 */
+	private Map<String, CandyFingerprint> getTsDefOwners(CandyStore store) {
+		Map<String, CandyFingerprint> owners = new HashMap<>();
+		for (CandyFingerprint fingerprint : store.getFingerprints().values()) {
+			for (String tsDef : fingerprint.extractedTsDefs) {
+				owners.put(tsDef, fingerprint);
+			}
+		}
+		return owners;
+	}
+
+	private boolean isTsDefEntry(String name) {
+		return name.endsWith(".d.ts") && (name.startsWith("src/") || name.startsWith("META-INF/resources/"));
+	}
+
+	/**
+	 * Extracts the given candies, and the given tsdefs of other candies. Each
+	 * tsdef is only written by its owner, so that the parallel extractions
+	 * never write the same file.
+	 */
+	private void extractCandies(List<CandyFingerprint> candies, Map<CandyFingerprint, Set<String>> restoredTsDefs,
+			Map<String, CandyFingerprint> tsDefOwners) throws IOException {
+		candiesSourceDir.mkdirs();
+		candiesTsdefsDir.mkdirs();
+		List<IOAction> actions = new ArrayList<>();
+		for (CandyFingerprint candy : candies) {
+			actions.add(() -> extractCandy(candy, tsDef -> tsDefOwners.get(tsDef) == candy));
+		}
+		for (Map.Entry<CandyFingerprint, Set<String>> restored : restoredTsDefs.entrySet()) {
+			actions.add(() -> extractTsDefs(restored.getKey(), restored.getValue()));
+		}
+		if (actions.size() <= 1) {
+			for (IOAction action : actions) {
+				action.run();
+			}
+			return;
+		}
+		ExecutorService executor = Executors
+				.newFixedThreadPool(Math.min(actions.size(), Runtime.getRuntime().availableProcessors()));
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			for (IOAction action : actions) {
+				results.add(executor.submit(() -> {
+					action.run();
+					return null;
+				}));
+			}
+			for (Future<?> result : results) {
+				try {
+					result.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("interrupted while extracting candies", e);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof IOException) {
+						throw (IOException) e.getCause();
+					}
+					if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException) e.getCause();
+					}
+					throw new RuntimeException(e.getCause());
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private interface IOAction {
+		void run() throws IOException;
+	}
+
+	private void extractTsDefs(CandyFingerprint candy, Collection<String> tsDefs) throws IOException {
+		logger.info("extract tsdefs from candy: " + candy.path + " tsDefs=" + tsDefs);
+		try (JarFile jarFileHandle = new JarFile(candy.path)) {
+			for (String tsDef : tsDefs) {
+				JarEntry entry = jarFileHandle.getJarEntry(tsDef);
+				if (entry != null) {
+					extractEntry(jarFileHandle, entry, new File(candiesTsdefsDir + "/" + tsDef));
+				}
 			}
 		}
 	}
 
+	private void extractCandy(CandyFingerprint candy, Predicate<String> isTsDefToBeExtracted) throws IOException {
+		File jarFile = new File(candy.path);
+
+		try (JarFile jarFileHandle = new JarFile(jarFile)) {
+			String candyJarName = FilenameUtils.getBaseName(jarFile.getName());
+			File candyExtractedSourcesDir = new File(candiesSourceDir, candyJarName);
+			File candyExtractedJsDir = new File(candiesJavascriptOutDir, candyJarName);
+			FileUtils.deleteQuietly(candyExtractedJsDir);
+
+			extractCandy( //
+					candy, //
+					jarFileHandle, //
+					candyExtractedSourcesDir, //
+					candiesTsdefsDir, //
+					candyExtractedJsDir, //
+					isTsDefToBeExtracted);
+		}
+	}
+
 	private void extractCandy( //
-			CandyDescriptor descriptor, //
+			CandyFingerprint candy, //
 			JarFile jarFile, //
 			File javaOutputDirectory, //
 			File tsDefOutputDirectory, //
@@ -288,9 +496,8 @@ public class CandyProcessor {
 		logger.info("extract candy: " + jarFile.getName() + " javaOutputDirectory=" + javaOutputDirectory
 				+ " tsDefOutputDirectory=" + tsDefOutputDirectory + " jsOutputDir=" + jsOutputDirectory);
 
-		jarFile.stream()
-				.filter(entry -> entry.getName().endsWith(".d.ts")
-						&& (entry.getName().startsWith("src/") || entry.getName().startsWith("META-INF/resources/"))) //
+		CandyDescriptor descriptor = candy.descriptor;
+		jarFile.stream().filter(entry -> isTsDefEntry(entry.getName())) //
 				.forEach(entry -> {
 
 					File out;
@@ -323,14 +530,24 @@ public class CandyProcessor {
 			return;
 		}
 		out.getParentFile().mkdirs();
-		try {
-			FileUtils.copyInputStreamToFile(jarFile.getInputStream(entry), out);
+		try (InputStream in = jarFile.getInputStream(entry)) {
+			if (entry.getMethod() == ZipEntry.STORED && entry.getSize() >= 0) {
+				// stored entries need no inflating: transfer them directly to
+				// the file channel
+				try (FileChannel channel = FileChannel.open(out.toPath(), StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+					channel.transferFrom(Channels.newChannel(in), 0, entry.getSize());
+				}
+			} else {
+				Files.copy(in, out.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
 		} catch (Exception e) {
 			throw new RuntimeException(e);
 		}
 	}
 
 	private CandyStore candyStore;
+	private String classPathStamp;
 
 	/**
 	 * Cleans the candies store so that it will be read from file next time.
@@ -18,8 +18,10 @@
  */
 package org.jsweet.transpiler.candy;
 
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A class that is serialized to store information on the processed candies.
@@ -28,6 +30,7 @@ import java.util.List;
  */
 class CandyStore {
 	private List<CandyDescriptor> candies = new LinkedList<>();
+	private Map<String, CandyFingerprint> fingerprints = new LinkedHashMap<>();
 
 	public CandyStore() {
 		this(new LinkedList<CandyDescriptor>());
@@ -60,4 +63,26 @@ class CandyStore {
 	public List<CandyDescriptor> getCandies() {
 		return candies;
 	}
+
+	/**
+	 * Gets the fingerprints of the jar files of the classpath, indexed by path
+	 * (empty for stores written by former versions of the transpiler).
+	 */
+	public Map<String, CandyFingerprint> getFingerprints() {
+		if (fingerprints == null) {
+			fingerprints = new LinkedHashMap<>();
+		}
+		return fingerprints;
+	}
+
+	/**
+	 * Adds the fingerprint of a jar file of the classpath (and its candy
+	 * descriptor if any).
+	 */
+	public void addFingerprint(CandyFingerprint fingerprint) {
+		getFingerprints().put(fingerprint.path, fingerprint);
+		if (fingerprint.descriptor != null) {
+			candies.add(fingerprint.descriptor);
+		}
+	}
 }
\ No newline at end of file
@@ -429,21 +429,23 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 			case "valueOf":
 				printMacroName("Enum." + targetMethodName);
 				if (invocationElement.getArgumentCount() == 1) {
-					print("<any>").print(invocationElement.getTargetExpression()).print("[")
+					printTypeScriptOnly("<any>").print(invocationElement.getTargetExpression()).print("[")
 							.print(invocationElement.getArgument(0)).print("]");
 					return true;
 				}
 				break;
 			case "values":
 				printMacroName("Enum." + targetMethodName);
-				print("function() { " + VAR_DECL_KEYWORD + " result: number[] = []; for(" + VAR_DECL_KEYWORD
-						+ " val in ").print(relTarget).print(
-								") { if(!isNaN(<any>val)) { result.push(parseInt(val,10)); } } return result; }()");
+				print("function() { " + VAR_DECL_KEYWORD + " result").printTypeScriptOnly(": number[]")
+						.print(" = []; for(" + VAR_DECL_KEYWORD + " val in ").print(relTarget)
+						.print(") { if(!isNaN(").printTypeScriptOnly("<any>")
+						.print("val)) { result.push(parseInt(val,10)); } } return result; }()");
 				return true;
 			case "equals":
 				printMacroName("Enum." + targetMethodName);
-				print("(<any>(").print(invocationElement.getTargetExpression()).print(") === <any>(")
-						.print(invocationElement.getArgument(0)).print("))");
+				print("(").printTypeScriptOnly("<any>").print("(").print(invocationElement.getTargetExpression())
+						.print(") === ").printTypeScriptOnly("<any>").print("(").print(invocationElement.getArgument(0))
+						.print("))");
 				return true;
 			}
 			// enum objets wrapping
@@ -495,7 +497,7 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 					return true;
 
 				case "any":
-					print("(<any>");
+					print("(").printTypeScriptOnly("<any>");
 					printCastMethodInvocation(invocationElement);
 					print(")");
 					return true;
@@ -517,7 +519,7 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 				case "union":
 					getPrinter().typeChecker.checkUnionTypeAssignment(context.types, getPrinter().getParent(),
 							((MethodInvocationElementSupport) invocationElement).getTree());
-					print("(<any>");
+					print("(").printTypeScriptOnly("<any>");
 					printCastMethodInvocation(invocationElement);
 					print(")");
 					return true;
@@ -624,11 +626,11 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 					return true;
 
 				case "$apply":
-					print("(<any>").print(invocationElement.getArgument(0)).print(")(")
+					print("(").printTypeScriptOnly("<any>").print(invocationElement.getArgument(0)).print(")(")
 							.printArgList(invocationElement.getArgumentTail()).print(")");
 					return true;
 				case "$new":
-					print("new (<any>").print(invocationElement.getArgument(0)).print(")(")
+					print("new (").printTypeScriptOnly("<any>").print(invocationElement.getArgument(0)).print(")(")
 							.printArgList(invocationElement.getArgumentTail()).print(")");
 					return true;
 				}
@@ -716,11 +718,11 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 							.print("] = ").print(invocationElement.getArgument(1));
 				} else {
 					if (invocationElement.getArgumentCount() == 2) {
-						print("this[").print(invocationElement.getArgument(0)).print("] = <any>")
-								.print(invocationElement.getArgument(1));
+						print("this[").print(invocationElement.getArgument(0)).print("] = ")
+								.printTypeScriptOnly("<any>").print(invocationElement.getArgument(1));
 					} else {
 						print(invocationElement.getArgument(0)).print("[").print(invocationElement.getArgument(1))
-								.print("] = <any>").print(invocationElement.getArgument(2));
+								.print("] = ").printTypeScriptOnly("<any>").print(invocationElement.getArgument(2));
 					}
 				}
 				return true;
@@ -828,7 +830,9 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 			case "getCause":
 				if (targetType instanceof TypeElement) {
 					if (types().isAssignable(targetType.asType(), util().getType(Throwable.class))) {
-						print("(<Error>null)");
+						print("(");
+						getPrinter().printTypeScriptOnly("<Error>");
+						print("null)");
 						return true;
 					}
 				}
@@ -929,7 +933,7 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 					return true;
 				case "getChars":
 					printMacroName(targetMethodName);
-					print("((a, s, e, d, l) => { d.splice.apply(d, [l, e-s].concat(<any>a.substring(s, e).split(''))); })(")
+					print("((a, s, e, d, l) => { d.splice.apply(d, [l, e-s].concat(").printTypeScriptOnly("<any>").print("a.substring(s, e).split(''))); })(")
 							.print(invocationElement.getTargetExpression()).print(", ")
 							.printArgList(invocationElement.getArguments()).print(")");
 					return true;
@@ -1185,7 +1189,7 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 					switch (targetMethodName) {
 					case "equals":
 						printMacroName(targetMethodName);
-						print("(<any>((o1: any, o2: any) => { if(o1 && o1.equals) { return o1.equals(o2); } else { return o1 === o2; } })(");
+						print("(").printTypeScriptOnly("<any>").print("((o1").printTypeScriptOnly(": any").print(", o2").printTypeScriptOnly(": any").print(") => { if(o1 && o1.equals) { return o1.equals(o2); } else { return o1 === o2; } })(");
 						printTarget(invocationElement.getTargetExpression()).print(",")
 								.print(invocationElement.getArgument(0));
 						print("))");
@@ -1194,7 +1198,7 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 						if (invocationElement.getArgumentCount() == 1 &&
 								invocationElement.getTargetExpression() != null) {
 							printMacroName(targetMethodName);
-							print("(<any>((o1: any, o2: any) => { if(o1 && o1.compareTo) { return o1.compareTo(o2); } else { return o1 < o2 ? -1 : o2 < o1 ? 1 : 0; } })(");
+							print("(").printTypeScriptOnly("<any>").print("((o1").printTypeScriptOnly(": any").print(", o2").printTypeScriptOnly(": any").print(") => { if(o1 && o1.compareTo) { return o1.compareTo(o2); } else { return o1 < o2 ? -1 : o2 < o1 ? 1 : 0; } })(");
 							printTarget(invocationElement.getTargetExpression()).print(",")
 									.print(invocationElement.getArgument(0));
 							print("))");
@@ -1208,7 +1212,7 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 
 		switch (targetMethodName) {
 		case "getClass":
-			print("(<any>");
+			print("(").printTypeScriptOnly("<any>");
 			printTarget(invocationElement.getTargetExpression());
 			print(".constructor)");
 			return true;
@@ -1219,7 +1223,7 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 				print(")");
 			} else {
 				printMacroName(targetMethodName);
-				print("(<any>((o: any) => { if(o.hashCode) { return o.hashCode(); } else { " +
+				print("(").printTypeScriptOnly("<any>").print("((o").printTypeScriptOnly(": any").print(") => { if(o.hashCode) { return o.hashCode(); } else { " +
 						"return o.toString().split('').reduce((prevHash, currVal) => (((prevHash << 5) - prevHash) + currVal.charCodeAt(0))|0, 0); }})(");
 				printTarget(invocationElement.getTargetExpression());
 				print("))");
@@ -1237,7 +1241,7 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 								.getKind() == ElementKind.INTERFACE
 						|| invocationElement.getTargetExpression().getType().getKind() == TypeKind.TYPEVAR) {
 					printMacroName(targetMethodName);
-					print("(<any>((o1: any, o2: any) => { if(o1 && o1.equals) { return o1.equals(o2); } else { return o1 === o2; } })(");
+					print("(").printTypeScriptOnly("<any>").print("((o1").printTypeScriptOnly(": any").print(", o2").printTypeScriptOnly(": any").print(") => { if(o1 && o1.equals) { return o1.equals(o2); } else { return o1 === o2; } })(");
 					printTarget(invocationElement.getTargetExpression()).print(",")
 							.print(invocationElement.getArgument(0));
 					print("))");
@@ -1254,12 +1258,12 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 					JCClassDecl parent = getPrinter().getParent(JCClassDecl.class);
 					if (parent.sym.getSuperclass() != null
 							&& !context.symtab.objectType.equals(parent.sym.getSuperclass())) {
-						print("((o:any) => { if(super.clone!=undefined) { return super.clone(); } else { let clone = Object.create(o); for(let p in o) { if (o.hasOwnProperty(p)) clone[p] = o[p]; } return clone; } })(this)");
+						print("((o").printTypeScriptOnly(":any").print(") => { if(super.clone!=undefined) { return super.clone(); } else { let clone = Object.create(o); for(let p in o) { if (o.hasOwnProperty(p)) clone[p] = o[p]; } return clone; } })(this)");
 					} else {
-						print("((o:any) => { let clone = Object.create(o); for(let p in o) { if (o.hasOwnProperty(p)) clone[p] = o[p]; } return clone; })(this)");
+						print("((o").printTypeScriptOnly(":any").print(") => { let clone = Object.create(o); for(let p in o) { if (o.hasOwnProperty(p)) clone[p] = o[p]; } return clone; })(this)");
 					}
 				} else {
-					print("((o:any) => { if(o.clone!=undefined) { return (<any>o).clone(); } else { let clone = Object.create(o); for(let p in o) { if (o.hasOwnProperty(p)) clone[p] = o[p]; } return clone; } })(");
+					print("((o").printTypeScriptOnly(":any").print(") => { if(o.clone!=undefined) { return (").printTypeScriptOnly("<any>").print("o).clone(); } else { let clone = Object.create(o); for(let p in o) { if (o.hasOwnProperty(p)) clone[p] = o[p]; } return clone; } })(");
 					printTarget(invocationElement.getTargetExpression());
 					print(")");
 				}
@@ -1277,10 +1281,10 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 			List<ExtendedElement> arguments) {
 		if (target instanceof IdentifierElement) {
 			print("(typeof ").print(target).print(" === 'function'?target").print("(").printArgList(arguments)
-					.print("):(<any>target).").print(functionName).print("(").printArgList(arguments).print("))");
+					.print("):(").printTypeScriptOnly("<any>").print("target).").print(functionName).print("(").printArgList(arguments).print("))");
 		} else {
 			print("(target => (typeof target === 'function')?target").print("(").printArgList(arguments)
-					.print("):(<any>target).").print(functionName).print("(").printArgList(arguments).print("))(")
+					.print("):(").printTypeScriptOnly("<any>").print("target).").print(functionName).print("(").printArgList(arguments).print("))(")
 					.print(target).print(")");
 		}
 	}
@@ -1427,7 +1431,7 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 		}
 
 		if (isMappedType(className)) {
-
+			getPrinter().startTypeScriptOnly();
 			print("<").print(getTypeMappingTarget(className));
 			if (newClass.clazz instanceof JCTypeApply) {
 				List<JCExpression> typeArgs = ((JCTypeApply) newClass.clazz).arguments;
@@ -1436,6 +1440,7 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 				}
 			}
 			print(">");
+			getPrinter().endTypeScriptOnly();
 		}
 		// macros
 		if (newClass.clazz.type.equals(context.symtab.stringType)) {
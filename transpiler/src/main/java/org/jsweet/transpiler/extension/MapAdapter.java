@@ -113,11 +113,11 @@ public class MapAdapter extends PrinterAdapter {
 				// transform the iterator in an array
 				case "keySet":
 					printMacroName(invocation.getMethodName());
-					print("(<any>Array).from(").print(invocation.getTargetExpression()).print(".keys())");
+					print("(").printTypeScriptOnly("<any>").print("Array).from(").print(invocation.getTargetExpression()).print(".keys())");
 					return true;
 				case "values":
 					printMacroName(invocation.getMethodName());
-					print("(<any>Array).from(").print(invocation.getTargetExpression()).print(".values())");
+					print("(").printTypeScriptOnly("<any>").print("Array).from(").print(invocation.getTargetExpression()).print(".values())");
 					return true;
 				// in ES6 maps, 'size' is a property, not a method
 				case "size":
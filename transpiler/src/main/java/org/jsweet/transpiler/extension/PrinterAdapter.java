@@ -19,7 +19,9 @@
 package org.jsweet.transpiler.extension;
 
 import java.lang.annotation.Annotation;
+import java.util.AbstractSet;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -73,7 +75,11 @@ public class PrinterAdapter {
 
 	private PrinterAdapter parentAdapter;
 
-	private AbstractTreePrinter printer;
+	/**
+	 * The printer is attached per thread, so that the same adapter can be used
+	 * by several printers running concurrently.
+	 */
+	private final ThreadLocal<AbstractTreePrinter> printer = new ThreadLocal<>();
 
 	protected JSweetContext context;
 
@@ -394,16 +400,64 @@ public class PrinterAdapter {
 		context.addAnnotation(annotationDescriptor, filters);
 	}
 
+	private final ThreadLocal<Set<TypeParameterElement>> currentTypeVariablesToErase = ThreadLocal
+			.withInitial(HashSet::new);
+
 	/**
-	 * A list of type variables to be erased (mapped to any).
+	 * A list of type variables to be erased (mapped to any), for the current
+	 * printer.
 	 */
-	public Set<TypeParameterElement> typeVariablesToErase = new HashSet<>();
+	public Set<TypeParameterElement> getTypeVariablesToErase() {
+		return currentTypeVariablesToErase.get();
+	}
+
+	/**
+	 * A list of type variables to be erased (mapped to any), for the current
+	 * printer.
+	 * 
+	 * @deprecated use {@link #getTypeVariablesToErase()} (this set is a view of
+	 *             the set of the current printing thread, and the field is
+	 *             final: assigning it has no effect on the printers, so it is
+	 *             not allowed anymore)
+	 */
+	@Deprecated
+	public final Set<TypeParameterElement> typeVariablesToErase = new AbstractSet<TypeParameterElement>() {
+		@Override
+		public Iterator<TypeParameterElement> iterator() {
+			return getTypeVariablesToErase().iterator();
+		}
+
+		@Override
+		public int size() {
+			return getTypeVariablesToErase().size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return getTypeVariablesToErase().contains(o);
+		}
+
+		@Override
+		public boolean add(TypeParameterElement e) {
+			return getTypeVariablesToErase().add(e);
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			return getTypeVariablesToErase().remove(o);
+		}
+
+		@Override
+		public void clear() {
+			getTypeVariablesToErase().clear();
+		}
+	};
 
 	/**
 	 * Prints a generic element by delegating to the printer.
 	 */
 	public PrinterAdapter print(ExtendedElement element) {
-		printer.print(((ExtendedElementSupport<?>) element).getTree());
+		getPrinter().print(((ExtendedElementSupport<?>) element).getTree());
 		return this;
 	}
 
@@ -411,7 +465,17 @@ public class PrinterAdapter {
 	 * Prints a string by delegating to the printer.
 	 */
 	public PrinterAdapter print(String string) {
-		printer.print(string);
+		getPrinter().print(string);
+		return this;
+	}
+
+	/**
+	 * Prints a string that is only valid in TypeScript (a type annotation or a
+	 * type assertion for instance) by delegating to the printer, which skips it
+	 * when it does not output TypeScript.
+	 */
+	public PrinterAdapter printTypeScriptOnly(String string) {
+		getPrinter().printTypeScriptOnly(string);
 		return this;
 	}
 
@@ -419,7 +483,7 @@ public class PrinterAdapter {
 	 * Prints a name by delegating to the printer.
 	 */
 	public PrinterAdapter print(Name name) {
-		printer.print(name.toString());
+		getPrinter().print(name.toString());
 		return this;
 	}
 
@@ -427,7 +491,7 @@ public class PrinterAdapter {
 	 * Prints a new line by delegating to the printer.
 	 */
 	public PrinterAdapter println() {
-		printer.println();
+		getPrinter().println();
 		return this;
 	}
 
@@ -435,7 +499,7 @@ public class PrinterAdapter {
 	 * Prints an argument list by delegating to the printer.
 	 */
 	public PrinterAdapter printArgList(List<? extends ExtendedElement> args) {
-		printer.printArgList(null,
+		getPrinter().printArgList(null,
 				args.stream().map(a -> ((ExtendedElementSupport<?>) a).getTree()).collect(Collectors.toList()));
 		return this;
 	}
@@ -478,7 +542,7 @@ public class PrinterAdapter {
 	 * Prints an indentation for the current indentation value.
 	 */
 	public PrinterAdapter printIndent() {
-		printer.printIndent();
+		getPrinter().printIndent();
 		return this;
 	}
 
@@ -486,7 +550,7 @@ public class PrinterAdapter {
 	 * Increments the current indentation value.
 	 */
 	public final PrinterAdapter startIndent() {
-		printer.startIndent();
+		getPrinter().startIndent();
 		return this;
 	}
 
@@ -494,7 +558,7 @@ public class PrinterAdapter {
 	 * Decrements the current indentation value.
 	 */
 	public final PrinterAdapter endIndent() {
-		printer.endIndent();
+		getPrinter().endIndent();
 		return this;
 	}
 
@@ -502,7 +566,7 @@ public class PrinterAdapter {
 	 * Adds a space to the output.
 	 */
 	public final PrinterAdapter space() {
-		printer.space();
+		getPrinter().space();
 		return this;
 	}
 
@@ -510,14 +574,14 @@ public class PrinterAdapter {
 	 * removes last character if expectedChar
 	 */
 	public final boolean removeLastChar(char expectedChar) {
-		return printer.removeLastChar(expectedChar);
+		return getPrinter().removeLastChar(expectedChar);
 	}
 
 	/**
 	 * Removes the last output character.
 	 */
 	public final PrinterAdapter removeLastChar() {
-		printer.removeLastChar();
+		getPrinter().removeLastChar();
 		return this;
 	}
 
@@ -525,7 +589,7 @@ public class PrinterAdapter {
 	 * Removes the last output characters.
 	 */
 	public final PrinterAdapter removeLastChars(int count) {
-		printer.removeLastChars(count);
+		getPrinter().removeLastChars(count);
 		return this;
 	}
 
@@ -533,7 +597,7 @@ public class PrinterAdapter {
 	 * Removes the last printed indentation.
 	 */
 	public final PrinterAdapter removeLastIndent() {
-		printer.removeLastIndent();
+		getPrinter().removeLastIndent();
 		return this;
 	}
 
@@ -541,14 +605,14 @@ public class PrinterAdapter {
 	 * Gets the parent element in the printer's scanning stack.
 	 */
 	public final ExtendedElement getParentElement() {
-		return printer.getParentElement();
+		return getPrinter().getParentElement();
 	}
 
 	/**
 	 * Gets the parent element in the printer's scanning stack.
 	 */
 	public final <T extends Element> T getParentElement(Class<T> type) {
-		return printer.getParentElement(type);
+		return getPrinter().getParentElement(type);
 	}
 
 	/**
@@ -566,7 +630,7 @@ public class PrinterAdapter {
 	 * <code>@Root</code> annotation.
 	 */
 	public final String getRootRelativeName(Element element) {
-		return printer.getRootRelativeName((com.sun.tools.javac.code.Symbol) element);
+		return getPrinter().getRootRelativeName((com.sun.tools.javac.code.Symbol) element);
 	}
 
 	/**
@@ -580,7 +644,7 @@ public class PrinterAdapter {
 	 *            the parameters if any
 	 */
 	protected void report(ExtendedElement element, JSweetProblem problem, Object... params) {
-		printer.report(((ExtendedElementSupport<?>) element).getTree(), problem, params);
+		getPrinter().report(((ExtendedElementSupport<?>) element).getTree(), problem, params);
 	}
 
 	/**
@@ -596,7 +660,7 @@ public class PrinterAdapter {
 	 *            the parameters if any
 	 */
 	protected void report(ExtendedElement element, Name name, JSweetProblem problem, Object... params) {
-		printer.report(((ExtendedElementSupport<?>) element).getTree(), (com.sun.tools.javac.util.Name) name, problem,
+		getPrinter().report(((ExtendedElementSupport<?>) element).getTree(), (com.sun.tools.javac.util.Name) name, problem,
 				params);
 	}
 
@@ -611,7 +675,7 @@ public class PrinterAdapter {
 	 *            the parameters if any
 	 */
 	protected void report(Element element, JSweetProblem problem, Object... params) {
-		printer.report(org.jsweet.transpiler.util.Util.lookupTree(context, element), problem, params);
+		getPrinter().report(org.jsweet.transpiler.util.Util.lookupTree(context, element), problem, params);
 	}
 
 	/**
@@ -627,7 +691,7 @@ public class PrinterAdapter {
 	 *            the parameters if any
 	 */
 	protected void report(Element element, Name name, JSweetProblem problem, Object... params) {
-		printer.report(org.jsweet.transpiler.util.Util.lookupTree(context, element),
+		getPrinter().report(org.jsweet.transpiler.util.Util.lookupTree(context, element),
 				(com.sun.tools.javac.util.Name) name, problem, params);
 	}
 
@@ -761,12 +825,12 @@ public class PrinterAdapter {
 			}
 
 			if (parent != null && !hasAnnotationType(importedClass, JSweetConfig.ANNOTATION_ERASED)) {
-				// '@' represents a common root in case there is no common root
-				// package => pathToImportedClass cannot be null because of the
-				// common '@' root
-				String pathToImportedClass = util().getRelativePath(
-						"@/" + currentCompilationUnit.getPackage().toString().replace('.', '/'),
-						"@/" + importedClass.toString().replace('.', '/'));
+				// the symbol paths start with a common '/' root in case there
+				// is no common root package => pathToImportedClass cannot be
+				// null
+				String pathToImportedClass = context.getRelativePath(
+						(com.sun.tools.javac.code.Symbol) currentCompilationUnit.getPackage(),
+						(com.sun.tools.javac.code.Symbol) importedClass);
 				if (!pathToImportedClass.startsWith(".")) {
 					pathToImportedClass = "./" + pathToImportedClass;
 				}
@@ -818,14 +882,14 @@ public class PrinterAdapter {
 	 * please contact JSweet.org to help improving this API.
 	 */
 	public AbstractTreePrinter getPrinter() {
-		return printer;
+		return printer.get();
 	}
 
 	/**
 	 * Sets the printer attached to this adapter.
 	 */
 	public void setPrinter(AbstractTreePrinter printer) {
-		this.printer = printer;
+		this.printer.set(printer);
 		if (parentAdapter != null) {
 			parentAdapter.setPrinter(printer);
 		}
@@ -1002,7 +1066,8 @@ public class PrinterAdapter {
 	 *            a key to identify the header (see {@link #getHeader(String)})
 	 * @param header
 	 *            any string that will be printed at the beginning of the file
-	 *            (only when not in bundle mode)
+	 *            (in bundle mode, the headers of all the files are printed
+	 *            once, at the beginning of the bundle)
 	 * 
 	 * @see #getHeader(String)
 	 */
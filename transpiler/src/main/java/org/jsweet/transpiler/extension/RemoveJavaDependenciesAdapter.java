@@ -21,6 +21,7 @@ package org.jsweet.transpiler.extension;
 import static org.jsweet.JSweetConfig.isJDKPath;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
@@ -28,6 +29,7 @@ import java.io.StringReader;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.text.Collator;
 import java.util.AbstractList;
 import java.util.AbstractMap;
@@ -45,14 +47,19 @@ import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
 import java.util.Properties;
 import java.util.Queue;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
 import java.util.Stack;
 import java.util.TimeZone;
 import java.util.TreeMap;
@@ -66,7 +73,10 @@ import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeMirror;
 
+import org.apache.commons.io.IOUtils;
+import org.jsweet.transpiler.EcmaScriptComplianceLevel;
 import org.jsweet.transpiler.JSweetContext;
+import org.jsweet.transpiler.JSweetOptions;
 import org.jsweet.transpiler.Java2TypeScriptTranslator;
 import org.jsweet.transpiler.ModuleKind;
 import org.jsweet.transpiler.model.BinaryOperatorElement;
@@ -80,10 +90,15 @@ import org.jsweet.transpiler.model.NewArrayElement;
 import org.jsweet.transpiler.model.NewClassElement;
 import org.jsweet.transpiler.model.VariableAccessElement;
 import org.jsweet.transpiler.model.support.ForeachLoopElementSupport;
+import org.jsweet.transpiler.util.AbstractTreePrinter;
 import org.jsweet.transpiler.util.Util;
 
 import com.sun.tools.javac.tree.JCTree.JCEnhancedForLoop;
+import com.sun.tools.javac.tree.JCTree.JCExpressionStatement;
+import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
+import com.sun.tools.javac.tree.JCTree.JCIdent;
 import com.sun.tools.javac.tree.JCTree.JCLiteral;
+import com.sun.tools.javac.tree.JCTree.JCMethodInvocation;
 import com.sun.tools.javac.tree.JCTree.JCTypeApply;
 
 /**
@@ -94,6 +109,74 @@ import com.sun.tools.javac.tree.JCTree.JCTypeApply;
  */
 public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 
+	/**
+	 * The name of the hash table runtime used by the maps that are not keyed by
+	 * strings, and by the hash sets.
+	 */
+	protected static final String HASH_TABLE = "__HashTable";
+
+	/**
+	 * The hash table runtime (see {@link #HASH_TABLE}), loaded from the
+	 * <code>HashTable.js</code> resource and printed as a header of the files
+	 * that use it. Elements are indexed by a hidden hash table whose nodes are
+	 * chained in a doubly linked list, so that lookups, additions and removals
+	 * are constant time and that the iteration order is the insertion order.
+	 * Maps expose this list as an <code>entries</code> array, materialized on
+	 * the first read after a removal. Sets remain plain arrays (so that the
+	 * other lowered methods and the indexed loops are unchanged), which are
+	 * views of the table: the table is the backing store of the set, and all
+	 * the lowered modifications of the collections that may be sets go through
+	 * the runtime (see
+	 * {@link #substituteMethodInvocationOnCollection(MethodInvocationElement, String, boolean)}).
+	 * Each node knows its index in the array, so that the hash sets remove an
+	 * element by moving the last one in its place, in constant time, while the
+	 * linked hash sets splice the array to keep the insertion order. The array
+	 * is rewritten from the table when it was modified outside of the runtime.
+	 * Keys are hashed with <code>hashCode()</code> when available (with fast
+	 * paths for numbers, strings and booleans, and an identity hash for other
+	 * objects) and compared with <code>equals()</code>. The map functions also
+	 * accept native <code>Map</code> objects (see {@link #isNativeMap(TypeMirror)}),
+	 * so that the maps lowered to native maps can be used through generic map
+	 * types, and, when targeting ES6, the maps created by the runtime implement
+	 * the native <code>Map</code> API (see {@link #printEmptyMap(TypeMirror)}).
+	 */
+	private static final String HASH_TABLE_RUNTIME = loadRuntime("HashTable.js");
+
+	/**
+	 * The name of the sorted collections runtime used by the tree maps and the
+	 * tree sets.
+	 */
+	protected static final String SORTED_COLLECTIONS = "__SortedCollections";
+
+	/**
+	 * The sorted collections runtime (see {@link #SORTED_COLLECTIONS}), loaded
+	 * from the <code>SortedCollections.js</code> resource and printed as a
+	 * header of the files that use it. Sorted maps and sets are backed by
+	 * balanced (AA) trees, so that updates and navigation are logarithmic, and
+	 * are iterated by walking the trees. Sorted maps expose a sorted
+	 * <code>entries</code> array (like the maps that are not keyed by strings),
+	 * rebuilt on the first read after a change, and also implement the native
+	 * <code>Map</code> API, so that they remain usable through any map or
+	 * collection type. Sorted sets remain arrays, since collections are read as
+	 * arrays, and are views of their trees. When targeting ES6, they are
+	 * proxies whose target array is only rewritten from the tree when it is
+	 * read after a change, and the writes through the array methods are
+	 * detected to rebuild the tree. Otherwise, the array is kept sorted next to
+	 * the tree, so that adding or removing a single element still moves the
+	 * following ones, and the lowered modifications go through the runtime
+	 * (see {@link #HASH_TABLE_RUNTIME}). Both carry a hidden reference to this
+	 * runtime, so that the hash table runtime delegates to it. Elements are
+	 * compared with the given comparator, or with <code>compareTo()</code>.
+	 */
+	private static final String SORTED_COLLECTIONS_RUNTIME = loadRuntime("SortedCollections.js");
+
+	/**
+	 * An entry of the key <code>k</code> of the native map <code>m</code>,
+	 * which reads and writes its value through the map (unlike the key sets
+	 * and value collections, which are array copies).
+	 */
+	private static final String NATIVE_MAP_ENTRY = "({ getKey: () => k, getValue: () => m.get(k), setValue: (v) => { let o = m.get(k); m.set(k, v); return o; } })";
+
 	protected Map<String, String> extTypesMapping = new HashMap<>();
 	private final String ERASED_CLASS_HIERARCHY_FIELD = "__classes";
 	private Set<String> excludedJavaSuperTypes = new HashSet<>();
@@ -125,7 +208,10 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		extTypesMapping.put(Queue.class.getName(), "Array");
 		extTypesMapping.put(Stack.class.getName(), "Array");
 		extTypesMapping.put(HashSet.class.getName(), "Array");
+		extTypesMapping.put(LinkedHashSet.class.getName(), "Array");
 		extTypesMapping.put(TreeSet.class.getName(), "Array");
+		extTypesMapping.put(SortedSet.class.getName(), "Array");
+		extTypesMapping.put(NavigableSet.class.getName(), "Array");
 		extTypesMapping.put(Vector.class.getName(), "Array");
 		extTypesMapping.put(Enumeration.class.getName(), "any");
 		extTypesMapping.put(Iterator.class.getName(), "any");
@@ -135,6 +221,8 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		extTypesMapping.put(AbstractMap.class.getName(), "any");
 		extTypesMapping.put(HashMap.class.getName(), "any");
 		extTypesMapping.put(TreeMap.class.getName(), "any");
+		extTypesMapping.put(SortedMap.class.getName(), "any");
+		extTypesMapping.put(NavigableMap.class.getName(), "any");
 		extTypesMapping.put(WeakHashMap.class.getName(), "any");
 		extTypesMapping.put(LinkedHashMap.class.getName(), "any");
 		extTypesMapping.put(Hashtable.class.getName(), "any");
@@ -190,7 +278,7 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 
 	protected RemoveJavaDependenciesAdapter print(ExtendedElement expression, boolean delegate) {
 		if (delegate) {
-			print("(<any>").print(expression).print(").__delegate");
+			print("(").printTypeScriptOnly("<any>").print(expression).print(").__delegate");
 		} else {
 			print(expression);
 		}
@@ -198,6 +286,47 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		return this;
 	}
 
+	/**
+	 * Loads a runtime from the resources of this class.
+	 */
+	private static String loadRuntime(String name) {
+		try (InputStream in = RemoveJavaDependenciesAdapter.class.getResourceAsStream(name)) {
+			return IOUtils.toString(in, StandardCharsets.UTF_8).trim();
+		} catch (IOException e) {
+			throw new RuntimeException("cannot load " + name, e);
+		}
+	}
+
+	/**
+	 * Prints the beginning of a call to a function of the hash table runtime
+	 * (see {@link #HASH_TABLE}), and adds the runtime to the headers of the
+	 * current file.
+	 */
+	protected RemoveJavaDependenciesAdapter printHashTableCall(String function) {
+		if (getHeader(HASH_TABLE) == null) {
+			addHeader(HASH_TABLE, "var " + HASH_TABLE + (getPrinter().isTypeScriptOutput() ? ": any" : "") + " = "
+					+ HASH_TABLE_RUNTIME + "("
+					+ context.options.getEcmaTargetVersion().higherThan(EcmaScriptComplianceLevel.ES5) + ");\n");
+		}
+		print(HASH_TABLE + "." + function + "(");
+		return this;
+	}
+
+	/**
+	 * Prints the beginning of a call to a function of the sorted collections
+	 * runtime (see {@link #SORTED_COLLECTIONS}), and adds the runtime to the
+	 * headers of the current file.
+	 */
+	protected RemoveJavaDependenciesAdapter printSortedCollectionsCall(String function) {
+		if (getHeader(SORTED_COLLECTIONS) == null) {
+			addHeader(SORTED_COLLECTIONS, "var " + SORTED_COLLECTIONS
+					+ (getPrinter().isTypeScriptOutput() ? ": any" : "") + " = " + SORTED_COLLECTIONS_RUNTIME + "("
+					+ context.options.getEcmaTargetVersion().higherThan(EcmaScriptComplianceLevel.ES5) + ");\n");
+		}
+		print(SORTED_COLLECTIONS + "." + function + "(");
+		return this;
+	}
+
 	@Override
 	public boolean substituteMethodInvocation(MethodInvocationElement invocation) {
 		String targetMethodName = invocation.getMethodName();
@@ -245,7 +374,10 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 			case "java.util.Set":
 			case "java.util.EnumSet":
 			case "java.util.HashSet":
+			case "java.util.LinkedHashSet":
 			case "java.util.TreeSet":
+			case "java.util.SortedSet":
+			case "java.util.NavigableSet":
 				if (substituteMethodInvocationOnArray(invocation, targetMethodName, targetClassName, delegate)) {
 					return true;
 				}
@@ -256,7 +388,6 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 			case "java.util.Map":
 			case "java.util.AbstractMap":
 			case "java.util.HashMap":
-			case "java.util.TreeMap":
 			case "java.util.Hashtable":
 			case "java.util.WeakHashMap":
 			case "java.util.LinkedHashMap":
@@ -264,6 +395,17 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 					return true;
 				}
 				break;
+			case "java.util.TreeMap":
+			case "java.util.SortedMap":
+			case "java.util.NavigableMap":
+				if (targetExpression != null && isSortedMap(targetExpression.getType())
+						&& substituteMethodInvocationOnSortedMap(invocation, targetMethodName, delegate)) {
+					return true;
+				}
+				if (substituteMethodInvocationOnMap(invocation, targetMethodName, targetExpression, delegate)) {
+					return true;
+				}
+				break;
 			case "java.util.Collections":
 				if (substituteMethodInvocationOnCollections(invocation, targetMethodName, targetExpression, delegate)) {
 					return true;
@@ -278,7 +420,11 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 				switch (targetMethodName) {
 				case "arraycopy":
 					printMacroName(targetMethodName);
-					print("((srcPts, srcOff, dstPts, dstOff, size) => { if(srcPts !== dstPts || dstOff >= srcOff + size) { while (--size >= 0) dstPts[dstOff++] = srcPts[srcOff++];"
+					print("((srcPts, srcOff, dstPts, dstOff, size) => { ");
+					if (isTypedArray(invocation.getArgument(2))) {
+						print("if(ArrayBuffer.isView(srcPts) && ArrayBuffer.isView(dstPts)) { dstPts.set(srcPts.subarray(srcOff, srcOff + size), dstOff); } else ");
+					}
+					print("if(srcPts !== dstPts || dstOff >= srcOff + size) { while (--size >= 0) dstPts[dstOff++] = srcPts[srcOff++];"
 							+ "} else { let tmp = srcPts.slice(srcOff, srcOff + size); for (let i = 0; i < size; i++) dstPts[dstOff++] = tmp[i]; }})(")
 									.printArgList(invocation.getArguments()).print(")");
 					return true;
@@ -420,7 +566,7 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 				case "newInstance":
 					printMacroName(targetMethodName);
 					if (invocation.getArgumentCount() == 2) {
-						print("new Array<any>(").print(invocation.getArgument(1)).print(")");
+						print("new Array").printTypeScriptOnly("<any>").print("(").print(invocation.getArgument(1)).print(")");
 						return true;
 					}
 				case "getLength":
@@ -560,7 +706,10 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 			return true;
 		case "isInstance":
 			printMacroName(targetMethodName);
-			print("((c:any,o:any) => { if(typeof c === 'string') return (o.constructor && o.constructor")
+			print("((c").printTypeScriptOnly(":any").print(",o").printTypeScriptOnly(":any").print(") => { if(typeof c === 'string') return o")
+					.print("[\"" + Java2TypeScriptTranslator.INTERFACES_LOOKUP_FIELD_NAME + "\"] !== undefined ? o")
+					.print("[\"" + Java2TypeScriptTranslator.INTERFACES_LOOKUP_FIELD_NAME
+							+ "\"][c] === true : (o.constructor && o.constructor")
 					.print("[\"" + Java2TypeScriptTranslator.INTERFACES_FIELD_NAME + "\"] && o.constructor")
 					.print("[\"" + Java2TypeScriptTranslator.INTERFACES_FIELD_NAME + "\"].indexOf(c) >= 0) || (o")
 					.print("[\"" + Java2TypeScriptTranslator.INTERFACES_FIELD_NAME + "\"] && o")
@@ -573,7 +722,7 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 			// primitive class types are never used in JSweet, so it
 			// will always return false
 			printMacroName(targetMethodName);
-			print("(").print(invocation.getTargetExpression()).print(" === <any>'__erasedPrimitiveType__'").print(")");
+			print("(").print(invocation.getTargetExpression()).print(" === ").printTypeScriptOnly("<any>").print("'__erasedPrimitiveType__'").print(")");
 			return true;
 		case "getMethods":
 		case "getDeclaredMethods":
@@ -597,6 +746,15 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		return false;
 	}
 
+	/**
+	 * Tells if the given array is allocated as a JavaScript typed array (see
+	 * {@link JSweetContext#getTypedArrayName(TypeMirror)}).
+	 */
+	protected boolean isTypedArray(ExtendedElement array) {
+		return array.getType() instanceof ArrayType
+				&& context.getTypedArrayName(((ArrayType) array.getType()).getComponentType()) != null;
+	}
+
 	protected boolean substituteMethodInvocationOnArrays(MethodInvocationElement invocation, String targetMethodName,
 			ExtendedElement targetExpression, boolean delegate) {
 		switch (targetMethodName) {
@@ -610,19 +768,34 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 			return true;
 		case "copyOf":
 			printMacroName(targetMethodName);
-			print(invocation.getArgument(0)).print(".slice(0,").print(invocation.getArgument(1)).print(")");
+			if (isTypedArray(invocation.getArgument(0))) {
+				print("((a, n) => { if(!ArrayBuffer.isView(a)) return a.slice(0, n); let c = new a.constructor(n); c.set(n < a.length ? a.subarray(0, n) : a); return c; })(")
+						.printArgList(invocation.getArguments()).print(")");
+			} else {
+				print(invocation.getArgument(0)).print(".slice(0,").print(invocation.getArgument(1)).print(")");
+			}
 			return true;
 		case "fill":
 			printMacroName(targetMethodName);
-			print("((a, v) => { for(let i=0;i<a.length;i++) a[i]=v; })(").printArgList(invocation.getArguments())
-					.print(")");
+			if (isTypedArray(invocation.getArgument(0))) {
+				if (invocation.getArgumentCount() == 4) {
+					print("((a, from, to, v) => { if(ArrayBuffer.isView(a)) a.fill(v, from, to); else for(let i=from;i<to;i++) a[i]=v; })(");
+				} else {
+					print("((a, v) => { if(ArrayBuffer.isView(a)) a.fill(v); else for(let i=0;i<a.length;i++) a[i]=v; })(");
+				}
+			} else if (invocation.getArgumentCount() == 4) {
+				print("((a, from, to, v) => { for(let i=from;i<to;i++) a[i]=v; })(");
+			} else {
+				print("((a, v) => { for(let i=0;i<a.length;i++) a[i]=v; })(");
+			}
+			printArgList(invocation.getArguments()).print(")");
 			// ES6 implementation
 			// print(invocation.getArgument(0)).print(".fill(").printArgList(invocation.getArgumentTail())
 			// .print(")");
 			return true;
 		case "equals":
 			printMacroName(targetMethodName);
-			print("((a1, a2) => { if(a1==null && a2==null) return true; if(a1==null || a2==null) return false; if(a1.length != a2.length) return false; for(let i = 0; i < a1.length; i++) { if(<any>a1[i] != <any>a2[i]) return false; } return true; })(")
+			print("((a1, a2) => { if(a1==null && a2==null) return true; if(a1==null || a2==null) return false; if(a1.length != a2.length) return false; for(let i = 0; i < a1.length; i++) { if(").printTypeScriptOnly("<any>").print("a1[i] != ").printTypeScriptOnly("<any>").print("a2[i]) return false; } return true; })(")
 					.printArgList(invocation.getArguments()).print(")");
 			return true;
 		case "deepEquals":
@@ -632,12 +805,20 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 			return true;
 		case "sort":
 			printMacroName(targetMethodName);
-			if (invocation.getArgumentCount() > 2) {
-				print("((arr, start, end, f?) => ((arr1, arr2) => arr1.splice.apply(arr1, (<any[]>[start, arr2.length]).concat(arr2)))(")
+			if (isTypedArray(invocation.getArgument(0))) {
+				// typed arrays natively sort numerically
+				if (invocation.getArgumentCount() == 3) {
+					print("((arr, start, end) => { if(ArrayBuffer.isView(arr)) arr.subarray(start, end).sort(); else arr.splice.apply(arr, [start, end - start].concat(arr.slice(start, end).sort((a, b) => a - b))); })(");
+				} else {
+					print("((l) => { if(ArrayBuffer.isView(l)) l.sort(); else l.sort((a, b) => a - b); })(");
+				}
+				printArgList(invocation.getArguments()).print(")");
+			} else if (invocation.getArgumentCount() > 2) {
+				print("((arr, start, end, f").printTypeScriptOnly("?").print(") => ((arr1, arr2) => arr1.splice.apply(arr1, (").printTypeScriptOnly("<any[]>").print("[start, arr2.length]).concat(arr2)))(")
 						.print(invocation.getArgument(0)).print(", ").print(invocation.getArgument(0))
 						.print(".slice(start, end).sort(f)))(").printArgList(invocation.getArguments()).print(")");
 			} else if (invocation.getArgumentCount() == 2) {
-				print("((l,c) => { if((<any>c).compare) l.sort((e1,e2)=>(<any>c).compare(e1,e2)); else l.sort(<any>c); })(")
+				print("((l,c) => { if((").printTypeScriptOnly("<any>").print("c).compare) l.sort((e1,e2)=>(").printTypeScriptOnly("<any>").print("c).compare(e1,e2)); else l.sort(").printTypeScriptOnly("<any>").print("c); })(")
 						.print(invocation.getArgument(0)).print(",").print(invocation.getArgument(1)).print(")");
 			} else {
 				print("((l) => {l.sort(); })(").print(invocation.getArgument(0)).print(")");
@@ -661,7 +842,7 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 			return true;
 		case "emptyMap":
 			printMacroName(targetMethodName);
-			print("{}");
+			printEmptyMap(invocation.getType());
 			return true;
 		case "unmodifiableList":
 		case "unmodifiableCollection":
@@ -688,7 +869,10 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 			return true;
 		case "singletonMap":
 			printMacroName(targetMethodName);
-			if (types().isSameType(invocation.getArgument(0).getType(), util().getType(String.class))) {
+			if (isNativeMap(invocation.getType())) {
+				print("new Map([[").print(invocation.getArgument(0)).print(", ").print(invocation.getArgument(1))
+						.print("]])");
+			} else if (types().isSameType(invocation.getArgument(0).getType(), util().getType(String.class))) {
 				if (invocation.getArgument(0) instanceof JCLiteral) {
 					print("{ ").print(invocation.getArgument(0)).print(": ").print(invocation.getArgument(1))
 							.print(" }");
@@ -696,6 +880,9 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 					print("(k => { let o = {}; o[k] = ").print(invocation.getArgument(1)).print("; return o; })(")
 							.print(invocation.getArgument(0)).print(")");
 				}
+			} else if (context.options.getEcmaTargetVersion().higherThan(EcmaScriptComplianceLevel.ES5)) {
+				printHashTableCall("singletonMap").print(invocation.getArgument(0)).print(", ")
+						.print(invocation.getArgument(1)).print(")");
 			} else {
 				print("(k => { let o = {entries: [{getKey: function() { return this.key }, getValue: function() { return this.value },key:k, value:")
 						.print(invocation.getArgument(1)).print("}]}; return o; })(").print(invocation.getArgument(0))
@@ -705,7 +892,7 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		case "binarySearch":
 			printMacroName(targetMethodName);
 			if (invocation.getArgumentCount() == 3) {
-				print("((l, key, c) => { let comp : any = c; if(typeof c != 'function') { comp = (a,b)=>c.compare(a,b); } let low = 0; let high = l.length-1; while (low <= high) { let mid = (low + high) >>> 1; let midVal = l[mid]; "
+				print("((l, key, c) => { let comp").printTypeScriptOnly(" : any").print(" = c; if(typeof c != 'function') { comp = (a,b)=>c.compare(a,b); } let low = 0; let high = l.length-1; while (low <= high) { let mid = (low + high) >>> 1; let midVal = l[mid]; "
 						+ "let cmp = comp(midVal, key); if (cmp < 0) low = mid + 1; else if (cmp > 0) high = mid - 1; else return mid; } "
 						+ "return -(low + 1); })(").printArgList(invocation.getArguments()).print(")");
 				return true;
@@ -726,7 +913,7 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		case "sort":
 			printMacroName(targetMethodName);
 			if (invocation.getArgumentCount() == 2) {
-				print("((l,c) => { if((<any>c).compare) l.sort((e1,e2)=>(<any>c).compare(e1,e2)); else l.sort(<any>c); })(")
+				print("((l,c) => { if((").printTypeScriptOnly("<any>").print("c).compare) l.sort((e1,e2)=>(").printTypeScriptOnly("<any>").print("c).compare(e1,e2)); else l.sort(").printTypeScriptOnly("<any>").print("c); })(")
 						.print(invocation.getArgument(0)).print(",").print(invocation.getArgument(1)).print(")");
 			} else {
 				print(invocation.getArgument(0)).print(".sort(").printArgList(invocation.getArgumentTail()).print(")");
@@ -738,7 +925,7 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 			return true;
 		case "disjoint":
 			printMacroName(targetMethodName);
-			print("((c1, c2) => { for(let i=0;i<c1.length;i++) { if(c2.indexOf(<any>c1[i])>=0) return false; } return true; } )(")
+			print("((c1, c2) => { for(let i=0;i<c1.length;i++) { if(c2.indexOf(").printTypeScriptOnly("<any>").print("c1[i])>=0) return false; } return true; } )(")
 					.printArgList(invocation.getArguments()).print(")");
 			return true;
 		}
@@ -752,11 +939,11 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		case "append":
 			printMacroName(targetMethodName);
 			if (invocation.getArgumentCount() == 1) {
-				print("(sb => { sb.str = sb.str.concat(<any>").printArgList(invocation.getArguments())
+				print("(sb => { sb.str = sb.str.concat(").printTypeScriptOnly("<any>").printArgList(invocation.getArguments())
 						.print("); return sb; })(");
 				print(invocation.getTargetExpression(), delegate).print(")");
 			} else {
-				print("(sb => { sb.str = sb.str.concat((<any>").print(invocation.getArgument(0)).print(").substr(")
+				print("(sb => { sb.str = sb.str.concat((").printTypeScriptOnly("<any>").print(invocation.getArgument(0)).print(").substr(")
 						.printArgList(invocation.getArgumentTail()).print(")); return sb; })(");
 				print(invocation.getTargetExpression(), delegate).print(")");
 			}
@@ -934,12 +1121,289 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		return false;
 	}
 
+	/**
+	 * Tells if the given map type is lowered to a native <code>Map</code>,
+	 * which is the case when targeting ES6 and when the keys are strings or
+	 * numbers (so that the native key equality matches the Java one), when
+	 * enabled (see {@link JSweetOptions#isNativeMaps()}).
+	 */
+	protected boolean isNativeMap(TypeMirror mapType) {
+		if (!context.options.getEcmaTargetVersion().higherThan(EcmaScriptComplianceLevel.ES5)
+				|| !context.options.isNativeMaps() || !(mapType instanceof DeclaredType)) {
+			return false;
+		}
+		List<? extends TypeMirror> typeArguments = ((DeclaredType) mapType).getTypeArguments();
+		if (typeArguments.size() != 2) {
+			return false;
+		}
+		TypeMirror keyType = typeArguments.get(0);
+		return types().isSameType(keyType, util().getType(String.class))
+				|| Util.isNumber(context.types.unboxedTypeOrType((com.sun.tools.javac.code.Type) keyType));
+	}
+
+	/**
+	 * Prints a new empty map of the given type. When targeting ES6, the maps
+	 * that are not lowered to native maps are created by the hash table
+	 * runtime, which makes them implement the native <code>Map</code> API, so
+	 * that they remain usable where native maps are expected (for instance
+	 * when returned by generic code). The maps keyed by strings that are not
+	 * native maps are always plain objects.
+	 */
+	protected void printEmptyMap(TypeMirror mapType) {
+		if (isNativeMap(mapType)) {
+			print("new Map()");
+		} else if (context.options.getEcmaTargetVersion().higherThan(EcmaScriptComplianceLevel.ES5)
+				&& !(mapType instanceof DeclaredType && ((DeclaredType) mapType).getTypeArguments().size() == 2
+						&& types().isSameType(((DeclaredType) mapType).getTypeArguments().get(0),
+								util().getType(String.class)))) {
+			printHashTableCall("map").print(")");
+		} else {
+			print("{}");
+		}
+	}
+
+	/**
+	 * Tells if the given tree map type is lowered to a sorted map of the sorted
+	 * collections runtime (see {@link #SORTED_COLLECTIONS}), which is the case
+	 * unless the map is keyed by strings and lowered to a plain object (when
+	 * not targeting ES6).
+	 */
+	protected boolean isSortedMap(TypeMirror mapType) {
+		if (isNativeMap(mapType)) {
+			return true;
+		}
+		return !(mapType instanceof DeclaredType && ((DeclaredType) mapType).getTypeArguments().size() == 2
+				&& types().isSameType(((DeclaredType) mapType).getTypeArguments().get(0),
+						util().getType(String.class)));
+	}
+
+	/**
+	 * Substitutes the methods of the sorted maps with the sorted collections
+	 * runtime ones (see {@link #isSortedMap(TypeMirror)}).
+	 */
+	protected boolean substituteMethodInvocationOnSortedMap(MethodInvocationElement invocation,
+			String targetMethodName, boolean delegate) {
+		String function = targetMethodName;
+		switch (targetMethodName) {
+		case "navigableKeySet":
+			function = "keySet";
+			break;
+		case "clone":
+			function = "copy";
+			break;
+		case "put":
+		case "get":
+		case "containsKey":
+		case "remove":
+		case "size":
+		case "isEmpty":
+		case "clear":
+		case "keySet":
+		case "descendingKeySet":
+		case "values":
+		case "entrySet":
+		case "firstKey":
+		case "lastKey":
+		case "firstEntry":
+		case "lastEntry":
+		case "pollFirstEntry":
+		case "pollLastEntry":
+		case "ceilingKey":
+		case "floorKey":
+		case "higherKey":
+		case "lowerKey":
+		case "ceilingEntry":
+		case "floorEntry":
+		case "higherEntry":
+		case "lowerEntry":
+		case "headMap":
+		case "tailMap":
+		case "subMap":
+		case "comparator":
+			break;
+		default:
+			return false;
+		}
+		printMacroName(targetMethodName);
+		printSortedCollectionsCall(function);
+		print(invocation.getTargetExpression(), delegate);
+		if (invocation.getArgumentCount() > 0) {
+			print(", ").printArgList(invocation.getArguments());
+		}
+		print(")");
+		return true;
+	}
+
+	/**
+	 * Substitutes the map methods with the native <code>Map</code> ones.
+	 * 
+	 * @see #isNativeMap(TypeMirror)
+	 */
+	protected boolean substituteMethodInvocationOnNativeMap(MethodInvocationElement invocation,
+			String targetMethodName, boolean delegate) {
+		// the returned value is not needed when the invocation is a statement
+		boolean statement = getPrinter().getParent() instanceof JCExpressionStatement;
+		switch (targetMethodName) {
+		case "put":
+			printMacroName(targetMethodName);
+			if (statement) {
+				print(invocation.getTargetExpression(), delegate).print(".set(").printArgList(invocation.getArguments())
+						.print(")");
+			} else {
+				print("((m, k, v) => { let o = m.get(k); m.set(k, v); return o === undefined ? null : o; })(");
+				print(invocation.getTargetExpression(), delegate).print(", ").printArgList(invocation.getArguments())
+						.print(")");
+			}
+			return true;
+		case "get":
+			printMacroName(targetMethodName);
+			print("(v => v === undefined ? null : v)(");
+			print(invocation.getTargetExpression(), delegate).print(".get(").print(invocation.getArgument(0))
+					.print("))");
+			return true;
+		case "containsKey":
+			printMacroName(targetMethodName);
+			print(invocation.getTargetExpression(), delegate).print(".has(").print(invocation.getArgument(0))
+					.print(")");
+			return true;
+		case "keySet":
+			printMacroName(targetMethodName);
+			print("Array.from(");
+			print(invocation.getTargetExpression(), delegate).print(".keys())");
+			return true;
+		case "values":
+			printMacroName(targetMethodName);
+			print("Array.from(");
+			print(invocation.getTargetExpression(), delegate).print(".values())");
+			return true;
+		case "size":
+			printMacroName(targetMethodName);
+			print("(").printTypeScriptOnly("<number>");
+			print(invocation.getTargetExpression(), delegate).print(".size)");
+			return true;
+		case "isEmpty":
+			printMacroName(targetMethodName);
+			print("(");
+			print(invocation.getTargetExpression(), delegate).print(".size == 0)");
+			return true;
+		case "remove":
+			printMacroName(targetMethodName);
+			if (statement) {
+				print(invocation.getTargetExpression(), delegate).print(".delete(")
+						.print(invocation.getArgument(0)).print(")");
+			} else {
+				print("((m, k) => { let o = m.get(k); if (o === undefined) return null; m.delete(k); return o; })(");
+				print(invocation.getTargetExpression(), delegate).print(", ").print(invocation.getArgument(0))
+						.print(")");
+			}
+			return true;
+		case "clear":
+			printMacroName(targetMethodName);
+			print(invocation.getTargetExpression(), delegate).print(".clear()");
+			return true;
+		case "entrySet":
+			printMacroName(targetMethodName);
+			print("(m => Array.from(m.keys(), k => " + NATIVE_MAP_ENTRY + "))(");
+			print(invocation.getTargetExpression(), delegate).print(")");
+			return true;
+		case "clone":
+			printMacroName(targetMethodName);
+			print("new Map(");
+			print(invocation.getTargetExpression(), delegate).print(")");
+			return true;
+		case "forEach":
+		case "putAll":
+		case "getOrDefault":
+		case "putIfAbsent":
+		case "computeIfAbsent":
+			// not lowered to the native methods (the native forEach passes the
+			// value first, for instance)
+			printMacroName(targetMethodName);
+			printHashTableCall(targetMethodName);
+			print(invocation.getTargetExpression(), delegate).print(", ").printArgList(invocation.getArguments())
+					.print(")");
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Prints a for-each loop on the key set, the values or the entry set of a
+	 * native map, so that the map is iterated without copying it in an
+	 * intermediate array.
+	 * 
+	 * @return false if the loop is not iterating on a native map
+	 * @see #isNativeMap(TypeMirror)
+	 */
+	protected boolean printNativeMapForEachLoop(JCEnhancedForLoop loop, String indexVarName) {
+		if (!(loop.expr instanceof JCMethodInvocation)
+				|| !(((JCMethodInvocation) loop.expr).meth instanceof JCFieldAccess)) {
+			return false;
+		}
+		JCFieldAccess method = (JCFieldAccess) ((JCMethodInvocation) loop.expr).meth;
+		if (!isNativeMap(method.selected.type)
+				|| !method.selected.type.tsym.getQualifiedName().toString().startsWith("java.util.")) {
+			return false;
+		}
+		String keyword = Java2TypeScriptTranslator.VAR_DECL_KEYWORD;
+		String variable = loop.var.name.toString();
+		AbstractTreePrinter printer = getPrinter();
+		switch (method.name.toString()) {
+		case "keySet":
+			printer.print("for(" + keyword + " " + variable + " of ").print(method.selected).print(".keys()) {")
+					.println().startIndent();
+			break;
+		case "values":
+			printer.print("for(" + keyword + " " + variable + " of ").print(method.selected).print(".values()) {")
+					.println().startIndent();
+			break;
+		case "entrySet":
+			// the map is evaluated only once
+			boolean noVariable = method.selected instanceof JCIdent || method.selected instanceof JCFieldAccess;
+			String mapVarName = "map" + Util.getId();
+			if (!noVariable) {
+				printer.print("{").println().startIndent().printIndent();
+				printer.print(keyword + " " + mapVarName + " = ").print(method.selected).print(";").println()
+						.printIndent();
+			}
+			printer.print("for(" + keyword + " " + indexVarName + " of ");
+			if (noVariable) {
+				printer.print(method.selected);
+			} else {
+				printer.print(mapVarName);
+			}
+			printer.print(".keys()) {").println().startIndent().printIndent();
+			printer.print(keyword + " " + variable + " = ((m, k) => " + NATIVE_MAP_ENTRY + ")(");
+			if (noVariable) {
+				printer.print(method.selected);
+			} else {
+				printer.print(mapVarName);
+			}
+			printer.print(", " + indexVarName + ");").println();
+			printer.printIndent().print(loop.body);
+			endIndent().println().printIndent().print("}");
+			if (!noVariable) {
+				endIndent().println().printIndent().print("}");
+			}
+			return true;
+		default:
+			return false;
+		}
+		printer.printIndent().print(loop.body);
+		endIndent().println().printIndent().print("}");
+		return true;
+	}
+
 	protected boolean substituteMethodInvocationOnMap(MethodInvocationElement invocation, String targetMethodName,
 			ExtendedElement targetExpression, boolean delegate) {
 		if (targetExpression == null) {
 			return false;
 		}
 
+		if (isNativeMap(targetExpression.getType())) {
+			return substituteMethodInvocationOnNativeMap(invocation, targetMethodName, delegate);
+		}
+
 		if (((DeclaredType) targetExpression.getType()).getTypeArguments().size() == 2 && types().isSameType(
 				((DeclaredType) targetExpression.getType()).getTypeArguments().get(0), util().getType(String.class))) {
 			switch (targetMethodName) {
@@ -1001,77 +1465,88 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 				print("(o => { let c = {}; for (let k in Object.keys(o)){ c[k] = o[k] } return c; })(");
 				print(invocation.getTargetExpression(), delegate).print(")");
 				return true;
+			case "forEach":
+				printMacroName(targetMethodName);
+				print("((o, f) => { let g = typeof f === 'function' ? f : (k, v) => f.accept(k, v); for (let k in o) g(k, o[k]); })(");
+				print(invocation.getTargetExpression(), delegate).print(", ").printArgList(invocation.getArguments())
+						.print(")");
+				return true;
+			case "putAll":
+				printMacroName(targetMethodName);
+				print("((o, s) => { for (let k in s) o[k] = s[k]; })(");
+				print(invocation.getTargetExpression(), delegate).print(", ").printArgList(invocation.getArguments())
+						.print(")");
+				return true;
+			case "getOrDefault":
+				printMacroName(targetMethodName);
+				print("((o, k, d) => o.hasOwnProperty(k) ? o[k] : d)(");
+				print(invocation.getTargetExpression(), delegate).print(", ").printArgList(invocation.getArguments())
+						.print(")");
+				return true;
+			case "putIfAbsent":
+				printMacroName(targetMethodName);
+				print("((o, k, v) => { let r = o[k] === undefined ? null : o[k]; if (r == null) o[k] = v; return r; })(");
+				print(invocation.getTargetExpression(), delegate).print(", ").printArgList(invocation.getArguments())
+						.print(")");
+				return true;
+			case "computeIfAbsent":
+				printMacroName(targetMethodName);
+				print("((o, k, f) => { let r = o[k] === undefined ? null : o[k]; if (r == null) { r = typeof f === 'function' ? f(k) : f.apply(k); if (r != null) o[k] = r; } return r; })(");
+				print(invocation.getTargetExpression(), delegate).print(", ").printArgList(invocation.getArguments())
+						.print(")");
+				return true;
 			}
 		} else {
-			String newEntry = "{key:k,value:v,getKey: function() { return this.key }, getValue: function() { return this.value }}";
 			switch (targetMethodName) {
 			case "put":
 			case "setProperty":
 				printMacroName(targetMethodName);
-				print("((m,k,v) => { if(m.entries==null) m.entries=[]; for(let i=0;i<m.entries.length;i++) if(m.entries[i].key.equals!=null && m.entries[i].key.equals(k) || m.entries[i].key===k) { m.entries[i].value=v; return; } m.entries.push("
-						+ newEntry + "); })(").print("<any>");
+				printHashTableCall("put");
 				print(invocation.getTargetExpression(), delegate).print(", ").printArgList(invocation.getArguments())
 						.print(")");
 				return true;
 			case "get":
 			case "getProperty":
 				printMacroName(targetMethodName);
-				print("((m,k) => { if(m.entries==null) m.entries=[]; for(let i=0;i<m.entries.length;i++) if(m.entries[i].key.equals!=null && m.entries[i].key.equals(k) || m.entries[i].key===k) { return m.entries[i].value; } return null; })(")
-						.print("<any>");
+				printHashTableCall("get");
 				print(invocation.getTargetExpression(), delegate).print(", ").printArgList(invocation.getArguments())
 						.print(")");
 				return true;
 			case "containsKey":
 				printMacroName(targetMethodName);
-				print("((m,k) => { if(m.entries==null) m.entries=[]; for(let i=0;i<m.entries.length;i++) if(m.entries[i].key.equals!=null && m.entries[i].key.equals(k) || m.entries[i].key===k) { return true; } return false; })(")
-						.print("<any>");
+				printHashTableCall("containsKey");
 				print(invocation.getTargetExpression(), delegate).print(", ").printArgList(invocation.getArguments())
 						.print(")");
 				return true;
 			case "keySet":
 			case "stringPropertyNames":
 				printMacroName(targetMethodName);
-				print("((m) => { let r=[]; if(m.entries==null) m.entries=[]; for(let i=0;i<m.entries.length;i++) r.push(m.entries[i].key); return r; })(")
-						.print("<any>");
+				printHashTableCall("keySet");
 				print(invocation.getTargetExpression(), delegate).print(")");
 				return true;
 			case "values":
-				printMacroName(targetMethodName);
-				print("((m) => { let r=[]; if(m.entries==null) m.entries=[]; for(let i=0;i<m.entries.length;i++) r.push(m.entries[i].value); return r; })(")
-						.print("<any>");
-				print(invocation.getTargetExpression(), delegate).print(")");
-				return true;
 			case "size":
-				printMacroName(targetMethodName);
-				print("((m) => { if(m.entries==null) m.entries=[]; return m.entries.length; })(").print("<any>");
-				print(invocation.getTargetExpression(), delegate).print(")");
-				return true;
 			case "isEmpty":
+			case "clear":
+			case "entrySet":
 				printMacroName(targetMethodName);
-				print("((m) => { if(m.entries==null) m.entries=[]; return m.entries.length == 0; })(").print("<any>");
+				printHashTableCall(targetMethodName);
 				print(invocation.getTargetExpression(), delegate).print(")");
 				return true;
 			case "remove":
+			case "forEach":
+			case "putAll":
+			case "getOrDefault":
+			case "putIfAbsent":
+			case "computeIfAbsent":
 				printMacroName(targetMethodName);
-				print("((m,k) => { if(m.entries==null) m.entries=[]; for(let i=0;i<m.entries.length;i++) if(m.entries[i].key.equals!=null && m.entries[i].key.equals(k) || m.entries[i].key===k) { return m.entries.splice(i,1)[0]; } })(")
-						.print("<any>");
+				printHashTableCall(targetMethodName);
 				print(invocation.getTargetExpression(), delegate).print(", ").printArgList(invocation.getArguments())
 						.print(")");
 				return true;
-			case "clear":
-				printMacroName(targetMethodName);
-				print("(<any>");
-				print(invocation.getTargetExpression(), delegate).print(").entries=[]");
-				return true;
-			case "entrySet":
-				printMacroName(targetMethodName);
-				print("((m) => { if(m.entries==null) m.entries=[]; return m.entries; })(").print("<any>");
-				print(invocation.getTargetExpression(), delegate).print(")");
-				return true;
 			case "clone":
 				printMacroName(targetMethodName);
-				print("(m => { if(m.entries==null) m.entries=[]; let c = {entries: []}; for(let i=0;i<m.entries.length;i++) { let k = m.entries[i].key, v = m.entries[i].value; c.entries[i] = "
-						+ newEntry + "; } return c; })(");
+				printHashTableCall("copy");
 				print(invocation.getTargetExpression(), delegate).print(")");
 				return true;
 
@@ -1081,31 +1556,180 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		return false;
 	}
 
+	/**
+	 * Substitutes the methods of the hash sets that need to look up elements or
+	 * that modify the sets, using the hash table runtime (see
+	 * {@link #HASH_TABLE}).
+	 */
+	protected boolean substituteMethodInvocationOnHashSet(MethodInvocationElement invocation, String targetMethodName,
+			boolean delegate) {
+		String function;
+		switch (targetMethodName) {
+		case "add":
+		case "contains":
+		case "addAll":
+		case "removeAll":
+		case "retainAll":
+		case "containsAll":
+			function = targetMethodName;
+			break;
+		case "remove":
+			function = "removeElement";
+			break;
+		case "clear":
+			if (invocation.getArgumentCount() != 0) {
+				return false;
+			}
+			printMacroName(targetMethodName);
+			printHashTableCall("clearCollection");
+			print(invocation.getTargetExpression(), delegate).print(")");
+			return true;
+		default:
+			return false;
+		}
+		if (invocation.getArgumentCount() != 1) {
+			return false;
+		}
+		printMacroName(targetMethodName);
+		printHashTableCall(function);
+		print(invocation.getTargetExpression(), delegate).print(", ").print(invocation.getArgument(0)).print(")");
+		return true;
+	}
+
+	/**
+	 * Substitutes the modifications of collections that may be sets, using the
+	 * hash table runtime (see {@link #HASH_TABLE}), which updates the sets
+	 * through their hash index (or their tree for the sorted sets), and the
+	 * other arrays directly. The sets are only modified by the runtime, so that
+	 * their arrays never get out of sync with their backing stores.
+	 */
+	protected boolean substituteMethodInvocationOnCollection(MethodInvocationElement invocation,
+			String targetMethodName, boolean delegate) {
+		String function;
+		switch (targetMethodName) {
+		case "add":
+			function = "addToCollection";
+			break;
+		case "addAll":
+			function = "addAllToCollection";
+			break;
+		case "remove":
+			function = "removeFromCollection";
+			break;
+		case "removeAll":
+			function = "removeAllFromCollection";
+			break;
+		case "retainAll":
+			function = "retainAllFromCollection";
+			break;
+		case "clear":
+			if (invocation.getArgumentCount() != 0) {
+				return false;
+			}
+			printMacroName(targetMethodName);
+			printHashTableCall("clearCollection");
+			print(invocation.getTargetExpression(), delegate).print(")");
+			return true;
+		default:
+			return false;
+		}
+		if (invocation.getArgumentCount() != 1) {
+			return false;
+		}
+		printMacroName(targetMethodName);
+		printHashTableCall(function);
+		print(invocation.getTargetExpression(), delegate).print(", ").print(invocation.getArgument(0)).print(")");
+		return true;
+	}
+
+	/**
+	 * Substitutes the methods of the sorted sets that need to look up elements,
+	 * to navigate or to modify the sets, using the sorted collections runtime
+	 * (see {@link #SORTED_COLLECTIONS}).
+	 */
+	protected boolean substituteMethodInvocationOnSortedSet(MethodInvocationElement invocation,
+			String targetMethodName, boolean delegate) {
+		String function = targetMethodName;
+		switch (targetMethodName) {
+		case "add":
+		case "contains":
+		case "addAll":
+		case "removeAll":
+		case "retainAll":
+		case "containsAll":
+			if (invocation.getArgumentCount() != 1) {
+				return false;
+			}
+			break;
+		case "remove":
+			function = "removeElement";
+			break;
+		case "first":
+		case "last":
+		case "pollFirst":
+		case "pollLast":
+		case "ceiling":
+		case "floor":
+		case "higher":
+		case "lower":
+		case "headSet":
+		case "tailSet":
+		case "subSet":
+		case "comparator":
+			break;
+		case "clear":
+			function = "clearSet";
+			break;
+		default:
+			return false;
+		}
+		printMacroName(targetMethodName);
+		printSortedCollectionsCall(function);
+		print(invocation.getTargetExpression(), delegate);
+		if (invocation.getArgumentCount() > 0) {
+			print(", ").printArgList(invocation.getArguments());
+		}
+		print(")");
+		return true;
+	}
+
 	protected boolean substituteMethodInvocationOnArray(MethodInvocationElement invocation, String targetMethodName,
 			String targetClassName, boolean delegate) {
+		switch (targetClassName) {
+		case "java.util.TreeSet":
+		case "java.util.SortedSet":
+		case "java.util.NavigableSet":
+			if (substituteMethodInvocationOnSortedSet(invocation, targetMethodName, delegate)) {
+				return true;
+			}
+			break;
+		case "java.util.Set":
+		case "java.util.AbstractSet":
+		case "java.util.HashSet":
+		case "java.util.LinkedHashSet":
+			if (substituteMethodInvocationOnHashSet(invocation, targetMethodName, delegate)) {
+				return true;
+			}
+			break;
+		case "java.util.Collection":
+		case "java.util.AbstractCollection":
+			if (substituteMethodInvocationOnCollection(invocation, targetMethodName, delegate)) {
+				return true;
+			}
+		}
 		switch (targetMethodName) {
 		case "add":
 		case "addLast":
 		case "push":
 		case "addElement":
 			printMacroName(targetMethodName);
-			switch (targetClassName) {
-			case "java.util.Set":
-			case "java.util.HashSet":
-			case "java.util.TreeSet":
-				print("((s, e) => { if(s.indexOf(e)==-1) { s.push(e); return true; } else { return false; } })(");
-				print(invocation.getTargetExpression(), delegate).print(", ").print(invocation.getArgument(0))
-						.print(")");
-				break;
-			default:
-				if (invocation.getArgumentCount() == 2) {
-					print(invocation.getTargetExpression(), delegate).print(".splice(").print(invocation.getArgument(0))
-							.print(", 0, ").print(invocation.getArgument(1)).print(")");
-				} else {
-					print("(");
-					print(invocation.getTargetExpression(), delegate).print(".push(")
-							.printArgList(invocation.getArguments()).print(")>0)");
-				}
+			if (invocation.getArgumentCount() == 2) {
+				print(invocation.getTargetExpression(), delegate).print(".splice(").print(invocation.getArgument(0))
+						.print(", 0, ").print(invocation.getArgument(1)).print(")");
+			} else {
+				print("(");
+				print(invocation.getTargetExpression(), delegate).print(".push(")
+						.printArgList(invocation.getArguments()).print(")>0)");
 			}
 			return true;
 		case "addAll":
@@ -1154,7 +1778,7 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 			return true;
 		case "containsAll":
 			printMacroName(targetMethodName);
-			print("((a, r) => { for(let i=0;i<r.length;i++) { if(a.indexOf(<any>r[i])<0) return false; } return true; } )(");
+			print("((a, r) => { for(let i=0;i<r.length;i++) { if(a.indexOf(").printTypeScriptOnly("<any>").print("r[i])<0) return false; } return true; } )(");
 			print(invocation.getTargetExpression(), delegate).print(",").print(invocation.getArgument(0)).print(")");
 			return true;
 		case "retainAll":
@@ -1190,7 +1814,7 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 			return true;
 		case "size":
 			printMacroName(targetMethodName);
-			print("(<number>");
+			print("(").printTypeScriptOnly("<number>");
 			print(invocation.getTargetExpression(), delegate).print(".length)");
 			return true;
 		case "get":
@@ -1218,8 +1842,8 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		case "contains":
 			printMacroName(targetMethodName);
 			print("(");
-			print(invocation.getTargetExpression(), delegate).print(".indexOf(<any>(").print(invocation.getArgument(0))
-					.print(")) >= 0)");
+			print(invocation.getTargetExpression(), delegate).print(".indexOf(").printTypeScriptOnly("<any>")
+					.print("(").print(invocation.getArgument(0)).print(")) >= 0)");
 			return true;
 		case "toArray":
 			printMacroName(targetMethodName);
@@ -1277,13 +1901,15 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 			print(invocation.getTargetExpression(), delegate).print(".join(', ')+']')");
 			return true;
 		case "allOf":
-			print("function() { " + Java2TypeScriptTranslator.VAR_DECL_KEYWORD + " result: number[] = []; for("
-					+ Java2TypeScriptTranslator.VAR_DECL_KEYWORD + " val in ").print(invocation.getArgument(0))
-							.print(") { if(!isNaN(<any>val)) { result.push(parseInt(val,10)); } } return result; }()");
+			print("function() { " + Java2TypeScriptTranslator.VAR_DECL_KEYWORD + " result")
+					.printTypeScriptOnly(": number[]")
+					.print(" = []; for(" + Java2TypeScriptTranslator.VAR_DECL_KEYWORD + " val in ")
+					.print(invocation.getArgument(0)).print(") { if(!isNaN(").printTypeScriptOnly("<any>")
+					.print("val)) { result.push(parseInt(val,10)); } } return result; }()");
 			return true;
 		case "equals":
 			printMacroName(targetMethodName);
-			print("((a1, a2) => { if(a1==null && a2==null) return true; if(a1==null || a2==null) return false; if(a1.length != a2.length) return false; for(let i = 0; i < a1.length; i++) { if(<any>a1[i] != <any>a2[i]) return false; } return true; })(");
+			print("((a1, a2) => { if(a1==null && a2==null) return true; if(a1==null || a2==null) return false; if(a1.length != a2.length) return false; for(let i = 0; i < a1.length; i++) { if(").printTypeScriptOnly("<any>").print("a1[i] != ").printTypeScriptOnly("<any>").print("a2[i]) return false; } return true; })(");
 			print(invocation.getTargetExpression(), delegate).print(", ").printArgList(invocation.getArguments())
 					.print(")");
 			return true;
@@ -1319,7 +1945,7 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		case "doubleToLongBits":
 		case "doubleToRawLongBits":
 			printMacroName(targetMethodName);
-			print("((f) => { let buf = new ArrayBuffer(4); (new Float32Array(buf))[0]=f; return (new Uint32Array(buf))[0]; })((<any>Math).fround(")
+			print("((f) => { let buf = new ArrayBuffer(4); (new Float32Array(buf))[0]=f; return (new Uint32Array(buf))[0]; })((").printTypeScriptOnly("<any>").print("Math).fround(")
 					.printArgList(invocation.getArguments()).print("))");
 			return true;
 		case "longBitsToDouble":
@@ -1423,6 +2049,25 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		return super.substituteVariableAccess(variableAccess);
 	}
 
+	/**
+	 * Prints the arguments of the constructor of a sorted set or map (the
+	 * comparator and the initial elements), and closes the runtime call.
+	 */
+	private void printSortedCollectionArguments(NewClassElement newClass) {
+		if (newClass.getArgumentCount() == 0) {
+			print("null)");
+			return;
+		}
+		ExtendedElement argument = newClass.getArgument(0);
+		TypeElement comparatorType = Util.getTypeByName(context, Comparator.class.getName());
+		if (comparatorType != null && types().isSubtype(types().erasure(argument.getType()),
+				types().erasure(comparatorType.asType()))) {
+			print(argument).print(")");
+		} else {
+			print("null, ").print(argument).print(")");
+		}
+	}
+
 	@Override
 	public boolean substituteNewClass(NewClassElement newClass) {
 		String className = newClass.getTypeAsElement().toString();
@@ -1431,7 +2076,7 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		boolean extendsJava = jdkSuperclass != null;
 		if (extendsJava) {
 			className = jdkSuperclass.toString();
-			print("(() => { let __o : any = new ").print(newClass.getConstructorAccess()).print("(")
+			print("(() => { let __o").printTypeScriptOnly(" : any").print(" = new ").print(newClass.getConstructorAccess()).print("(")
 					.printArgList(newClass.getArguments()).print("); __o.__delegate = ");
 		}
 		boolean substitute = false;
@@ -1450,8 +2095,6 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		case "java.util.LinkedList":
 		case "java.util.Vector":
 		case "java.util.Stack":
-		case "java.util.TreeSet":
-		case "java.util.HashSet":
 		case "java.util.AbstractSet":
 		case "java.util.AbstractCollection":
 		case "java.util.AbstractList":
@@ -1468,21 +2111,55 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 			}
 			substitute = true;
 			break;
-		case "java.util.HashMap":
+		case "java.util.TreeSet":
+			printSortedCollectionsCall("set");
+			printSortedCollectionArguments(newClass);
+			substitute = true;
+			break;
+		case "java.util.HashSet":
+		case "java.util.LinkedHashSet":
+			// the runtime creates an indexed set, which removes in constant time
+			// when the insertion order does not need to be kept
+			printHashTableCall("of");
+			if (newClass.getArgumentCount() == 0 || Util.isNumber(newClass.getArgument(0).getType())
+					|| (newClass.getArgument(0) instanceof LiteralElement)) {
+				print("null");
+			} else {
+				print(newClass.getArgument(0));
+			}
+			print(", ").print("" + className.equals("java.util.LinkedHashSet")).print(")");
+			substitute = true;
+			break;
 		case "java.util.TreeMap":
+			if (isSortedMap(newClass.getType())) {
+				printSortedCollectionsCall("map");
+				printSortedCollectionArguments(newClass);
+				substitute = true;
+				break;
+			}
+			// otherwise, the tree map is a plain object like the other maps
+		case "java.util.HashMap":
 		case "java.util.Hashtable":
 		case "java.util.WeakHashMap":
 		case "java.util.LinkedHashMap":
-			if (newClass.getArgumentCount() == 0) {
-				print("{}");
+			if (isNativeMap(newClass.getType())) {
+				if (newClass.getArgumentCount() == 0 || Util.isNumber(newClass.getArgument(0).getType())) {
+					print("new Map()");
+				} else if (isNativeMap(newClass.getArgument(0).getType())) {
+					print("new Map(").print(newClass.getArgument(0)).print(")");
+				} else {
+					// the copied map may be a hash table or a plain object
+					printHashTableCall("toMap").print(newClass.getArgument(0)).print(")");
+				}
+			} else if (newClass.getArgumentCount() == 0) {
+				printEmptyMap(newClass.getType());
 			} else {
 				if (((DeclaredType) newClass.getType()).getTypeArguments().size() == 2 && types().isSameType(
 						((DeclaredType) newClass.getType()).getTypeArguments().get(0), util().getType(String.class))) {
 					print("((o) => { let r = {}; for(let p in o) r[p]=o[p]; return r; })(")
 							.print(newClass.getArgument(0)).print(")");
 				} else {
-					print("((o) => { let r = {}; r['entries'] = o.entries!=null?o.entries.slice():null; return r; })(")
-							.print(newClass.getArgument(0)).print(")");
+					printHashTableCall("copy").print(newClass.getArgument(0)).print(")");
 				}
 			}
 			substitute = true;
@@ -1601,6 +2278,9 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 	@Override
 	public boolean substituteForEachLoop(ForeachLoopElement foreachLoop, boolean targetHasLength, String indexVarName) {
 		JCEnhancedForLoop loop = ((ForeachLoopElementSupport) foreachLoop).getTree();
+		if (printNativeMapForEachLoop(loop, indexVarName)) {
+			return true;
+		}
 		if (!targetHasLength && !isJDKPath(loop.expr.type.toString())
 				&& types().isSubtype(loop.expr.type, types().erasure(util().getType(Iterable.class)))) {
 			printForEachLoop(loop, indexVarName);
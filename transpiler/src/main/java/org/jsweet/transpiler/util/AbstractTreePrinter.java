@@ -18,6 +18,7 @@
  */
 package org.jsweet.transpiler.util;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Stack;
 import java.util.function.Consumer;
@@ -68,7 +69,9 @@ public abstract class AbstractTreePrinter extends AbstractTreeScanner {
 	 */
 	protected static final String INDENT = "    ";
 
-	private StringBuilder out = new StringBuilder();
+	private static volatile String[] indentStrings = { "" };
+
+	private OutputBuffer out = new OutputBuffer();
 
 	private int indent = 0;
 
@@ -88,6 +91,12 @@ public abstract class AbstractTreePrinter extends AbstractTreeScanner {
 	 */
 	public SourceMap sourceMap = new SourceMap();
 
+	private int typeScriptOnlyDepth = 0;
+
+	private Stack<Integer> typeScriptOnlyDepthStack = new Stack<>();
+
+	private int rollbackCount = 0;
+
 	/**
 	 * Creates a new printer.
 	 * 
@@ -118,6 +127,16 @@ public abstract class AbstractTreePrinter extends AbstractTreeScanner {
 		return out.toString();
 	}
 
+	/**
+	 * Gets the buffer holding the output of this printer (avoids copying the
+	 * output when writing it out).
+	 * 
+	 * @see OutputBuffer#writeTo(java.io.Writer)
+	 */
+	public OutputBuffer getOutputBuffer() {
+		return out;
+	}
+
 	/**
 	 * Print a given AST.
 	 */
@@ -140,10 +159,13 @@ public abstract class AbstractTreePrinter extends AbstractTreeScanner {
 	protected void enter(JCTree tree) {
 		super.enter(tree);
 		positionStack.push(new Position(getCurrentPosition(), currentLine, currentColumn));
+		typeScriptOnlyDepthStack.push(typeScriptOnlyDepth);
 		if (compilationUnit != null && tree.pos >= 0 && inSourceMap(tree)) {
-			sourceMap.addEntry(new Position(tree.pos, //
+			Position outputPosition = positionStack.peek();
+			sourceMap.addEntry(tree.pos, //
 					compilationUnit.lineMap.getLineNumber(tree.pos), //
-					compilationUnit.lineMap.getColumnNumber(tree.pos)), positionStack.peek());
+					compilationUnit.lineMap.getColumnNumber(tree.pos), //
+					outputPosition.getPosition(), outputPosition.getLine(), outputPosition.getColumn());
 		}
 	}
 
@@ -154,10 +176,20 @@ public abstract class AbstractTreePrinter extends AbstractTreeScanner {
 	@Override
 	protected void onRollbacked(JCTree target) {
 		super.onRollbacked(target);
+		rollbackCount++;
 		Position position = positionStack.peek();
-		out.delete(position.getPosition(), out.length());
+		out.reset(position.getPosition());
 		currentColumn = position.getColumn();
 		currentLine = position.getLine();
+		typeScriptOnlyDepth = typeScriptOnlyDepthStack.peek();
+	}
+
+	/**
+	 * Gets the number of rollbacks that occurred while printing (see
+	 * {@link #rollback(JCTree, Consumer)}).
+	 */
+	public int getRollbackCount() {
+		return rollbackCount;
 	}
 
 	/**
@@ -168,14 +200,14 @@ public abstract class AbstractTreePrinter extends AbstractTreeScanner {
 		JCTree tree = stack.peek();
 		if (compilationUnit != null && tree instanceof JCBlock) {
 			int endPos = tree.getEndPosition(diagnosticSource.getEndPosTable());
-			sourceMap.addEntry(
-					new Position(endPos, //
-							compilationUnit.lineMap.getLineNumber(endPos), //
-							compilationUnit.lineMap.getColumnNumber(endPos)),
-					new Position(getCurrentPosition(), currentLine, currentColumn));
+			sourceMap.addEntry(endPos, //
+					compilationUnit.lineMap.getLineNumber(endPos), //
+					compilationUnit.lineMap.getColumnNumber(endPos), //
+					getCurrentPosition(), currentLine, currentColumn);
 		}
 		super.exit();
 		positionStack.pop();
+		typeScriptOnlyDepthStack.pop();
 	}
 
 	/**
@@ -189,7 +221,7 @@ public abstract class AbstractTreePrinter extends AbstractTreeScanner {
 	 * Gets the lastly printed character.
 	 */
 	public char getLastPrintedChar() {
-		return out.charAt(out.length() - 1);
+		return out.lastChar();
 	}
 
 	/**
@@ -203,21 +235,27 @@ public abstract class AbstractTreePrinter extends AbstractTreeScanner {
 	 * Prints an indentation for the current indentation value.
 	 */
 	public AbstractTreePrinter printIndent() {
-		for (int i = 0; i < indent; i++) {
-			print(INDENT);
-		}
-		return this;
+		return print(getIndentString());
 	}
 
 	/**
 	 * Returns the current indentation as a string.
 	 */
 	public String getIndentString() {
-		String indentString = "";
-		for (int i = 0; i < indent; i++) {
-			indentString += INDENT;
+		if (indent < 0) {
+			return "";
 		}
-		return indentString;
+		String[] strings = indentStrings;
+		if (indent >= strings.length) {
+			strings = Arrays.copyOf(strings, Math.max(indent + 1, strings.length * 2));
+			for (int i = 1; i < strings.length; i++) {
+				if (strings[i] == null) {
+					strings[i] = strings[i - 1] + INDENT;
+				}
+			}
+			indentStrings = strings;
+		}
+		return strings[indent];
 	}
 
 	/**
@@ -240,11 +278,58 @@ public abstract class AbstractTreePrinter extends AbstractTreeScanner {
 	 * Outputs a string (new lines are not allowed).
 	 */
 	public AbstractTreePrinter print(String string) {
+		if (isOutputSkipped()) {
+			return this;
+		}
 		out.append(string);
 		currentColumn += string.length();
 		return this;
 	}
 	
+	/**
+	 * Tells if this printer outputs TypeScript code (default). When returning
+	 * false, the parts of the output that are enclosed between
+	 * {@link #startTypeScriptOnly()} and {@link #endTypeScriptOnly()} are not
+	 * printed.
+	 */
+	public boolean isTypeScriptOutput() {
+		return true;
+	}
+
+	/**
+	 * Starts a part of the output that is only valid in TypeScript (type
+	 * annotations, type arguments, access modifiers, ...). Such parts can be
+	 * nested and must be ended with {@link #endTypeScriptOnly()}.
+	 */
+	public AbstractTreePrinter startTypeScriptOnly() {
+		typeScriptOnlyDepth++;
+		return this;
+	}
+
+	/**
+	 * Ends a part of the output started with {@link #startTypeScriptOnly()}.
+	 */
+	public AbstractTreePrinter endTypeScriptOnly() {
+		typeScriptOnlyDepth--;
+		return this;
+	}
+
+	/**
+	 * Outputs a string that is only valid in TypeScript (see
+	 * {@link #startTypeScriptOnly()}).
+	 */
+	public AbstractTreePrinter printTypeScriptOnly(String string) {
+		return startTypeScriptOnly().print(string).endTypeScriptOnly();
+	}
+
+	/**
+	 * Tells if the output is currently skipped, i.e. when this printer does not
+	 * output TypeScript and that a TypeScript-only part is being printed.
+	 */
+	protected boolean isOutputSkipped() {
+		return typeScriptOnlyDepth > 0 && !isTypeScriptOutput();
+	}
+
 	/**
 	 * Outputs a string and new line
 	 */
@@ -290,16 +375,16 @@ public abstract class AbstractTreePrinter extends AbstractTreeScanner {
 	 * Removes the last output character.
 	 */
 	public AbstractTreePrinter removeLastChar() {
-		if (out.length() == 0) {
+		if (out.length() == 0 || isOutputSkipped()) {
 			return this;
 		}
-		if (out.charAt(out.length() - 1) == '\n') {
+		if (out.lastChar() == '\n') {
 			currentLine--;
 			currentColumn = 0;
 		} else {
 			currentColumn--;
 		}
-		out.deleteCharAt(out.length() - 1);
+		out.reset(out.length() - 1);
 		return this;
 	}
 
@@ -325,7 +410,10 @@ public abstract class AbstractTreePrinter extends AbstractTreeScanner {
 	 * Outputs a new line.
 	 */
 	public AbstractTreePrinter println() {
-		out.append("\n");
+		if (isOutputSkipped()) {
+			return this;
+		}
+		out.append('\n');
 		currentLine++;
 		currentColumn = 0;
 		return this;
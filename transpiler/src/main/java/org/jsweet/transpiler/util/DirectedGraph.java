@@ -21,11 +21,14 @@ package org.jsweet.transpiler.util;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -577,6 +580,56 @@ public class DirectedGraph<T> implements Collection<T> {
 		return toElements(L);
 	}
 
+	/**
+	 * Calculates the strongly connected components of this graph, using
+	 * Tarjan's algorithm. Each component is a set of elements that all depend
+	 * on each other (transitively). The elements of the graph that are not
+	 * part of any cycle are singleton components.
+	 * 
+	 * @return the components, in an order such that each component comes
+	 *         after all the components its elements have edges to
+	 */
+	public List<List<T>> getStronglyConnectedComponents() {
+		Map<Node<T>, Integer> indexes = new HashMap<>();
+		Map<Node<T>, Integer> lowLinks = new HashMap<>();
+		Stack<Node<T>> stack = new Stack<>();
+		Set<Node<T>> onStack = new HashSet<>();
+		List<List<T>> components = new ArrayList<>();
+		for (Node<T> node : nodes.values()) {
+			if (!indexes.containsKey(node)) {
+				strongConnect(node, indexes, lowLinks, stack, onStack, components);
+			}
+		}
+		return components;
+	}
+
+	private void strongConnect(Node<T> node, Map<Node<T>, Integer> indexes, Map<Node<T>, Integer> lowLinks,
+			Stack<Node<T>> stack, Set<Node<T>> onStack, List<List<T>> components) {
+		indexes.put(node, indexes.size());
+		lowLinks.put(node, indexes.get(node));
+		stack.push(node);
+		onStack.add(node);
+		for (Edge<T> edge : node.outEdges) {
+			Node<T> to = edge.to;
+			if (!indexes.containsKey(to)) {
+				strongConnect(to, indexes, lowLinks, stack, onStack, components);
+				lowLinks.put(node, Math.min(lowLinks.get(node), lowLinks.get(to)));
+			} else if (onStack.contains(to)) {
+				lowLinks.put(node, Math.min(lowLinks.get(node), indexes.get(to)));
+			}
+		}
+		if (lowLinks.get(node).equals(indexes.get(node))) {
+			List<T> component = new ArrayList<>();
+			Node<T> member;
+			do {
+				member = stack.pop();
+				onStack.remove(member);
+				component.add(member.element);
+			} while (member != node);
+			components.add(component);
+		}
+	}
+
 	/**
 	 * Dumps the found cycles to System.out.
 	 * 
@@ -43,8 +43,10 @@ public class ErrorCountTranspilationHandler extends AbstractDelegatedTranspilati
 
 	/**
 	 * Count the problems and delegates to the decorated transpilation handler.
+	 * Reports are serialized, so that the decorated handler can be safely used
+	 * when compilation units are printed in parallel.
 	 */
-	public void report(JSweetProblem problem, SourcePosition sourcePosition, String message) {
+	public synchronized void report(JSweetProblem problem, SourcePosition sourcePosition, String message) {
 		if (!disabled) {
 			switch (problem.getSeverity()) {
 			case ERROR:
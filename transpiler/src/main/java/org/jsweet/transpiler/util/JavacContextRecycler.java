@@ -0,0 +1,192 @@
+/* 
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import javax.tools.JavaFileObject;
+
+import org.apache.log4j.Logger;
+
+import com.sun.tools.javac.code.Flags;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.PackageSymbol;
+import com.sun.tools.javac.code.Symtab;
+import com.sun.tools.javac.comp.Check;
+import com.sun.tools.javac.comp.CompileStates;
+import com.sun.tools.javac.comp.Todo;
+import com.sun.tools.javac.main.JavaCompiler;
+import com.sun.tools.javac.util.AbstractLog;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Log;
+
+/**
+ * Recycles the javac components of a context that was used for a previous
+ * compilation into a new context, so that the symbols read from the class path
+ * (typically the candies' classes), the file manager (with its opened jar
+ * files) and the other javac components are not created and loaded again for
+ * each compilation.
+ * 
+ * <p>
+ * Before being transferred, the javac state is cleaned from everything that
+ * comes from the previously compiled source files: the source class symbols
+ * are removed from the symbol table and from their packages, the package
+ * annotations defined in <code>package-info.java</code> files are cleared, and
+ * the queues and logs of the compiler are reset. Since javac does not provide
+ * any API for that (at least in Java 8), this class accesses some internal
+ * fields by reflection, and the recycling is simply skipped when it fails (the
+ * caller should then initialize a fresh context).
+ * 
+ * @author Renaud Pawlak
+ */
+public class JavacContextRecycler {
+
+	private static final Logger logger = Logger.getLogger(JavacContextRecycler.class);
+
+	private JavacContextRecycler() {
+	}
+
+	private static Object getField(Class<?> clazz, Object object, String name) throws ReflectiveOperationException {
+		Field field = clazz.getDeclaredField(name);
+		field.setAccessible(true);
+		return field.get(object);
+	}
+
+	/**
+	 * Transfers the javac components of a previously used context to a new
+	 * (empty) context, after discarding the state coming from the previously
+	 * compiled source files.
+	 * 
+	 * <p>
+	 * The previous context must not be used anymore once recycled.
+	 * 
+	 * @param previousContext
+	 *            the context used by the previous compilation (it must have
+	 *            completed normally)
+	 * @param newContext
+	 *            the new context, into which no javac component has been
+	 *            registered yet
+	 * @return true if the context was recycled, false if the new context is
+	 *         left untouched and shall be initialized normally
+	 */
+	@SuppressWarnings("unchecked")
+	public static boolean recycle(Context previousContext, Context newContext) {
+		try {
+			Map<Object, Object> newInstances = (Map<Object, Object>) getField(Context.class, newContext, "ht");
+			Map<Object, Object> newFactories = (Map<Object, Object>) getField(Context.class, newContext, "ft");
+			Map<Object, Object> newKeys = (Map<Object, Object>) getField(Context.class, newContext, "kt");
+			Map<Object, Object> previousInstances = (Map<Object, Object>) getField(Context.class, previousContext,
+					"ht");
+			Map<Object, Object> previousFactories = (Map<Object, Object>) getField(Context.class, previousContext,
+					"ft");
+			Map<Object, Object> previousKeys = (Map<Object, Object>) getField(Context.class, previousContext, "kt");
+			if (!newInstances.isEmpty() || !newFactories.isEmpty()) {
+				logger.debug("cannot recycle javac context: new context is not empty");
+				return false;
+			}
+
+			Symtab symtab = Symtab.instance(previousContext);
+			Check check = Check.instance(previousContext);
+
+			Map<?, ClassSymbol> compiledClasses = (Map<?, ClassSymbol>) getField(Check.class, check, "compiled");
+			Set<ClassSymbol> sourceClasses = new HashSet<>(compiledClasses.values());
+			for (ClassSymbol c : symtab.classes.values()) {
+				if (c.classfile != null && c.classfile.getKind() == JavaFileObject.Kind.SOURCE) {
+					// classes implicitly compiled from the class path cannot be
+					// reloaded once removed from their (already completed)
+					// packages
+					logger.debug("cannot recycle javac context: implicitly compiled class " + c);
+					return false;
+				}
+			}
+
+			// collect all that needs reflection first, so that a failure leaves
+			// the previous state untouched
+			Log log = Log.instance(previousContext);
+			Collection<?> recordedDiagnostics = (Collection<?>) getField(Log.class, log, "recorded");
+			Map<?, ?> diagnosticSources = (Map<?, ?>) getField(AbstractLog.class, log, "sourceMap");
+			JavaCompiler compiler = JavaCompiler.instance(previousContext);
+			Collection<?> inputFiles = (Collection<?>) getField(JavaCompiler.class, compiler, "inputFiles");
+			Class<?> typeEnvsClass = Class.forName("com.sun.tools.javac.comp.TypeEnvs");
+			Method typeEnvsInstance = typeEnvsClass.getMethod("instance", Context.class);
+			typeEnvsInstance.setAccessible(true);
+			Object typeEnvs = typeEnvsInstance.invoke(null, previousContext);
+			Field packageMetadata = Symbol.class.getDeclaredField("metadata");
+			packageMetadata.setAccessible(true);
+			Method clearTypeEnvs = typeEnvsClass.getDeclaredMethod("clear");
+			clearTypeEnvs.setAccessible(true);
+
+			// discard the symbols of the previously compiled source files
+			for (Iterator<ClassSymbol> it = symtab.classes.values().iterator(); it.hasNext();) {
+				if (sourceClasses.contains(it.next())) {
+					it.remove();
+				}
+			}
+			for (ClassSymbol c : sourceClasses) {
+				if (c.owner instanceof PackageSymbol) {
+					PackageSymbol p = (PackageSymbol) c.owner;
+					if (p.members_field != null) {
+						p.members_field.remove(c);
+					}
+				}
+			}
+			for (PackageSymbol p : symtab.packages.values()) {
+				if (p.package_info != null && (p.package_info.classfile == null
+						|| p.package_info.classfile.getKind() != JavaFileObject.Kind.CLASS)) {
+					// package annotations come from a package-info.java file
+					symtab.classes.remove(p.package_info.flatname);
+					p.package_info = null;
+					p.flags_field &= ~Flags.DEPRECATED;
+					packageMetadata.set(p, null);
+				}
+			}
+			compiledClasses.clear();
+			clearTypeEnvs.invoke(typeEnvs);
+			Todo.instance(previousContext).clear();
+			CompileStates.instance(previousContext).clear();
+			inputFiles.clear();
+
+			// reset the log
+			log.nerrors = 0;
+			log.nwarnings = 0;
+			recordedDiagnostics.clear();
+			diagnosticSources.clear();
+			log.useSource(null);
+
+			newKeys.putAll(previousKeys);
+			newFactories.putAll(previousFactories);
+			newInstances.putAll(previousInstances);
+
+			logger.debug("recycled javac context: " + sourceClasses.size() + " source class(es) discarded, "
+					+ symtab.classes.size() + " class(es) kept");
+			return true;
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			logger.warn("cannot recycle javac context: " + e);
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,187 @@
+/* 
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * A character buffer made of fixed-size chunks (a simple rope), used by the
+ * printers to accumulate their output.
+ *
+ * <p>
+ * Unlike a <code>StringBuilder</code>, growing the buffer never copies the
+ * already printed text, resetting the buffer to a previous mark (on rollback)
+ * only drops chunks, and the content can be written out to a {@link Writer}
+ * chunk by chunk, without building the whole string.
+ *
+ * @see AbstractTreePrinter
+ * @author Renaud Pawlak
+ */
+public class OutputBuffer implements CharSequence {
+
+	private static final int CHUNK_SHIFT = 13;
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private char[][] chunks = new char[4][];
+	private int length = 0;
+
+	private char[] chunkForWrite(int index) {
+		int chunkIndex = index >> CHUNK_SHIFT;
+		if (chunkIndex == chunks.length) {
+			chunks = Arrays.copyOf(chunks, chunks.length * 2);
+		}
+		if (chunks[chunkIndex] == null) {
+			chunks[chunkIndex] = new char[CHUNK_SIZE];
+		}
+		return chunks[chunkIndex];
+	}
+
+	/**
+	 * Appends the given string.
+	 */
+	public OutputBuffer append(String string) {
+		int offset = 0;
+		int remaining = string.length();
+		while (remaining > 0) {
+			char[] chunk = chunkForWrite(length);
+			int start = length & CHUNK_MASK;
+			int count = Math.min(remaining, CHUNK_SIZE - start);
+			string.getChars(offset, offset + count, chunk, start);
+			offset += count;
+			remaining -= count;
+			length += count;
+		}
+		return this;
+	}
+
+	/**
+	 * Appends the given character.
+	 */
+	public OutputBuffer append(char c) {
+		chunkForWrite(length)[length & CHUNK_MASK] = c;
+		length++;
+		return this;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new StringIndexOutOfBoundsException(index);
+		}
+		return chunks[index >> CHUNK_SHIFT][index & CHUNK_MASK];
+	}
+
+	/**
+	 * Gets the last character of this buffer.
+	 */
+	public char lastChar() {
+		return charAt(length - 1);
+	}
+
+	/**
+	 * Returns a mark for the current state of this buffer, to be used with
+	 * {@link #reset(int)}.
+	 */
+	public int mark() {
+		return length;
+	}
+
+	/**
+	 * Resets this buffer to the given mark, so that all the characters
+	 * appended after the mark are discarded.
+	 *
+	 * @param mark
+	 *            a mark previously returned by {@link #mark()} (or any
+	 *            position lower than the current length)
+	 */
+	public void reset(int mark) {
+		if (mark < 0 || mark > length) {
+			throw new StringIndexOutOfBoundsException(mark);
+		}
+		// release the chunks that are not used anymore (keep one spare chunk)
+		for (int i = ((mark + CHUNK_MASK) >> CHUNK_SHIFT) + 1; i < chunks.length && chunks[i] != null; i++) {
+			chunks[i] = null;
+		}
+		length = mark;
+	}
+
+	@Override
+	public String subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new StringIndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+		}
+		StringBuilder sb = new StringBuilder(end - start);
+		appendTo(sb, start, end);
+		return sb.toString();
+	}
+
+	/**
+	 * Gets the string from the given position to the end of this buffer.
+	 */
+	public String substring(int start) {
+		return subSequence(start, length);
+	}
+
+	private void appendTo(StringBuilder sb, int start, int end) {
+		while (start < end) {
+			int offset = start & CHUNK_MASK;
+			int count = Math.min(end - start, CHUNK_SIZE - offset);
+			sb.append(chunks[start >> CHUNK_SHIFT], offset, count);
+			start += count;
+		}
+	}
+
+	/**
+	 * Tells if this buffer contains only whitespaces (or is empty).
+	 */
+	public boolean isWhitespace() {
+		for (int i = 0; i < length; i++) {
+			if (!Character.isWhitespace(chunks[i >> CHUNK_SHIFT][i & CHUNK_MASK])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the content of this buffer to the given writer, chunk by chunk.
+	 */
+	public void writeTo(Writer writer) throws IOException {
+		int start = 0;
+		while (start < length) {
+			int count = Math.min(length - start, CHUNK_SIZE);
+			writer.write(chunks[start >> CHUNK_SHIFT], 0, count);
+			start += count;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return subSequence(0, length);
+	}
+
+}
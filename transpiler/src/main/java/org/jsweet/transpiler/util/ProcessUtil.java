@@ -67,6 +67,10 @@ public class ProcessUtil {
 	}
 
 	public static void addExtraPath(String extraPath) {
+		if (Arrays.asList(EXTRA_PATH.split(File.pathSeparator)).contains(extraPath)) {
+			// already added (the same process may run several transpilations)
+			return;
+		}
 		ProcessUtil.EXTRA_PATH += extraPath + File.pathSeparator;
 	}
 
@@ -19,15 +19,30 @@
 package org.jsweet.transpiler.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 /**
  * This object represents a source map between an input source file and an
  * output source file.
  * 
+ * <p>
+ * The entries are stored in parallel arrays of ints (one per position
+ * component) in insertion order, and indexed by output position when looked
+ * up, so that looking up an input position is a binary search, and shifting
+ * the output lines or removing the last inserted entry does not allocate
+ * anything.
+ * 
+ * <p>
+ * Like a set of entries ordered by input position, a source map holds at most
+ * one entry per input position: an entry added for an input position that is
+ * already mapped is ignored, so that the first mapping wins. Indexed accessors
+ * such as {@link #getInputLine(int)} see the entries sorted by output
+ * position, while {@link #getSortedEntries(Comparator)} and
+ * {@link #toString()} see them sorted by input position.
+ * 
  * @author Renaud Pawlak
  */
 public class SourceMap {
@@ -38,11 +53,15 @@ public class SourceMap {
 	 * @see SourceMap
 	 */
 	public static final class Entry implements Comparable<Entry> {
+		private final SourceMap sourceMap;
+		private final int slot;
 		private final Position inputPosition;
 		private Position outputPosition;
 
-		private Entry(Position inputPosition, Position outputPosition) {
+		private Entry(SourceMap sourceMap, int slot, Position inputPosition, Position outputPosition) {
 			super();
+			this.sourceMap = sourceMap;
+			this.slot = slot;
 			this.inputPosition = inputPosition;
 			this.outputPosition = outputPosition;
 		}
@@ -63,9 +82,15 @@ public class SourceMap {
 
 		/**
 		 * Sets the position in the ouput file.
+		 * 
+		 * @deprecated the output positions should be set when adding the
+		 *             entries, or shifted with
+		 *             {@link SourceMap#shiftOutputPositions(int)}
 		 */
+		@Deprecated
 		public final void setOutputPosition(Position position) {
 			this.outputPosition = position;
+			sourceMap.setOutputPosition(slot, position);
 		}
 
 		@Override
@@ -79,14 +104,63 @@ public class SourceMap {
 		}
 	}
 
-	private SortedSet<Entry> entries = new TreeSet<>();
-	private List<Entry> insertionOrderEntries = new ArrayList<>();
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The number of live entries.
+	 */
+	private int size = 0;
+	/**
+	 * The number of used slots in the entry arrays (including the removed
+	 * entries that are not at the end of the arrays).
+	 */
+	private int slotCount = 0;
+	private int[] inputPositions = new int[INITIAL_CAPACITY];
+	private int[] inputLines = new int[INITIAL_CAPACITY];
+	private int[] inputColumns = new int[INITIAL_CAPACITY];
+	private int[] outputPositions = new int[INITIAL_CAPACITY];
+	private int[] outputLines = new int[INITIAL_CAPACITY];
+	private int[] outputColumns = new int[INITIAL_CAPACITY];
+	private boolean[] removed = new boolean[INITIAL_CAPACITY];
+
+	/**
+	 * The slots of the inserted entries, in insertion order (an insertion
+	 * ignored as a duplicate refers to the slot of the entry it duplicates).
+	 */
+	private int[] insertionOrder = new int[INITIAL_CAPACITY];
+	private int insertionCount = 0;
+
+	/**
+	 * An open-addressing hash table (with linear probing) mapping the input
+	 * positions (see {@link #inputKey(int, int)}) to the slots of their
+	 * entries. Empty buckets hold a negative slot.
+	 */
+	private long[] inputKeys = new long[INITIAL_CAPACITY * 2];
+	private int[] inputSlots = newBuckets(INITIAL_CAPACITY * 2);
+	private int inputKeyCount = 0;
+
+	/**
+	 * The slots of the live entries sorted by output position, or null when
+	 * the slots are already in that order and have no removed entries.
+	 */
+	private int[] sortedSlots = null;
+	/**
+	 * False when {@link #sortedSlots} and {@link #maxOutputLine} must be
+	 * recomputed.
+	 */
+	private boolean indexed = true;
+	/**
+	 * True when some entries were added out of the output order (after a
+	 * printer rollback for instance).
+	 */
+	private boolean unsorted = false;
 
 	private int minOutputLine = 0;
 	private int maxOutputLine = 0;
 
 	/**
-	 * Adds an entry to the source map (entry must be added in order).
+	 * Adds an entry to the source map (entry must be added in order). The entry
+	 * is ignored if the input position is already mapped.
 	 * 
 	 * @param inputPosition
 	 *            the input position in the input source file
@@ -95,11 +169,215 @@ public class SourceMap {
 	 * @return the added entry (null if the entry cannot be added)
 	 */
 	public final Entry addEntry(Position inputPosition, Position outputPosition) {
-		Entry entry = new Entry(inputPosition, outputPosition);
-		entries.add(entry);
-		insertionOrderEntries.add(entry);
-		maxOutputLine = Math.max(maxOutputLine, outputPosition.getLine());
-		return entry;
+		int slot = addEntry(inputPosition.getPosition(), inputPosition.getLine(), inputPosition.getColumn(),
+				outputPosition.getPosition(), outputPosition.getLine(), outputPosition.getColumn());
+		return slot < 0 ? null : new Entry(this, slot, inputPosition, outputPosition);
+	}
+
+	/**
+	 * Adds an entry to the source map without allocating any position object.
+	 * 
+	 * @return the slot of the added entry (-1 if the entry cannot be added)
+	 * @see #addEntry(Position, Position)
+	 */
+	public final int addEntry(int inputPosition, int inputLine, int inputColumn, int outputPosition,
+			int outputLine, int outputColumn) {
+		if (insertionCount == insertionOrder.length) {
+			insertionOrder = Arrays.copyOf(insertionOrder, insertionCount * 2);
+		}
+		long key = inputKey(inputLine, inputColumn);
+		int bucket = findBucket(key);
+		if (inputSlots[bucket] >= 0) {
+			insertionOrder[insertionCount++] = inputSlots[bucket];
+			return -1;
+		}
+		if (slotCount == outputLines.length) {
+			int capacity = slotCount * 2;
+			inputPositions = Arrays.copyOf(inputPositions, capacity);
+			inputLines = Arrays.copyOf(inputLines, capacity);
+			inputColumns = Arrays.copyOf(inputColumns, capacity);
+			outputPositions = Arrays.copyOf(outputPositions, capacity);
+			outputLines = Arrays.copyOf(outputLines, capacity);
+			outputColumns = Arrays.copyOf(outputColumns, capacity);
+			removed = Arrays.copyOf(removed, capacity);
+		}
+		int slot = slotCount++;
+		if (slot > 0 && compareOutput(outputLine, outputColumn, slot - 1) < 0) {
+			unsorted = true;
+		}
+		if (sortedSlots != null || unsorted) {
+			indexed = false;
+		}
+		inputPositions[slot] = inputPosition;
+		inputLines[slot] = inputLine;
+		inputColumns[slot] = inputColumn;
+		outputPositions[slot] = outputPosition;
+		outputLines[slot] = outputLine;
+		outputColumns[slot] = outputColumn;
+		removed[slot] = false;
+		insertionOrder[insertionCount++] = slot;
+		size++;
+		maxOutputLine = Math.max(maxOutputLine, outputLine);
+		inputKeys[bucket] = key;
+		inputSlots[bucket] = slot;
+		if (++inputKeyCount * 2 > inputKeys.length) {
+			rehash(inputKeys.length * 2);
+		}
+		return slot;
+	}
+
+	private static long inputKey(int inputLine, int inputColumn) {
+		return ((long) inputLine << 32) | (inputColumn & 0xFFFFFFFFL);
+	}
+
+	private static int[] newBuckets(int capacity) {
+		int[] buckets = new int[capacity];
+		Arrays.fill(buckets, -1);
+		return buckets;
+	}
+
+	private int hashBucket(long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & (inputKeys.length - 1);
+	}
+
+	/**
+	 * Finds the bucket holding the given input key, or the empty bucket where
+	 * it should be inserted.
+	 */
+	private int findBucket(long key) {
+		int mask = inputKeys.length - 1;
+		int bucket = hashBucket(key);
+		while (inputSlots[bucket] >= 0 && inputKeys[bucket] != key) {
+			bucket = (bucket + 1) & mask;
+		}
+		return bucket;
+	}
+
+	private void rehash(int capacity) {
+		long[] keys = inputKeys;
+		int[] slots = inputSlots;
+		inputKeys = new long[capacity];
+		inputSlots = newBuckets(capacity);
+		for (int i = 0; i < keys.length; i++) {
+			if (slots[i] >= 0) {
+				int bucket = findBucket(keys[i]);
+				inputKeys[bucket] = keys[i];
+				inputSlots[bucket] = slots[i];
+			}
+		}
+	}
+
+	/**
+	 * Removes an input key, shifting back the following keys of its probe
+	 * sequence so that no tombstone is needed.
+	 */
+	private void removeInputKey(long key) {
+		int mask = inputKeys.length - 1;
+		int bucket = findBucket(key);
+		if (inputSlots[bucket] < 0) {
+			return;
+		}
+		inputKeyCount--;
+		int next = bucket;
+		while (true) {
+			next = (next + 1) & mask;
+			if (inputSlots[next] < 0) {
+				break;
+			}
+			int home = hashBucket(inputKeys[next]);
+			// moves the next key back if its home bucket is not between the
+			// freed bucket and its current bucket (cyclically)
+			if (bucket <= next ? (bucket < home && home <= next) : (bucket < home || home <= next)) {
+				continue;
+			}
+			inputKeys[bucket] = inputKeys[next];
+			inputSlots[bucket] = inputSlots[next];
+			bucket = next;
+		}
+		inputSlots[bucket] = -1;
+	}
+
+	private int compareOutput(int outputLine, int outputColumn, int slot) {
+		if (outputLine != outputLines[slot]) {
+			return outputLine < outputLines[slot] ? -1 : 1;
+		}
+		return outputColumn < outputColumns[slot] ? -1 : (outputColumn == outputColumns[slot] ? 0 : 1);
+	}
+
+	/**
+	 * Indexes the live entries by output position (stable, so that entries at
+	 * the same output position keep their insertion order).
+	 */
+	private void sort() {
+		if (indexed) {
+			return;
+		}
+		maxOutputLine = minOutputLine;
+		if (!unsorted && size == slotCount) {
+			sortedSlots = null;
+			for (int slot = 0; slot < slotCount; slot++) {
+				maxOutputLine = Math.max(maxOutputLine, outputLines[slot]);
+			}
+		} else {
+			Integer[] order = new Integer[size];
+			int i = 0;
+			for (int slot = 0; slot < slotCount; slot++) {
+				if (!removed[slot]) {
+					order[i++] = slot;
+					maxOutputLine = Math.max(maxOutputLine, outputLines[slot]);
+				}
+			}
+			Arrays.sort(order, (s1, s2) -> compareOutput(outputLines[s1], outputColumns[s1], s2));
+			sortedSlots = new int[size];
+			for (i = 0; i < size; i++) {
+				sortedSlots[i] = order[i];
+			}
+		}
+		indexed = true;
+	}
+
+	private int slot(int index) {
+		sort();
+		return sortedSlots == null ? index : sortedSlots[index];
+	}
+
+	/**
+	 * Gets the number of entries in this source map.
+	 */
+	public final int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the input line of the entry at the given index (entries are sorted
+	 * by output position).
+	 */
+	public final int getInputLine(int index) {
+		return inputLines[slot(index)];
+	}
+
+	/**
+	 * Gets the input column of the entry at the given index (entries are
+	 * sorted by output position).
+	 */
+	public final int getInputColumn(int index) {
+		return inputColumns[slot(index)];
+	}
+
+	/**
+	 * Gets the output line of the entry at the given index (entries are sorted
+	 * by output position).
+	 */
+	public final int getOutputLine(int index) {
+		return outputLines[slot(index)];
+	}
+
+	/**
+	 * Gets the output column of the entry at the given index (entries are
+	 * sorted by output position).
+	 */
+	public final int getOutputColumn(int index) {
+		return outputColumns[slot(index)];
 	}
 
 	/**
@@ -123,47 +401,73 @@ public class SourceMap {
 	 * @return the mapped position in the input source file
 	 */
 	public final Position findInputPosition(int outputLine, int outputColumn) {
-		if (entries.isEmpty()) {
+		int index = findEntryIndex(outputLine, outputColumn);
+		if (index < 0) {
 			return null;
 		}
-		if (outputLine < minOutputLine) {
-			return null;
-		}
-		if (outputLine > maxOutputLine) {
-			return null;
+		int slot = slot(index);
+		return new Position(inputPositions[slot], inputLines[slot], inputColumns[slot]);
+	}
+
+	/**
+	 * Finds the index of the entry mapping the given output position: the
+	 * first entry of the output line that is at or after the given column, or
+	 * the closest entry before the given position if none.
+	 * 
+	 * @return the entry's index, -1 if the position is out of the mapped lines
+	 */
+	public final int findEntryIndex(int outputLine, int outputColumn) {
+		sort();
+		if (size == 0 || outputLine < minOutputLine || outputLine > maxOutputLine) {
+			return -1;
 		}
-		if (entries != null) {
-			Entry[] e = entries.toArray(new Entry[0]);
-			for (int i = 0; i < entries.size(); i++) {
-				if (i == e.length - 1 || (e[i].getOutputPosition().getLine() == outputLine
-						|| e[i + 1].getOutputPosition().getLine() > outputLine)) {
-					while (i + 1 < e.length && e[i + 1].getOutputPosition().getLine() == outputLine
-							&& e[i].getOutputPosition().getColumn() < outputColumn) {
-						i++;
-					}
-					return e[i].getInputPosition();
-				}
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (compareOutput(outputLine, outputColumn, slot(middle)) > 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
 			}
 		}
-		return null;
+		if (low < size && outputLines[slot(low)] == outputLine) {
+			return low;
+		}
+		return low > 0 ? low - 1 : 0;
 	}
 
 	/**
 	 * Shifts the ouput positions by the given line offset.
 	 */
 	public final void shiftOutputPositions(int lineOffset) {
-		for (Entry entry : entries) {
-			entry.setOutputPosition(new Position(entry.getOutputPosition().getLine() + lineOffset,
-					entry.getOutputPosition().getColumn()));
+		for (int slot = 0; slot < slotCount; slot++) {
+			outputLines[slot] += lineOffset;
 		}
 		minOutputLine += lineOffset;
 		maxOutputLine += lineOffset;
 	}
 
+	private void setOutputPosition(int slot, Position position) {
+		if (removed[slot]) {
+			return;
+		}
+		outputPositions[slot] = position.getPosition();
+		outputLines[slot] = position.getLine();
+		outputColumns[slot] = position.getColumn();
+		unsorted = true;
+		indexed = false;
+	}
+
+	private Entry getEntry(int slot) {
+		return new Entry(this, slot, new Position(inputPositions[slot], inputLines[slot], inputColumns[slot]),
+				new Position(outputPositions[slot], outputLines[slot], outputColumns[slot]));
+	}
+
 	@Override
 	public String toString() {
 		StringBuffer sb = new StringBuffer();
-		for (Entry entry : entries) {
+		for (Entry entry : getSortedEntries(null)) {
 			sb.append(entry.toString());
 			sb.append(" ");
 		}
@@ -172,26 +476,43 @@ public class SourceMap {
 
 	/**
 	 * Gets all the sorted entries in this source map agains the given
-	 * comparator.
+	 * comparator (entries are sorted by input position if no comparator is
+	 * given).
 	 */
 	public List<Entry> getSortedEntries(Comparator<Entry> comparator) {
-		List<Entry> list = new ArrayList<Entry>(entries);
-		list.sort(comparator);
+		List<Entry> list = new ArrayList<Entry>(size);
+		for (int i = 0; i < size; i++) {
+			list.add(getEntry(slot(i)));
+		}
+		if (comparator != null) {
+			list.sort(comparator);
+		} else {
+			Collections.sort(list);
+		}
 		return list;
 	}
 
 	/**
-	 * Removes the last inserted entry from this source map.
+	 * Removes the last inserted entry from this source map. It can be called
+	 * repeatedly to remove the entries in the reverse insertion order.
 	 */
 	public void removeLastInsertedEntry() {
-		if (entries.isEmpty()) {
+		if (insertionCount == 0) {
 			return;
 		}
-		Entry e = insertionOrderEntries.remove(insertionOrderEntries.size() - 1);
-		entries.remove(e);
-		maxOutputLine = 0;
-		for (Entry entry : entries) {
-			maxOutputLine = Math.max(maxOutputLine, entry.getOutputPosition().getLine());
+		int slot = insertionOrder[--insertionCount];
+		if (removed[slot]) {
+			// already removed through a duplicate insertion
+			return;
+		}
+		removed[slot] = true;
+		size--;
+		removeInputKey(inputKey(inputLines[slot], inputColumns[slot]));
+		while (slotCount > 0 && removed[slotCount - 1]) {
+			slotCount--;
+		}
+		if (sortedSlots != null || size != slotCount || outputLines[slot] == maxOutputLine) {
+			indexed = false;
 		}
 	}
 
@@ -32,6 +32,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
@@ -110,13 +111,13 @@ public class Util {
 	private Util() {
 	}
 
-	private static long id = 121;
+	private static final AtomicLong id = new AtomicLong(121);
 
 	/**
 	 * Returns a unique id (incremental).
 	 */
 	public static long getId() {
-		return id++;
+		return id.getAndIncrement();
 	}
 
 	/**
@@ -156,7 +157,13 @@ public class Util {
 	}
 
 	/**
-	 * Gets the tree that corresponds to the given element (this is a slow
+	 * Gets the tree that corresponds to the given element.
+	 * 
+	 * <p>
+	 * The trees are looked up in the declarations registered in the context
+	 * (see {@link JSweetContext#registerDeclaration(Symbol, JCTree)}). If the
+	 * element's compilation unit was not indexed, or if the element itself was
+	 * not registered, the compilation unit is scanned (this is a slow
 	 * implementation - do not use intensively).
 	 * 
 	 * @param context
@@ -175,9 +182,17 @@ public class Util {
 			// hack to know if it is a source file or a class file
 			if (clazz.sourcefile != null
 					&& clazz.sourcefile.getClass().getName().equals("com.sun.tools.javac.file.RegularFileObject")) {
+				if (context.hasDeclaration(clazz)) {
+					JCTree declaration = context.getDeclaration((Symbol) element);
+					if (declaration != null) {
+						return declaration;
+					}
+				}
 				JCTree[] result = { null };
+				File sourceFile = new File(clazz.sourcefile.getName());
+				logger.debug("declaration of " + element + " is not indexed: scanning " + sourceFile);
 				for (int i = 0; i < context.sourceFiles.length; i++) {
-					if (new File(clazz.sourcefile.getName()).equals(context.sourceFiles[i].getJavaFile())) {
+					if (sourceFile.equals(context.sourceFiles[i].getJavaFile())) {
 						JCCompilationUnit cu = context.compilationUnits[i];
 						new TreeScanner() {
 							public void visitClassDef(JCClassDecl tree) {
@@ -191,6 +206,9 @@ public class Util {
 							public void visitMethodDef(JCMethodDecl tree) {
 								if (tree.sym == element) {
 									result[0] = tree;
+								} else {
+									// local and anonymous classes are declared in method bodies
+									super.visitMethodDef(tree);
 								}
 							}
 
@@ -880,8 +898,8 @@ public class Util {
 	public static String getRelativePath(String fromPath, String toPath) {
 		StringBuilder relativePath = null;
 
-		fromPath = fromPath.replaceAll("\\\\", "/");
-		toPath = toPath.replaceAll("\\\\", "/");
+		fromPath = fromPath.replace('\\', '/');
+		toPath = toPath.replace('\\', '/');
 
 		if (!fromPath.equals(toPath)) {
 			String[] fromSegments = fromPath.split("/");
@@ -1148,7 +1166,10 @@ public class Util {
 	 * @return null if not found
 	 */
 	public static PackageSymbol getPackageByName(JSweetContext context, String qualifiedName) {
-		return context.symtab.packages.get(context.names.fromString(qualifiedName));
+		// the name table is shared by the printers, which may run in parallel
+		synchronized (context.names) {
+			return context.symtab.packages.get(context.names.fromString(qualifiedName));
+		}
 	}
 
 	/**
@@ -1157,7 +1178,9 @@ public class Util {
 	 * @return null if not found
 	 */
 	public static ClassSymbol getTypeByName(JSweetContext context, String qualifiedName) {
-		return context.symtab.classes.get(context.names.fromString(qualifiedName));
+		synchronized (context.names) {
+			return context.symtab.classes.get(context.names.fromString(qualifiedName));
+		}
 	}
 
 	/**
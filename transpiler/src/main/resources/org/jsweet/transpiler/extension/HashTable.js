@@ -0,0 +1,316 @@
+(function(es6) {
+  var ids = 0;
+  function hash(k) {
+    switch (typeof k) {
+    case 'number': return 'n' + k;
+    case 'string': return 's' + k;
+    case 'boolean': return 'b' + k;
+    case 'undefined': return 'u';
+    }
+    if (k === null) return 'u';
+    if (typeof k.hashCode === 'function') return 'h' + k.hashCode();
+    if (typeof k.equals === 'function') return 'e';
+    if (k.__hashId === undefined) {
+      try { Object.defineProperty(k, '__hashId', { value: ++ids }); } catch (e) { return 'e'; }
+    }
+    return 'i' + k.__hashId;
+  }
+  function eq(k, e) {
+    return k === e || (k != null && typeof k.equals === 'function' && k.equals(e)) || (k !== k && e !== e);
+  }
+  function table(map) { return { b: null, h: null, l: null, n: 0, a: null, m: map, x: null, o: true }; }
+  function key(t, e) { return t.m ? e.key : e; }
+  function link(t, h, e) {
+    var x = { e: e, p: t.l, n: null, i: t.n };
+    if (t.l === null) t.h = x; else t.l.n = x;
+    t.l = x;
+    t.n++;
+    (t.b[h] || (t.b[h] = [])).push(x);
+    if (t.x !== null) t.x.push(x);
+  }
+  function unlink(t, h, i) {
+    var b = t.b[h], x = b[i];
+    b[i] = b[b.length - 1];
+    b.pop();
+    if (b.length === 0) delete t.b[h];
+    if (x.p === null) t.h = x.n; else x.p.n = x.n;
+    if (x.n === null) t.l = x.p; else x.n.p = x.p;
+    t.n--;
+    return x.e;
+  }
+  function build(t, a) {
+    t.b = Object.create(null);
+    t.h = t.l = null;
+    t.n = 0;
+    t.x = t.m ? null : [];
+    for (var i = 0; i < a.length; i++) link(t, hash(key(t, a[i])), a[i]);
+    t.a = a;
+    return t;
+  }
+  function sync(t) {
+    var a = t.a;
+    a.length = t.x.length = 0;
+    for (var x = t.h; x !== null; x = x.n) {
+      x.i = a.length;
+      a.push(x.e);
+      t.x.push(x);
+    }
+  }
+  function find(t, h, k) {
+    var b = t.b[h];
+    if (b !== undefined) {
+      for (var i = 0; i < b.length; i++) if (eq(k, key(t, b[i].e))) return i;
+    }
+    return -1;
+  }
+  function mapTable(m) {
+    var t = m.__hashTable;
+    if (t === undefined) return attach(m, m.entries instanceof Array ? m.entries : []);
+    if (t.a !== null && t.a.length !== t.n) build(t, t.a);
+    return t;
+  }
+  function setTable(s) {
+    var t = s.__hashTable;
+    if (t === undefined) {
+      t = table(false);
+      Object.defineProperty(s, '__hashTable', { value: t });
+      return build(t, s);
+    }
+    return t;
+  }
+  function getEntries() {
+    var t = mapTable(this);
+    if (t.a === null) {
+      t.a = [];
+      for (var x = t.h; x !== null; x = x.n) t.a.push(x.e);
+    }
+    return t.a;
+  }
+  function setEntries(a) { build(this.__hashTable, a); }
+  function attach(m, a) {
+    var t = table(true);
+    Object.defineProperty(m, '__hashTable', { value: t });
+    Object.defineProperty(m, 'entries', { get: getEntries, set: setEntries, enumerable: true, configurable: true });
+    return build(t, a);
+  }
+  function getKey() { return this.key; }
+  function getValue() { return this.value; }
+  function entries(m) { mapTable(m); return m.entries; }
+  function call(f, name) { return typeof f === 'function' ? f : function(a, b) { return f[name](a, b); }; }
+  function lookup(m, k) {
+    var t = mapTable(m), h = hash(k), i = find(t, h, k);
+    return i < 0 ? null : t.b[h][i].e;
+  }
+  function get(m, k) {
+    if (m.__sorted !== undefined) return m.__sorted.get(m, k);
+    if (isNative(m)) { var v = m.get(k); return v === undefined ? null : v; }
+    var e = lookup(m, k);
+    return e === null ? null : e.value;
+  }
+  function containsKey(m, k) {
+    if (m.__sorted !== undefined) return m.__sorted.containsKey(m, k);
+    if (isNative(m)) return m.has(k);
+    return lookup(m, k) !== null;
+  }
+  function put(m, k, v) {
+    if (m.__sorted !== undefined) return m.__sorted.put(m, k, v);
+    if (isNative(m)) { var p = m.get(k); m.set(k, v); return p === undefined ? null : p; }
+    var t = mapTable(m), h = hash(k), i = find(t, h, k), e;
+    if (i >= 0) { e = t.b[h][i].e; var o = e.value; e.value = v; return o; }
+    e = { key: k, value: v, getKey: getKey, getValue: getValue };
+    link(t, h, e);
+    if (t.a !== null) t.a.push(e);
+    return null;
+  }
+  function remove(m, k) {
+    if (m.__sorted !== undefined) return m.__sorted.remove(m, k);
+    if (isNative(m)) { var r = m.get(k); if (r === undefined) return null; m['delete'](k); return r; }
+    var t = mapTable(m), h = hash(k), i = find(t, h, k);
+    if (i < 0) return null;
+    t.a = null;
+    return unlink(t, h, i).value;
+  }
+  function copy(m) {
+    if (m.__sorted !== undefined) return m.__sorted.copy(m);
+    return isNative(m) ? toMap(m) : map(m);
+  }
+  function size(m) { return m.__sorted !== undefined ? m.__sorted.size(m) : isNative(m) ? m.size : mapTable(m).n; }
+  function isEmpty(m) { return size(m) === 0; }
+  function keySet(m) { var r = []; each(m, function(k) { r.push(k); }); return r; }
+  function values(m) { var r = []; each(m, function(k, v) { r.push(v); }); return r; }
+  function entrySet(m) {
+    if (m.__sorted !== undefined) return m.__sorted.entrySet(m);
+    if (!isNative(m)) return entries(m);
+    var r = [];
+    m.forEach(function(v, k) {
+      r.push({ getKey: function() { return k; }, getValue: function() { return m.get(k); },
+        setValue: function(v) { var o = m.get(k); m.set(k, v); return o; } });
+    });
+    return r;
+  }
+  function clear(m) {
+    if (m.__sorted !== undefined) m.__sorted.clear(m);
+    else if (isNative(m)) m.clear();
+    else build(mapTable(m), []);
+  }
+  function each(m, f) {
+    if (m.__sorted !== undefined) m.__sorted.each(m, f);
+    else if (isNative(m)) m.forEach(function(v, k) { f(k, v); });
+    else if (m.__hashTable !== undefined || m.entries instanceof Array) for (var x = mapTable(m).h; x !== null; x = x.n) f(x.e.key, x.e.value);
+    else for (var k in m) f(k, m[k]);
+  }
+  function forEach(m, f) { each(m, call(f, 'accept')); }
+  function putAll(m, src) { each(src, function(k, v) { put(m, k, v); }); }
+  function toMap(src) { var m = newNative(); if (src != null) putAll(m, src); return m; }
+  function map(src) { var m = Object.create(proto); attach(m, []); if (src != null) putAll(m, src); return m; }
+  function singletonMap(k, v) { var m = map(null); put(m, k, v); return m; }
+  function getOrDefault(m, k, d) { return containsKey(m, k) ? get(m, k) : d; }
+  function putIfAbsent(m, k, v) { var o = get(m, k); if (o == null) put(m, k, v); return o; }
+  function computeIfAbsent(m, k, f) {
+    var o = get(m, k);
+    if (o == null) { o = call(f, 'apply')(k); if (o != null) put(m, k, o); }
+    return o;
+  }
+  function add(s, e) {
+    if (s.__sorted !== undefined) return s.__sorted.add(s, e);
+    var t = setTable(s), h = hash(e);
+    if (find(t, h, e) >= 0) return false;
+    link(t, h, e);
+    t.a.push(e);
+    return true;
+  }
+  function contains(s, e) {
+    if (s.__sorted !== undefined) return s.__sorted.contains(s, e);
+    var t = setTable(s);
+    return find(t, hash(e), e) >= 0;
+  }
+  function removed(t, x) {
+    var a = t.a, j = x.i, k = a.length - 1;
+    if (k !== t.n || a[j] !== x.e) return sync(t);
+    if (t.o) {
+      a.splice(j, 1);
+      t.x.splice(j, 1);
+      for (; j < k; j++) t.x[j].i = j;
+    } else {
+      if (j < k) {
+        a[j] = a[k];
+        (t.x[j] = t.x[k]).i = j;
+      }
+      a.pop();
+      t.x.pop();
+    }
+  }
+  function removeElement(s, e) {
+    if (s.__sorted !== undefined) return s.__sorted.removeElement(s, e);
+    var t = setTable(s), h = hash(e), i = find(t, h, e);
+    if (i < 0) return false;
+    var x = t.b[h][i];
+    unlink(t, h, i);
+    removed(t, x);
+    return true;
+  }
+  function addAll(s, c) {
+    if (s.__sorted !== undefined) return s.__sorted.addAll(s, c);
+    var r = false;
+    for (var i = 0; i < c.length; i++) if (add(s, c[i])) r = true;
+    return r;
+  }
+  function removeAll(s, c) {
+    if (s.__sorted !== undefined) return s.__sorted.removeAll(s, c);
+    var t = setTable(s), n = t.n;
+    for (var i = 0; i < c.length; i++) {
+      var h = hash(c[i]), j = find(t, h, c[i]);
+      if (j >= 0) unlink(t, h, j);
+    }
+    return changed(t, n);
+  }
+  function retainAll(s, c) {
+    if (s.__sorted !== undefined) return s.__sorted.retainAll(s, c);
+    var t = setTable(s), u = build(table(false), c), n = t.n;
+    for (var x = t.h; x !== null; x = x.n) {
+      var h = hash(x.e);
+      if (find(u, h, x.e) < 0) unlink(t, h, find(t, h, x.e));
+    }
+    return changed(t, n);
+  }
+  function changed(t, n) {
+    if (t.n === n) return false;
+    sync(t);
+    return true;
+  }
+  function isSet(c) { return c.__hashTable !== undefined || c.__sorted !== undefined; }
+  function addToCollection(c, e) { if (isSet(c)) return add(c, e); c.push(e); return true; }
+  function addAllToCollection(c, a) {
+    if (isSet(c)) return addAll(c, a);
+    for (var i = 0; i < a.length; i++) c.push(a[i]);
+    return a.length > 0;
+  }
+  function removeFromCollection(c, e) {
+    if (isSet(c)) return removeElement(c, e);
+    var i = c.indexOf(e);
+    if (i < 0) return false;
+    c.splice(i, 1);
+    return true;
+  }
+  function removeAllFromCollection(c, a) {
+    if (isSet(c)) return removeAll(c, a);
+    var r = false;
+    for (var i = 0; i < c.length; i++) if (a.indexOf(c[i]) >= 0) { c.splice(i--, 1); r = true; }
+    return r;
+  }
+  function retainAllFromCollection(c, a) {
+    if (isSet(c)) return retainAll(c, a);
+    var r = false;
+    for (var i = 0; i < c.length; i++) if (a.indexOf(c[i]) < 0) { c.splice(i--, 1); r = true; }
+    return r;
+  }
+  function clearCollection(c) {
+    if (c.__sorted !== undefined) return c.__sorted.clearSet(c);
+    c.length = 0;
+    if (c.__hashTable !== undefined) build(c.__hashTable, c);
+  }
+  function containsAll(s, c) {
+    if (s.__sorted !== undefined) return s.__sorted.containsAll(s, c);
+    for (var i = 0; i < c.length; i++) if (!contains(s, c[i])) return false;
+    return true;
+  }
+  function newSet(o) {
+    var a = [], t = table(false);
+    t.o = o;
+    Object.defineProperty(a, '__hashTable', { value: t });
+    build(t, a);
+    return a;
+  }
+  function of(c, o) {
+    var s = newSet(o);
+    if (c != null) addAll(s, c);
+    return s;
+  }
+  var proto = {
+    get: function(k) { var e = lookup(this, k); return e === null ? undefined : e.value; },
+    set: function(k, v) { put(this, k, v); return this; },
+    has: function(k) { return containsKey(this, k); },
+    'delete': function(k) { if (!containsKey(this, k)) return false; remove(this, k); return true; },
+    clear: function() { clear(this); },
+    keys: function() { return keySet(this); },
+    values: function() { return values(this); },
+    forEach: function(f) { for (var x = mapTable(this).h; x !== null; x = x.n) f(x.e.value, x.e.key, this); }
+  };
+  Object.defineProperty(proto, 'size', { get: function() { return mapTable(this).n; } });
+  function isNative(m) { return es6 && m instanceof Map; }
+  function newNative() { return es6 ? new Map() : map(null); }
+  function iterator(x) {
+    var i = { next: function() { if (x === null) return { done: true, value: undefined }; var e = x.e; x = x.n; return { done: false, value: [e.key, e.value] }; } };
+    Object.defineProperty(i, Symbol.iterator, { value: function() { return i; } });
+    return i;
+  }
+  if (es6) Object.defineProperty(proto, Symbol.iterator, { value: function() { return iterator(mapTable(this).h); } });
+  return { get: get, containsKey: containsKey, put: put, remove: remove, copy: copy, size: size, isEmpty: isEmpty,
+    keySet: keySet, values: values, entrySet: entrySet, clear: clear, forEach: forEach, putAll: putAll, toMap: toMap,
+    map: map, singletonMap: singletonMap, getOrDefault: getOrDefault, putIfAbsent: putIfAbsent,
+    computeIfAbsent: computeIfAbsent, add: add, contains: contains, removeElement: removeElement, addAll: addAll,
+    removeAll: removeAll, retainAll: retainAll, containsAll: containsAll, addToCollection: addToCollection,
+    addAllToCollection: addAllToCollection, removeFromCollection: removeFromCollection,
+    removeAllFromCollection: removeAllFromCollection, retainAllFromCollection: retainAllFromCollection,
+    clearCollection: clearCollection, of: of };
+})
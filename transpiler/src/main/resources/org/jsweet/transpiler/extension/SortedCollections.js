@@ -0,0 +1,311 @@
+(function(proxy) {
+  var self;
+  function compare(c, a, b) {
+    if (c != null) return typeof c === 'function' ? c(a, b) : c.compare(a, b);
+    if (a != null && typeof a.compareTo === 'function') return a.compareTo(b);
+    return a < b ? -1 : a > b ? 1 : 0;
+  }
+  function none() { throw new Error('NoSuchElementException'); }
+  function tree(c, map) { return { c: c == null ? null : c, root: null, n: 0, a: null, m: map, p: false, d: false, r: false }; }
+  function hide(o, t) {
+    Object.defineProperty(o, '__sorted', { value: self });
+    Object.defineProperty(o, '__comparator', { value: t.c });
+    Object.defineProperty(o, '__tree', { value: t });
+    return o;
+  }
+  function key(t, e) { return t.m ? e.key : e; }
+  function node(e) { return { e: e, l: null, r: null, lv: 1 }; }
+  function skew(x) {
+    if (x === null || x.l === null || x.l.lv !== x.lv) return x;
+    var l = x.l;
+    x.l = l.r;
+    l.r = x;
+    return l;
+  }
+  function split(x) {
+    if (x === null || x.r === null || x.r.r === null || x.r.r.lv !== x.lv) return x;
+    var r = x.r;
+    x.r = r.l;
+    r.l = x;
+    r.lv++;
+    return r;
+  }
+  function insert(t, x, e) {
+    if (x === null) { t.n++; return node(e); }
+    var r = compare(t.c, key(t, x.e), key(t, e));
+    if (r < 0) x.r = insert(t, x.r, e); else if (r > 0) x.l = insert(t, x.l, e); else return x;
+    return split(skew(x));
+  }
+  function erase(t, x, k) {
+    if (x === null) return null;
+    var r = compare(t.c, key(t, x.e), k);
+    if (r < 0) x.r = erase(t, x.r, k);
+    else if (r > 0) x.l = erase(t, x.l, k);
+    else if (x.l === null && x.r === null) { t.n--; return null; }
+    else if (x.l === null) { var n = edge(x.r, false); x.r = erase(t, x.r, key(t, n.e)); x.e = n.e; }
+    else { var p = edge(x.l, true); x.l = erase(t, x.l, key(t, p.e)); x.e = p.e; }
+    var lv = Math.min(x.l === null ? 0 : x.l.lv, x.r === null ? 0 : x.r.lv) + 1;
+    if (lv < x.lv) { x.lv = lv; if (x.r !== null && lv < x.r.lv) x.r.lv = lv; }
+    x = skew(x);
+    x.r = skew(x.r);
+    if (x.r !== null) x.r.r = skew(x.r.r);
+    x = split(x);
+    x.r = split(x.r);
+    return x;
+  }
+  function edge(x, last) { if (x !== null) while ((last ? x.r : x.l) !== null) x = last ? x.r : x.l; return x; }
+  function lookup(t, k) {
+    var x = t.root;
+    while (x !== null) {
+      var r = compare(t.c, key(t, x.e), k);
+      if (r === 0) return x.e;
+      x = r < 0 ? x.r : x.l;
+    }
+    return null;
+  }
+  function find(t, k, up, inclusive) {
+    var x = t.root, e = null;
+    while (x !== null) {
+      var r = compare(t.c, key(t, x.e), k);
+      if (r === 0 && inclusive) return x.e;
+      if (up ? r > 0 : r < 0) { e = x.e; x = up ? x.l : x.r; } else x = up ? x.r : x.l;
+    }
+    return e;
+  }
+  function walk(t, x, f, from, fromInclusive, to, toInclusive) {
+    if (x === null) return;
+    var k = key(t, x.e), lo = from === undefined ? 1 : compare(t.c, k, from), hi = to === undefined ? -1 : compare(t.c, k, to);
+    if (lo > 0) walk(t, x.l, f, from, fromInclusive, to, toInclusive);
+    if ((lo > 0 || (lo === 0 && fromInclusive)) && (hi < 0 || (hi === 0 && toInclusive))) f(x.e);
+    if (hi < 0) walk(t, x.r, f, from, fromInclusive, to, toInclusive);
+  }
+  function list(t) { var a = []; walk(t, t.root, function(e) { a.push(e); }); return a; }
+  function build(t, a) {
+    t.root = null;
+    t.n = 0;
+    for (var i = 0; i < a.length; i++) t.root = insert(t, t.root, a[i]);
+    t.r = false;
+    return t;
+  }
+  function sync(t) {
+    if (t.d) {
+      var a = t.a;
+      a.length = 0;
+      walk(t, t.root, function(e) { a.push(e); });
+      t.d = false;
+    }
+  }
+  function setTree(s) {
+    var t = s.__tree;
+    if (t.r) build(t, t.a);
+    return t;
+  }
+  function changed(t, n) {
+    if (t.n === n) return false;
+    t.d = true;
+    if (!t.p) sync(t);
+    return true;
+  }
+  function search(t, a, k) {
+    var lo = 0, hi = a.length - 1;
+    while (lo <= hi) {
+      var mid = (lo + hi) >>> 1, r = compare(t.c, a[mid], k);
+      if (r < 0) lo = mid + 1; else if (r > 0) hi = mid - 1; else return mid;
+    }
+    return -(lo + 1);
+  }
+  function add(s, e) {
+    var t = setTree(s), n = t.n;
+    t.root = insert(t, t.root, e);
+    if (t.n === n) return false;
+    if (t.p || t.a.length !== n) changed(t, n); else t.a.splice(-search(t, t.a, e) - 1, 0, e);
+    return true;
+  }
+  function contains(s, e) { return lookup(setTree(s), e) !== null; }
+  function removeElement(s, e) {
+    var t = setTree(s), n = t.n;
+    t.root = erase(t, t.root, e);
+    if (t.n === n) return false;
+    if (t.p || t.a.length !== n) changed(t, n); else t.a.splice(search(t, t.a, e), 1);
+    return true;
+  }
+  function addAll(s, c) {
+    var t = setTree(s), n = t.n;
+    for (var i = 0; i < c.length; i++) t.root = insert(t, t.root, c[i]);
+    return changed(t, n);
+  }
+  function removeAll(s, c) {
+    var t = setTree(s), n = t.n;
+    for (var i = 0; i < c.length; i++) t.root = erase(t, t.root, c[i]);
+    return changed(t, n);
+  }
+  function retainAll(s, c) {
+    var t = setTree(s), u = build(tree(t.c, false), c), n = t.n, r = [];
+    walk(t, t.root, function(e) { if (lookup(u, e) === null) r.push(e); });
+    for (var i = 0; i < r.length; i++) t.root = erase(t, t.root, r[i]);
+    return changed(t, n);
+  }
+  function containsAll(s, c) {
+    var t = setTree(s);
+    for (var i = 0; i < c.length; i++) if (lookup(t, c[i]) === null) return false;
+    return true;
+  }
+  function set(c, items) {
+    if (c == null && items != null && items.__comparator !== undefined) c = items.__comparator;
+    var s = newSet(tree(c, false));
+    if (items != null) addAll(s, items);
+    return s;
+  }
+  function slice(s, from, fromInclusive, to, toInclusive) {
+    var t = setTree(s), r = set(t.c, null), u = r.__tree;
+    walk(t, t.root, function(e) { u.root = insert(u, u.root, e); }, from, fromInclusive, to, toInclusive);
+    changed(u, 0);
+    return r;
+  }
+  function first(s) { var x = edge(setTree(s).root, false); return x === null ? none() : x.e; }
+  function last(s) { var x = edge(setTree(s).root, true); return x === null ? none() : x.e; }
+  function poll(s, last) {
+    var x = edge(setTree(s).root, last);
+    if (x === null) return null;
+    var e = x.e;
+    removeElement(s, e);
+    return e;
+  }
+  function pollFirst(s) { return poll(s, false); }
+  function pollLast(s) { return poll(s, true); }
+  function ceiling(s, e) { return find(setTree(s), e, true, true); }
+  function floor(s, e) { return find(setTree(s), e, false, true); }
+  function higher(s, e) { return find(setTree(s), e, true, false); }
+  function lower(s, e) { return find(setTree(s), e, false, false); }
+  function headSet(s, to, inclusive) { return slice(s, undefined, false, to, inclusive === true); }
+  function tailSet(s, from, inclusive) { return slice(s, from, inclusive !== false, undefined, false); }
+  function subSet(s, from, fromInclusive, to, toInclusive) {
+    if (to === undefined) { to = fromInclusive; fromInclusive = true; toInclusive = false; }
+    return slice(s, from, fromInclusive, to, toInclusive);
+  }
+  function comparator(o) { return o.__comparator; }
+  function getKey() { return this.key; }
+  function getValue() { return this.value; }
+  function entry(k, v) { return { key: k, value: v, getKey: getKey, getValue: getValue }; }
+  function put(m, k, v) {
+    var t = m.__tree, e = lookup(t, k);
+    if (e !== null) { var o = e.value; e.value = v; return o; }
+    t.root = insert(t, t.root, entry(k, v));
+    t.a = null;
+    return null;
+  }
+  function get(m, k) { var e = lookup(m.__tree, k); return e === null ? null : e.value; }
+  function containsKey(m, k) { return lookup(m.__tree, k) !== null; }
+  function remove(m, k) {
+    var t = m.__tree, e = lookup(t, k);
+    if (e === null) return null;
+    t.root = erase(t, t.root, k);
+    t.a = null;
+    return e.value;
+  }
+  function each(m, f) { walk(m.__tree, m.__tree.root, function(e) { f(e.key, e.value); }); }
+  var proto = {
+    get: function(k) { var e = lookup(this.__tree, k); return e === null ? undefined : e.value; },
+    set: function(k, v) { put(this, k, v); return this; },
+    has: function(k) { return containsKey(this, k); },
+    'delete': function(k) { var n = this.__tree.n; remove(this, k); return this.__tree.n < n; },
+    clear: function() { clear(this); },
+    keys: function() { return keySet(this); },
+    values: function() { return values(this); },
+    forEach: function(f) { var m = this; each(m, function(k, v) { f(v, k, m); }); }
+  };
+  Object.defineProperty(proto, 'size', { get: function() { return this.__tree.n; } });
+  Object.defineProperty(proto, 'entries', {
+    get: function() { var t = this.__tree; return t.a || (t.a = list(t)); },
+    set: function(a) { clear(this); for (var i = 0; i < a.length; i++) put(this, a[i].key, a[i].value); }
+  });
+  function iterator(t, f) {
+    var s = [], x = t.root, i = { next: function() {
+      while (x !== null) { s.push(x); x = x.l; }
+      if (s.length === 0) return { done: true, value: undefined };
+      var n = s.pop();
+      x = n.r;
+      return { done: false, value: f(n.e) };
+    } };
+    Object.defineProperty(i, Symbol.iterator, { value: function() { return i; } });
+    return i;
+  }
+  if (proxy) Object.defineProperty(proto, Symbol.iterator, { value: function() { return iterator(this.__tree, function(e) { return [e.key, e.value]; }); } });
+  function hidden(k) { return typeof k === 'string' && k.lastIndexOf('__', 0) === 0; }
+  function write(a, k) { var t = a.__tree; sync(t); if (!hidden(k)) t.r = true; }
+  var handler = {
+    get: function(a, k) {
+      var t = a.__tree;
+      if (k === 'length') return t.r ? a.length : t.n;
+      if (k === Symbol.iterator && !t.r) return function() { return iterator(t, function(e) { return e; }); };
+      if (!hidden(k)) sync(t);
+      return a[k];
+    },
+    set: function(a, k, v) { write(a, k); a[k] = v; return true; },
+    deleteProperty: function(a, k) { write(a, k); return delete a[k]; },
+    defineProperty: function(a, k, d) { write(a, k); Object.defineProperty(a, k, d); return true; },
+    has: function(a, k) { sync(a.__tree); return k in a; },
+    ownKeys: function(a) { sync(a.__tree); return Reflect.ownKeys(a); },
+    getOwnPropertyDescriptor: function(a, k) { sync(a.__tree); return Object.getOwnPropertyDescriptor(a, k); }
+  };
+  function newSet(t) {
+    t.a = [];
+    if (!proxy) return hide(t.a, t);
+    t.p = true;
+    return new Proxy(hide(t.a, t), handler);
+  }
+  function map(c, src) {
+    if (c == null && src != null && src.__comparator !== undefined) c = src.__comparator;
+    var m = hide(Object.create(proto), tree(c, true));
+    if (src != null) {
+      if (src.__sorted !== undefined) each(src, function(k, v) { put(m, k, v); });
+      else if (src.entries instanceof Array) for (var i = 0; i < src.entries.length; i++) put(m, src.entries[i].key, src.entries[i].value);
+      else if (typeof src.forEach === 'function') src.forEach(function(v, k) { put(m, k, v); });
+      else for (var k in src) put(m, k, src[k]);
+    }
+    return m;
+  }
+  function copy(m) { return map(m.__comparator, m); }
+  function range(m, from, fromInclusive, to, toInclusive) {
+    var r = map(m.__comparator, null);
+    walk(m.__tree, m.__tree.root, function(e) { put(r, e.key, e.value); }, from, fromInclusive, to, toInclusive);
+    return r;
+  }
+  function size(m) { return m.__tree.n; }
+  function isEmpty(m) { return m.__tree.n === 0; }
+  function clear(m) { var t = m.__tree; t.root = null; t.n = 0; t.a = null; }
+  function clearSet(s) { var t = s.__tree; t.root = null; t.n = 0; t.a.length = 0; t.d = t.r = false; }
+  function keySet(m) { var r = []; each(m, function(k) { r.push(k); }); return r; }
+  function descendingKeySet(m) { return keySet(m).reverse(); }
+  function values(m) { var r = []; each(m, function(k, v) { r.push(v); }); return r; }
+  function entrySet(m) { return m.entries; }
+  function firstEntry(m) { var x = edge(m.__tree.root, false); return x === null ? null : x.e; }
+  function lastEntry(m) { var x = edge(m.__tree.root, true); return x === null ? null : x.e; }
+  function firstKey(m) { var e = firstEntry(m); return e === null ? none() : e.key; }
+  function lastKey(m) { var e = lastEntry(m); return e === null ? none() : e.key; }
+  function pollFirstEntry(m) { var e = firstEntry(m); if (e !== null) remove(m, e.key); return e; }
+  function pollLastEntry(m) { var e = lastEntry(m); if (e !== null) remove(m, e.key); return e; }
+  function ceilingEntry(m, k) { return find(m.__tree, k, true, true); }
+  function floorEntry(m, k) { return find(m.__tree, k, false, true); }
+  function higherEntry(m, k) { return find(m.__tree, k, true, false); }
+  function lowerEntry(m, k) { return find(m.__tree, k, false, false); }
+  function ceilingKey(m, k) { var e = ceilingEntry(m, k); return e === null ? null : e.key; }
+  function floorKey(m, k) { var e = floorEntry(m, k); return e === null ? null : e.key; }
+  function higherKey(m, k) { var e = higherEntry(m, k); return e === null ? null : e.key; }
+  function lowerKey(m, k) { var e = lowerEntry(m, k); return e === null ? null : e.key; }
+  function headMap(m, to, inclusive) { return range(m, undefined, false, to, inclusive === true); }
+  function tailMap(m, from, inclusive) { return range(m, from, inclusive !== false, undefined, false); }
+  function subMap(m, from, fromInclusive, to, toInclusive) {
+    if (to === undefined) { to = fromInclusive; fromInclusive = true; toInclusive = false; }
+    return range(m, from, fromInclusive, to, toInclusive);
+  }
+  self = { add: add, contains: contains, removeElement: removeElement, addAll: addAll, removeAll: removeAll, retainAll: retainAll,
+    containsAll: containsAll, set: set, first: first, last: last, pollFirst: pollFirst, pollLast: pollLast, ceiling: ceiling,
+    floor: floor, higher: higher, lower: lower, headSet: headSet, tailSet: tailSet, subSet: subSet, comparator: comparator,
+    put: put, get: get, containsKey: containsKey, remove: remove, each: each, map: map, copy: copy, size: size, isEmpty: isEmpty,
+    clear: clear, clearSet: clearSet, keySet: keySet, descendingKeySet: descendingKeySet, values: values, entrySet: entrySet, firstKey: firstKey,
+    lastKey: lastKey, firstEntry: firstEntry, lastEntry: lastEntry, pollFirstEntry: pollFirstEntry, pollLastEntry: pollLastEntry,
+    ceilingEntry: ceilingEntry, floorEntry: floorEntry, higherEntry: higherEntry, lowerEntry: lowerEntry, ceilingKey: ceilingKey,
+    floorKey: floorKey, higherKey: higherKey, lowerKey: lowerKey, headMap: headMap, tailMap: tailMap, subMap: subMap };
+  return self;
+})
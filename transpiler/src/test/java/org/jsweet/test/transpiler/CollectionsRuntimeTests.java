@@ -0,0 +1,81 @@
+/* 
+ * JSweet - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jsweet.test.transpiler;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jsweet.transpiler.extension.RemoveJavaDependenciesAdapter;
+import org.jsweet.transpiler.util.ProcessUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the JavaScript tests of the collections runtimes printed by the
+ * {@link RemoveJavaDependenciesAdapter}, which call the runtimes directly.
+ */
+public class CollectionsRuntimeTests {
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("runtimes").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.deleteQuietly(dir);
+	}
+
+	@Test
+	public void testHashTable() throws IOException {
+		assertEquals("ok\n", run("HashTable.js", "true", "HashTableTests.js"));
+		assertEquals("ok\n", run("HashTable.js", "false", "HashTableTests.js"));
+	}
+
+	@Test
+	public void testSortedCollections() throws IOException {
+		assertEquals("ok\n", run("SortedCollections.js", "true", "SortedCollectionsTests.js"));
+		assertEquals("ok\n", run("SortedCollections.js", "false", "SortedCollectionsTests.js"));
+	}
+
+	private String run(String runtime, String argument, String test) throws IOException {
+		File script = new File(dir, test);
+		FileUtils.write(script, "var runtime = " + read(RemoveJavaDependenciesAdapter.class, runtime) + "(" + argument
+				+ ");\n" + read(getClass(), test), StandardCharsets.UTF_8);
+		StringBuilder output = new StringBuilder();
+		ProcessUtil.runCommand(ProcessUtil.NODE_COMMAND, line -> output.append(line).append("\n"), null,
+				script.getPath());
+		return output.toString();
+	}
+
+	private String read(Class<?> location, String name) throws IOException {
+		try (InputStream in = location.getResourceAsStream(name)) {
+			return IOUtils.toString(in, StandardCharsets.UTF_8);
+		}
+	}
+
+}
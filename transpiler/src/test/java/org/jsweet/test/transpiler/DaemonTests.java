@@ -0,0 +1,142 @@
+/*
+ * JSweet - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jsweet.test.transpiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.apache.commons.io.FileUtils;
+import org.jsweet.JSweetDaemon;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DaemonTests {
+
+	private File dir;
+	private File tokenFile;
+	private int port;
+	private JSweetDaemon daemon;
+	private Thread daemonThread;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = Files.createTempDirectory("daemon").toFile();
+		tokenFile = new File(dir, "home/daemon.token");
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		daemon = new JSweetDaemon(port, tokenFile, null);
+		daemonThread = new Thread(() -> {
+			try {
+				daemon.execute();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		});
+		daemonThread.setDaemon(true);
+		daemonThread.start();
+		long deadline = System.currentTimeMillis() + 10000;
+		while (!tokenFile.exists() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(tokenFile.exists());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		daemon.stop();
+		daemonThread.join(10000);
+		FileUtils.deleteQuietly(dir);
+	}
+
+	@Test
+	public void testTokenFileIsOwnerOnly() throws IOException {
+		if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+			return;
+		}
+		assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile.toPath())));
+	}
+
+	@Test
+	public void testRejectsInvalidToken() throws IOException {
+		File otherTokenFile = new File(dir, "other.token");
+		FileUtils.write(otherTokenFile, "guessed");
+		File out = new File(dir, "out");
+		createSourceFile();
+		assertEquals(-1, JSweetDaemon.connect(port, otherTokenFile, dir,
+				new String[] { "-i", "src", "--directJavaScript", "--tsout", "out" }));
+		assertFalse(out.exists());
+	}
+
+	@Test
+	public void testRejectsProcessOptions() throws IOException {
+		File out = new File(dir, "out");
+		createSourceFile();
+		assertEquals(-1, JSweetDaemon.connect(port, tokenFile, dir, new String[] { "-i", "src", "--directJavaScript",
+				"--tsout", "out", "--extraSystemPath", dir.getAbsolutePath() }));
+		assertFalse(out.exists());
+	}
+
+	@Test
+	public void testTranspile() throws IOException {
+		createSourceFile();
+		String[] args = { "-i", "src", "--directJavaScript", "--tsout", "out" };
+		assertEquals(0, JSweetDaemon.connect(port, tokenFile, dir, args));
+		File jsFile = new File(dir, "out/p/A.js");
+		assertTrue(jsFile.exists());
+
+		// the same task serves the next request
+		FileUtils.deleteQuietly(jsFile);
+		assertEquals(0, JSweetDaemon.connect(port, tokenFile, dir, args));
+		assertTrue(jsFile.exists());
+	}
+
+	@Test
+	public void testIdleConnectionDoesNotBlockRequests() throws IOException {
+		createSourceFile();
+		try (Socket idle = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			assertEquals(0, JSweetDaemon.connect(port, tokenFile, dir,
+					new String[] { "-i", "src", "--directJavaScript", "--tsout", "out" }));
+			assertTrue(new File(dir, "out/p/A.js").exists());
+		}
+	}
+
+	@Test
+	public void testClosesIdleConnection() throws IOException {
+		daemon.setRequestTimeout(200);
+		try (Socket idle = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			idle.setSoTimeout(10000);
+			assertEquals(-1, idle.getInputStream().read());
+		}
+	}
+
+	private void createSourceFile() throws IOException {
+		FileUtils.write(new File(dir, "src/p/A.java"), "package p;\npublic class A {\n}\n");
+	}
+
+}
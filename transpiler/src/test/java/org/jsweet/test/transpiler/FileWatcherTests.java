@@ -0,0 +1,152 @@
+/*
+ * JSweet - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jsweet.test.transpiler;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.jsweet.JSweetFileWatcher;
+import org.jsweet.TranspilationTask;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileWatcherTests {
+
+	private File dir;
+	private File srcDir;
+	private Thread watcherThread;
+	private BlockingQueue<Collection<File>> runs = new LinkedBlockingQueue<>();
+
+	@Before
+	public void setUp() throws Exception {
+		dir = Files.createTempDirectory("watcher").toFile();
+		srcDir = new File(dir, "src");
+		new File(srcDir, "p").mkdirs();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (watcherThread != null) {
+			watcherThread.interrupt();
+			watcherThread.join(10000);
+		}
+		FileUtils.deleteQuietly(dir);
+	}
+
+	@Test
+	public void testChangesAreBatched() throws Exception {
+		startWatcher(500, 10000);
+		File a = new File(srcDir, "p/A.java");
+		File b = new File(srcDir, "q/B.java");
+		touch(a);
+		// the files of a new directory are part of the batch
+		touch(b);
+		Collection<File> changedFiles = runs.poll(10, TimeUnit.SECONDS);
+		assertNotNull(changedFiles);
+		assertTrue(changedFiles.toString(), changedFiles.contains(a));
+		assertTrue(changedFiles.toString(), changedFiles.contains(b));
+		assertNull(runs.poll(1, TimeUnit.SECONDS));
+
+		// the new directory is watched
+		touch(b);
+		changedFiles = runs.poll(10, TimeUnit.SECONDS);
+		assertNotNull(changedFiles);
+		assertTrue(changedFiles.toString(), changedFiles.contains(b));
+	}
+
+	@Test
+	public void testMaxDebounceDelay() throws Exception {
+		startWatcher(500, 1000);
+		File a = new File(srcDir, "p/A.java");
+		long end = System.currentTimeMillis() + 8000;
+		Thread writer = new Thread(() -> {
+			try {
+				while (System.currentTimeMillis() < end) {
+					touch(a);
+					Thread.sleep(100);
+				}
+			} catch (Exception e) {
+				// stopped
+			}
+		});
+		writer.start();
+		try {
+			// changes never settle, but they are transpiled anyway
+			Collection<File> changedFiles = runs.poll(6, TimeUnit.SECONDS);
+			assertNotNull(changedFiles);
+			assertTrue(changedFiles.toString(), changedFiles.contains(a));
+		} finally {
+			writer.interrupt();
+			writer.join();
+		}
+	}
+
+	private void startWatcher(long debounceDelay, long maxDebounceDelay) throws Exception {
+		TranspilationTask task = new TranspilationTask() {
+			@Override
+			public void run() {
+				runs.add(new ArrayList<>());
+			}
+
+			@Override
+			public void run(Collection<File> changedFiles) {
+				runs.add(new ArrayList<>(changedFiles));
+			}
+
+			@Override
+			public List<File> getInputDirList() {
+				return Arrays.asList(srcDir);
+			}
+		};
+		JSweetFileWatcher watcher = new JSweetFileWatcher(task);
+		watcher.setDebounceDelay(debounceDelay);
+		watcher.setMaxDebounceDelay(maxDebounceDelay);
+		watcherThread = new Thread(watcher::execute);
+		watcherThread.setDaemon(true);
+		watcherThread.start();
+
+		// wait for the directories to be registered
+		File probe = new File(srcDir, "probe.txt");
+		long deadline = System.currentTimeMillis() + 20000;
+		do {
+			assertTrue("watcher not started", System.currentTimeMillis() < deadline);
+			touch(probe);
+		} while (runs.poll(debounceDelay + 2000, TimeUnit.MILLISECONDS) == null);
+		while (runs.poll(debounceDelay * 3, TimeUnit.MILLISECONDS) != null) {
+			// let the probe changes settle
+		}
+	}
+
+	private void touch(File file) throws IOException {
+		FileUtils.write(file, "// " + System.nanoTime() + "\n");
+	}
+
+}
@@ -20,10 +20,13 @@ import source.nativestructures.ExtendsJDK;
 import source.nativestructures.ExtendsJDKAnonymous;
 import source.nativestructures.ExtendsJDKInterface;
 import source.nativestructures.ExtendsJDKRegular;
+import source.nativestructures.HashCollections;
 import source.nativestructures.Input;
 import source.nativestructures.Iterators;
+import source.nativestructures.MapInterop;
 import source.nativestructures.Maps;
 import source.nativestructures.NativeArrays;
+import source.nativestructures.NativeMaps;
 import source.nativestructures.NativeStringBuilder;
 import source.nativestructures.NativeSystem;
 import source.nativestructures.Numbers;
@@ -32,7 +35,9 @@ import source.nativestructures.OverloadWithNative;
 import source.nativestructures.Properties;
 import source.nativestructures.Reflect;
 import source.nativestructures.Sets;
+import source.nativestructures.SortedCollections;
 import source.nativestructures.Strings;
+import source.nativestructures.TypedArrays;
 import source.nativestructures.WeakReferences;
 
 public class NativeStructuresTests extends AbstractTest {
@@ -131,6 +136,67 @@ public class NativeStructuresTests extends AbstractTest {
 		}, getSourceFile(ObjectMaps.class));
 	}
 
+	@Test
+	public void testHashCollections() {
+		eval((logHandler, result) -> {
+			logHandler.assertNoProblems();
+			assertEquals("10000,84,84,0,0,null,false,true,9999,0/42,o1,o2,n1,null,null,o1,o2,n1,null,1d,"
+					+ "true,false,true,false,true,0,3,true,4,true,true,true,[1:1, 3:3],false,[5:5],truefalse,truefalse2,"
+					+ "501/250000/1:1/falsetrue,499/3:3,9/52/truefalse",
+					result.get("trace"));
+		}, getSourceFile(HashCollections.class));
+	}
+
+	@Test
+	public void testNativeMaps() {
+		try {
+			transpiler.setNativeMaps(true);
+			eval((logHandler, result) -> {
+				logHandler.assertNoProblems();
+				assertEquals("[b, 2, a, 1],3,null,6,null,null,2,8,[10, 20, 50, 40],b=10,2=20,10v99,falsefalse,"
+						+ "10:v99:true:10:9,1a2b,da,anull,k4a,6eftrue,1=a;2=b;3=c;4=k4;5=e;6=f,0/4,true,[z, y]",
+						result.get("trace"));
+			}, getSourceFile(NativeMaps.class));
+		} finally {
+			transpiler.setNativeMaps(false);
+		}
+	}
+
+	@Test
+	public void testSortedCollections() {
+		eval((logHandler, result) -> {
+			logHandler.assertNoProblems();
+			assertEquals("100,false,truefalse,truefalse,0/99,43/41/44/41,null,[0, 1, 2],[97, 98, 99],[10, 11, 12],0,"
+					+ "[d, c, b, a],truefalse,[e, d, c, b, a],[x, y, z],[0, 1, 2, 3, 4, 5, 6, 7, 8, 9],9,30null,0/9,"
+					+ "5/5/null,[0, 1, 2],[9],0false,9=7,59,-19,-1=100,1=3,2=6,[a, bb, ccc][1, 4, 3],012/996/3/501,"
+					+ "truefalse[1, 2, 3, 4, 5],truefalse[1, 3, 5],500/250000/1/999/3/997/498/[3, 5, 7]",
+					result.get("trace"));
+		}, getSourceFile(SortedCollections.class));
+	}
+
+	@Test
+	public void testTypedArrays() {
+		try {
+			transpiler.setTypedArrays(true);
+			eval((logHandler, result) -> {
+				logHandler.assertNoProblems();
+				assertEquals("500700,4,3/4/5/0,true,3/4/8,01230,01123,33333,39933,1993300/39/39933,91010015,15910100,"
+						+ "15910100/05910100,int[],double[],double[],int[][],other,sa,-128,true", result.get("trace"));
+			}, getSourceFile(TypedArrays.class));
+		} finally {
+			transpiler.setTypedArrays(false);
+		}
+	}
+
+	@Test
+	public void testMapInterop() {
+		// the maps keyed by strings are plain objects by default
+		eval((logHandler, result) -> {
+			logHandler.assertNoProblems();
+			assertEquals("2,a/b,1,b,3,true,3,5", result.get("trace"));
+		}, getSourceFile(MapInterop.class));
+	}
+
 	@Test
 	public void testNativeArrays() {
 		eval((logHandler, result) -> {
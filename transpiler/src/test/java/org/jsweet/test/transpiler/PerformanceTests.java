@@ -0,0 +1,177 @@
+/*
+ * JSweet - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jsweet.test.transpiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.jsweet.transpiler.ModuleKind;
+import org.jsweet.transpiler.SourceFile;
+import org.jsweet.transpiler.util.EvaluationResult;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import source.performance.Bench;
+import source.performance.CollectionsBench;
+import source.performance.InstanceOfVisitorBench;
+import source.performance.NumericBench;
+import source.performance.OverloadedCallsBench;
+import source.performance.StaticFieldsBench;
+import source.performance.StringBuildingBench;
+
+/**
+ * Measures the speed of the generated JavaScript code (with Node.js) against
+ * the speed of the same programs in Java.
+ *
+ * <p>
+ * Since the measures depend on the machine load, these tests are skipped
+ * unless the <code>jsweet.performance</code> system property is set to
+ * <code>true</code> (e.g. <code>mvn test -Djsweet.performance=true</code>).
+ * 
+ * <p>
+ * Each test fails when the ratio between the JavaScript and the Java
+ * operations per second falls below the ratio of
+ * <code>performance-baseline.properties</code>, minus a tolerance given by the
+ * <code>jsweet.performance.threshold</code> system property (0.5 by default,
+ * i.e. 50%). The measures are reported in
+ * <code>tempOut/performance-report.properties</code>.
+ */
+public class PerformanceTests extends AbstractTest {
+
+	private static final boolean ENABLED = Boolean.getBoolean("jsweet.performance");
+
+	private static final String BASELINE_RESOURCE = "/performance-baseline.properties";
+
+	private static final String REPORT_FILE_NAME = "performance-report.properties";
+
+	private static final double THRESHOLD = Double
+			.parseDouble(System.getProperty("jsweet.performance.threshold", "0.5"));
+
+	private static Properties baseline = new Properties();
+
+	private static Properties report = new Properties();
+
+	@BeforeClass
+	public static void loadBaseline() throws Exception {
+		assumeTrue("performance tests are disabled (use -Djsweet.performance=true)", ENABLED);
+		try (InputStream in = PerformanceTests.class.getResourceAsStream(BASELINE_RESOURCE)) {
+			if (in != null) {
+				baseline.load(in);
+			}
+		}
+	}
+
+	@AfterClass
+	public static void writeReport() throws Exception {
+		if (!ENABLED) {
+			return;
+		}
+		File reportFile = new File(TMPOUT_DIR, REPORT_FILE_NAME);
+		reportFile.getParentFile().mkdirs();
+		try (OutputStream out = new FileOutputStream(reportFile)) {
+			report.store(out, "JavaScript vs Java performance (threshold=" + THRESHOLD + ")");
+		}
+	}
+
+	@Test
+	public void testCollections() {
+		benchmark("collections", CollectionsBench.class);
+	}
+
+	@Test
+	public void testNumeric() {
+		benchmark("numeric", NumericBench.class);
+	}
+
+	@Test
+	public void testNumericWithTypedArrays() {
+		try {
+			transpiler.setTypedArrays(true);
+			benchmark("numeric.typedArrays", NumericBench.class);
+		} finally {
+			transpiler.setTypedArrays(false);
+		}
+	}
+
+	@Test
+	public void testStringBuilding() {
+		benchmark("strings", StringBuildingBench.class);
+	}
+
+	@Test
+	public void testOverloadedCalls() {
+		benchmark("overloads", OverloadedCallsBench.class);
+	}
+
+	@Test
+	public void testInstanceOfVisitor() {
+		benchmark("instanceof", InstanceOfVisitorBench.class);
+	}
+
+	@Test
+	public void testStaticFields() {
+		benchmark("statics", StaticFieldsBench.class);
+	}
+
+	private void benchmark(String name, Class<?> program) {
+		SourceFile[] files = { getSourceFile(Bench.class), getSourceFile(program) };
+		EvaluationResult javaResult = null;
+		try {
+			javaResult = transpiler.eval("Java", new TestTranspilationHandler(), files);
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail("exception occured while running " + name + " in Java");
+		}
+		EvaluationResult java = javaResult;
+		eval(ModuleKind.none, false, (logHandler, javaScript) -> {
+			logHandler.assertNoProblems();
+			assertEquals("JavaScript and Java results differ", toDouble(java.get("checksum")),
+					toDouble(javaScript.get("checksum")), 0);
+
+			double javaOps = toDouble(java.get("ops"));
+			double javaScriptOps = toDouble(javaScript.get("ops"));
+			double ratio = javaScriptOps / javaOps;
+			report.setProperty(name + ".java.ops", String.valueOf(javaOps));
+			report.setProperty(name + ".java.heap", String.valueOf(toDouble(java.get("heap"))));
+			report.setProperty(name + ".js.ops", String.valueOf(javaScriptOps));
+			report.setProperty(name + ".js.heap", String.valueOf(toDouble(javaScript.get("heap"))));
+			report.setProperty(name + ".ratio", String.valueOf(Math.round(ratio * 100) / 100.0));
+			logger.info(name + ": JavaScript=" + javaScriptOps + " ops/s, Java=" + javaOps + " ops/s, ratio="
+					+ ratio);
+
+			if (baseline.containsKey(name + ".ratio")) {
+				double expectedRatio = Double.parseDouble(baseline.getProperty(name + ".ratio"));
+				assertTrue(name + " regressed: JavaScript/Java ratio is " + ratio + " (baseline " + expectedRatio
+						+ ")", ratio >= expectedRatio * (1 - THRESHOLD));
+			}
+		}, files);
+	}
+
+	private static double toDouble(Object value) {
+		return ((Number) value).doubleValue();
+	}
+
+}
@@ -17,25 +17,36 @@
 package org.jsweet.test.transpiler;
 
 import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jsweet.JSweetCommandLineLauncher;
+import org.jsweet.transpiler.EcmaScriptComplianceLevel;
 import org.jsweet.transpiler.JSweetContext;
 import org.jsweet.transpiler.JSweetFactory;
+import org.jsweet.transpiler.JSweetProblem;
 import org.jsweet.transpiler.JSweetTranspiler;
 import org.jsweet.transpiler.ModuleKind;
 import org.jsweet.transpiler.SourceFile;
+import org.jsweet.transpiler.SourceFileRegistry;
 import org.jsweet.transpiler.SourcePosition;
+import org.jsweet.transpiler.TranspilationMetrics;
+import org.jsweet.transpiler.TranspilationMetrics.Phase;
+import org.jsweet.transpiler.TranspilationMetricsListener;
 import org.jsweet.transpiler.extension.AddPrefixToNonPublicMembersAdapter;
 import org.jsweet.transpiler.extension.Java2TypeScriptAdapter;
 import org.jsweet.transpiler.extension.PrinterAdapter;
@@ -46,6 +57,11 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import com.google.debugging.sourcemap.SourceMapConsumerFactory;
+import com.google.debugging.sourcemap.SourceMapping;
+import com.google.debugging.sourcemap.proto.Mapping.OriginalMapping;
+import com.google.gson.Gson;
+
 import source.blocksgame.Ball;
 import source.blocksgame.BlockElement;
 import source.blocksgame.Factory;
@@ -67,8 +83,18 @@ import source.structural.AbstractClass;
 import source.transpiler.CanvasDrawing;
 import source.transpiler.Extended;
 import source.transpiler.PrefixExtension;
+import source.transpiler.direct.DirectJavaScript;
+import source.transpiler.direct.util.Box;
+import source.transpiler.direct.util.Named;
+import source.transpiler.direct.util.Shape;
+import source.transpiler.direct.util.Square;
+import source.transpiler.globals.Creator;
 import source.transpiler.p.A;
 import source.transpiler.p.B;
+import source.transpiler.shards.base.Base;
+import source.transpiler.shards.other.Other;
+import source.transpiler.shards.top.Top;
+import source.transpiler.shardserrors.Invalid;
 
 public class TranspilerTests extends AbstractTest {
 
@@ -336,6 +362,9 @@ public class TranspilerTests extends AbstractTest {
 
 				assertEqualPositions(sourceFiles, sourceFiles[0], "aTestString");
 
+				assertEqualJsPositions(sourceFiles[0], "angle += 0.05");
+				assertEqualJsPositions(sourceFiles[0], "aTestString");
+
 			}, Arrays.copyOf(sourceFiles, sourceFiles.length));
 		} finally {
 			transpiler.setPreserveSourceLineNumbers(sourceMaps);
@@ -384,6 +413,29 @@ public class TranspilerTests extends AbstractTest {
 		logger.info("org: " + javaPosition + " --> " + tsPosition);
 		assertEquals(getPosition(sourceFile.getJavaFile(), javaCodeSnippet).getStartLine(),
 				javaPosition.getStartLine());
+		SourcePosition registryJavaPosition = new SourceFileRegistry(null, Arrays.asList(sourceFiles))
+				.findOriginPosition(tsPosition);
+		assertEquals(javaPosition.getFile(), registryJavaPosition.getFile());
+		assertEquals(javaPosition.getStartLine(), registryJavaPosition.getStartLine());
+	}
+
+	private void assertEqualJsPositions(SourceFile sourceFile, String codeSnippet) {
+		logger.info("assert equal js positions for '" + codeSnippet + "'");
+		try {
+			SourcePosition jsPosition = getPosition(sourceFile.getJsFile(), codeSnippet);
+			SourceMapping mapping = SourceMapConsumerFactory
+					.parse(FileUtils.readFileToString(sourceFile.getJsMapFile()));
+			OriginalMapping originalMapping = mapping.getMappingForLine(jsPosition.getStartLine(),
+					jsPosition.getStartColumn() + 1);
+			logger.info("org: " + originalMapping + " --> " + jsPosition);
+			assertTrue(originalMapping.getOriginalFile().endsWith(sourceFile.getJavaFile().getName()));
+			assertEquals(getPosition(sourceFile.getJavaFile(), codeSnippet).getStartLine(),
+					originalMapping.getLineNumber());
+			// columns are mapped too (the snippets are indented)
+			assertTrue(originalMapping.getColumnPosition() > 1);
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
 	}
 
 	private SourcePosition getPosition(File f, String codeSnippet) {
@@ -402,6 +454,467 @@ public class TranspilerTests extends AbstractTest {
 		}
 	}
 
+	private SourceFile findSourceFile(SourceFile[] sourceFiles, Class<?> mainClass) {
+		return Stream.of(sourceFiles)
+				.filter(sourceFile -> sourceFile.getJavaFile().getName().equals(mainClass.getSimpleName() + ".java"))
+				.findFirst().get();
+	}
+
+	@Test
+	public void testIncremental() throws Throwable {
+		TestTranspilationHandler logHandler = new TestTranspilationHandler();
+		long oldTimestamp = 1000000000000L;
+		try {
+			transpiler.setIncremental(true);
+			SourceFile[] files = SourceFile.getSourceFiles(gameDir);
+			transpiler.transpile(logHandler, files);
+			logHandler.assertNoProblems();
+			for (SourceFile f : files) {
+				assertTrue(f.getTsFile().setLastModified(oldTimestamp));
+			}
+
+			// nothing changed: no TypeScript file should be regenerated
+			files = SourceFile.getSourceFiles(gameDir);
+			transpiler.transpile(logHandler, files);
+			logHandler.assertNoProblems();
+			for (SourceFile f : files) {
+				assertEquals("file " + f + " should not be regenerated", oldTimestamp, f.getTsFile().lastModified());
+			}
+
+			// Vector changed: Vector and Direction (which uses Vector) must be
+			// regenerated, but not Point
+			File vectorFile = findSourceFile(files, Vector.class).getJavaFile();
+			assertTrue(vectorFile.setLastModified(vectorFile.lastModified() + 2000));
+			files = SourceFile.getSourceFiles(gameDir);
+			transpiler.transpile(logHandler, files);
+			logHandler.assertNoProblems();
+			assertTrue(findSourceFile(files, Vector.class).getTsFile().lastModified() != oldTimestamp);
+			assertTrue(findSourceFile(files, Direction.class).getTsFile().lastModified() != oldTimestamp);
+			assertEquals(oldTimestamp, findSourceFile(files, Point.class).getTsFile().lastModified());
+
+			// dummy class removed: its outputs must be deleted, as a clean
+			// build would not produce them
+			SourceFile removedFile = Stream.of(files)
+					.filter(sourceFile -> sourceFile.getJavaFile().getPath().contains("dummy")).findFirst().get();
+			File removedTsFile = removedFile.getTsFile();
+			File removedJsFile = removedFile.getJsFile();
+			assertTrue(removedTsFile.exists());
+			files = Stream.of(SourceFile.getSourceFiles(gameDir))
+					.filter(sourceFile -> !sourceFile.getJavaFile().getPath().contains("dummy"))
+					.toArray(SourceFile[]::new);
+			transpiler.transpile(logHandler, files);
+			logHandler.assertNoProblems();
+			assertFalse(removedTsFile.exists());
+			assertTrue(removedJsFile == null || !removedJsFile.exists());
+			assertEquals(oldTimestamp, findSourceFile(files, Point.class).getTsFile().lastModified());
+		} finally {
+			transpiler.setIncremental(false);
+		}
+	}
+
+	@Test
+	public void testParallelPrinting() throws Throwable {
+		File initialOutputDir = transpiler.getTsOutputDir();
+		try {
+			File sequentialDir = new File(outDir, "sequential");
+			File parallelDir = new File(outDir, "parallel");
+
+			TestTranspilationHandler logHandler = new TestTranspilationHandler();
+			transpiler.setTsOutputDir(sequentialDir);
+			SourceFile[] sequentialFiles = SourceFile.getSourceFiles(gameDir);
+			transpiler.transpile(logHandler, sequentialFiles);
+			logHandler.assertNoProblems();
+			List<File> sequentialEntryFiles = new ArrayList<>(transpiler.getContext().entryFiles);
+			List<String> sequentialUsedModules = new ArrayList<>(transpiler.getContext().getUsedModules());
+
+			transpiler.setParallelPrinting(true);
+			transpiler.setTsOutputDir(parallelDir);
+			SourceFile[] parallelFiles = SourceFile.getSourceFiles(gameDir);
+			transpiler.transpile(logHandler, parallelFiles);
+			logHandler.assertNoProblems();
+			assertEquals(sequentialEntryFiles, transpiler.getContext().entryFiles);
+			assertEquals(sequentialUsedModules, transpiler.getContext().getUsedModules());
+
+			assertEquals(sequentialFiles.length, parallelFiles.length);
+			for (int i = 0; i < sequentialFiles.length; i++) {
+				assertEquals("wrong output for " + parallelFiles[i],
+						FileUtils.readFileToString(sequentialFiles[i].getTsFile()),
+						FileUtils.readFileToString(parallelFiles[i].getTsFile()));
+			}
+		} finally {
+			transpiler.setParallelPrinting(false);
+			transpiler.setTsOutputDir(initialOutputDir);
+		}
+	}
+
+	@Test
+	public void testParallelPrintingGlobalsMapping() throws Throwable {
+		File initialOutputDir = transpiler.getTsOutputDir();
+		File globalsDir = new File(
+				TEST_DIRECTORY_NAME + "/" + Creator.class.getPackage().getName().replace(".", "/"));
+		try {
+			TestTranspilationHandler logHandler = new TestTranspilationHandler();
+			transpiler.setTsOutputDir(new File(outDir, "sequential"));
+			SourceFile[] sequentialFiles = SourceFile.getSourceFiles(globalsDir);
+			transpiler.transpile(logHandler, sequentialFiles);
+			logHandler.assertNoProblems();
+
+			transpiler.setParallelPrinting(true);
+			transpiler.setTsOutputDir(new File(outDir, "parallel"));
+			SourceFile[] parallelFiles = SourceFile.getSourceFiles(globalsDir);
+			transpiler.transpile(logHandler, parallelFiles);
+			logHandler.assertNoProblems();
+
+			assertEquals(sequentialFiles.length, parallelFiles.length);
+			for (int i = 0; i < sequentialFiles.length; i++) {
+				String sequentialOutput = FileUtils.readFileToString(sequentialFiles[i].getTsFile());
+				assertEquals("wrong output for " + parallelFiles[i], sequentialOutput,
+						FileUtils.readFileToString(parallelFiles[i].getTsFile()));
+				// the globals mappings are only printed in the files that use
+				// them
+				assertEquals("wrong globals mapping in " + sequentialFiles[i],
+						sequentialFiles[i].getJavaFile().getName().equals("Creator.java"),
+						sequentialOutput.contains("__Function = Function"));
+			}
+		} finally {
+			transpiler.setParallelPrinting(false);
+			transpiler.setTsOutputDir(initialOutputDir);
+		}
+	}
+
+	@Test
+	public void testTsserverSession() throws Throwable {
+		TestTranspilationHandler logHandler = new TestTranspilationHandler();
+		long oldTimestamp = 1000000000000L;
+		SourceFile[] files = SourceFile.getSourceFiles(gameDir);
+		transpiler.transpile(logHandler, files);
+		logHandler.assertNoProblems();
+		for (SourceFile f : files) {
+			assertTrue(f.getJsFile().setLastModified(oldTimestamp));
+		}
+
+		// same TypeScript content: the JavaScript files are not emitted again
+		files = SourceFile.getSourceFiles(gameDir);
+		transpiler.transpile(logHandler, files);
+		logHandler.assertNoProblems();
+		for (SourceFile f : files) {
+			assertEquals("file " + f + " should not be emitted again", oldTimestamp, f.getJsFile().lastModified());
+		}
+
+		// a removed JavaScript file is emitted again
+		File vectorJsFile = findSourceFile(files, Vector.class).getJsFile();
+		assertTrue(vectorJsFile.delete());
+		files = SourceFile.getSourceFiles(gameDir);
+		transpiler.transpile(logHandler, files);
+		logHandler.assertNoProblems();
+		assertTrue(findSourceFile(files, Vector.class).getJsFile().exists());
+		assertEquals(oldTimestamp, findSourceFile(files, Point.class).getJsFile().lastModified());
+	}
+
+	@Test
+	public void testReuseJavacState() throws Throwable {
+		File initialOutputDir = transpiler.getTsOutputDir();
+		try {
+			File freshDir = new File(outDir, "fresh");
+			File reusedDir = new File(outDir, "reused");
+
+			TestTranspilationHandler logHandler = new TestTranspilationHandler();
+			transpiler.setTsOutputDir(freshDir);
+			SourceFile[] freshFiles = SourceFile.getSourceFiles(gameDir);
+			transpiler.transpile(logHandler, freshFiles);
+			logHandler.assertNoProblems();
+
+			transpiler.setReuseJavacState(true);
+			transpiler.setTsOutputDir(reusedDir);
+			SourceFile[] reusedFiles = null;
+			// the first run initializes the javac state, the next ones reuse it
+			for (int i = 0; i < 3; i++) {
+				reusedFiles = SourceFile.getSourceFiles(gameDir);
+				transpiler.transpile(logHandler, reusedFiles);
+				logHandler.assertNoProblems();
+			}
+
+			assertEquals(freshFiles.length, reusedFiles.length);
+			for (int i = 0; i < freshFiles.length; i++) {
+				assertEquals("wrong output for " + reusedFiles[i],
+						FileUtils.readFileToString(freshFiles[i].getTsFile()),
+						FileUtils.readFileToString(reusedFiles[i].getTsFile()));
+			}
+		} finally {
+			transpiler.setReuseJavacState(false);
+			transpiler.setTsOutputDir(initialOutputDir);
+		}
+	}
+
+	private List<Phase> getTscShardPhases() {
+		return transpiler.getMetrics().getPhases(TranspilationMetrics.TS2JS).stream()
+				.filter(phase -> "tscShard".equals(phase.getName())).collect(toList());
+	}
+
+	private List<Long> getTscShardFileCounts(List<Phase> shardPhases, int level) {
+		return shardPhases.stream().filter(phase -> phase.getCounter(TranspilationMetrics.LEVEL) == level)
+				.map(phase -> phase.getCounter(TranspilationMetrics.FILES)).sorted().collect(toList());
+	}
+
+	@Test
+	public void testParallelTsc() throws Throwable {
+		assumeTrue("sharding requires several processors", Runtime.getRuntime().availableProcessors() > 1);
+		// the game util, game dummy and calculus packages are independent
+		// from each other, and the game package depends on the game util one
+		SourceFile[] files = SourceFile.getSourceFiles(gameDir, calculusDir);
+		transpiler.setParallelTsc(true);
+		try {
+			transpile(ModuleKind.commonjs, logHandler -> {
+				logHandler.assertNoProblems();
+				for (SourceFile f : files) {
+					assertTrue("no JavaScript file for " + f, f.getJsFile() != null && f.getJsFile().exists());
+				}
+				List<Phase> shardPhases = getTscShardPhases();
+				assertEquals(Math.min(3, Runtime.getRuntime().availableProcessors()),
+						getTscShardFileCounts(shardPhases, 0).size());
+				assertEquals(1, getTscShardFileCounts(shardPhases, 1).size());
+				assertEquals(shardPhases.toString(), Stream.of(files).filter(f -> f.getTsFile() != null).count(),
+						shardPhases.stream().mapToLong(phase -> phase.getCounter(TranspilationMetrics.FILES)).sum());
+			}, files);
+		} finally {
+			transpiler.setParallelTsc(false);
+		}
+	}
+
+	@Test
+	public void testParallelTscLevels() throws Throwable {
+		assumeTrue("sharding requires several processors", Runtime.getRuntime().availableProcessors() > 1);
+		// base and other are independent, cycle.a and cycle.b depend on each
+		// other (and cycle.a on base), and top depends on cycle.a
+		SourceFile[] files = SourceFile.getSourceFiles(new File(TEST_DIRECTORY_NAME + "/"
+				+ Top.class.getPackage().getName().replace(".", "/")).getParentFile());
+		transpiler.setParallelTsc(true);
+		try {
+			transpile(ModuleKind.commonjs, logHandler -> {
+				logHandler.assertNoProblems();
+				for (SourceFile f : files) {
+					assertTrue("no JavaScript file for " + f, f.getJsFile() != null && f.getJsFile().exists());
+				}
+				List<Phase> shardPhases = getTscShardPhases();
+				assertEquals(shardPhases.toString(), 4, shardPhases.size());
+				assertEquals(Arrays.asList(1L, 1L), getTscShardFileCounts(shardPhases, 0));
+				// the cyclic packages are compiled by the same shard
+				assertEquals(Arrays.asList(2L), getTscShardFileCounts(shardPhases, 1));
+				assertEquals(Arrays.asList(1L), getTscShardFileCounts(shardPhases, 2));
+			}, files);
+		} finally {
+			transpiler.setParallelTsc(false);
+		}
+	}
+
+	@Test
+	public void testParallelTscErrors() throws Throwable {
+		assumeTrue("sharding requires several processors", Runtime.getRuntime().availableProcessors() > 1);
+		SourceFile[] files = { getSourceFile(Base.class), getSourceFile(Other.class), getSourceFile(Invalid.class) };
+		transpiler.setParallelTsc(true);
+		try {
+			transpile(ModuleKind.commonjs, logHandler -> {
+				// Invalid (level 1) uses JDK classes that are unknown to tsc
+				assertEquals(Arrays.asList(1L), getTscShardFileCounts(getTscShardPhases(), 1));
+				assertFalse(logHandler.getReportedProblems().isEmpty());
+				for (int i = 0; i < logHandler.getReportedProblems().size(); i++) {
+					assertEquals(JSweetProblem.MAPPED_TSC_ERROR, logHandler.getReportedProblems().get(i));
+					SourcePosition position = logHandler.getReportedSourcePositions().get(i);
+					assertEquals(files[2].getJavaFile().getName(), position.getFile().getName());
+					assertTrue(position.toString(), position.getStartLine() == 7 || position.getStartLine() == 8);
+				}
+			}, files);
+		} finally {
+			transpiler.setParallelTsc(false);
+		}
+	}
+
+	@Test
+	public void testDirectJavaScript() throws Throwable {
+		TestTranspilationHandler logHandler = new TestTranspilationHandler();
+		SourceFile[] files = SourceFile.getSourceFiles(gameDir);
+		transpiler.setDirectJavaScript(true);
+		try {
+			transpiler.transpile(logHandler, files);
+			logHandler.assertNoProblems();
+			for (Class<?> c : Arrays.asList(Ball.class, Globals.class, Direction.class, Point.class)) {
+				SourceFile f = findSourceFile(files, c);
+				assertTrue("no JavaScript file for " + f, f.getJsFile() != null && f.getJsFile().exists());
+				assertEquals(null, f.getTsFile());
+			}
+			String js = FileUtils.readFileToString(findSourceFile(files, Point.class).getJsFile());
+			assertTrue(js, js.contains("class Point {"));
+			assertTrue(js, js.contains("util.Point = Point;"));
+			assertFalse(js, js.contains("namespace "));
+			assertFalse(js, js.contains(": number"));
+		} finally {
+			transpiler.setDirectJavaScript(false);
+		}
+	}
+
+	@Test
+	public void testDirectJavaScriptUnsupportedOptions() throws Throwable {
+		SourceFile[] files = SourceFile.getSourceFiles(gameDir);
+		ModuleKind initialModuleKind = transpiler.getModuleKind();
+		transpiler.setDirectJavaScript(true);
+		try {
+			TestTranspilationHandler logHandler = new TestTranspilationHandler();
+			transpiler.setModuleKind(ModuleKind.commonjs);
+			transpiler.transpile(logHandler, files);
+			logHandler.assertReportedProblems(JSweetProblem.UNSUPPORTED_DIRECT_JAVASCRIPT_OPTION);
+			assertEquals(null, findSourceFile(files, Point.class).getJsFile());
+
+			logHandler = new TestTranspilationHandler();
+			transpiler.setModuleKind(initialModuleKind);
+			transpiler.setEcmaTargetVersion(EcmaScriptComplianceLevel.ES5);
+			transpiler.transpile(logHandler, files);
+			logHandler.assertReportedProblems(JSweetProblem.UNSUPPORTED_DIRECT_JAVASCRIPT_OPTION);
+			assertEquals(null, findSourceFile(files, Point.class).getJsFile());
+		} finally {
+			transpiler.setDirectJavaScript(false);
+			transpiler.setModuleKind(initialModuleKind);
+			transpiler.setEcmaTargetVersion(EcmaScriptComplianceLevel.ES6);
+		}
+	}
+
+	@Test
+	public void testIncrementalDirectJavaScript() throws Throwable {
+		TestTranspilationHandler logHandler = new TestTranspilationHandler();
+		long oldTimestamp = 1000000000000L;
+		transpiler.setIncremental(true);
+		transpiler.setDirectJavaScript(true);
+		try {
+			SourceFile[] files = SourceFile.getSourceFiles(gameDir);
+			transpiler.transpile(logHandler, files);
+			logHandler.assertNoProblems();
+			for (SourceFile f : files) {
+				if (f.getJsFile() != null) {
+					assertTrue(f.getJsFile().setLastModified(oldTimestamp));
+				}
+			}
+
+			// nothing changed: no JavaScript file should be regenerated
+			files = SourceFile.getSourceFiles(gameDir);
+			transpiler.transpile(logHandler, files);
+			logHandler.assertNoProblems();
+			for (SourceFile f : files) {
+				if (f.getJsFile() != null) {
+					assertEquals("file " + f + " should not be regenerated", oldTimestamp,
+							f.getJsFile().lastModified());
+				}
+			}
+
+			// removed output: Vector must be regenerated, but not AnimatedElement
+			assertTrue(findSourceFile(files, Vector.class).getJsFile().delete());
+			files = SourceFile.getSourceFiles(gameDir);
+			transpiler.transpile(logHandler, files);
+			logHandler.assertNoProblems();
+			assertTrue(findSourceFile(files, Vector.class).getJsFile().exists());
+			assertEquals(oldTimestamp, findSourceFile(files, AnimatedElement.class).getJsFile().lastModified());
+
+			// changed file (as reported by a file watcher) with an unchanged
+			// modification time: Point and Line must be regenerated, but not
+			// Direction
+			for (SourceFile f : files) {
+				if (f.getJsFile() != null) {
+					assertTrue(f.getJsFile().setLastModified(oldTimestamp));
+				}
+			}
+			files = SourceFile.getSourceFiles(gameDir);
+			transpiler.transpile(logHandler, Arrays.asList(findSourceFile(files, Point.class).getJavaFile()), files);
+			logHandler.assertNoProblems();
+			assertTrue(findSourceFile(files, Point.class).getJsFile().lastModified() != oldTimestamp);
+			assertTrue(findSourceFile(files, Line.class).getJsFile().lastModified() != oldTimestamp);
+			assertEquals(oldTimestamp, findSourceFile(files, Direction.class).getJsFile().lastModified());
+		} finally {
+			transpiler.setDirectJavaScript(false);
+			transpiler.setIncremental(false);
+		}
+	}
+
+	@Test
+	public void testDirectJavaScriptEval() throws Throwable {
+		// the utilities are declared in a sub-namespace, across several files
+		SourceFile[] files = { getSourceFile(source.transpiler.direct.util.Globals.class), getSourceFile(Box.class),
+				getSourceFile(Named.class), getSourceFile(Shape.class), getSourceFile(Square.class),
+				getSourceFile(DirectJavaScript.class) };
+		transpiler.setDirectJavaScript(true);
+		try {
+			eval(ModuleKind.none, (logHandler, result) -> {
+				logHandler.assertNoProblems();
+				// generics and overloads
+				assertEquals(42, result.<Number>get("value").intValue());
+				assertTrue(result.get("contained"));
+				assertEquals("box:2,box:2/answer:42", result.get("described"));
+				// static field exported from a namespace
+				assertEquals(2, result.<Number>get("created").intValue());
+				// casts and abstract methods
+				assertEquals(9, result.<Number>get("area").intValue());
+				assertEquals("square", result.get("name"));
+				assertTrue(result.get("equal"));
+				assertEquals(4, result.<Number>get("truncated").intValue());
+				// globals exported from another declaration of the namespace
+				assertEquals(2, result.<Number>get("squares").intValue());
+				// enums
+				assertEquals(3, result.<Number>get("colors").intValue());
+				assertEquals(2, result.<Number>get("ordinal").intValue());
+				for (SourceFile f : files) {
+					assertEquals(null, f.getTsFile());
+				}
+			}, files);
+		} finally {
+			transpiler.setDirectJavaScript(false);
+		}
+	}
+
+	@Test
+	public void testMetrics() throws Throwable {
+		TestTranspilationHandler logHandler = new TestTranspilationHandler();
+		SourceFile[] files = SourceFile.getSourceFiles(gameDir);
+		File metricsFile = File.createTempFile("jsweet-metrics", ".json");
+		File traceFile = File.createTempFile("jsweet-trace", ".json");
+		List<Phase> completedPhases = new ArrayList<>();
+		TranspilationMetricsListener listener = (metrics, phase) -> {
+			synchronized (completedPhases) {
+				completedPhases.add(phase);
+			}
+		};
+		transpiler.getMetrics().addListener(listener);
+		transpiler.setMetricsFile(metricsFile);
+		transpiler.setTraceFile(traceFile);
+		try {
+			transpiler.transpile(logHandler, files);
+			logHandler.assertNoProblems();
+			TranspilationMetrics metrics = transpiler.getMetrics();
+			for (String name : Arrays.asList("parse", "enter", "attribute", "flow")) {
+				assertEquals(name, 1, metrics.getPhases(TranspilationMetrics.JAVAC).stream()
+						.filter(phase -> phase.getName().equals(name)).count());
+			}
+			assertEquals(1, metrics.getPhases(TranspilationMetrics.CANDIES).size());
+			assertEquals(1, metrics.getPhases(TranspilationMetrics.TRANSPILATION).size());
+			List<Phase> printPhases = metrics.getPhases(TranspilationMetrics.PRINT);
+			assertEquals(files.length, printPhases.size());
+			for (Phase phase : printPhases) {
+				assertTrue(phase.toString(), phase.getFile() != null);
+				assertTrue(phase.toString(), phase.getCounter(TranspilationMetrics.OUTPUT_SIZE) > 0);
+				assertTrue(phase.toString(), phase.getDurationNanos() >= 0);
+			}
+			assertEquals(metrics.getPhases().size(), completedPhases.size());
+
+			Map<?, ?> json = new Gson().fromJson(FileUtils.readFileToString(metricsFile), Map.class);
+			assertEquals(metrics.getPhases().size(), ((List<?>) json.get("phases")).size());
+			assertTrue(((Map<?, ?>) json.get("summary")).containsKey(TranspilationMetrics.PRINT));
+			Map<?, ?> trace = new Gson().fromJson(FileUtils.readFileToString(traceFile), Map.class);
+			assertTrue(((List<?>) trace.get("traceEvents")).size() > metrics.getPhases().size());
+		} finally {
+			transpiler.getMetrics().removeListener(listener);
+			transpiler.setMetricsFile(null);
+			transpiler.setTraceFile(null);
+			FileUtils.deleteQuietly(metricsFile);
+			FileUtils.deleteQuietly(traceFile);
+		}
+	}
+
 	@Test
 	public void testExtension() {
 		createTranspiler(new JSweetFactory() {
@@ -0,0 +1,172 @@
+package org.jsweet.test.transpiler.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.io.FileUtils;
+import org.jsweet.transpiler.candy.CandyProcessor;
+import org.jsweet.transpiler.util.ConsoleTranspilationHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CandyProcessorTest {
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("candies").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.deleteQuietly(dir);
+	}
+
+	@Test
+	public void testIncrementalExtraction() throws IOException {
+		File workingDir = new File(dir, "work");
+		File a = createCandy("a", "1");
+		File b = createCandy("b", "1");
+		File tsDefA = new File(workingDir, CandyProcessor.CANDIES_TSDEFS_DIR_NAME + "/src/typings/a/index.d.ts");
+		File tsDefB = new File(workingDir, CandyProcessor.CANDIES_TSDEFS_DIR_NAME + "/src/typings/b/index.d.ts");
+		File jsB = new File(workingDir, "candies/js/b/b.js");
+
+		CandyProcessor processor = process(workingDir, a, b);
+		assertEquals(2, processor.getExtractedJsFiles().size());
+		assertTrue(tsDefA.exists());
+		assertTrue(tsDefB.exists());
+		assertEquals(script("b", "1"), FileUtils.readFileToString(jsB));
+
+		// other modification date: the jar is only hashed now, so it is
+		// extracted again
+		b.setLastModified(b.lastModified() - 10000);
+		processor = process(workingDir, a, b);
+		assertEquals(1, processor.getExtractedJsFiles().size());
+
+		// same content, other modification date: nothing to extract
+		b.setLastModified(b.lastModified() - 10000);
+		processor = process(workingDir, a, b);
+		assertEquals(0, processor.getExtractedJsFiles().size());
+
+		// b changes and a is removed from the classpath
+		b = createCandy("b", "22");
+		processor = process(workingDir, b);
+		assertEquals(1, processor.getExtractedJsFiles().size());
+		assertFalse(tsDefA.exists());
+		assertFalse(new File(workingDir, "candies/js/a").exists());
+		assertEquals(script("b", "22"), FileUtils.readFileToString(jsB));
+	}
+
+	@Test
+	public void testExtractionAfterClean() throws IOException {
+		File workingDir = new File(dir, "work");
+		File a = createCandy("a", "1");
+		File tsDefA = new File(workingDir, CandyProcessor.CANDIES_TSDEFS_DIR_NAME + "/src/typings/a/index.d.ts");
+		File jsA = new File(workingDir, "candies/js/a/a.js");
+
+		CandyProcessor processor = new CandyProcessor(workingDir, a.getAbsolutePath(), null);
+		processor.processCandies(new ConsoleTranspilationHandler());
+		assertTrue(tsDefA.exists());
+		assertTrue(jsA.exists());
+
+		// the same processor is used again after a clean build
+		FileUtils.deleteQuietly(new File(workingDir, CandyProcessor.CANDIES_DIR_NAME));
+		processor.processCandies(new ConsoleTranspilationHandler());
+		assertTrue(tsDefA.exists());
+		assertTrue(jsA.exists());
+	}
+
+	@Test
+	public void testConflictingTsDefs() throws IOException {
+		File workingDir = new File(dir, "work");
+		File a = createCandy("a", "1", "shared");
+		File b = createCandy("b", "1", "shared");
+		File c = createCandy("c", "1", "shared");
+		File sharedTsDef = new File(workingDir,
+				CandyProcessor.CANDIES_TSDEFS_DIR_NAME + "/src/typings/shared/index.d.ts");
+
+		// the last candy of the classpath wins
+		process(workingDir, a, b, c);
+		assertEquals(sharedTsDef("c", "1"), FileUtils.readFileToString(sharedTsDef));
+		process(workingDir, c, b, a);
+		assertEquals(sharedTsDef("a", "1"), FileUtils.readFileToString(sharedTsDef));
+
+		// a changed candy does not override a later one
+		process(workingDir, a, b, c);
+		a = createCandy("a", "2", "shared");
+		process(workingDir, a, b, c);
+		assertEquals(sharedTsDef("c", "1"), FileUtils.readFileToString(sharedTsDef));
+
+		// the file is restored from the remaining candies
+		process(workingDir, a, b);
+		assertEquals(sharedTsDef("b", "1"), FileUtils.readFileToString(sharedTsDef));
+		b = createCandy("b", "2");
+		process(workingDir, a, b);
+		assertEquals(sharedTsDef("a", "2"), FileUtils.readFileToString(sharedTsDef));
+	}
+
+	private CandyProcessor process(File workingDir, File... jars) throws IOException {
+		StringBuilder classPath = new StringBuilder();
+		for (File jar : jars) {
+			classPath.append(jar.getAbsolutePath()).append(File.pathSeparator);
+		}
+		CandyProcessor processor = new CandyProcessor(workingDir, classPath.toString(), null);
+		processor.processCandies(new ConsoleTranspilationHandler());
+		return processor;
+	}
+
+	private String script(String name, String version) {
+		return "var " + name + " = '" + version + "';\n";
+	}
+
+	private String sharedTsDef(String name, String version) {
+		return "declare var shared: '" + name + version + "';\n";
+	}
+
+	private File createCandy(String name, String version, String... sharedTsDefs) throws IOException {
+		File jar = new File(dir, name + ".jar");
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+			writeEntry(out, "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n", false);
+			writeEntry(out, "META-INF/candy-metadata.json", "{ \"transpilerVersion\": \"2.2.0\" }", false);
+			writeEntry(out, "META-INF/maven/org.jsweet.candies/" + name + "/pom.properties",
+					"artifactId=" + name + "\nversion=" + version + "\n", false);
+			writeEntry(out, "META-INF/resources/webjars/" + name + "/" + version + "/", "", false);
+			writeEntry(out, "META-INF/resources/webjars/" + name + "/" + version + "/" + name + ".js",
+					script(name, version), true);
+			writeEntry(out, "src/typings/" + name + "/index.d.ts", "declare var " + name + ": string;\n", false);
+			for (String sharedTsDef : sharedTsDefs) {
+				writeEntry(out, "src/typings/" + sharedTsDef + "/index.d.ts", sharedTsDef(name, version), false);
+			}
+		}
+		return jar;
+	}
+
+	private void writeEntry(JarOutputStream out, String name, String content, boolean stored) throws IOException {
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		JarEntry entry = new JarEntry(name);
+		if (stored) {
+			CRC32 crc = new CRC32();
+			crc.update(bytes);
+			entry.setMethod(ZipEntry.STORED);
+			entry.setSize(bytes.length);
+			entry.setCrc(crc.getValue());
+		}
+		out.putNextEntry(entry);
+		out.write(bytes);
+		out.closeEntry();
+	}
+
+}
@@ -0,0 +1,54 @@
+package org.jsweet.test.transpiler.util;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.jsweet.transpiler.util.DirectedGraph;
+import org.junit.Test;
+
+public class DirectedGraphTest {
+
+	@Test
+	public void testStronglyConnectedComponents() {
+		DirectedGraph<String> graph = new DirectedGraph<>();
+		graph.add("a", "b", "c", "d", "e", "f");
+		// a -> b -> c -> a is a cycle, which depends on d, itself in a cycle
+		// with e; f is isolated
+		graph.addEdge("a", "b");
+		graph.addEdge("b", "c");
+		graph.addEdge("c", "a");
+		graph.addEdge("c", "d");
+		graph.addEdge("d", "e");
+		graph.addEdge("e", "d");
+
+		List<List<String>> components = graph.getStronglyConnectedComponents();
+		assertEquals(3, components.size());
+		assertEquals(new HashSet<>(asList("d", "e")), new HashSet<>(components.get(0)));
+		assertEquals(new HashSet<>(asList("a", "b", "c")), new HashSet<>(components.get(1)));
+		assertEquals(asList("f"), components.get(2));
+	}
+
+	@Test
+	public void testStronglyConnectedComponentsOrder() {
+		DirectedGraph<Integer> graph = new DirectedGraph<>();
+		graph.add(1, 2, 3, 4);
+		graph.addEdge(1, 2);
+		graph.addEdge(2, 3);
+		graph.addEdge(1, 4);
+		graph.addEdge(4, 3);
+
+		List<List<Integer>> components = graph.getStronglyConnectedComponents();
+		assertEquals(4, components.size());
+		// dependencies come first
+		for (int i = 0; i < components.size(); i++) {
+			for (Integer dependency : graph.getDestinationElements(components.get(i).get(0))) {
+				assertTrue(components.indexOf(asList(dependency)) < i);
+			}
+		}
+	}
+
+}
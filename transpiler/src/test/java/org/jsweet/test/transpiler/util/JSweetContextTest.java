@@ -0,0 +1,113 @@
+package org.jsweet.test.transpiler.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jsweet.JSweetConfig;
+import org.jsweet.test.transpiler.AbstractTest;
+import org.jsweet.transpiler.JSweetContext;
+import org.jsweet.transpiler.util.Util;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+
+import source.transpiler.filters.Shapes;
+
+public class JSweetContextTest extends AbstractTest {
+
+	private JSweetContext context;
+
+	private JCClassDecl circleClassDecl;
+
+	private JCClassDecl squareClassDecl;
+
+	@Before
+	public void setUp() throws Throwable {
+		List<JCClassDecl> classDeclarations = getSourceClassesDeclarations(getSourceFile(Shapes.class));
+		context = transpiler.getContext();
+		JCClassDecl shapesClassDecl = classDeclarations.get(0);
+		circleClassDecl = findInnerClassDeclaration(shapesClassDecl, "Circle");
+		squareClassDecl = findInnerClassDeclaration(shapesClassDecl, "Square");
+	}
+
+	private static JCClassDecl findInnerClassDeclaration(JCClassDecl classDecl, String name) {
+		return classDecl.defs.stream() //
+				.filter(def -> def instanceof JCClassDecl && ((JCClassDecl) def).name.toString().equals(name)) //
+				.map(def -> (JCClassDecl) def) //
+				.findFirst().get();
+	}
+
+	private static MethodSymbol method(JCClassDecl classDecl, String name) {
+		return Util.findFirstMethodDeclaration(classDecl, name).sym;
+	}
+
+	private void assertRootRelativeName(String expectedSuffix, Map<Symbol, String> nameMapping, Symbol symbol) {
+		String name = context.getRootRelativeName(nameMapping, symbol);
+		assertTrue("unexpected root-relative name: " + name, name.endsWith(expectedSuffix));
+	}
+
+	@Test
+	public void testRootRelativeNameCacheInvalidation() {
+		MethodSymbol draw = method(circleClassDecl, "draw");
+		ClassSymbol circle = circleClassDecl.sym;
+
+		assertRootRelativeName("Shapes.Circle.draw", null, draw);
+
+		// annotation filters can rename symbols
+		context.addAnnotation("@Name('paint')", "source.transpiler.filters.Shapes.Circle.draw()");
+		assertRootRelativeName("Shapes.Circle.paint", null, draw);
+
+		// name mappings only grow: a new entry resets the mapping's cache
+		Map<Symbol, String> nameMapping = new HashMap<>();
+		assertRootRelativeName("Shapes.Circle.paint", nameMapping, draw);
+		nameMapping.put(circle, "Disc");
+		assertRootRelativeName("Shapes.Disc.paint", nameMapping, draw);
+		assertRootRelativeName("Shapes.Circle.paint", null, draw);
+
+		// replacing an entry is not detected until the caches are cleared
+		nameMapping.put(circle, "Ring");
+		assertRootRelativeName("Shapes.Disc.paint", nameMapping, draw);
+		context.addClassNameMapping(circle, "Ring");
+		assertRootRelativeName("Shapes.Ring.paint", nameMapping, draw);
+	}
+
+	@Test
+	public void testAnnotationFilterMatching() {
+		MethodSymbol circleDraw = method(circleClassDecl, "draw");
+		MethodSymbol circleErase = method(circleClassDecl, "erase");
+		MethodSymbol squareDraw = method(squareClassDecl, "draw");
+
+		// the literal prefix of the filter leads to another branch of the trie
+		context.addAnnotation("@Erased", "source.transpiler.filters.Shapes.Square.*(..)");
+		assertFalse(context.hasAnnotationType(circleDraw, JSweetConfig.ANNOTATION_ERASED));
+		assertFalse(context.hasAnnotationType(circleErase, JSweetConfig.ANNOTATION_ERASED));
+		assertTrue(context.hasAnnotationType(squareDraw, JSweetConfig.ANNOTATION_ERASED));
+
+		// a filter with no literal prefix is a candidate for all signatures, and
+		// the exclusion is only applied by the regular expression
+		context.addAnnotation("@Erased", "**.Circle.*(..)", "!**.erase()");
+		assertTrue(context.hasAnnotationType(circleDraw, JSweetConfig.ANNOTATION_ERASED));
+		assertFalse(context.hasAnnotationType(circleErase, JSweetConfig.ANNOTATION_ERASED));
+		assertTrue(context.hasAnnotationType(squareDraw, JSweetConfig.ANNOTATION_ERASED));
+
+		// the first declared filter wins, even if a later one is deeper in the trie
+		context.addAnnotation("@Name('first')", "**.Square.draw()");
+		context.addAnnotation("@Name('second')", "source.transpiler.filters.Shapes.Square.draw()",
+				"source.transpiler.filters.Shapes.Circle.draw()");
+		assertEquals("first", context.getAnnotationValue(squareDraw, JSweetConfig.ANNOTATION_NAME, String.class, null));
+		assertEquals("second",
+				context.getAnnotationValue(circleDraw, JSweetConfig.ANNOTATION_NAME, String.class, null));
+		assertNull(context.getAnnotationValue(circleErase, JSweetConfig.ANNOTATION_NAME, String.class, null));
+	}
+
+}
@@ -0,0 +1,56 @@
+package org.jsweet.test.transpiler.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+
+import org.jsweet.transpiler.util.OutputBuffer;
+import org.junit.Test;
+
+public class OutputBufferTest {
+
+	@Test
+	public void testAppendAcrossChunks() throws Exception {
+		OutputBuffer buffer = new OutputBuffer();
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			buffer.append("line " + i).append('\n');
+			expected.append("line " + i).append('\n');
+		}
+		assertEquals(expected.length(), buffer.length());
+		assertEquals(expected.toString(), buffer.toString());
+		assertEquals(expected.charAt(20000), buffer.charAt(20000));
+		assertEquals(expected.substring(10000), buffer.substring(10000));
+		StringWriter writer = new StringWriter();
+		buffer.writeTo(writer);
+		assertEquals(expected.toString(), writer.toString());
+	}
+
+	@Test
+	public void testMarkAndReset() {
+		OutputBuffer buffer = new OutputBuffer();
+		buffer.append("let a = 1;");
+		int mark = buffer.mark();
+		for (int i = 0; i < 3000; i++) {
+			buffer.append("rolled back ");
+		}
+		buffer.reset(mark);
+		assertEquals("let a = 1;", buffer.toString());
+		assertEquals(';', buffer.lastChar());
+		buffer.append(" let b = 2;");
+		assertEquals("let a = 1; let b = 2;", buffer.toString());
+	}
+
+	@Test
+	public void testWhitespace() {
+		OutputBuffer buffer = new OutputBuffer();
+		assertTrue(buffer.isWhitespace());
+		buffer.append(" \n\t");
+		assertTrue(buffer.isWhitespace());
+		buffer.append("x");
+		assertFalse(buffer.isWhitespace());
+	}
+
+}
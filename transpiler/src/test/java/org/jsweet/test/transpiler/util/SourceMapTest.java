@@ -0,0 +1,124 @@
+package org.jsweet.test.transpiler.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.jsweet.transpiler.util.Position;
+import org.jsweet.transpiler.util.SourceMap;
+import org.junit.Test;
+
+public class SourceMapTest {
+
+	@Test
+	public void testFindInputPosition() {
+		SourceMap sourceMap = new SourceMap();
+		// output line 2 contains entries at columns 0, 4 and 8
+		for (int i = 0; i < 9; i++) {
+			sourceMap.addEntry(i * 10, i + 1, 0, i * 4, i / 3 + 1, (i % 3) * 4);
+		}
+		assertEquals(5, sourceMap.findInputPosition(2, 4).getLine());
+		assertEquals(5, sourceMap.findInputPosition(2, 3).getLine());
+		assertEquals(6, sourceMap.findInputPosition(2, 100).getLine());
+		assertEquals(1, sourceMap.findInputPosition(new Position(1, 0)).getLine());
+		assertNull(sourceMap.findInputPosition(4, 0));
+	}
+
+	@Test
+	public void testUnorderedEntries() {
+		SourceMap sourceMap = new SourceMap();
+		sourceMap.addEntry(new Position(0, 1, 0), new Position(0, 1, 0));
+		sourceMap.addEntry(new Position(10, 2, 0), new Position(20, 3, 0));
+		// added after a rollback for instance
+		sourceMap.addEntry(new Position(20, 3, 0), new Position(10, 2, 0));
+		assertEquals(3, sourceMap.size());
+		assertEquals(2, sourceMap.getOutputLine(1));
+		assertEquals(3, sourceMap.findInputPosition(2, 0).getLine());
+		assertEquals(2, sourceMap.findInputPosition(3, 0).getLine());
+		sourceMap.removeLastInsertedEntry();
+		assertEquals(2, sourceMap.size());
+		assertEquals(1, sourceMap.findInputPosition(2, 0).getLine());
+	}
+
+	@Test
+	public void testDuplicateInputPositions() {
+		SourceMap sourceMap = new SourceMap();
+		sourceMap.addEntry(new Position(0, 1, 0), new Position(0, 1, 0));
+		sourceMap.addEntry(new Position(10, 2, 0), new Position(10, 2, 0));
+		// same input position: the first mapping wins
+		sourceMap.addEntry(new Position(10, 2, 0), new Position(20, 3, 0));
+		assertEquals(2, sourceMap.size());
+		assertEquals(2, sourceMap.getSortedEntries(null).get(1).getOutputPosition().getLine());
+		assertNull(sourceMap.findInputPosition(4, 0));
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testSetOutputPosition() {
+		SourceMap sourceMap = new SourceMap();
+		SourceMap.Entry entry = sourceMap.addEntry(new Position(0, 1, 0), new Position(0, 1, 0));
+		assertNotNull(entry);
+		sourceMap.addEntry(new Position(10, 2, 0), new Position(10, 2, 0));
+		assertNull(sourceMap.addEntry(new Position(10, 2, 0), new Position(20, 3, 0)));
+		entry.setOutputPosition(new Position(30, 4, 0));
+		assertEquals(4, entry.getOutputPosition().getLine());
+		assertEquals(1, sourceMap.findInputPosition(4, 0).getLine());
+		assertEquals(2, sourceMap.findInputPosition(2, 0).getLine());
+		assertEquals(4, sourceMap.getOutputLine(1));
+	}
+
+	@Test
+	public void testRemoveDuplicateInsertions() {
+		SourceMap sourceMap = new SourceMap();
+		sourceMap.addEntry(new Position(0, 1, 0), new Position(0, 1, 0));
+		sourceMap.addEntry(new Position(10, 2, 0), new Position(10, 2, 0));
+		sourceMap.addEntry(new Position(0, 1, 0), new Position(20, 3, 0));
+		// removing a duplicate insertion removes the entry it duplicates
+		sourceMap.removeLastInsertedEntry();
+		assertEquals(1, sourceMap.size());
+		assertEquals(2, sourceMap.getInputLine(0));
+		assertEquals(2, sourceMap.findInputPosition(1, 0).getLine());
+		sourceMap.removeLastInsertedEntry();
+		sourceMap.addEntry(new Position(0, 1, 0), new Position(5, 2, 0));
+		assertEquals(1, sourceMap.size());
+		assertEquals(1, sourceMap.findInputPosition(2, 0).getLine());
+		sourceMap.removeLastInsertedEntry();
+		sourceMap.removeLastInsertedEntry();
+		assertEquals(0, sourceMap.size());
+		assertNull(sourceMap.findInputPosition(2, 0));
+	}
+
+	@Test
+	public void testRemoveLastInsertedEntries() {
+		SourceMap sourceMap = new SourceMap();
+		sourceMap.addEntry(new Position(0, 1, 0), new Position(0, 1, 0));
+		sourceMap.addEntry(new Position(20, 3, 0), new Position(20, 3, 0));
+		sourceMap.addEntry(new Position(10, 2, 0), new Position(10, 2, 0));
+		sourceMap.removeLastInsertedEntry();
+		sourceMap.removeLastInsertedEntry();
+		assertEquals(1, sourceMap.size());
+		assertEquals(1, sourceMap.getInputLine(0));
+		assertNull(sourceMap.findInputPosition(2, 0));
+		// removed positions can be mapped again
+		sourceMap.addEntry(new Position(20, 3, 0), new Position(10, 2, 0));
+		assertEquals(3, sourceMap.findInputPosition(2, 0).getLine());
+		sourceMap.removeLastInsertedEntry();
+		sourceMap.removeLastInsertedEntry();
+		assertEquals(0, sourceMap.size());
+		sourceMap.removeLastInsertedEntry();
+		assertEquals(0, sourceMap.size());
+	}
+
+	@Test
+	public void testShiftOutputPositions() {
+		SourceMap sourceMap = new SourceMap();
+		sourceMap.addEntry(0, 1, 0, 0, 1, 0);
+		sourceMap.addEntry(10, 2, 4, 10, 2, 2);
+		sourceMap.shiftOutputPositions(3);
+		assertNull(sourceMap.findInputPosition(2, 0));
+		assertEquals(2, sourceMap.findInputPosition(5, 2).getLine());
+		assertEquals(4, sourceMap.findInputPosition(5, 2).getColumn());
+		assertEquals(5, sourceMap.getOutputLine(1));
+	}
+
+}
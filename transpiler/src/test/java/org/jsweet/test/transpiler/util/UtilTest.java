@@ -1,18 +1,33 @@
 package org.jsweet.test.transpiler.util;
 
+import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.jsweet.test.transpiler.AbstractTest;
+import org.jsweet.transpiler.JSweetContext;
 import org.jsweet.transpiler.SourceFile;
+import org.jsweet.transpiler.util.ConsoleTranspilationHandler;
+import org.jsweet.transpiler.util.ErrorCountTranspilationHandler;
 import org.jsweet.transpiler.util.Util;
 import org.junit.Test;
 
+import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Type.ClassType;
+import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
+import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
+import com.sun.tools.javac.tree.TreeScanner;
 
 import source.structural.ExtendsClassInSameFile;
+import source.transpiler.NestedDeclarations;
 
 public class UtilTest extends AbstractTest {
 
@@ -81,4 +96,57 @@ public class UtilTest extends AbstractTest {
 				searchedClassName);
 		assertFalse(isDeclaration);
 	}
+
+	@Test
+	public void testLookupTreeInLocalAndAnonymousClasses() throws Exception {
+		SourceFile sourceFile = getSourceFile(NestedDeclarations.class);
+		List<JCCompilationUnit> compilUnits = transpiler.setupCompiler(asList(sourceFile.getJavaFile()),
+				new ErrorCountTranspilationHandler(new ConsoleTranspilationHandler()));
+		JSweetContext context = transpiler.getContext();
+		context.sourceFiles = new SourceFile[] { sourceFile };
+		context.compilationUnits = compilUnits.toArray(new JCCompilationUnit[0]);
+
+		List<JCTree> declarations = new ArrayList<>();
+		new TreeScanner() {
+			@Override
+			public void visitClassDef(JCClassDecl tree) {
+				declarations.add(tree);
+				super.visitClassDef(tree);
+			}
+
+			@Override
+			public void visitMethodDef(JCMethodDecl tree) {
+				declarations.add(tree);
+				super.visitMethodDef(tree);
+			}
+
+			@Override
+			public void visitVarDef(JCVariableDecl tree) {
+				declarations.add(tree);
+				super.visitVarDef(tree);
+			}
+		}.scan(compilUnits.get(0));
+
+		// the before-translation scanner does not index method bodies
+		JCClassDecl classDeclaration = (JCClassDecl) declarations.get(0);
+		context.registerDeclaration(classDeclaration.sym, classDeclaration);
+		for (JCTree def : classDeclaration.defs) {
+			if (def instanceof JCMethodDecl) {
+				context.registerDeclaration(((JCMethodDecl) def).sym, def);
+			}
+		}
+
+		int nestedCount = 0;
+		for (JCTree declaration : declarations) {
+			Symbol symbol = declaration instanceof JCClassDecl ? ((JCClassDecl) declaration).sym
+					: declaration instanceof JCMethodDecl ? ((JCMethodDecl) declaration).sym
+							: ((JCVariableDecl) declaration).sym;
+			if (!context.hasDeclaration(symbol)) {
+				nestedCount++;
+			}
+			assertSame(symbol.toString(), declaration, Util.lookupTree(context, symbol));
+		}
+		// local class, anonymous class and their members
+		assertTrue(nestedCount >= 5);
+	}
 }
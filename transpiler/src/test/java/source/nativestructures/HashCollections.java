@@ -0,0 +1,152 @@
+package source.nativestructures;
+
+import static jsweet.util.Lang.$export;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import def.js.Array;
+
+class Point {
+	int x;
+	int y;
+
+	public Point(int x, int y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * x + y;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof Point && ((Point) obj).x == x && ((Point) obj).y == y;
+	}
+
+	@Override
+	public String toString() {
+		return x + ":" + y;
+	}
+}
+
+/**
+ * This test is executed without any Java runtime.
+ */
+public class HashCollections {
+
+	static Array<String> trace = new Array<>();
+
+	public static void main(String[] args) {
+		Map<Point, Integer> m = new HashMap<>();
+		for (int i = 0; i < 100; i++) {
+			for (int j = 0; j < 100; j++) {
+				m.put(new Point(i, j), i * j);
+			}
+		}
+		trace.push("" + m.size());
+		trace.push("" + m.get(new Point(12, 7)));
+		trace.push("" + m.put(new Point(12, 7), 0));
+		trace.push("" + m.get(new Point(12, 7)));
+		trace.push("" + m.remove(new Point(12, 7)));
+		trace.push("" + m.remove(new Point(12, 7)));
+		trace.push("" + m.containsKey(new Point(12, 7)));
+		trace.push("" + m.containsKey(new Point(99, 99)));
+		trace.push("" + m.size());
+
+		Map<Point, Integer> copy = new HashMap<>(m);
+		copy.put(new Point(0, 0), 42);
+		trace.push(m.get(new Point(0, 0)) + "/" + copy.get(new Point(0, 0)));
+
+		Map<Object, String> identities = new LinkedHashMap<>();
+		Object o1 = new Object();
+		Object o2 = new Object();
+		identities.put(o1, "o1");
+		identities.put(o2, "o2");
+		identities.put(1, "n1");
+		identities.put(null, "null");
+		trace.push(identities.get(o1) + "," + identities.get(o2) + "," + identities.get(1) + ","
+				+ identities.get(null) + "," + identities.get(new Object()));
+		for (Entry<Object, String> e : identities.entrySet()) {
+			trace.push(e.getValue());
+		}
+
+		Map<Integer, String> table = new Hashtable<>();
+		table.put(3, "c");
+		table.put(3, "d");
+		trace.push(table.size() + table.get(3));
+
+		Set<Point> s = new HashSet<>();
+		trace.push("" + s.add(new Point(1, 2)));
+		trace.push("" + s.add(new Point(1, 2)));
+		trace.push("" + s.contains(new Point(1, 2)));
+		trace.push("" + s.contains(new Point(2, 1)));
+		trace.push("" + s.remove(new Point(1, 2)));
+		trace.push("" + s.size());
+
+		List<Point> points = Arrays.asList(new Point(1, 1), new Point(2, 2), new Point(1, 1), new Point(3, 3));
+		Set<Point> s2 = new HashSet<>(points);
+		trace.push("" + s2.size());
+		trace.push("" + s2.addAll(Arrays.asList(new Point(3, 3), new Point(4, 4))));
+		trace.push("" + s2.size());
+		trace.push("" + s2.containsAll(Arrays.asList(new Point(4, 4), new Point(1, 1))));
+		trace.push("" + s2.removeAll(Arrays.asList(new Point(4, 4))));
+		trace.push("" + s2.retainAll(Arrays.asList(new Point(1, 1), new Point(3, 3))));
+		trace.push("" + s2);
+		s2.clear();
+		trace.push("" + s2.contains(new Point(1, 1)));
+		s2.add(new Point(5, 5));
+		trace.push("" + s2);
+
+		Point p = new Point(6, 6);
+		s2.add(p);
+		Collection<Point> c = s2;
+		c.remove(p);
+		trace.push("" + c.add(new Point(7, 7)) + c.add(new Point(7, 7)));
+		trace.push("" + s2.contains(new Point(7, 7)) + s2.contains(p) + s2.size());
+
+		Set<Point> ordered = new LinkedHashSet<>();
+		for (int i = 0; i < 1000; i++) {
+			ordered.add(new Point(i, i));
+		}
+		for (int i = 0; i < 1000; i += 2) {
+			ordered.remove(new Point(i, i));
+		}
+		ordered.add(new Point(0, 0));
+		int sum = 0;
+		for (Point q : ordered) {
+			sum += q.x;
+		}
+		trace.push(ordered.size() + "/" + sum + "/" + ordered.iterator().next() + "/" + ordered.contains(new Point(2, 2))
+				+ ordered.contains(new Point(3, 3)));
+		ordered.removeAll(Arrays.asList(new Point(1, 1), new Point(0, 0)));
+		trace.push(ordered.size() + "/" + ordered.iterator().next());
+
+		Set<Integer> unordered = new HashSet<>();
+		for (int i = 0; i < 10; i++) {
+			unordered.add(i);
+		}
+		unordered.remove(3);
+		unordered.remove(0);
+		unordered.add(10);
+		int total = 0;
+		for (int i : unordered) {
+			total += i;
+		}
+		trace.push(unordered.size() + "/" + total + "/" + unordered.contains(9) + unordered.contains(3));
+
+		$export("trace", trace.join(","));
+	}
+
+}
@@ -0,0 +1,39 @@
+package source.nativestructures;
+
+import static jsweet.util.Lang.$export;
+import static jsweet.util.Lang.$map;
+import static jsweet.util.Lang.any;
+import static jsweet.util.Lang.object;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import def.js.Array;
+
+public class MapInterop {
+
+	static Array<String> trace = new Array<>();
+
+	public static void main(String[] args) {
+		// a map read by JavaScript code as a plain object
+		Map<String, Integer> map = new HashMap<>();
+		map.put("a", 1);
+		map.put("b", 2);
+		trace.push("" + object(map).$get("b"));
+		trace.push("" + def.js.Object.keys(map).join("/"));
+		map.remove("a");
+		trace.push("" + map.size());
+		trace.push("" + def.js.Object.keys(map).join("/"));
+
+		// a plain object created by JavaScript code used as a map
+		Map<String, Integer> fromJs = any($map("x", 3, "y", 4));
+		trace.push("" + fromJs.get("x"));
+		trace.push("" + fromJs.containsKey("y"));
+		fromJs.put("z", 5);
+		trace.push("" + fromJs.size());
+		trace.push("" + object(fromJs).$get("z"));
+
+		$export("trace", trace.join(","));
+	}
+
+}
@@ -0,0 +1,132 @@
+package source.nativestructures;
+
+import static jsweet.util.Lang.$export;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import def.js.Array;
+
+/**
+ * This test is executed without any Java runtime (ES6 target).
+ */
+public class NativeMaps {
+
+	static Array<String> trace = new Array<>();
+
+	static Map<String, Integer> map;
+
+	static Map<String, Integer> getMap() {
+		return map;
+	}
+
+	static String firstKeyAbove(Map<String, Integer> m, int min) {
+		for (String key : m.keySet()) {
+			if (m.get(key) > min) {
+				return key;
+			}
+		}
+		return null;
+	}
+
+	static <K, V> String describe(Map<K, V> m, K key) {
+		String s = m.size() + ":" + m.get(key) + ":" + m.containsKey(key) + ":" + m.entrySet().size();
+		m.remove(key);
+		return s + ":" + m.size();
+	}
+
+	static <K, V> String join(Map<K, V> m) {
+		Array<String> entries = new Array<>();
+		m.forEach((k, v) -> entries.push(k + "=" + v));
+		return "" + entries.join(";");
+	}
+
+	static <K, V> Map<K, V> create(K key, V value) {
+		Map<K, V> m = new HashMap<>();
+		m.put(key, value);
+		return m;
+	}
+
+	public static void main(String[] args) {
+		Map<String, Integer> m = new LinkedHashMap<>();
+		m.put("b", 1);
+		m.put("2", 2);
+		m.put("a", 3);
+		m.put("1", 4);
+		trace.push("" + m.keySet());
+		trace.push("" + m.put("a", 5));
+		trace.push("" + m.put("c", 6));
+		trace.push("" + m.remove("c"));
+		trace.push("" + m.remove("c"));
+		trace.push("" + m.get("c"));
+		trace.push(firstKeyAbove(m, 1));
+
+		int sum = 0;
+		for (int value : m.values()) {
+			if (value == 4) {
+				continue;
+			}
+			sum += value;
+		}
+		trace.push("" + sum);
+
+		for (Entry<String, Integer> e : m.entrySet()) {
+			e.setValue(e.getValue() * 10);
+		}
+		trace.push("" + m.values());
+
+		map = m;
+		for (Entry<String, Integer> e : getMap().entrySet()) {
+			if (e.getKey().equals("a")) {
+				break;
+			}
+			trace.push(e.getKey() + "=" + e.getValue());
+		}
+
+		Map<Integer, String> numbers = new HashMap<>();
+		for (int i = 0; i < 100; i++) {
+			numbers.put(i % 10, "v" + i);
+		}
+		int count = 0;
+		for (int i = 0; i < numbers.size(); i++) {
+			count++;
+		}
+		trace.push(count + numbers.get(9));
+		trace.push("" + numbers.containsKey(10) + numbers.isEmpty());
+		trace.push(describe(numbers, 9));
+
+		Map<Integer, String> small = new LinkedHashMap<>();
+		small.put(1, "a");
+		small.put(2, "b");
+		Array<String> visited = new Array<>();
+		small.forEach((k, v) -> visited.push(k + v));
+		trace.push("" + visited.join(""));
+		trace.push(small.getOrDefault(3, "d") + small.getOrDefault(1, "d"));
+		trace.push(small.putIfAbsent(1, "x") + small.putIfAbsent(3, "c"));
+		trace.push(small.computeIfAbsent(4, k -> "k" + k) + small.computeIfAbsent(1, k -> "z"));
+		Map<Integer, String> created = create(5, "e");
+		created.put(6, "f");
+		small.putAll(created);
+		trace.push(small.size() + small.get(5) + created.get(6) + created.containsKey(5));
+		trace.push(join(small));
+
+		Map<String, Integer> copy = new HashMap<>(m);
+		copy.clear();
+		trace.push(copy.size() + "/" + m.size());
+		trace.push("" + Collections.<String, Integer> emptyMap().isEmpty());
+
+		Set<String> s = new LinkedHashSet<>();
+		s.add("z");
+		s.add("y");
+		s.add("z");
+		trace.push("" + s);
+
+		$export("trace", trace.join(","));
+	}
+
+}
@@ -0,0 +1,125 @@
+package source.nativestructures;
+
+import static jsweet.util.Lang.$export;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import def.js.Array;
+
+/**
+ * This test is executed without any Java runtime.
+ */
+public class SortedCollections {
+
+	static Array<String> trace = new Array<>();
+
+	static int total(Map<Integer, Integer> m) {
+		int total = 0;
+		for (int value : m.values()) {
+			total += value;
+		}
+		return total;
+	}
+
+	public static void main(String[] args) {
+		TreeSet<Integer> s = new TreeSet<>();
+		for (int i = 0; i < 100; i++) {
+			s.add((i * 37) % 100);
+		}
+		trace.push("" + s.size());
+		trace.push("" + s.add(5));
+		trace.push("" + s.contains(42) + s.contains(100));
+		trace.push("" + s.remove(42) + s.remove(42));
+		trace.push(s.first() + "/" + s.last());
+		trace.push(s.ceiling(42) + "/" + s.floor(42) + "/" + s.higher(43) + "/" + s.lower(43));
+		trace.push("" + s.higher(99));
+		trace.push("" + s.headSet(3));
+		trace.push("" + s.tailSet(97));
+		trace.push("" + s.subSet(10, 13));
+		trace.push("" + s.pollFirst());
+
+		NavigableSet<String> words = new TreeSet<>((a, b) -> b.compareTo(a));
+		words.addAll(Arrays.asList("b", "d", "a", "c", "b"));
+		trace.push("" + words);
+		Set<String> set = words;
+		set.add("e");
+		trace.push("" + set.contains("c") + set.contains("z"));
+		trace.push("" + words);
+
+		TreeSet<String> copy = new TreeSet<>(Arrays.asList("y", "x", "z", "x"));
+		trace.push("" + copy);
+
+		NavigableMap<Integer, Integer> m = new TreeMap<>();
+		for (int i = 0; i < 10; i++) {
+			m.put((i * 7) % 10, i);
+		}
+		trace.push("" + m.keySet());
+		trace.push("" + m.put(3, 30));
+		trace.push("" + m.get(3) + m.get(10));
+		trace.push(m.firstKey() + "/" + m.lastKey());
+		trace.push(m.ceilingKey(5) + "/" + m.floorEntry(5).getValue() + "/" + m.higherKey(9));
+		trace.push("" + m.headMap(3).keySet());
+		trace.push("" + m.tailMap(8, false).keySet());
+		trace.push("" + m.remove(0) + m.containsKey(0));
+		Entry<Integer, Integer> last = m.pollLastEntry();
+		trace.push(last.getKey() + "=" + last.getValue());
+		trace.push("" + total(m));
+
+		Map<Integer, Integer> map = m;
+		map.put(-1, 100);
+		trace.push("" + m.firstKey() + map.size());
+		for (Entry<Integer, Integer> e : map.entrySet()) {
+			if (e.getKey() > 2) {
+				break;
+			}
+			trace.push(e.getKey() + "=" + e.getValue());
+		}
+
+		SortedMap<String, Integer> names = new TreeMap<>((a, b) -> a.length() - b.length());
+		names.put("ccc", 3);
+		names.put("a", 1);
+		names.put("bb", 2);
+		names.put("dd", 4);
+		trace.push("" + names.keySet() + names.values());
+
+		TreeMap<Integer, Integer> large = new TreeMap<>();
+		for (int i = 0; i < 1000; i++) {
+			large.put((i * 37) % 1000, i);
+		}
+		String polled = "";
+		for (int i = 0; i < 3; i++) {
+			polled += large.pollFirstEntry().getKey();
+		}
+		large.remove(500);
+		trace.push(polled + "/" + large.size() + "/" + large.firstKey() + "/" + large.ceilingKey(500));
+
+		TreeSet<Integer> bulk = new TreeSet<>(Arrays.asList(5, 1, 3));
+		trace.push("" + bulk.addAll(Arrays.asList(4, 2, 4, 3)) + bulk.addAll(Arrays.asList(1, 2)) + bulk);
+		trace.push("" + bulk.removeAll(Arrays.asList(2, 9, 4)) + bulk.removeAll(Arrays.asList(9)) + bulk);
+
+		TreeSet<Integer> tree = new TreeSet<>();
+		for (int i = 0; i < 1000; i++) {
+			tree.add((i * 37) % 1000);
+		}
+		for (int i = 0; i < 1000; i += 2) {
+			tree.remove(i);
+		}
+		int sum = 0;
+		for (int i : tree) {
+			sum += i;
+		}
+		trace.push(tree.size() + "/" + sum + "/" + tree.pollFirst() + "/" + tree.pollLast() + "/" + tree.first() + "/"
+				+ tree.last() + "/" + tree.size() + "/" + tree.headSet(9));
+
+		$export("trace", trace.join(","));
+	}
+
+}
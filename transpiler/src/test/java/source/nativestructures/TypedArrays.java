@@ -0,0 +1,98 @@
+package source.nativestructures;
+
+import static jsweet.util.Lang.$export;
+
+import java.util.Arrays;
+
+import def.js.Array;
+
+/**
+ * This test is executed without any Java runtime and with typed arrays.
+ */
+public class TypedArrays {
+
+	static Array<String> trace = new Array<>();
+
+	static String kind(Object o) {
+		if (o instanceof int[]) {
+			return "int[]";
+		} else if (o instanceof double[]) {
+			return "double[]";
+		} else if (o instanceof int[][]) {
+			return "int[][]";
+		} else {
+			return "other";
+		}
+	}
+
+	static String describe(int[] a) {
+		String s = "";
+		for (int i : a) {
+			s += i;
+		}
+		return s;
+	}
+
+	static String describe(String s) {
+		return "s" + s;
+	}
+
+	public static void main(String[] args) {
+		int[] a = new int[5];
+		a[2] = 7;
+		trace.push(a.length + describe(a));
+
+		double[] d = { 1.5, 2.5 };
+		trace.push("" + (int) (d[0] + d[1]));
+
+		int[][] grid = new int[3][4];
+		grid[1][2] = 5;
+		trace.push(grid.length + "/" + grid[1].length + "/" + grid[1][2] + "/" + grid[2][3]);
+		int[][] rows = new int[2][];
+		trace.push("" + (rows[0] == null));
+		int[][][] cube = new int[2][3][4];
+		cube[1][2][3] = 8;
+		trace.push(cube[1].length + "/" + cube[1][2].length + "/" + cube[1][2][3]);
+
+		int[] b = new int[5];
+		System.arraycopy(new int[] { 1, 2, 3, 4 }, 0, b, 1, 3);
+		trace.push(describe(b));
+		System.arraycopy(b, 1, b, 2, 3);
+		trace.push(describe(b));
+
+		Arrays.fill(a, 3);
+		trace.push(describe(a));
+		Arrays.fill(a, 1, 3, 9);
+		trace.push(describe(a));
+
+		int[] longer = Arrays.copyOf(a, 7);
+		int[] shorter = Arrays.copyOf(a, 2);
+		longer[0] = 1;
+		trace.push(describe(longer) + "/" + describe(shorter) + "/" + describe(a));
+
+		int[] unsorted = { 10, 9, 100, 1, 5 };
+		Arrays.sort(unsorted, 0, 3);
+		trace.push(describe(unsorted));
+		Arrays.sort(unsorted);
+		trace.push(describe(unsorted));
+
+		int[] clone = unsorted.clone();
+		clone[0] = 0;
+		trace.push(describe(unsorted) + "/" + describe(clone));
+
+		trace.push(kind(a) + "," + kind(d) + "," + kind(new double[0]) + "," + kind(grid) + "," + kind("a"));
+		trace.push(describe("a"));
+
+		byte[] bytes = new byte[2];
+		bytes[0] = 127;
+		bytes[0]++;
+		trace.push("" + bytes[0]);
+
+		float[] floats = new float[1];
+		floats[0] = 0.1f;
+		trace.push("" + (floats[0] == 0.1f));
+
+		$export("trace", trace.join(","));
+	}
+
+}
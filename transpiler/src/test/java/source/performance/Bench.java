@@ -0,0 +1,50 @@
+package source.performance;
+
+import static jsweet.util.Lang.$export;
+
+import java.util.function.IntSupplier;
+
+import jsweet.lang.Replace;
+
+/**
+ * Runs a benchmark kernel for a fixed duration and exports the number of
+ * operations per second, the used heap and a checksum of the results (to
+ * check that Java and JavaScript compute the same thing).
+ */
+public class Bench {
+
+	public static final int WARMUP_OPERATIONS = 5;
+
+	public static final long DURATION = 500;
+
+	/**
+	 * Receives the results of the measured operations so that they cannot be
+	 * optimized away.
+	 */
+	public static int sink;
+
+	@Replace("return process.memoryUsage().heapUsed;")
+	public static double heapUsed() {
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	public static void measure(IntSupplier kernel) {
+		int checksum = 0;
+		for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+			checksum = kernel.getAsInt();
+		}
+		int operations = 0;
+		long start = System.currentTimeMillis();
+		long elapsed;
+		do {
+			sink ^= kernel.getAsInt();
+			operations++;
+			elapsed = System.currentTimeMillis() - start;
+		} while (elapsed < DURATION);
+		$export("ops", operations * 1000.0 / elapsed);
+		$export("heap", heapUsed());
+		$export("checksum", checksum);
+	}
+
+}
@@ -0,0 +1,55 @@
+package source.performance;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class CollectionsBench {
+
+	public static void main(String[] args) {
+		Bench.measure(CollectionsBench::run);
+	}
+
+	static int run() {
+		List<Integer> list = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			list.add(i * 7 % 1000);
+		}
+		Map<String, Integer> map = new HashMap<>();
+		for (int i : list) {
+			String key = "k" + (i % 300);
+			Integer count = map.get(key);
+			map.put(key, count == null ? 1 : count + 1);
+		}
+		Set<Integer> set = new HashSet<>(list);
+		int sum = 0;
+		for (Map.Entry<String, Integer> entry : map.entrySet()) {
+			sum += entry.getValue();
+		}
+		for (int i = 0; i < 1000; i += 3) {
+			if (set.contains(i)) {
+				set.remove(i);
+			}
+		}
+		for (int pass = 0; pass < 5; pass++) {
+			for (int i : set) {
+				sum += i;
+			}
+			for (Iterator<Integer> it = set.iterator(); it.hasNext();) {
+				sum ^= it.next();
+			}
+		}
+		List<Integer> odds = new ArrayList<>();
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i) % 2 != 0) {
+				odds.add(list.get(i));
+			}
+		}
+		return sum + set.size() + odds.size() + map.size();
+	}
+
+}
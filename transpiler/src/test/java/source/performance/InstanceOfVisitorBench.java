@@ -0,0 +1,130 @@
+package source.performance;
+
+public class InstanceOfVisitorBench {
+
+	static int leafCount = 0;
+
+	static Node tree = build(10);
+
+	public static void main(String[] args) {
+		Bench.measure(InstanceOfVisitorBench::run);
+	}
+
+	static Node build(int depth) {
+		if (depth == 0) {
+			return leafCount++ % 2 == 0 ? new Literal(leafCount) : new Variable("x");
+		}
+		switch (depth % 3) {
+		case 0:
+			return new Add(build(depth - 1), build(depth - 1));
+		case 1:
+			return new Multiply(build(depth - 1), new Literal(2));
+		default:
+			return new Negate(build(depth - 1));
+		}
+	}
+
+	static int run() {
+		return eval(tree) + count(tree);
+	}
+
+	static int eval(Node node) {
+		if (node instanceof Literal) {
+			return ((Literal) node).value;
+		} else if (node instanceof Variable) {
+			return 1;
+		} else if (node instanceof Unary) {
+			return -eval(((Unary) node).operand());
+		} else if (node instanceof Add) {
+			return eval(((Binary) node).left()) + eval(((Binary) node).right());
+		} else if (node instanceof Binary) {
+			return (eval(((Binary) node).left()) * eval(((Binary) node).right())) % 1000;
+		}
+		return 0;
+	}
+
+	static int count(Node node) {
+		int count = node instanceof Expression ? 1 : 0;
+		if (node instanceof Binary) {
+			count += count(((Binary) node).left()) + count(((Binary) node).right());
+		} else if (node instanceof Unary) {
+			count += count(((Unary) node).operand());
+		}
+		return count;
+	}
+
+}
+
+interface Node {
+}
+
+interface Expression extends Node {
+}
+
+interface Binary extends Expression {
+	Node left();
+
+	Node right();
+}
+
+interface Unary extends Expression {
+	Node operand();
+}
+
+class Literal implements Expression {
+	final int value;
+
+	Literal(int value) {
+		this.value = value;
+	}
+}
+
+class Variable implements Expression {
+	final String name;
+
+	Variable(String name) {
+		this.name = name;
+	}
+}
+
+abstract class AbstractBinary implements Binary {
+	final Node left;
+	final Node right;
+
+	AbstractBinary(Node left, Node right) {
+		this.left = left;
+		this.right = right;
+	}
+
+	public Node left() {
+		return left;
+	}
+
+	public Node right() {
+		return right;
+	}
+}
+
+class Add extends AbstractBinary {
+	Add(Node left, Node right) {
+		super(left, right);
+	}
+}
+
+class Multiply extends AbstractBinary {
+	Multiply(Node left, Node right) {
+		super(left, right);
+	}
+}
+
+class Negate implements Unary {
+	final Node operand;
+
+	Negate(Node operand) {
+		this.operand = operand;
+	}
+
+	public Node operand() {
+		return operand;
+	}
+}
@@ -0,0 +1,45 @@
+package source.performance;
+
+public class NumericBench {
+
+	public static void main(String[] args) {
+		Bench.measure(NumericBench::run);
+	}
+
+	static int run() {
+		int n = 40;
+		double[][] a = new double[n][n];
+		double[][] b = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				a[i][j] = (i + j) % 7;
+				b[i][j] = (i * j) % 5;
+			}
+		}
+		double[][] c = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int k = 0; k < n; k++) {
+				double aik = a[i][k];
+				for (int j = 0; j < n; j++) {
+					c[i][j] += aik * b[k][j];
+				}
+			}
+		}
+		boolean[] composite = new boolean[10000];
+		int primes = 0;
+		for (int i = 2; i < composite.length; i++) {
+			if (!composite[i]) {
+				primes++;
+				for (int j = i * 2; j < composite.length; j += i) {
+					composite[j] = true;
+				}
+			}
+		}
+		int[] histogram = new int[16];
+		for (int i = 0; i < 10000; i++) {
+			histogram[(i * 31 ^ i >> 3) & 15]++;
+		}
+		return (int) c[n - 1][n - 1] + primes + histogram[7];
+	}
+
+}
@@ -0,0 +1,51 @@
+package source.performance;
+
+public class OverloadedCallsBench {
+
+	public static void main(String[] args) {
+		Bench.measure(OverloadedCallsBench::run);
+	}
+
+	static int run() {
+		Overloads o = new Overloads();
+		int result = 0;
+		for (int i = 0; i < 2000; i++) {
+			result += o.m(i);
+			result += o.m("s");
+			result += o.m(i, i);
+			result += o.m(1.5, i);
+			result += o.m(o);
+			result += o.m();
+		}
+		return result;
+	}
+
+}
+
+class Overloads {
+
+	int m() {
+		return 1;
+	}
+
+	int m(int i) {
+		return i & 3;
+	}
+
+	int m(String s) {
+		return s.length();
+	}
+
+	int m(int i, int j) {
+		return (i ^ j) & 1;
+	}
+
+	int m(double d, int i) {
+		return (int) d + (i & 1);
+	}
+
+	int m(Object o) {
+		return o == null ? 0 : 2;
+	}
+
+}
@@ -0,0 +1,46 @@
+package source.performance;
+
+public class StaticFieldsBench {
+
+	public static void main(String[] args) {
+		Bench.measure(StaticFieldsBench::run);
+	}
+
+	static int run() {
+		Counters.reset();
+		for (int i = 0; i < 20000; i++) {
+			Counters.count++;
+			Counters.total += Counters.WEIGHTS[i % Counters.WEIGHTS.length];
+			if (Counters.total > Counters.LIMIT) {
+				Counters.total -= Counters.LIMIT;
+			}
+		}
+		return Counters.count + Counters.total;
+	}
+
+}
+
+class Counters {
+
+	static final int[] WEIGHTS = createWeights();
+
+	static final int LIMIT = WEIGHTS.length * 100;
+
+	static int count;
+
+	static int total;
+
+	static int[] createWeights() {
+		int[] weights = new int[16];
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = i * i;
+		}
+		return weights;
+	}
+
+	static void reset() {
+		count = 0;
+		total = 0;
+	}
+
+}
@@ -0,0 +1,31 @@
+package source.performance;
+
+public class StringBuildingBench {
+
+	public static void main(String[] args) {
+		Bench.measure(StringBuildingBench::run);
+	}
+
+	static int run() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			sb.append(i).append(',').append("item").append(i % 10);
+			if (i % 100 == 0) {
+				sb.append('\n');
+			}
+		}
+		String s = sb.toString();
+		String concatenated = "";
+		for (int i = 0; i < 200; i++) {
+			concatenated += i % 10;
+		}
+		int count = 0;
+		for (int i = 0; i < s.length(); i++) {
+			if (s.charAt(i) == ',') {
+				count++;
+			}
+		}
+		return s.length() + concatenated.length() + count + s.indexOf("item9") + s.split("\n").length;
+	}
+
+}
@@ -17,6 +17,7 @@
 package source.structural;
 
 import static jsweet.util.Lang.$export;
+import static jsweet.util.Lang.$map;
 
 import java.util.function.BinaryOperator;
 import java.util.function.IntFunction;
@@ -71,6 +72,10 @@ public class InstanceofForInterfaces {
 		if (c2 == InstanceofForInterfaces.class) {
 			trace.push("6");
 		}
+		new InstanceofForInterfaces().m(new C4());
+		// objects created by code generated with older versions only hold
+		// the interface names arrays
+		new InstanceofForInterfaces().m($map("__interfaces", new String[] { "source.structural.I1" }));
 		$export("trace", trace.join());
 	}
 
@@ -92,3 +97,6 @@ class C3 implements I1 {
 	// i = 2;
 	// }
 }
+
+class C4 extends C3 {
+}
@@ -0,0 +1,37 @@
+package source.transpiler.direct;
+
+import static jsweet.util.Lang.$export;
+
+import source.transpiler.direct.util.Box;
+import source.transpiler.direct.util.Named;
+import source.transpiler.direct.util.Shape;
+import source.transpiler.direct.util.Square;
+
+enum Color {
+	RED, GREEN, BLUE
+}
+
+public class DirectJavaScript {
+
+	public static void main(String[] args) {
+		Box<Integer> small = new Box<>(2);
+		Box<Integer> big = small.map(i -> i * 21);
+		$export("value", big.get());
+		$export("contained", big.contains(42));
+		$export("described", small.describe(2) + "/" + big.describe("answer"));
+		$export("created", Box.created);
+
+		Object square = new Square(3);
+		Shape shape = (Shape) square;
+		$export("area", shape.area());
+		$export("name", ((Named) square).name());
+		$export("equal", square.equals(new Square(3)));
+		$export("truncated", (int) (shape.area() / 2));
+
+		$export("squares", Square.count());
+
+		$export("colors", Color.values().length);
+		$export("ordinal", Color.valueOf("BLUE").ordinal());
+	}
+
+}
@@ -0,0 +1,40 @@
+package source.transpiler.direct.util;
+
+import java.util.function.Function;
+
+public class Box<T> {
+
+	public static int created = 0;
+
+	private T value;
+
+	public Box(T value) {
+		this.value = value;
+		created++;
+	}
+
+	public T get() {
+		return value;
+	}
+
+	public <U> Box<U> map(Function<T, U> mapper) {
+		return new Box<U>(mapper.apply(value));
+	}
+
+	public boolean contains(T value) {
+		return this.value.equals(value);
+	}
+
+	public String describe(int times) {
+		String description = describe("box");
+		for (int i = 1; i < times; i++) {
+			description += "," + description;
+		}
+		return description;
+	}
+
+	public String describe(String prefix) {
+		return prefix + ":" + value;
+	}
+
+}
@@ -0,0 +1,11 @@
+package source.transpiler.direct.util;
+
+public class Globals {
+
+	public static int counter = 0;
+
+	public static int increment() {
+		return ++counter;
+	}
+
+}
@@ -0,0 +1,7 @@
+package source.transpiler.direct.util;
+
+public interface Named {
+
+	String name();
+
+}
@@ -0,0 +1,12 @@
+package source.transpiler.direct.util;
+
+public abstract class Shape implements Named {
+
+	public abstract double area();
+
+	@Override
+	public String name() {
+		return "shape";
+	}
+
+}
@@ -0,0 +1,31 @@
+package source.transpiler.direct.util;
+
+public class Square extends Shape {
+
+	private int side;
+
+	public Square(int side) {
+		this.side = side;
+		Globals.increment();
+	}
+
+	public static int count() {
+		return Globals.counter;
+	}
+
+	@Override
+	public double area() {
+		return side * side;
+	}
+
+	@Override
+	public String name() {
+		return "square";
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof Square && ((Square) obj).side == side;
+	}
+
+}
@@ -0,0 +1,15 @@
+package source.transpiler.globals;
+
+public class Creator {
+
+	final String[] names;
+
+	public Creator(String... names) {
+		this.names = names;
+	}
+
+	public static Creator create(String[] names) {
+		return new Creator(names);
+	}
+
+}
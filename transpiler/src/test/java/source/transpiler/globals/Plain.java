@@ -0,0 +1,9 @@
+package source.transpiler.globals;
+
+public class Plain {
+
+	public int value() {
+		return 1;
+	}
+
+}
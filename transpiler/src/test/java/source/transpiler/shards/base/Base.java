@@ -0,0 +1,9 @@
+package source.transpiler.shards.base;
+
+public class Base {
+
+	public int value() {
+		return 1;
+	}
+
+}
@@ -0,0 +1,12 @@
+package source.transpiler.shards.cycle.a;
+
+import source.transpiler.shards.base.Base;
+import source.transpiler.shards.cycle.b.B;
+
+public class A extends Base {
+
+	public B b() {
+		return new B();
+	}
+
+}
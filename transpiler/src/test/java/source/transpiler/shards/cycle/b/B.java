@@ -0,0 +1,11 @@
+package source.transpiler.shards.cycle.b;
+
+import source.transpiler.shards.cycle.a.A;
+
+public class B {
+
+	public A a() {
+		return new A();
+	}
+
+}
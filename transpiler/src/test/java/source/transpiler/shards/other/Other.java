@@ -0,0 +1,9 @@
+package source.transpiler.shards.other;
+
+public class Other {
+
+	public String name() {
+		return "other";
+	}
+
+}
@@ -0,0 +1,11 @@
+package source.transpiler.shards.top;
+
+import source.transpiler.shards.cycle.a.A;
+
+public class Top {
+
+	public int value() {
+		return new A().b().a().value();
+	}
+
+}
@@ -0,0 +1,11 @@
+package source.transpiler.shardserrors;
+
+import source.transpiler.shards.base.Base;
+
+public class Invalid extends Base {
+
+	public java.io.File file() {
+		return new java.io.File("invalid");
+	}
+
+}
@@ -0,0 +1,62 @@
+function assert(condition, message) {
+  if (!condition) throw new Error('assertion failed: ' + message);
+}
+function P(x) { this.x = x; }
+P.prototype.hashCode = function() { return this.x % 7; };
+P.prototype.equals = function(o) { return o instanceof P && o.x === this.x; };
+function xs(s) { return s.map(function(p) { return p.x; }); }
+
+// sets against a reference array, with colliding hash codes
+[false, true].forEach(function(ordered) {
+  var s = runtime.of(null, ordered), ref = [], seed = 1;
+  function next() { return (seed = (seed * 1103515245 + 12345) % 2147483648) % 200; }
+  for (var i = 0; i < 5000; i++) {
+    var v = next();
+    if (next() % 3 < 2) {
+      assert(runtime.add(s, new P(v)) === (ref.indexOf(v) < 0), 'add ' + v);
+      if (ref.indexOf(v) < 0) ref.push(v);
+    } else {
+      assert(runtime.removeElement(s, new P(v)) === (ref.indexOf(v) >= 0), 'remove ' + v);
+      if (ref.indexOf(v) >= 0) ref.splice(ref.indexOf(v), 1);
+    }
+    assert(s.length === ref.length, 'length');
+    if (ordered) assert(xs(s).join() === ref.join(), 'order');
+    else assert(xs(s).sort().join() === ref.slice().sort().join(), 'content');
+  }
+  assert(runtime.removeAll(s, [new P(ref[0]), new P(1000)]), 'removeAll');
+  assert(!runtime.contains(s, new P(ref[0])), 'removed');
+  assert(runtime.retainAll(s, [new P(ref[1])]), 'retainAll');
+  assert(xs(s).join() === '' + ref[1], 'retained');
+});
+
+// the table is the backing store: writes to the array are not part of the set
+var s = runtime.of([1, 2, 3], true);
+s.push(4);
+assert(!runtime.contains(s, 4), 'array write');
+assert(runtime.removeElement(s, 2), 'remove after array write');
+assert(s.join() === '1,3', 'array rewritten');
+runtime.clearCollection(s);
+assert(s.length === 0 && !runtime.contains(s, 1), 'clear');
+assert(runtime.add(s, 1) && s.join() === '1', 'add after clear');
+
+// collections that are not sets
+var l = [1, 2, 3, 2];
+assert(runtime.addToCollection(l, 1) && l.join() === '1,2,3,2,1', 'add to list');
+assert(runtime.removeFromCollection(l, 2) && l.join() === '1,3,2,1', 'remove from list');
+assert(runtime.removeAllFromCollection(l, [1]) && l.join() === '3,2', 'removeAll from list');
+assert(runtime.retainAllFromCollection(l, [2]) && l.join() === '2', 'retainAll from list');
+runtime.clearCollection(l);
+assert(l.length === 0, 'clear list');
+
+// maps keyed by objects
+var m = runtime.map(null), k = new P(8);
+assert(runtime.put(m, k, 'a') === null, 'put');
+assert(runtime.put(m, new P(8), 'b') === 'a', 'put again');
+runtime.put(m, new P(1), 'c');
+assert(runtime.get(m, new P(8)) === 'b' && runtime.size(m) === 2, 'get');
+assert(runtime.remove(m, k) === 'b' && !runtime.containsKey(m, k), 'remove');
+assert(m.entries.length === 1 && m.entries[0].getValue() === 'c', 'entries');
+runtime.clear(m);
+assert(runtime.isEmpty(m) && m.entries.length === 0, 'clear map');
+
+console.log('ok');
@@ -0,0 +1,73 @@
+function assert(condition, message) {
+  if (!condition) throw new Error('assertion failed: ' + message);
+}
+function level(x) { return x === null ? 0 : x.lv; }
+// checks the AA tree invariants and returns the number of nodes
+function check(x) {
+  if (x === null) return 0;
+  assert(level(x.l) === x.lv - 1, 'left level');
+  assert(level(x.r) === x.lv || level(x.r) === x.lv - 1, 'right level');
+  assert(x.r === null || level(x.r.r) < x.lv, 'right right level');
+  assert(x.lv === 1 || (x.l !== null && x.r !== null), 'inner node');
+  return check(x.l) + check(x.r) + 1;
+}
+function height(x) { return x === null ? 0 : Math.max(height(x.l), height(x.r)) + 1; }
+
+// insertions and erasures against a sorted reference array
+var s = runtime.set(null, null), ref = [], seed = 1;
+function next() { return (seed = (seed * 1103515245 + 12345) % 2147483648) % 500; }
+for (var i = 0; i < 5000; i++) {
+  var v = next(), j = ref.indexOf(v);
+  if (next() % 3 < 2) {
+    assert(runtime.add(s, v) === (j < 0), 'add ' + v);
+    if (j < 0) { ref.push(v); ref.sort(function(a, b) { return a - b; }); }
+  } else {
+    assert(runtime.removeElement(s, v) === (j >= 0), 'remove ' + v);
+    if (j >= 0) ref.splice(j, 1);
+  }
+  var t = s.__tree;
+  assert(check(t.root) === ref.length && t.n === ref.length, 'size');
+  assert(s.length === ref.length, 'length');
+  if (i % 100 === 0) assert(s.join() === ref.join(), 'order');
+}
+assert(height(s.__tree.root) <= 2 * Math.ceil(Math.log(ref.length + 1) / Math.LN2), 'height');
+
+// sequential insertions and erasures rebalance the tree
+var u = runtime.set(function(a, b) { return b - a; }, null);
+for (var i = 0; i < 1024; i++) runtime.add(u, i);
+check(u.__tree.root);
+assert(height(u.__tree.root) <= 20, 'sequential height');
+for (var i = 0; i < 1000; i++) assert(runtime.pollLast(u) === i, 'pollLast');
+assert(check(u.__tree.root) === 24 && u.join() === '1023,1022,1021,1020,1019,1018,1017,1016,1015,1014,1013,1012,1011,1010,1009,1008,1007,1006,1005,1004,1003,1002,1001,1000', 'erased');
+
+// navigation
+var n = runtime.set(null, [5, 1, 9, 3, 7]);
+assert(runtime.first(n) === 1 && runtime.last(n) === 9, 'first last');
+assert(runtime.ceiling(n, 4) === 5 && runtime.floor(n, 4) === 3, 'ceiling floor');
+assert(runtime.higher(n, 5) === 7 && runtime.lower(n, 5) === 3, 'higher lower');
+assert(runtime.headSet(n, 5).join() === '1,3' && runtime.tailSet(n, 5).join() === '5,7,9', 'head tail');
+assert(runtime.subSet(n, 3, 9).join() === '3,5,7', 'subSet');
+assert(runtime.removeAll(n, [1, 9, 4]) && n.join() === '3,5,7', 'removeAll');
+assert(runtime.retainAll(n, [5, 7]) && n.join() === '5,7', 'retainAll');
+runtime.clearSet(n);
+assert(n.length === 0 && n.__tree.root === null, 'clearSet');
+assert(runtime.add(n, 2) && n.join() === '2', 'add after clear');
+
+// writes to the array are detected by the proxies, and overwritten otherwise
+var proxy = n.__tree.p;
+n.push(1);
+assert(runtime.contains(n, 1) === proxy, 'array write');
+runtime.add(n, 3);
+assert(n.join() === (proxy ? '1,2,3' : '2,3'), 'array rewritten');
+
+// maps
+var m = runtime.map(null, null);
+for (var i = 0; i < 100; i++) runtime.put(m, (i * 37) % 100, 'v' + i);
+for (var i = 0; i < 100; i += 2) assert(runtime.remove(m, i) !== null, 'remove key');
+check(m.__tree.root);
+assert(runtime.size(m) === 50 && runtime.firstKey(m) === 1 && runtime.lastKey(m) === 99, 'map size');
+assert(runtime.ceilingKey(m, 10) === 11 && runtime.floorKey(m, 10) === 9, 'map navigation');
+assert(m.entries.length === 50 && m.entries[0].getKey() === 1, 'entries');
+assert(runtime.headMap(m, 5).entries.length === 2, 'headMap');
+
+console.log('ok');